@@ -0,0 +1,49 @@
+package com.openrsc.server.external;
+
+import com.openrsc.server.Server;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Loads every definition with default.conf, either parsing the definition files each time as a boot without a
+ * definition cache does, or reading the cache written by the first load. Runs from the server directory.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DefinitionLoadBenchmark {
+	@Param({"parse", "cache"})
+	public String source;
+
+	private EntityHandler entityHandler;
+
+	@Setup
+	public void setUp() throws IOException {
+		final Server server = new Server("default.conf");
+		server.getConfig().WANT_DEFINITION_CACHE = source.equals("cache");
+		entityHandler = server.getEntityHandler();
+		// Writes the cache if it is missing or out of date
+		entityHandler.load();
+	}
+
+	@Benchmark
+	public EntityHandler load() {
+		entityHandler.load();
+		return entityHandler;
+	}
+}
@@ -0,0 +1,83 @@
+package com.openrsc.server.model;
+
+import com.openrsc.server.model.world.region.TileMap;
+import com.openrsc.server.util.rsc.CollisionFlag;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Finds one path across the whole search square, with and without jump points.
+ *
+ * A long path crosses open ground corner to corner, a blocked one has to go round a wall with a single gap at its far
+ * end, and an unreachable one ends in a walled in tile so every reachable tile is searched before giving up.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PathfinderBenchmark {
+	private static final int START_X = 500;
+	private static final int START_Y = 2000;
+	private static final int DEPTH = 32;
+
+	@Param({"long", "blocked", "unreachable"})
+	public String route;
+
+	@Param({"false", "true"})
+	public boolean jumpPoints;
+
+	private TileMap tiles;
+	private Point start;
+	private Point end;
+
+	@Setup
+	public void setUp() {
+		tiles = new TileMap();
+		// Unloaded tiles are blocked
+		for (int x = START_X - DEPTH; x <= START_X + DEPTH; x++) {
+			for (int y = START_Y - DEPTH; y <= START_Y + DEPTH; y++) {
+				tiles.setTraversalMask(x, y, 0);
+			}
+		}
+		start = new Point(START_X, START_Y);
+		end = new Point(START_X + DEPTH - 2, START_Y + DEPTH - 2);
+		switch (route) {
+			case "blocked":
+				for (int y = START_Y - DEPTH; y < START_Y + DEPTH - 1; y++) {
+					tiles.setTraversalMask(START_X + 4, y, CollisionFlag.FULL_BLOCK_A);
+				}
+				end = new Point(START_X + DEPTH - 2, START_Y - DEPTH + 2);
+				break;
+			case "unreachable":
+				for (int x = end.getX() - 1; x <= end.getX() + 1; x++) {
+					for (int y = end.getY() - 1; y <= end.getY() + 1; y++) {
+						if (x != end.getX() || y != end.getY()) {
+							tiles.setTraversalMask(x, y, CollisionFlag.FULL_BLOCK_A);
+						}
+					}
+				}
+				break;
+			default:
+				break;
+		}
+	}
+
+	@Benchmark
+	public Path findPath() {
+		return AStarPathfinder.get().findPath(tiles, start, end, DEPTH, new Path(null, Path.PathType.WALK_TO_POINT), 0,
+			jumpPoints);
+	}
+}
@@ -0,0 +1,165 @@
+package com.openrsc.server.net;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encodes one player's NPC position update the way GameStateUpdater did before mob updates had a {@link BitWriter},
+ * as a list of boxed value and width pairs replayed into the packet, and the way it does now.
+ *
+ * Every mob already in view gets one of the four moved, sprite changed, removed or unchanged entries, and a quarter
+ * as many again come into view with their index, offsets, sprite and id.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MobUpdateBenchmark {
+	private static final int MOVED = 0;
+	private static final int SPRITE_CHANGED = 1;
+	private static final int REMOVED = 2;
+	private static final int UNCHANGED = 3;
+
+	@Param({"50", "200", "500"})
+	public int mobs;
+
+	private int[] states;
+	private int[] sprites;
+	private int[] indices;
+	private int[] offsetsX;
+	private int[] offsetsY;
+	private int[] ids;
+
+	private final BitWriter writer = new BitWriter();
+
+	@Setup
+	public void setUp() {
+		final Random random = new Random(mobs);
+		final int added = mobs / 4;
+		states = new int[mobs];
+		sprites = new int[mobs + added];
+		indices = new int[added];
+		offsetsX = new int[added];
+		offsetsY = new int[added];
+		ids = new int[added];
+		for (int i = 0; i < mobs; i++) {
+			states[i] = random.nextInt(4);
+		}
+		for (int i = 0; i < sprites.length; i++) {
+			sprites[i] = random.nextInt(8);
+		}
+		for (int i = 0; i < added; i++) {
+			indices[i] = random.nextInt(4096);
+			offsetsX[i] = random.nextInt(32) - 16;
+			offsetsY[i] = random.nextInt(32) - 16;
+			ids[i] = random.nextInt(800);
+		}
+	}
+
+	@Benchmark
+	public int boxedEntries() {
+		final List<AbstractMap.SimpleEntry<Integer, Integer>> mobsUpdate = new ArrayList<>();
+		mobsUpdate.add(new AbstractMap.SimpleEntry<>(Math.min(mobs, 255), 8));
+		for (int i = 0; i < mobs; i++) {
+			switch (states[i]) {
+				case MOVED:
+					mobsUpdate.add(new AbstractMap.SimpleEntry<>(1, 1));
+					mobsUpdate.add(new AbstractMap.SimpleEntry<>(0, 1));
+					mobsUpdate.add(new AbstractMap.SimpleEntry<>(sprites[i], 3));
+					break;
+				case SPRITE_CHANGED:
+					mobsUpdate.add(new AbstractMap.SimpleEntry<>(1, 1));
+					mobsUpdate.add(new AbstractMap.SimpleEntry<>(1, 1));
+					mobsUpdate.add(new AbstractMap.SimpleEntry<>(sprites[i], 4));
+					break;
+				case REMOVED:
+					mobsUpdate.add(new AbstractMap.SimpleEntry<>(1, 1));
+					mobsUpdate.add(new AbstractMap.SimpleEntry<>(1, 1));
+					mobsUpdate.add(new AbstractMap.SimpleEntry<>(3, 2));
+					break;
+				default:
+					mobsUpdate.add(new AbstractMap.SimpleEntry<>(0, 1));
+					break;
+			}
+		}
+		for (int i = 0; i < indices.length; i++) {
+			mobsUpdate.add(new AbstractMap.SimpleEntry<>(indices[i], 12));
+			mobsUpdate.add(new AbstractMap.SimpleEntry<>(offsetsX[i], 5));
+			mobsUpdate.add(new AbstractMap.SimpleEntry<>(offsetsY[i], 5));
+			mobsUpdate.add(new AbstractMap.SimpleEntry<>(sprites[mobs + i], 4));
+			mobsUpdate.add(new AbstractMap.SimpleEntry<>(ids[i], 10));
+		}
+
+		final PacketBuilder builder = new PacketBuilder(79);
+		builder.startBitAccess();
+		for (final Map.Entry<Integer, Integer> entry : mobsUpdate) {
+			builder.writeBits(entry.getKey(), entry.getValue());
+		}
+		builder.finishBitAccess();
+		return release(builder);
+	}
+
+	@Benchmark
+	public int bitWriter() {
+		final BitWriter mobsUpdate = writer.reset();
+		mobsUpdate.writeBits(Math.min(mobs, 255), 8);
+		for (int i = 0; i < mobs; i++) {
+			switch (states[i]) {
+				case MOVED:
+					mobsUpdate.writeBits(1, 1);
+					mobsUpdate.writeBits(0, 1);
+					mobsUpdate.writeBits(sprites[i], 3);
+					break;
+				case SPRITE_CHANGED:
+					mobsUpdate.writeBits(1, 1);
+					mobsUpdate.writeBits(1, 1);
+					mobsUpdate.writeBits(sprites[i], 4);
+					break;
+				case REMOVED:
+					mobsUpdate.writeBits(1, 1);
+					mobsUpdate.writeBits(1, 1);
+					mobsUpdate.writeBits(3, 2);
+					break;
+				default:
+					mobsUpdate.writeBits(0, 1);
+					break;
+			}
+		}
+		for (int i = 0; i < indices.length; i++) {
+			mobsUpdate.writeBits(indices[i], 12);
+			mobsUpdate.writeBits(offsetsX[i], 5);
+			mobsUpdate.writeBits(offsetsY[i], 5);
+			mobsUpdate.writeBits(sprites[mobs + i], 4);
+			mobsUpdate.writeBits(ids[i], 10);
+		}
+
+		final PacketBuilder builder = new PacketBuilder(79);
+		builder.write(mobsUpdate);
+		return release(builder);
+	}
+
+	private static int release(final PacketBuilder builder) {
+		final Packet packet = builder.toPacket();
+		final int length = packet.getReadableBytes();
+		packet.release();
+		return length;
+	}
+}
@@ -485,7 +485,7 @@ public final class Admins implements CommandTrigger {
 		}
 
 		Point itemLocation = new Point(x, y);
-		if ((player.getWorld().getTile(itemLocation).traversalMask & 64) != 0) {
+		if ((player.getWorld().getTiles().getTraversalMask(itemLocation.getX(), itemLocation.getY()) & 64) != 0) {
 			player.message(messagePrefix + "Can not place a ground item here");
 			return;
 		}
@@ -1632,7 +1632,7 @@ public final class Admins implements CommandTrigger {
 					}
 
 					if (player.getWorld().withinWorld(baseX + x, baseY + y)) {
-						if ((player.getWorld().getTile(new Point(baseX + x, baseY + y)).traversalMask & 64) == 0) {
+						if ((player.getWorld().getTiles().getTraversalMask(baseX + x, baseY + y) & 64) == 0) {
 							player.getWorld().registerItem(new GroundItem(player.getWorld(), id, baseX + x, baseY + y, amount, (Player) null));
 						}
 					}
@@ -1729,7 +1729,7 @@ public final class Admins implements CommandTrigger {
 						}
 					}
 					if (player.getWorld().withinWorld(baseX + x, baseY + y)) {
-						if ((player.getWorld().getTile(new Point(baseX + x, baseY + y)).traversalMask & 64) == 0) {
+						if ((player.getWorld().getTiles().getTraversalMask(baseX + x, baseY + y) & 64) == 0) {
 							final Npc n = new Npc(player.getWorld(), id, baseX + x, baseY + y, baseX + x - 20, baseX + x + 20, baseY + y - 20, baseY + y + 20);
 							n.setShouldRespawn(false);
 							player.getWorld().registerNpc(n);
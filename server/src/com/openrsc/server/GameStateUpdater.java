@@ -3,7 +3,9 @@ package com.openrsc.server;
 import com.openrsc.server.constants.AppearanceId;
 import com.openrsc.server.constants.NpcId;
 import com.openrsc.server.constants.SceneryId;
+import com.openrsc.server.database.GameDatabase;
 import com.openrsc.server.database.impl.mysql.queries.logging.PMLog;
+import com.openrsc.server.event.rsc.ImmediateEvent;
 import com.openrsc.server.external.GameObjectLoc;
 import com.openrsc.server.external.ItemLoc;
 import com.openrsc.server.model.PlayerAppearance;
@@ -18,10 +20,14 @@ import com.openrsc.server.model.entity.player.Player;
 import com.openrsc.server.model.entity.player.PlayerSettings;
 import com.openrsc.server.model.entity.update.*;
 import com.openrsc.server.model.world.World;
+import com.openrsc.server.net.BitWriter;
+import com.openrsc.server.net.PacketBuilder;
 import com.openrsc.server.net.rsc.ActionSender;
 import com.openrsc.server.net.rsc.enums.OpcodeOut;
+import com.openrsc.server.net.rsc.enums.ProtocolFamily;
 import com.openrsc.server.net.rsc.struct.outgoing.*;
 import com.openrsc.server.util.EntityList;
+import com.openrsc.server.util.LogUtil;
 import com.openrsc.server.util.rsc.AppearanceRetroConverter;
 import com.openrsc.server.util.rsc.DataConversions;
 import com.openrsc.server.util.rsc.MessageType;
@@ -30,6 +36,10 @@ import org.apache.logging.log4j.Logger;
 
 import java.util.*;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Consumer;
 
 import static com.openrsc.server.net.rsc.ActionSender.isRetroClient;
 import static com.openrsc.server.net.rsc.ActionSender.tryFinalizeAndSendPacket;
@@ -49,39 +59,44 @@ public final class GameStateUpdater {
 		this.server = server;
 	}
 
+	/**
+	 * Builds the region update packets of several players at once, or null to build them on the game thread.
+	 */
+	private ForkJoinPool clientUpdatePool;
+	/**
+	 * Counts client update passes. Update blocks encoded for one pass are only shared within it.
+	 */
+	private volatile long clientUpdatePass;
+	/**
+	 * Whether region update packets are being built, and nothing they are built from can change.
+	 */
+	private volatile boolean updatingClients;
+
 	public void load() {
+		if (getServer().getConfig().WANT_PARALLEL_CLIENT_UPDATES) {
+			final int threads = getServer().getConfig().CLIENT_UPDATE_THREADS > 0
+				? getServer().getConfig().CLIENT_UPDATE_THREADS
+				: Runtime.getRuntime().availableProcessors();
+			clientUpdatePool = new ForkJoinPool(threads, ClientUpdateThread::new, null, false);
+		}
 	}
 
 	public void unload() {
+		if (clientUpdatePool != null) {
+			clientUpdatePool.shutdown();
+			clientUpdatePool = null;
+		}
 	}
 
 	// private static final int PACKET_UPDATETIMEOUTS = 0;
 	public void sendUpdatePackets(final Player player) {
 		// TODO: Should be private
 		try {
-			if (player.isUsing233CompatibleClient()) {
-				if (player.isChangingAppearance()) {
-					sendAppearanceKeepalive(player);
-				} else {
-					updatePlayers(player);
-					updatePlayerAppearances(player);
-					updateNpcs(player);
-					updateNpcAppearances(player);
-					updateGameObjects(player);
-					updateWallObjects(player);
-					updateGroundItems(player);
-					sendClearLocations(player);
-					updateTimeouts(player);
-				}
+			if (isChangingAppearance(player)) {
+				sendAppearanceKeepalive(player);
 			} else {
-				updatePlayers(player);
-				updatePlayerAppearances(player);
-				updateNpcs(player);
-				updateNpcAppearances(player);
-				updateGameObjects(player);
-				updateWallObjects(player);
-				updateGroundItems(player);
-				sendClearLocations(player);
+				updateRegion(player);
+				sendRegionUpdatePackets(player);
 				updateTimeouts(player);
 			}
 		} catch (final Exception e) {
@@ -90,6 +105,42 @@ public final class GameStateUpdater {
 		}
 	}
 
+	private boolean isChangingAppearance(final Player player) {
+		return player.isUsing233CompatibleClient() && player.isChangingAppearance();
+	}
+
+	/**
+	 * Sends everything the player can see around them.
+	 *
+	 * Only reads the world and writes the player's own local entity sets and packet queue,
+	 * so it may run for several players at once while nothing else touches the world.
+	 */
+	private void sendRegionUpdatePackets(final Player player) {
+		updatePlayers(player);
+		updatePlayerAppearances(player);
+		updateNpcs(player);
+		updateNpcAppearances(player);
+		updateGameObjects(player);
+		updateWallObjects(player);
+		updateGroundItems(player);
+		sendClearLocations(player);
+	}
+
+	/**
+	 * Reloads the player's region once they walk out of the middle of it. Can run plugins, so it stays on the game thread.
+	 */
+	protected void updateRegion(final Player player) {
+		Point midRegion = player.getAttribute("midpointRegion");
+		if (midRegion != null) {
+			if (!player.getLocation().inBounds(midRegion.getX() - 32, midRegion.getY() - 32, midRegion.getX() + 32, midRegion.getY() + 32)) {
+				player.setNextRegionLoad();
+				player.changeZone();
+			}
+		} else {
+			player.setNextRegionLoad();
+		}
+	}
+
 	/**
 	 * Checks if the player has moved within the last X minutes
 	 */
@@ -133,7 +184,7 @@ public final class GameStateUpdater {
 		boolean isRetroClient = playerToUpdate.isUsing38CompatibleClient() || playerToUpdate.isUsing39CompatibleClient();
 		if (isRetroClient) {
 			// TODO: check impl
-			List<Object> mobsUpdate = new ArrayList<>();
+			final BitWriter mobsUpdate = playerToUpdate.getMobUpdateWriter().reset();
 			List<Integer> clearIdx = new ArrayList<>();
 
 			for (final Iterator<Npc> it$ = playerToUpdate.getLocalNpcs().iterator(); it$.hasNext(); ) {
@@ -151,10 +202,10 @@ public final class GameStateUpdater {
 					int X = offsets[0];
 					int Y = offsets[1];
 					int packed = (localNpc.getIndex() << 6) | ((X & 0x1F) << 1) | ((Y & 0x1F) >> 4);
-					mobsUpdate.add((short) packed);
+					mobsUpdate.writeShort(packed);
 					int packed2 = ((Y & 0xF) << 4) | (localNpc.getSprite() & 0xF);
-					mobsUpdate.add((byte) packed2);
-					mobsUpdate.add((byte) localNpc.getID());
+					mobsUpdate.writeByte(packed2);
+					mobsUpdate.writeByte(localNpc.getID());
 				}
 			}
 			clearStruct.indices = clearIdx;
@@ -174,38 +225,38 @@ public final class GameStateUpdater {
 				int X = offsets[0];
 				int Y = offsets[1];
 				int packed = (newNPC.getIndex() << 6) | ((X & 0x1F) << 1) | ((Y & 0x1F) >> 4);
-				mobsUpdate.add((short) packed);
+				mobsUpdate.writeShort(packed);
 				int packed2 = ((Y & 0xF) << 4) | (newNPC.getSprite() & 0xF);
-				mobsUpdate.add((byte) packed2);
-				mobsUpdate.add((byte) newNPC.getID());
+				mobsUpdate.writeByte(packed2);
+				mobsUpdate.writeByte(newNPC.getID());
 
 				playerToUpdate.getLocalNpcs().add(newNPC);
 			}
 
-			struct.mobsUpdate = mobsUpdate;
+			struct.mobs = mobsUpdate;
 		} else {
-			List<AbstractMap.SimpleEntry<Integer, Integer>> mobsUpdate = new ArrayList<>();
+			final BitWriter mobsUpdate = playerToUpdate.getMobUpdateWriter().reset();
 
-			mobsUpdate.add(new AbstractMap.SimpleEntry<>(playerToUpdate.getLocalNpcs().size(), 8));
+			mobsUpdate.writeBits(playerToUpdate.getLocalNpcs().size(), 8);
 			for (final Iterator<Npc> it$ = playerToUpdate.getLocalNpcs().iterator(); it$.hasNext(); ) {
 				Npc localNpc = it$.next();
 
 				if (!playerToUpdate.withinRange(localNpc) || localNpc.isRemoved() || localNpc.isRespawning() || localNpc.isTeleporting() || localNpc.inCombat() || !localNpc.withinAuthenticRange(playerToUpdate)) {
 					it$.remove();
-					mobsUpdate.add(new AbstractMap.SimpleEntry<>(1, 1));
-					mobsUpdate.add(new AbstractMap.SimpleEntry<>(1, 1));
-					mobsUpdate.add(new AbstractMap.SimpleEntry<>(3, 2));
+					mobsUpdate.writeBits(1, 1);
+					mobsUpdate.writeBits(1, 1);
+					mobsUpdate.writeBits(3, 2);
 				} else {
 					if (localNpc.hasMoved()) {
-						mobsUpdate.add(new AbstractMap.SimpleEntry<>(1, 1));
-						mobsUpdate.add(new AbstractMap.SimpleEntry<>(0, 1));
-						mobsUpdate.add(new AbstractMap.SimpleEntry<>(localNpc.getSprite(), 3));
+						mobsUpdate.writeBits(1, 1);
+						mobsUpdate.writeBits(0, 1);
+						mobsUpdate.writeBits(localNpc.getSprite(), 3);
 					} else if (localNpc.spriteChanged()) {
-						mobsUpdate.add(new AbstractMap.SimpleEntry<>(1, 1));
-						mobsUpdate.add(new AbstractMap.SimpleEntry<>(1, 1));
-						mobsUpdate.add(new AbstractMap.SimpleEntry<>(localNpc.getSprite(), 4));
+						mobsUpdate.writeBits(1, 1);
+						mobsUpdate.writeBits(1, 1);
+						mobsUpdate.writeBits(localNpc.getSprite(), 4);
 					} else {
-						mobsUpdate.add(new AbstractMap.SimpleEntry<>(0, 1));
+						mobsUpdate.writeBits(0, 1);
 					}
 				}
 			}
@@ -220,14 +271,17 @@ public final class GameStateUpdater {
 				if (!newNPC.withinAuthenticRange(playerToUpdate))
 					continue; // only have 5 bits in the rsc235 protocol, so the npc can only be shown up to 16 away
 
-				final byte[] offsets = DataConversions.getMobPositionOffsets(newNPC.getLocation(), playerToUpdate.getLocation());
 				boolean forClient140 = playerToUpdate.isUsing140CompatibleClient();
-				mobsUpdate.add(new AbstractMap.SimpleEntry<>(newNPC.getIndex(), forClient140 ? 11 : 12));
+				if (forClient140 && newNPC.getIndex() >= 1 << 11)
+					continue; // only have 11 bits for the index in the 140 protocol
+
+				final byte[] offsets = DataConversions.getMobPositionOffsets(newNPC.getLocation(), playerToUpdate.getLocation());
+				mobsUpdate.writeBits(newNPC.getIndex(), forClient140 ? 11 : 12);
 				boolean forAuthentic = !playerToUpdate.isUsingCustomClient();
-				mobsUpdate.add(new AbstractMap.SimpleEntry<>((int) offsets[0], forAuthentic ? 5 : 6));
-				mobsUpdate.add(new AbstractMap.SimpleEntry<>((int) offsets[1], forAuthentic ? 5 : 6));
-				mobsUpdate.add(new AbstractMap.SimpleEntry<>(newNPC.getSprite(), 4));
-				mobsUpdate.add(new AbstractMap.SimpleEntry<>(newNPC.getID(), forClient140 ? 9 : 10));
+				mobsUpdate.writeBits((int) offsets[0], forAuthentic ? 5 : 6);
+				mobsUpdate.writeBits((int) offsets[1], forAuthentic ? 5 : 6);
+				mobsUpdate.writeBits(newNPC.getSprite(), 4);
+				mobsUpdate.writeBits(newNPC.getID(), forClient140 ? 9 : 10);
 
 				playerToUpdate.getLocalNpcs().add(newNPC);
 			}
@@ -244,27 +298,17 @@ public final class GameStateUpdater {
 		MobsUpdateStruct struct = new MobsUpdateStruct();
 		ClearMobsStruct clearStruct = new ClearMobsStruct();
 
-		Point midRegion = playerToUpdate.getAttribute("midpointRegion");
-		if (midRegion != null) {
-			if (!playerToUpdate.getLocation().inBounds(midRegion.getX() - 32, midRegion.getY() - 32, midRegion.getX() + 32, midRegion.getY() + 32)) {
-				playerToUpdate.setNextRegionLoad();
-				playerToUpdate.changeZone();
-			}
-		} else {
-			playerToUpdate.setNextRegionLoad();
-		}
-
 		boolean isRetroClient = playerToUpdate.isUsing38CompatibleClient() || playerToUpdate.isUsing39CompatibleClient();
 
 		if (isRetroClient) {
 			// TODO: check impl
-			List<Object> mobsUpdate = new ArrayList<>();
+			final BitWriter mobsUpdate = playerToUpdate.getMobUpdateWriter().reset();
 			List<Integer> clearIdx = new ArrayList<>();
 
-			mobsUpdate.add((short) playerToUpdate.getIndex());
-			mobsUpdate.add((short) playerToUpdate.getX());
-			mobsUpdate.add((short) playerToUpdate.getY());
-			mobsUpdate.add((byte) playerToUpdate.getSprite());
+			mobsUpdate.writeShort(playerToUpdate.getIndex());
+			mobsUpdate.writeShort(playerToUpdate.getX());
+			mobsUpdate.writeShort(playerToUpdate.getY());
+			mobsUpdate.writeByte(playerToUpdate.getSprite());
 
 			if (playerToUpdate.loggedIn()) {
 				for (final Iterator<Player> it$ = playerToUpdate.getLocalPlayers().iterator(); it$.hasNext(); ) {
@@ -289,14 +333,14 @@ public final class GameStateUpdater {
 						int Y = offsets[1];
 						if (otherPlayer.equals(playerToUpdate)) {
 							int packed = ((X & 0x1F) << 5) | (Y & 0x1F);
-							mobsUpdate.add((short) packed);
+							mobsUpdate.writeShort(packed);
 							int packed2 = (otherPlayer.getIndex() << 4) | (otherPlayer.getSprite() & 0xF);
-							mobsUpdate.add((short) packed2);
+							mobsUpdate.writeShort(packed2);
 						} else {
 							int packed = (otherPlayer.getIndex() << 6) | ((X & 0x1F) << 1) | ((Y & 0x1F) >> 4);
-							mobsUpdate.add((short) packed);
+							mobsUpdate.writeShort(packed);
 							int packed2 = ((Y & 0xF) << 4) | (otherPlayer.getSprite() & 0xF);
-							mobsUpdate.add((byte) packed2);
+							mobsUpdate.writeByte(packed2);
 						}
 					}
 				}
@@ -319,14 +363,14 @@ public final class GameStateUpdater {
 					int Y = offsets[1];
 					if (otherPlayer.equals(playerToUpdate)) {
 						int packed = ((X & 0x1F) << 5) | (Y & 0x1F);
-						mobsUpdate.add((short) packed);
+						mobsUpdate.writeShort(packed);
 						int packed2 = (otherPlayer.getIndex() << 4) | (otherPlayer.getSprite() & 0xF);
-						mobsUpdate.add((short) packed2);
+						mobsUpdate.writeShort(packed2);
 					} else {
 						int packed = (otherPlayer.getIndex() << 6) | ((X & 0x1F) << 1) | ((Y & 0x1F) >> 4);
-						mobsUpdate.add((short) packed);
+						mobsUpdate.writeShort(packed);
 						int packed2 = ((Y & 0xF) << 4) | (otherPlayer.getSprite() & 0xF);
-						mobsUpdate.add((byte) packed2);
+						mobsUpdate.writeByte(packed2);
 					}
 
 					playerToUpdate.getLocalPlayers().add(otherPlayer);
@@ -336,19 +380,19 @@ public final class GameStateUpdater {
 				}
 			}
 
-			struct.mobsUpdate = mobsUpdate;
+			struct.mobs = mobsUpdate;
 		} else {
-			List<AbstractMap.SimpleEntry<Integer, Integer>> mobsUpdate = new ArrayList<>();
+			final BitWriter mobsUpdate = playerToUpdate.getMobUpdateWriter().reset();
 
 			if (playerToUpdate.isUsing140CompatibleClient() || playerToUpdate.isUsing69CompatibleClient()) {
-				mobsUpdate.add(new AbstractMap.SimpleEntry<>(playerToUpdate.getX(), 10));
-				mobsUpdate.add(new AbstractMap.SimpleEntry<>(playerToUpdate.getY(), 12));
+				mobsUpdate.writeBits(playerToUpdate.getX(), 10);
+				mobsUpdate.writeBits(playerToUpdate.getY(), 12);
 			} else {
-				mobsUpdate.add(new AbstractMap.SimpleEntry<>(playerToUpdate.getX(), 11));
-				mobsUpdate.add(new AbstractMap.SimpleEntry<>(playerToUpdate.getY(), 13));
+				mobsUpdate.writeBits(playerToUpdate.getX(), 11);
+				mobsUpdate.writeBits(playerToUpdate.getY(), 13);
 			}
-			mobsUpdate.add(new AbstractMap.SimpleEntry<>(playerToUpdate.getSprite(), 4));
-			mobsUpdate.add(new AbstractMap.SimpleEntry<>(playerToUpdate.getLocalPlayers().size(), 8));
+			mobsUpdate.writeBits(playerToUpdate.getSprite(), 4);
+			mobsUpdate.writeBits(playerToUpdate.getLocalPlayers().size(), 8);
 			if (playerToUpdate.loggedIn()) {
 				for (final Iterator<Player> it$ = playerToUpdate.getLocalPlayers().iterator(); it$.hasNext(); ) {
 					final Player otherPlayer = it$.next();
@@ -357,24 +401,24 @@ public final class GameStateUpdater {
 						|| otherPlayer.isTeleporting() || otherPlayer.isInvisibleTo(playerToUpdate)
 						|| otherPlayer.inCombat() || otherPlayer.hasMoved()
 						|| !otherPlayer.withinAuthenticRange(playerToUpdate)) {
-						mobsUpdate.add(new AbstractMap.SimpleEntry<>(1, 1)); //Needs Update
-						mobsUpdate.add(new AbstractMap.SimpleEntry<>(1, 1)); //Update Type
-						mobsUpdate.add(new AbstractMap.SimpleEntry<>(3, 2)); //Animation type (Remove)
+						mobsUpdate.writeBits(1, 1); //Needs Update
+						mobsUpdate.writeBits(1, 1); //Update Type
+						mobsUpdate.writeBits(3, 2); //Animation type (Remove)
 						it$.remove();
 						playerToUpdate.getKnownPlayerAppearanceIDs().remove(otherPlayer.getUsernameHash());
 					} else {
 						if (!otherPlayer.hasMoved() && !otherPlayer.spriteChanged()) {
-							mobsUpdate.add(new AbstractMap.SimpleEntry<>(0, 1)); //Needs Update
+							mobsUpdate.writeBits(0, 1); //Needs Update
 						} else {
 							// The player is actually going to be updated
 							if (otherPlayer.hasMoved()) {
-								mobsUpdate.add(new AbstractMap.SimpleEntry<>(1, 1)); //Needs Update
-								mobsUpdate.add(new AbstractMap.SimpleEntry<>(0, 1)); //Update Type
-								mobsUpdate.add(new AbstractMap.SimpleEntry<>(otherPlayer.getSprite(), 3));
+								mobsUpdate.writeBits(1, 1); //Needs Update
+								mobsUpdate.writeBits(0, 1); //Update Type
+								mobsUpdate.writeBits(otherPlayer.getSprite(), 3);
 							} else if (otherPlayer.spriteChanged()) {
-								mobsUpdate.add(new AbstractMap.SimpleEntry<>(1, 1)); //Needs Update
-								mobsUpdate.add(new AbstractMap.SimpleEntry<>(1, 1)); //Update Type
-								mobsUpdate.add(new AbstractMap.SimpleEntry<>(otherPlayer.getSprite(), 4));
+								mobsUpdate.writeBits(1, 1); //Needs Update
+								mobsUpdate.writeBits(1, 1); //Update Type
+								mobsUpdate.writeBits(otherPlayer.getSprite(), 4);
 							}
 						}
 					}
@@ -392,13 +436,13 @@ public final class GameStateUpdater {
 
 					final byte[] offsets = DataConversions.getMobPositionOffsets(otherPlayer.getLocation(),
 						playerToUpdate.getLocation());
-					mobsUpdate.add(new AbstractMap.SimpleEntry<>(otherPlayer.getIndex(), 11));
+					mobsUpdate.writeBits(otherPlayer.getIndex(), 11);
 					boolean forAuthentic = !playerToUpdate.isUsingCustomClient();
-					mobsUpdate.add(new AbstractMap.SimpleEntry<>((int) offsets[0], forAuthentic ? 5 : 6));
-					mobsUpdate.add(new AbstractMap.SimpleEntry<>((int) offsets[1], forAuthentic ? 5 : 6));
-					mobsUpdate.add(new AbstractMap.SimpleEntry<>(otherPlayer.getSprite(), 4));
+					mobsUpdate.writeBits((int) offsets[0], forAuthentic ? 5 : 6);
+					mobsUpdate.writeBits((int) offsets[1], forAuthentic ? 5 : 6);
+					mobsUpdate.writeBits(otherPlayer.getSprite(), 4);
 					if (playerToUpdate.isUsing177CompatibleClient() || playerToUpdate.isUsing140CompatibleClient() || playerToUpdate.isUsing69CompatibleClient()) {
-						mobsUpdate.add(new AbstractMap.SimpleEntry<>(playerToUpdate.isKnownPlayer(otherPlayer.getIndex()) ? 1 : 0, 1));
+						mobsUpdate.writeBits(playerToUpdate.isKnownPlayer(otherPlayer.getIndex()) ? 1 : 0, 1);
 					}
 
 					playerToUpdate.getLocalPlayers().add(otherPlayer);
@@ -682,81 +726,10 @@ public final class GameStateUpdater {
 				// Update Type 6: Quest Chat Message, 1 on retro client prefixed by "@que@"
 				ChatMessage cm;
 				while ((cm = chatMessagesNeedingDisplayed.poll()) != null) {
-					Player sender = (Player) cm.getSender();
-					boolean tutorialPlayer = sender.getLocation().onTutorialIsland() && !sender.hasElevatedPriveledges();
-					boolean muted = sender.isMuted();
-
-					// Determine Update Type
-					int updateType;
-					if (cm.getRecipient() == null) {
-						if (tutorialPlayer || muted) {
-							updateType = 7; // Not authentic! There is no update type 7.
-						} else {
-							updateType = 1; // Public Chat
-						}
-					} else {
-						if (cm.getRecipient() instanceof Player) {
-							if (tutorialPlayer || muted) {
-								updateType = 7; // Not authentic! There is no update type 7.
-							} else {
-								updateType = 6; // Quest Chat
-							}
-						} else {
-							updateType = 6; // Quest Chat
-						}
-					}
-
-					if (isCustomClient) {
-						// Non Authentic OpenRSC client
-						updatesMain.add((short) cm.getSender().getIndex());
-						updatesMain.add((byte) updateType);
-
-						if (updateType == 1 || updateType == 7) {
-							if (cm.getSender() != null && cm.getSender() instanceof Player)
-								updatesMain.add((int) sender.getIcon());
-						}
-
-						if (updateType == 7) {
-							updatesMain.add((byte) (sender.isMuted() ? 1 : 0));
-							updatesMain.add((byte) (sender.getLocation().onTutorialIsland() ? 1 : 0));
-						}
-
-						if (updateType != 7 || player.isAdmin()) {
-							updatesMain.add(cm.getMessageString());
-						} else {
-							updatesMain.add("");
-						}
-					} else {
-						String message = cm.getMessageString();
-						if (updateType == 7) {
-							if (player.hasElevatedPriveledges()) {
-								// Just prepend "Muted" to message, could be faked but doesn't matter.
-								message = "(Muted) " + message;
-								if (cm.getRecipient() == null) {
-									updateType = 1;
-								} else {
-									updateType = 6;
-								}
-							}
-						}
-						if (updateType != 7) {
-							updatesMain.add((short) cm.getSender().getIndex());
-							updatesMain.add((byte) (!isRetroClient ? updateType : 1));
-							if (updateType != 6 && (isCustomClient || player.isUsing233CompatibleClient())) {
-								updatesMain.add((byte) sender.getIconAuthentic());
-							}
-							if (isRetroClient) {
-								String messageUse = message;
-								if (updateType == 6) messageUse = "@que@" + message;
-								updatesMain.add((byte) messageUse.length());
-								updatesMain.add(messageUse);
-							} else {
-								updatesMain.add(new RSCString(message));
-							}
-						} else {
-							LOGGER.error("extraneous chat update packet will crash the authentic client...!");
-						}
-					}
+					final ChatMessage chatMessage = cm;
+					addUpdateBlock(player, cm.getSender().getUpdateFlags(), UpdateFlags.CHAT_BLOCK,
+						isCustomClient ? (player.isAdmin() ? 1 : 0) : (player.hasElevatedPriveledges() ? 1 : 0),
+						cm, updatesMain, updates -> writeChatMessage(player, chatMessage, updates));
 				}
 
 				// Update Type 2: Damage Update
@@ -789,187 +762,19 @@ public final class GameStateUpdater {
 				// Update Type 5: Player appearance and identity
 				Player playerNeedingAppearanceUpdate;
 				while ((playerNeedingAppearanceUpdate = playersNeedingAppearanceUpdate.poll()) != null) {
-					PlayerAppearance appearance = playerNeedingAppearanceUpdate.getSettings().getAppearance();
-					final int clientVersion = playerNeedingAppearanceUpdate.getClientVersion();
-
+					final Player subject = playerNeedingAppearanceUpdate;
 					if (isRetroClient) {
-						updatesAlt.add((short) playerNeedingAppearanceUpdate.getIndex()); // server index
-						updatesAlt.add((short) playerNeedingAppearanceUpdate.getIndex()); // server id
-						updatesAlt.add((long) DataConversions.usernameToHash(playerNeedingAppearanceUpdate.getUsername()));
+						addUpdateBlock(player, subject.getUpdateFlags(), UpdateFlags.APPEARANCE_BLOCK, 0, null,
+							updatesAlt, updates -> writeAppearance(player, subject, updates));
 					} else {
-						updatesMain.add((short) playerNeedingAppearanceUpdate.getIndex());
+						updatesMain.add((short) subject.getIndex());
 						updatesMain.add((byte) 5);
-						if (player.isUsing233CompatibleClient()) {
-							updatesMain.add((short) player.getAppearanceID());
-							updatesMain.add(playerNeedingAppearanceUpdate.getUsername());
-							updatesMain.add(playerNeedingAppearanceUpdate.getUsername()); // Pretty sure this is unnecessary & always redundant authentically.
-						} else if (is177Compat) {
+						if (player.isUsing233CompatibleClient() || is177Compat) {
+							// The observer's own appearance id, not the subject's, so this part is written per observer
 							updatesMain.add((short) player.getAppearanceID());
-							updatesMain.add((long) DataConversions.usernameToHash(playerNeedingAppearanceUpdate.getUsername()));
-						} else if (player.isUsingCustomClient()) {
-							updatesMain.add(playerNeedingAppearanceUpdate.getUsername());
 						}
-					}
-
-					if (playerNeedingAppearanceUpdate.getPossessing() != null) {
-						// while possessing another creature
-						// do not wish to see any sprites of our own character under any circumstance
-						if (isRetroClient) {
-							updatesAlt.add((byte) 0); // Equipment count
-						} else {
-							updatesMain.add((byte) 0); // Equipment count
-						}
-					} else if (!isCustomClient &&
-						(playerNeedingAppearanceUpdate.stateIsInvisible() ||
-							playerNeedingAppearanceUpdate.stateIsInvulnerable())) {
-						// Handle Invisibility & Invulnerability in the authentic client
-
-						int[] wornItems = playerNeedingAppearanceUpdate.getWornItems();
-
-						int bootColour = wornItems[AppearanceId.SLOT_BOOTS]; // if player is already wearing boots, we can let them choose their colour. :-)
-						if (wornItems[AppearanceId.SLOT_BOOTS] == 0) {
-							if (isRetroClient) {
-								bootColour = AppearanceId.LEATHER_BOOTS.id();
-							} else {
-								bootColour = AppearanceId.SHADOW_WARRIOR_BOOTS.id(); // default
-							}
-						}
-
-						int shieldSprite = 0; // default to invisible
-						if (playerNeedingAppearanceUpdate.stateIsInvulnerable()) {
-							if (isRetroClient) {
-								if (wornItems[AppearanceId.SLOT_SHIELD] == AppearanceId.ADAMANTITE_SQUARE_SHIELD.id()) {
-									shieldSprite = AppearanceId.WOODEN_SHIELD.id();
-								} else {
-									shieldSprite = AppearanceId.ADAMANTITE_SQUARE_SHIELD.id();
-								}
-							} else {
-								if (wornItems[AppearanceId.SLOT_SHIELD] == AppearanceId.DRAGON_SQUARE_SHIELD.id()) {
-									shieldSprite = AppearanceId.RUNE_SQUARE_SHIELD.id();
-								} else {
-									shieldSprite = AppearanceId.DRAGON_SQUARE_SHIELD.id();
-								}
-							}
-						}
-
-						int gloveColour = wornItems[AppearanceId.SLOT_GLOVES]; // let player keep their gloves, even if they have none
-						if (wornItems[AppearanceId.SLOT_GLOVES] == 0 && wornItems[AppearanceId.SLOT_WEAPON] != 0) {
-							// give player gloves if they are wielding a weapon
-							gloveColour = AppearanceId.LEATHER_GLOVES.id();
-						}
-
-						// if player is just invulnerable & not invisible, give them a dark-robed appearance
-						int headSprite = 0; // default to invisible
-						int hatSprite = 0;
-						int bodySprite = 0;
-						int legSprite = 0;
-						int pantsSprite = 0;
-						int shirtSprite = 0;
-						int amuletSprite = wornItems[AppearanceId.SLOT_AMULET];
-						if (!playerNeedingAppearanceUpdate.stateIsInvisible()) {
-							headSprite = wornItems[AppearanceId.SLOT_HEAD];
-							if (wornItems[AppearanceId.SLOT_HAT] == 0) {
-								hatSprite = AppearanceId.LARGE_BLACK_HELMET.id();
-								headSprite = AppearanceId.NOTHING.id();
-							} else {
-								hatSprite = wornItems[AppearanceId.SLOT_HAT];
-							}
-
-							// dark robes
-							if (isRetroClient) {
-								bodySprite = AppearanceId.DARKWIZARDS_ROBE.id();
-								legSprite = AppearanceId.BLACK_SKIRT.id();
-							} else {
-								bodySprite = AppearanceId.SHADOW_WARRIOR_ROBE.id();
-								legSprite = AppearanceId.SHADOW_WARRIOR_SKIRT.id();
-							}
-							pantsSprite = AppearanceId.COLOURED_PANTS.id();
-							shirtSprite = AppearanceId.FEMALE_BODY.id();
-							if (isRetroClient) {
-								gloveColour = AppearanceId.LEATHER_GLOVES.id();
-								amuletSprite = AppearanceId.SILVER_NECKLACE.id();
-							} else {
-								gloveColour = AppearanceId.ICE_GLOVES.id();
-								amuletSprite = AppearanceId.PENDANT_OF_LUCIEN.id();
-							}
-						}
-
-						// as char to indicate to the generator to use appearancebyte
-						if (isRetroClient) {
-							updatesAlt.add((byte) 11); // Equipment count
-							updatesAlt.add((char) (AppearanceRetroConverter.convert(headSprite) & 0xFF));
-							updatesAlt.add((char) (AppearanceRetroConverter.convert(shirtSprite) & 0xFF));
-							updatesAlt.add((char) (AppearanceRetroConverter.convert(pantsSprite) & 0xFF));
-							updatesAlt.add((char) (AppearanceRetroConverter.convert(shieldSprite) & 0xFF));
-							updatesAlt.add((char) (AppearanceRetroConverter.convert(wornItems[AppearanceId.SLOT_WEAPON]) & 0xFF));
-							updatesAlt.add((char) (AppearanceRetroConverter.convert(hatSprite) & 0xFF));
-							updatesAlt.add((char) (AppearanceRetroConverter.convert(bodySprite) & 0xFF));
-							updatesAlt.add((char) (AppearanceRetroConverter.convert(legSprite) & 0xFF));
-							updatesAlt.add((char) (AppearanceRetroConverter.convert(gloveColour) & 0xFF));
-							updatesAlt.add((char) (AppearanceRetroConverter.convert(bootColour) & 0xFF));
-							updatesAlt.add((char) (AppearanceRetroConverter.convert(amuletSprite) & 0xFF));
-						} else {
-							updatesMain.add((byte) 11); // Equipment count
-							updatesMain.add((char) headSprite);
-							updatesMain.add((char) shirtSprite);
-							updatesMain.add((char) pantsSprite);
-							updatesMain.add((char) shieldSprite);
-							updatesMain.add((char) wornItems[AppearanceId.SLOT_WEAPON]);
-							updatesMain.add((char) hatSprite);
-							updatesMain.add((char) bodySprite);
-							updatesMain.add((char) legSprite);
-							updatesMain.add((char) gloveColour);
-							updatesMain.add((char) bootColour);
-							updatesMain.add((char) amuletSprite);
-						}
-						// No Cape
-					} else {
-						// normal appearance update (not invisible)
-						if (isRetroClient) {
-							updatesAlt.add((byte) playerNeedingAppearanceUpdate.getWornItems().length);
-						} else {
-							updatesMain.add((byte) playerNeedingAppearanceUpdate.getWornItems().length);
-						}
-						for (int i : playerNeedingAppearanceUpdate.getWornItems()) {
-							if (isRetroClient) {
-								updatesAlt.add((char) (AppearanceRetroConverter.convert(i) & 0xFF));
-							} else if (player.isUsing233CompatibleClient() || is177Compat) {
-								updatesMain.add((char) (i & 0xFF));
-							} else {
-								updatesMain.add((short) i);
-							}
-						}
-					}
-
-					if (isRetroClient) {
-						updatesAlt.add((char) appearance.getHairColour());
-						updatesAlt.add((char) appearance.getTopColour());
-						updatesAlt.add((char) appearance.getTrouserColour());
-						updatesAlt.add((char) appearance.getSkinColour());
-						updatesAlt.add((byte) playerNeedingAppearanceUpdate.getPkMode()); //is player attackable?
-						updatesAlt.add((byte) playerNeedingAppearanceUpdate.getCombatLevel());
-						updatesAlt.add((byte) playerNeedingAppearanceUpdate.getSkullType());
-					} else {
-						updatesMain.add((char) appearance.getHairColour());
-						updatesMain.add((char) appearance.getTopColour());
-						updatesMain.add((char) appearance.getTrouserColour());
-						updatesMain.add((char) appearance.getSkinColour());
-						updatesMain.add((byte) playerNeedingAppearanceUpdate.getCombatLevel());
-						updatesMain.add((byte) playerNeedingAppearanceUpdate.getSkullType());
-					}
-
-					if (isCustomClient) {
-						if (playerNeedingAppearanceUpdate.getClan() != null) {
-							updatesMain.add((byte) 1);
-							updatesMain.add(playerNeedingAppearanceUpdate.getClan().getClanTag());
-						} else {
-							updatesMain.add((byte) 0);
-						}
-
-						updatesMain.add((byte) (playerNeedingAppearanceUpdate.stateIsInvisible() ? 1 : 0));
-						updatesMain.add((byte) (playerNeedingAppearanceUpdate.stateIsInvulnerable() ? 1 : 0));
-						updatesMain.add((byte) playerNeedingAppearanceUpdate.getGroupID());
-						updatesMain.add((int) playerNeedingAppearanceUpdate.getIcon());
+						addUpdateBlock(player, subject.getUpdateFlags(), UpdateFlags.APPEARANCE_BLOCK, 0, null,
+							updatesMain, updates -> writeAppearance(player, subject, updates));
 					}
 				}
 
@@ -996,6 +801,303 @@ public final class GameStateUpdater {
 		}
 	}
 
+	/**
+	 * Adds an update block to @param updates, encoded once per protocol family while clients are being updated.
+	 *
+	 * Every observer using the same client version is sent the same bytes for a block, so the first to
+	 * need it encodes it into the subject's update flags and the rest copy it from there.
+	 *
+	 * @param observer  The player the update is being sent to.
+	 * @param flags     The update flags of the player the block describes.
+	 * @param blockType One of the block types in {@link UpdateFlags}.
+	 * @param variant   0 or 1, for blocks that differ with the observer's privileges.
+	 * @param source    What the block is encoded from, if it can be replaced during the tick.
+	 * @param writer    Writes the block's entries.
+	 */
+	private void addUpdateBlock(final Player observer, final UpdateFlags flags, final int blockType, final int variant,
+								final Object source, final List<Object> updates, final Consumer<List<Object>> writer) {
+		if (!updatingClients) {
+			writer.accept(updates);
+			return;
+		}
+		final ProtocolFamily family = ProtocolFamily.of(observer);
+		final long updatePass = clientUpdatePass;
+		final int clientVersion = observer.getClientVersion();
+		EncodedUpdateBlock block = flags.getEncodedBlock(blockType, family, variant);
+		if (block == null || !block.isValidFor(updatePass, source, clientVersion)) {
+			final List<Object> entries = new ArrayList<>();
+			writer.accept(entries);
+			final PacketBuilder builder = new PacketBuilder();
+			ActionSender.getGenerator(observer).writeUpdateInfo(builder, entries, observer);
+			block = new EncodedUpdateBlock(updatePass, source, clientVersion, builder.toByteArray());
+			flags.setEncodedBlock(blockType, family, variant, block);
+		}
+		if (block.getBytes().length > 0) {
+			updates.add(block.getBytes());
+		}
+	}
+
+	/**
+	 * Writes update type 1 (chat) or 6 (quest chat) for @param cm as seen by @param player
+	 */
+	private void writeChatMessage(final Player player, final ChatMessage cm, final List<Object> updates) {
+		boolean isRetroClient = player.isUsing38CompatibleClient() || player.isUsing39CompatibleClient();
+		boolean isCustomClient = player.isUsingCustomClient();
+
+		Player sender = (Player) cm.getSender();
+		boolean tutorialPlayer = sender.getLocation().onTutorialIsland() && !sender.hasElevatedPriveledges();
+		boolean muted = sender.isMuted();
+
+		// Determine Update Type
+		int updateType;
+		if (cm.getRecipient() == null) {
+			if (tutorialPlayer || muted) {
+				updateType = 7; // Not authentic! There is no update type 7.
+			} else {
+				updateType = 1; // Public Chat
+			}
+		} else {
+			if (cm.getRecipient() instanceof Player) {
+				if (tutorialPlayer || muted) {
+					updateType = 7; // Not authentic! There is no update type 7.
+				} else {
+					updateType = 6; // Quest Chat
+				}
+			} else {
+				updateType = 6; // Quest Chat
+			}
+		}
+
+		if (isCustomClient) {
+			// Non Authentic OpenRSC client
+			updates.add((short) cm.getSender().getIndex());
+			updates.add((byte) updateType);
+
+			if (updateType == 1 || updateType == 7) {
+				if (cm.getSender() != null && cm.getSender() instanceof Player)
+					updates.add((int) sender.getIcon());
+			}
+
+			if (updateType == 7) {
+				updates.add((byte) (sender.isMuted() ? 1 : 0));
+				updates.add((byte) (sender.getLocation().onTutorialIsland() ? 1 : 0));
+			}
+
+			if (updateType != 7 || player.isAdmin()) {
+				updates.add(cm.getMessageString());
+			} else {
+				updates.add("");
+			}
+		} else {
+			String message = cm.getMessageString();
+			if (updateType == 7) {
+				if (player.hasElevatedPriveledges()) {
+					// Just prepend "Muted" to message, could be faked but doesn't matter.
+					message = "(Muted) " + message;
+					if (cm.getRecipient() == null) {
+						updateType = 1;
+					} else {
+						updateType = 6;
+					}
+				}
+			}
+			if (updateType != 7) {
+				updates.add((short) cm.getSender().getIndex());
+				updates.add((byte) (!isRetroClient ? updateType : 1));
+				if (updateType != 6 && (isCustomClient || player.isUsing233CompatibleClient())) {
+					updates.add((byte) sender.getIconAuthentic());
+				}
+				if (isRetroClient) {
+					String messageUse = message;
+					if (updateType == 6) messageUse = "@que@" + message;
+					updates.add((byte) messageUse.length());
+					updates.add(messageUse);
+				} else {
+					updates.add(new RSCString(message));
+				}
+			} else {
+				LOGGER.error("extraneous chat update packet will crash the authentic client...!");
+			}
+		}
+	}
+
+	/**
+	 * Writes the appearance of @param playerNeedingAppearanceUpdate as seen by @param player, after its index and update type
+	 */
+	private void writeAppearance(final Player player, final Player playerNeedingAppearanceUpdate, final List<Object> updates) {
+		boolean isRetroClient = player.isUsing38CompatibleClient() || player.isUsing39CompatibleClient();
+		boolean isCustomClient = player.isUsingCustomClient();
+		boolean is177Compat = player.isUsing177CompatibleClient() || player.isUsing140CompatibleClient() || player.isUsing69CompatibleClient();
+
+		PlayerAppearance appearance = playerNeedingAppearanceUpdate.getSettings().getAppearance();
+
+		if (isRetroClient) {
+			updates.add((short) playerNeedingAppearanceUpdate.getIndex()); // server index
+			updates.add((short) playerNeedingAppearanceUpdate.getIndex()); // server id
+			updates.add((long) DataConversions.usernameToHash(playerNeedingAppearanceUpdate.getUsername()));
+		} else if (player.isUsing233CompatibleClient()) {
+			updates.add(playerNeedingAppearanceUpdate.getUsername());
+			updates.add(playerNeedingAppearanceUpdate.getUsername()); // Pretty sure this is unnecessary & always redundant authentically.
+		} else if (is177Compat) {
+			updates.add((long) DataConversions.usernameToHash(playerNeedingAppearanceUpdate.getUsername()));
+		} else if (player.isUsingCustomClient()) {
+			updates.add(playerNeedingAppearanceUpdate.getUsername());
+		}
+
+		if (playerNeedingAppearanceUpdate.getPossessing() != null) {
+			// while possessing another creature
+			// do not wish to see any sprites of our own character under any circumstance
+			updates.add((byte) 0); // Equipment count
+		} else if (!isCustomClient &&
+			(playerNeedingAppearanceUpdate.stateIsInvisible() ||
+				playerNeedingAppearanceUpdate.stateIsInvulnerable())) {
+			// Handle Invisibility & Invulnerability in the authentic client
+
+			int[] wornItems = playerNeedingAppearanceUpdate.getWornItems();
+
+			int bootColour = wornItems[AppearanceId.SLOT_BOOTS]; // if player is already wearing boots, we can let them choose their colour. :-)
+			if (wornItems[AppearanceId.SLOT_BOOTS] == 0) {
+				if (isRetroClient) {
+					bootColour = AppearanceId.LEATHER_BOOTS.id();
+				} else {
+					bootColour = AppearanceId.SHADOW_WARRIOR_BOOTS.id(); // default
+				}
+			}
+
+			int shieldSprite = 0; // default to invisible
+			if (playerNeedingAppearanceUpdate.stateIsInvulnerable()) {
+				if (isRetroClient) {
+					if (wornItems[AppearanceId.SLOT_SHIELD] == AppearanceId.ADAMANTITE_SQUARE_SHIELD.id()) {
+						shieldSprite = AppearanceId.WOODEN_SHIELD.id();
+					} else {
+						shieldSprite = AppearanceId.ADAMANTITE_SQUARE_SHIELD.id();
+					}
+				} else {
+					if (wornItems[AppearanceId.SLOT_SHIELD] == AppearanceId.DRAGON_SQUARE_SHIELD.id()) {
+						shieldSprite = AppearanceId.RUNE_SQUARE_SHIELD.id();
+					} else {
+						shieldSprite = AppearanceId.DRAGON_SQUARE_SHIELD.id();
+					}
+				}
+			}
+
+			int gloveColour = wornItems[AppearanceId.SLOT_GLOVES]; // let player keep their gloves, even if they have none
+			if (wornItems[AppearanceId.SLOT_GLOVES] == 0 && wornItems[AppearanceId.SLOT_WEAPON] != 0) {
+				// give player gloves if they are wielding a weapon
+				gloveColour = AppearanceId.LEATHER_GLOVES.id();
+			}
+
+			// if player is just invulnerable & not invisible, give them a dark-robed appearance
+			int headSprite = 0; // default to invisible
+			int hatSprite = 0;
+			int bodySprite = 0;
+			int legSprite = 0;
+			int pantsSprite = 0;
+			int shirtSprite = 0;
+			int amuletSprite = wornItems[AppearanceId.SLOT_AMULET];
+			if (!playerNeedingAppearanceUpdate.stateIsInvisible()) {
+				headSprite = wornItems[AppearanceId.SLOT_HEAD];
+				if (wornItems[AppearanceId.SLOT_HAT] == 0) {
+					hatSprite = AppearanceId.LARGE_BLACK_HELMET.id();
+					headSprite = AppearanceId.NOTHING.id();
+				} else {
+					hatSprite = wornItems[AppearanceId.SLOT_HAT];
+				}
+
+				// dark robes
+				if (isRetroClient) {
+					bodySprite = AppearanceId.DARKWIZARDS_ROBE.id();
+					legSprite = AppearanceId.BLACK_SKIRT.id();
+				} else {
+					bodySprite = AppearanceId.SHADOW_WARRIOR_ROBE.id();
+					legSprite = AppearanceId.SHADOW_WARRIOR_SKIRT.id();
+				}
+				pantsSprite = AppearanceId.COLOURED_PANTS.id();
+				shirtSprite = AppearanceId.FEMALE_BODY.id();
+				if (isRetroClient) {
+					gloveColour = AppearanceId.LEATHER_GLOVES.id();
+					amuletSprite = AppearanceId.SILVER_NECKLACE.id();
+				} else {
+					gloveColour = AppearanceId.ICE_GLOVES.id();
+					amuletSprite = AppearanceId.PENDANT_OF_LUCIEN.id();
+				}
+			}
+
+			// as char to indicate to the generator to use appearancebyte
+			if (isRetroClient) {
+				updates.add((byte) 11); // Equipment count
+				updates.add((char) (AppearanceRetroConverter.convert(headSprite) & 0xFF));
+				updates.add((char) (AppearanceRetroConverter.convert(shirtSprite) & 0xFF));
+				updates.add((char) (AppearanceRetroConverter.convert(pantsSprite) & 0xFF));
+				updates.add((char) (AppearanceRetroConverter.convert(shieldSprite) & 0xFF));
+				updates.add((char) (AppearanceRetroConverter.convert(wornItems[AppearanceId.SLOT_WEAPON]) & 0xFF));
+				updates.add((char) (AppearanceRetroConverter.convert(hatSprite) & 0xFF));
+				updates.add((char) (AppearanceRetroConverter.convert(bodySprite) & 0xFF));
+				updates.add((char) (AppearanceRetroConverter.convert(legSprite) & 0xFF));
+				updates.add((char) (AppearanceRetroConverter.convert(gloveColour) & 0xFF));
+				updates.add((char) (AppearanceRetroConverter.convert(bootColour) & 0xFF));
+				updates.add((char) (AppearanceRetroConverter.convert(amuletSprite) & 0xFF));
+			} else {
+				updates.add((byte) 11); // Equipment count
+				updates.add((char) headSprite);
+				updates.add((char) shirtSprite);
+				updates.add((char) pantsSprite);
+				updates.add((char) shieldSprite);
+				updates.add((char) wornItems[AppearanceId.SLOT_WEAPON]);
+				updates.add((char) hatSprite);
+				updates.add((char) bodySprite);
+				updates.add((char) legSprite);
+				updates.add((char) gloveColour);
+				updates.add((char) bootColour);
+				updates.add((char) amuletSprite);
+			}
+			// No Cape
+		} else {
+			// normal appearance update (not invisible)
+			updates.add((byte) playerNeedingAppearanceUpdate.getWornItems().length);
+			for (int i : playerNeedingAppearanceUpdate.getWornItems()) {
+				if (isRetroClient) {
+					updates.add((char) (AppearanceRetroConverter.convert(i) & 0xFF));
+				} else if (player.isUsing233CompatibleClient() || is177Compat) {
+					updates.add((char) (i & 0xFF));
+				} else {
+					updates.add((short) i);
+				}
+			}
+		}
+
+		if (isRetroClient) {
+			updates.add((char) appearance.getHairColour());
+			updates.add((char) appearance.getTopColour());
+			updates.add((char) appearance.getTrouserColour());
+			updates.add((char) appearance.getSkinColour());
+			updates.add((byte) playerNeedingAppearanceUpdate.getPkMode()); //is player attackable?
+			updates.add((byte) playerNeedingAppearanceUpdate.getCombatLevel());
+			updates.add((byte) playerNeedingAppearanceUpdate.getSkullType());
+		} else {
+			updates.add((char) appearance.getHairColour());
+			updates.add((char) appearance.getTopColour());
+			updates.add((char) appearance.getTrouserColour());
+			updates.add((char) appearance.getSkinColour());
+			updates.add((byte) playerNeedingAppearanceUpdate.getCombatLevel());
+			updates.add((byte) playerNeedingAppearanceUpdate.getSkullType());
+		}
+
+		if (isCustomClient) {
+			if (playerNeedingAppearanceUpdate.getClan() != null) {
+				updates.add((byte) 1);
+				updates.add(playerNeedingAppearanceUpdate.getClan().getClanTag());
+			} else {
+				updates.add((byte) 0);
+			}
+
+			updates.add((byte) (playerNeedingAppearanceUpdate.stateIsInvisible() ? 1 : 0));
+			updates.add((byte) (playerNeedingAppearanceUpdate.stateIsInvulnerable() ? 1 : 0));
+			updates.add((byte) playerNeedingAppearanceUpdate.getGroupID());
+			updates.add((int) playerNeedingAppearanceUpdate.getIcon());
+		}
+	}
+
 	protected void updateGameObjects(final Player playerToUpdate) {
 		boolean changed = false;
 
@@ -1227,12 +1329,125 @@ public final class GameStateUpdater {
 		return getServer().bench(() -> getServer().getWorld().run());
 	}
 
-	public final long updateClient(final Player player) {
+	/**
+	 * Sends every player their update packets for the tick.
+	 *
+	 * Works on a PID ordered snapshot of the players in three passes. Region changes run first and
+	 * timeouts last, on the game thread, because they can run plugins or log players out. In between,
+	 * the world is left untouched, so the region update packets can be built on the client update pool
+	 * and every player receives exactly what a serial pass would have sent them.
+	 */
+	public final long updateClients() {
 		return getServer().bench(() -> {
-			sendUpdatePackets(player);
+			final Player[] players = getServer().getWorld().getPlayers().toArray(new Player[0]);
+			final boolean[] updating = new boolean[players.length];
+			final Exception[] failures = new Exception[players.length];
+
+			for (int i = 0; i < players.length; i++) {
+				try {
+					if (isChangingAppearance(players[i])) {
+						sendAppearanceKeepalive(players[i]);
+					} else {
+						updateRegion(players[i]);
+						updating[i] = true;
+					}
+				} catch (final Exception e) {
+					failures[i] = e;
+				}
+			}
+
+			clientUpdatePass++;
+			updatingClients = true;
+			try {
+				if (clientUpdatePool != null) {
+					clientUpdatePool.invoke(new RegionUpdateTask(players, updating, failures, 0, players.length));
+				} else {
+					for (int i = 0; i < players.length; i++) {
+						trySendRegionUpdatePackets(players, updating, failures, i);
+					}
+				}
+			} finally {
+				updatingClients = false;
+			}
+
+			for (int i = 0; i < players.length; i++) {
+				final Player player = players[i];
+				try {
+					if (failures[i] != null) {
+						throw failures[i];
+					}
+					if (updating[i]) {
+						updateTimeouts(player);
+					}
+				} catch (final Exception e) {
+					LOGGER.catching(e);
+					player.unregister(true, "Exception while updating player " + player.getUsername());
+				}
+			}
 		});
 	}
 
+	private void trySendRegionUpdatePackets(final Player[] players, final boolean[] updating, final Exception[] failures, final int index) {
+		if (!updating[index] || failures[index] != null) {
+			return;
+		}
+		try {
+			sendRegionUpdatePackets(players[index]);
+		} catch (final Exception e) {
+			failures[index] = e;
+		}
+	}
+
+	private final class ClientUpdateThread extends ForkJoinWorkerThread {
+		private ClientUpdateThread(final ForkJoinPool pool) {
+			super(pool);
+			setName(getServer().getName() + " : ClientUpdateThread : " + getPoolIndex());
+		}
+
+		@Override
+		protected void onStart() {
+			super.onStart();
+			LogUtil.populateThreadContext(getServer().getConfig());
+		}
+	}
+
+	/**
+	 * Splits the players between the client update pool threads. Each player is written by exactly one thread.
+	 */
+	private final class RegionUpdateTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+		private static final int PLAYERS_PER_TASK = 16;
+
+		private final Player[] players;
+		private final boolean[] updating;
+		private final Exception[] failures;
+		private final int from;
+		private final int to;
+
+		private RegionUpdateTask(final Player[] players, final boolean[] updating, final Exception[] failures, final int from, final int to) {
+			this.players = players;
+			this.updating = updating;
+			this.failures = failures;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected void compute() {
+			if (to - from <= PLAYERS_PER_TASK) {
+				for (int i = from; i < to; i++) {
+					trySendRegionUpdatePackets(players, updating, failures, i);
+				}
+				return;
+			}
+			final int middle = (from + to) >>> 1;
+			invokeAll(
+				new RegionUpdateTask(players, updating, failures, from, middle),
+				new RegionUpdateTask(players, updating, failures, middle, to)
+			);
+		}
+	}
+
 	public final long doCleanup() { // it can do the teleport at this time.
 		return getServer().bench(() -> {
 			World world = getServer().getWorld();
@@ -1255,6 +1470,9 @@ public final class GameStateUpdater {
 		return getServer().bench(() -> {
 			final boolean shouldUpdatePosition = !getServer().getConfig().WANT_CUSTOM_WALK_SPEED;
 			final EntityList<Npc> npcs = getServer().getWorld().getNpcs();
+			if (getServer().getConfig().WANT_NPC_DORMANCY) {
+				getServer().getWorld().getRegionManager().markActiveRegions(getServer().getWorld().getPlayers());
+			}
 			npcs.forEach(n -> {
 				try {
 					if (n.isUnregistering()) {
@@ -1302,18 +1520,26 @@ public final class GameStateUpdater {
 				} else {
 					// player not online
 					if (pm.getFriend() >= 0L) {
-						try {
-							int friendId = player.getWorld().getServer().getDatabase().playerIdFromUsername(DataConversions.hashToUsername(pm.getFriend()));
-
-							if (player.getWorld().getServer().getDatabase().playerExists(friendId)) {
-								// player not online
-								if (player.getClientVersion() <= 204) {
-									player.playerServerMessage(MessageType.PRIVATE_SEND,"@cya@" + DataConversions.hashToUsername(pm.getFriend()) + " is offline or has privacy mode enabled");
-								} else {
-									player.message("Unable to send message - player unavailable.");
+						// Looked up off the tick, as a slow query would hold up every player
+						final GameDatabase database = player.getWorld().getServer().getDatabase();
+						final String friendName = DataConversions.hashToUsername(pm.getFriend());
+						database.supplyAsync(() -> database.playerExists(database.playerIdFromUsername(friendName)))
+							.thenAccept(exists -> {
+								if (!exists) {
+									return;
 								}
-							}
-						} catch (Exception e) { }
+								getServer().getGameEventHandler().add(new ImmediateEvent(getServer().getWorld(), "Private Message Unavailable") {
+									@Override
+									public void action() {
+										// player not online
+										if (player.getClientVersion() <= 204) {
+											player.playerServerMessage(MessageType.PRIVATE_SEND, "@cya@" + friendName + " is offline or has privacy mode enabled");
+										} else {
+											player.message("Unable to send message - player unavailable.");
+										}
+									}
+								});
+							});
 					}
 				}
 			}
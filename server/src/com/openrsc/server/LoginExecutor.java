@@ -1,29 +1,64 @@
 package com.openrsc.server;
 
+import com.google.common.util.concurrent.RateLimiter;
+import com.openrsc.server.database.DatabaseLease;
 import com.openrsc.server.login.LoginExecutorProcess;
 import com.openrsc.server.login.PlayerSaveRequest;
+import com.openrsc.server.util.LatencyStatistics;
 import com.openrsc.server.util.ServerAwareThreadFactory;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import java.util.ArrayDeque;
 import java.util.List;
-import java.util.Queue;
-import java.util.concurrent.ConcurrentLinkedQueue;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
-public class LoginExecutor implements Runnable {
+/**
+ * Processes logins, saves and other account requests off the game thread.
+ *
+ * Requests go through up to two stages. Those that check a password are authenticated first, on a small pool at a
+ * limited rate, as password hashes are slow on purpose. Every request is then processed on the load pool.
+ * Each load thread holds a database connection of its own while it runs a request.
+ * Requests for different accounts run side by side, but requests for the same account run one at a time in the
+ * order they were added, so a save always completes before the same account's next login.
+ */
+public class LoginExecutor {
 	/**
 	 * The asynchronous logger.
 	 */
 	private static final Logger LOGGER = LogManager.getLogger();
 
-	private ScheduledExecutorService scheduledExecutor;
+	/**
+	 * How long to wait before queueing a request that could not get a database connection again.
+	 */
+	private static final long LEASE_RETRY_DELAY_MILLIS = 1000;
+
+	/**
+	 * The requests of each account with any outstanding, by username hash. The first is running, the rest wait for it.
+	 * Each queue is only touched inside the map's compute, which locks its entry.
+	 */
+	private final ConcurrentHashMap<Long, ArrayDeque<LoginExecutorProcess>> accounts = new ConcurrentHashMap<>();
 
-	private final Queue<LoginExecutorProcess> requests;
+	private final AtomicInteger pendingRequests = new AtomicInteger();
+	private final AtomicInteger pendingAuthentications = new AtomicInteger();
+	private final AtomicInteger pendingLoads = new AtomicInteger();
 
-	private volatile Boolean running;
+	private final LatencyStatistics queueStatistics = new LatencyStatistics();
+	private final LatencyStatistics authStatistics = new LatencyStatistics();
+	private final LatencyStatistics loadStatistics = new LatencyStatistics();
+
+	private final Object lock = new Object();
+
+	private volatile ThreadPoolExecutor authExecutor;
+	private volatile ThreadPoolExecutor loadExecutor;
+	private volatile RateLimiter authRateLimiter;
+
+	private volatile boolean running;
 
 	private final Server server;
 	public final Server getServer() {
@@ -33,89 +68,257 @@ public class LoginExecutor implements Runnable {
 	public LoginExecutor(final Server server) {
 		this.server = server;
 		this.running = false;
-		this.requests = new ConcurrentLinkedQueue<>();
 	}
 
 	public boolean add(final LoginExecutorProcess request) {
-		if (isRunning()) {
-			return requests.add(request);
+		if (!isRunning()) {
+			return false;
+		}
+		request.setQueuedAt(System.nanoTime());
+		pendingRequests.incrementAndGet();
+
+		final boolean[] first = new boolean[1];
+		accounts.compute(request.getUsernameHash(), (usernameHash, requests) -> {
+			if (requests == null) {
+				requests = new ArrayDeque<>();
+				first[0] = true;
+			}
+			requests.add(request);
+			return requests;
+		});
+		if (first[0]) {
+			submit(request);
+		}
+		return true;
+	}
+
+	private void submit(final LoginExecutorProcess request) {
+		queueStatistics.record(System.nanoTime() - request.getQueuedAt());
+		try {
+			if (request.hasAuthentication()) {
+				pendingAuthentications.incrementAndGet();
+				execute(authExecutor, () -> authenticate(request));
+			} else {
+				load(request);
+			}
+		} catch (final RejectedExecutionException e) {
+			LOGGER.error("Login executor stopped before processing a request for " + request.getUsernameHash());
+			complete(request);
 		}
-		return false;
 	}
 
-	@Override
-	public void run() {
-		synchronized(running) {
+	private void authenticate(final LoginExecutorProcess request) {
+		pendingAuthentications.decrementAndGet();
+		try {
+			final RateLimiter rateLimiter = authRateLimiter;
+			if (rateLimiter != null) {
+				rateLimiter.acquire();
+			}
+			final long start = System.nanoTime();
+			request.authenticate();
+			authStatistics.record(System.nanoTime() - start);
+		} catch (final Throwable e) {
+			LOGGER.catching(e);
 			try {
-				// Save requests should be run BEFORE logout requests or else we get duplication glitch because a user can login before they've saved, but after they've logged out.
-				// See Player.logout, save requests are added first before removal so we are good.
-				LoginExecutorProcess request;
-				while ((request = requests.poll()) != null) {
-					request.process();
-				}
+				request.authenticationFailed();
+			} catch (final Throwable t) {
+				LOGGER.catching(t);
+			} finally {
+				complete(request);
+			}
+			return;
+		}
+		try {
+			load(request);
+		} catch (final RejectedExecutionException e) {
+			LOGGER.error("Login executor stopped before processing a request for " + request.getUsernameHash());
+			complete(request);
+		}
+	}
+
+	private void load(final LoginExecutorProcess request) {
+		pendingLoads.incrementAndGet();
+		execute(loadExecutor, () -> {
+			pendingLoads.decrementAndGet();
+			final DatabaseLease lease;
+			try {
+				lease = getServer().getDatabase().lease();
+			} catch (final Throwable e) {
+				LOGGER.error("No database connection for a request for " + request.getUsernameHash() + ", queueing it again", e);
+				retry(request);
+				return;
+			}
+			try {
+				final long start = System.nanoTime();
+				request.processRequest();
+				loadStatistics.record(System.nanoTime() - start);
 			} catch (final Throwable e) {
 				LOGGER.catching(e);
+			} finally {
+				lease.close();
+				complete(request);
+			}
+		});
+	}
+
+	/**
+	 * Queues a request that could not get a database connection again, behind the other accounts' requests.
+	 * It stays first in its account's queue, so a logout save is never dropped or overtaken by the same account's next login.
+	 */
+	private void retry(final LoginExecutorProcess request) {
+		try {
+			// The database may be closed rather than busy, in which case leasing fails at once
+			TimeUnit.MILLISECONDS.sleep(LEASE_RETRY_DELAY_MILLIS);
+			load(request);
+		} catch (final InterruptedException | RejectedExecutionException e) {
+			if (e instanceof InterruptedException) {
+				Thread.currentThread().interrupt();
 			}
+			LOGGER.error("Login executor stopped before processing a request for " + request.getUsernameHash());
+			complete(request);
+		}
+	}
+
+	private static void execute(final ThreadPoolExecutor executor, final Runnable task) {
+		if (executor == null) {
+			throw new RejectedExecutionException();
+		}
+		executor.execute(task);
+	}
+
+	/**
+	 * Starts the account's next request, if it has one.
+	 */
+	private void complete(final LoginExecutorProcess request) {
+		final LoginExecutorProcess[] next = new LoginExecutorProcess[1];
+		accounts.computeIfPresent(request.getUsernameHash(), (usernameHash, requests) -> {
+			requests.poll();
+			next[0] = requests.peek();
+			return requests.isEmpty() ? null : requests;
+		});
+
+		if (pendingRequests.decrementAndGet() == 0) {
+			synchronized (lock) {
+				lock.notifyAll();
+			}
+		}
+
+		if (next[0] != null) {
+			submit(next[0]);
 		}
 	}
 
 	public void start() {
-		synchronized (running) {
-			clearRequests();
-			scheduledExecutor = Executors.newSingleThreadScheduledExecutor(
-					new ServerAwareThreadFactory(
-							server.getName()+" : LoginThread",
-							server.getConfig()
-					)
-			);
-			scheduledExecutor.scheduleAtFixedRate(this, 0, 50, TimeUnit.MILLISECONDS);
+		synchronized (lock) {
+			accounts.clear();
+			pendingRequests.set(0);
+			pendingAuthentications.set(0);
+			pendingLoads.set(0);
+
+			final ServerConfiguration config = server.getConfig();
+			final int authThreads = config.LOGIN_AUTH_THREADS > 0
+				? config.LOGIN_AUTH_THREADS
+				: Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+			authExecutor = createExecutor(authThreads, " : LoginAuthThread-%d");
+			loadExecutor = createExecutor(Math.max(1, config.LOGIN_LOAD_THREADS), " : LoginThread-%d");
+			authRateLimiter = config.LOGIN_AUTH_PER_SECOND > 0 ? RateLimiter.create(config.LOGIN_AUTH_PER_SECOND) : null;
 			running = true;
 		}
 	}
 
+	private ThreadPoolExecutor createExecutor(final int threads, final String nameFormat) {
+		return new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(),
+			new ServerAwareThreadFactory(server.getName() + nameFormat, server.getConfig()));
+	}
+
 	public void stop() {
-		synchronized (running) {
-			scheduledExecutor.shutdown();
+		synchronized (lock) {
+			// Let saves queued by logouts finish before turning new requests away
+			final long deadline = System.nanoTime() + TimeUnit.MINUTES.toNanos(1);
 			try {
-				final boolean terminationResult = scheduledExecutor.awaitTermination(1, TimeUnit.MINUTES);
-				if (!terminationResult) {
-					LOGGER.error("LoginExecutor thread termination failed");
-					List<Runnable> skippedTasks = scheduledExecutor.shutdownNow();
-					LOGGER.error("{} task(s) never commenced execution", skippedTasks.size());
+				long remaining;
+				while (pendingRequests.get() > 0 && (remaining = deadline - System.nanoTime()) > 0) {
+					TimeUnit.NANOSECONDS.timedWait(lock, remaining);
 				}
 			} catch (final InterruptedException e) {
 				LOGGER.catching(e);
 			}
-
-			scheduledExecutor = null;
 			running = false;
+		}
 
-			if (requests.size() > 0) {
-				run();
-			}
-
-			if (requests.size() > 0) {
-				LOGGER.error("There were " + requests.size() + " unprocessed requests. (Very bad!!!!!!!!!!)");
-				LoginExecutorProcess request;
-				while ((request = requests.poll()) != null) {
-					final PlayerSaveRequest playerSave = (PlayerSaveRequest)request;
+		shutdown(authExecutor);
+		shutdown(loadExecutor);
+		authExecutor = null;
+		loadExecutor = null;
 
-					if (playerSave != null) {
-						LOGGER.error("Could not save " + playerSave.getPlayer() + " during LoginExecutor shutdown.");
+		if (pendingRequests.get() > 0) {
+			LOGGER.error("There were " + pendingRequests.get() + " unprocessed requests. (Very bad!!!!!!!!!!)");
+			for (final ArrayDeque<LoginExecutorProcess> requests : accounts.values()) {
+				for (final LoginExecutorProcess request : requests) {
+					if (request instanceof PlayerSaveRequest) {
+						LOGGER.error("Could not save " + ((PlayerSaveRequest) request).getPlayer() + " during LoginExecutor shutdown.");
 					}
 				}
-				clearRequests();
 			}
+			accounts.clear();
+			pendingRequests.set(0);
 		}
 	}
 
-	private void clearRequests() {
-		synchronized (running) {
-			requests.clear();
+	private void shutdown(final ThreadPoolExecutor executor) {
+		executor.shutdown();
+		try {
+			final boolean terminationResult = executor.awaitTermination(1, TimeUnit.MINUTES);
+			if (!terminationResult) {
+				LOGGER.error("LoginExecutor thread termination failed");
+				List<Runnable> skippedTasks = executor.shutdownNow();
+				LOGGER.error("{} task(s) never commenced execution", skippedTasks.size());
+			}
+		} catch (final InterruptedException e) {
+			LOGGER.catching(e);
 		}
 	}
 
 	public final boolean isRunning() {
 		return running;
 	}
+
+	/**
+	 * @return The number of requests added and not yet complete.
+	 */
+	public int getQueueDepth() {
+		return pendingRequests.get();
+	}
+
+	/**
+	 * @return The number of requests waiting for an authentication thread.
+	 */
+	public int getAuthQueueDepth() {
+		return pendingAuthentications.get();
+	}
+
+	/**
+	 * @return The number of requests waiting for a load thread.
+	 */
+	public int getLoadQueueDepth() {
+		return pendingLoads.get();
+	}
+
+	/**
+	 * @return How long requests waited to start, including behind earlier requests for the same account.
+	 */
+	public LatencyStatistics getQueueStatistics() {
+		return queueStatistics;
+	}
+
+	/**
+	 * @return How long authentication took, not counting the wait for the rate limit.
+	 */
+	public LatencyStatistics getAuthStatistics() {
+		return authStatistics;
+	}
+
+	public LatencyStatistics getLoadStatistics() {
+		return loadStatistics;
+	}
 }
@@ -78,6 +78,7 @@ public class Server implements Runnable {
 	private final AchievementSystem achievementSystem;
 	private final Constants constants;
 	private final RSCPacketFilter packetFilter;
+	private final OutgoingPacketFlusher outgoingPacketFlusher;
 	private final IPlayerService playerService;
 	private final I18NService i18nService;
 
@@ -105,14 +106,14 @@ public class Server implements Runnable {
 	private long lastUpdateClientsDuration = 0;
 	private long lastDoCleanupDuration = 0;
 	private long lastExecuteWalkToActionsDuration = 0;
+	private int lastOutgoingFlushes = 0;
+	private long lastOutgoingBytes = 0;
 
 	private long lastTickDuration = 0;
 	private long timeLate = 0;
 	private long lastTickTimestamp = 0;
-	private final Map<Integer, Long> incomingTimePerPacketOpcode = new HashMap<>();
-	private final Map<Integer, Integer> incomingCountPerPacketOpcode = new HashMap<>();
-	private final Map<Integer, Long> outgoingTimePerPacketOpcode = new HashMap<>();
-	private final Map<Integer, Integer> outgoingCountPerPacketOpcode = new HashMap<>();
+	private final OpcodeStatistics incomingPacketStatistics = new OpcodeStatistics();
+	private final OpcodeStatistics outgoingPacketStatistics = new OpcodeStatistics();
 	private int privateMessagesSent = 0;
 
 	private volatile int maxItemId;
@@ -230,6 +231,7 @@ public class Server implements Runnable {
 		name = getConfig().SERVER_NAME;
 
 		packetFilter = new RSCPacketFilter(this);
+		outgoingPacketFlusher = new OutgoingPacketFlusher(this);
 
 		pluginHandler = new PluginHandler(this);
 		combatScriptLoader = new CombatScriptLoader(this);
@@ -411,6 +413,10 @@ public class Server implements Runnable {
 				bootstrap.childOption(ChannelOption.SO_KEEPALIVE, false);
 				bootstrap.childOption(ChannelOption.SO_RCVBUF, 10000);
 				bootstrap.childOption(ChannelOption.SO_SNDBUF, 10000);
+				bootstrap.childOption(ChannelOption.WRITE_BUFFER_WATER_MARK, new WriteBufferWaterMark(
+					getConfig().WRITE_BUFFER_LOW_WATER_MARK,
+					getConfig().WRITE_BUFFER_HIGH_WATER_MARK
+				));
 				try {
 					getPluginHandler().handlePlugin(StartupTrigger.class);
 					serverChannel = bootstrap.bind(new InetSocketAddress(getConfig().SERVER_PORT)).sync();
@@ -488,10 +494,8 @@ public class Server implements Runnable {
 				lastTickDuration = 0;
 				timeLate = 0;
 				lastTickTimestamp = 0;
-				incomingTimePerPacketOpcode.clear();
-				incomingCountPerPacketOpcode.clear();
-				outgoingTimePerPacketOpcode.clear();
-				outgoingCountPerPacketOpcode.clear();
+				incomingPacketStatistics.clear();
+				outgoingPacketStatistics.clear();
 
 				// Don't remove this server from the active servers list if we are just restarting.
 				if (!isRestarting()) {
@@ -536,9 +540,11 @@ public class Server implements Runnable {
 							incrementLastExecuteWalkToActionsDuration(getGameUpdater().executePidlessCatching());
 							incrementLastProcessMessageQueuesDuration(getWorld().processGlobalMessageQueue());
 							incrementLastProcessNpcsDuration(getGameUpdater().processNpcs());
+							incrementLastUpdateClientsDuration(getGameUpdater().updateClients());
 							for (final Player player : getWorld().getPlayers()) {
-								player.sendUpdates();
+								incrementLastOutgoingPacketsDuration(player.processOutgoingPackets());
 							}
+							incrementLastOutgoingPacketsDuration(bench(getOutgoingPacketFlusher()::flush));
 							incrementLastDoCleanupDuration(getGameUpdater().doCleanup());
 							getGameEventHandler().cleanupEvents();
 						} catch (final Throwable t) {
@@ -556,10 +562,8 @@ public class Server implements Runnable {
 					advanceTicks(1);
 
 					// Clear out the outgoing and incoming packet processing time frames
-					incomingTimePerPacketOpcode.clear();
-					incomingCountPerPacketOpcode.clear();
-					outgoingTimePerPacketOpcode.clear();
-					outgoingCountPerPacketOpcode.clear();
+					incomingPacketStatistics.clear();
+					outgoingPacketStatistics.clear();
 
 					//LOGGER.info("Tick " + getCurrentTick() + " processed.");
 				} else {
@@ -582,10 +586,7 @@ public class Server implements Runnable {
 	private void dailyShutdownEvent() {
 		try {
 			if (getConfig().WANT_AUTO_SERVER_SHUTDOWN) {
-				List<GameTickEvent> events = getWorld().getServer().getGameEventHandler().getEvents();
-				for (GameTickEvent event : events) {
-					if (!(event instanceof DailyShutdownEvent)) continue;
-
+				if (getWorld().getServer().getGameEventHandler().hasEvent(DailyShutdownEvent.class)) {
 					// There is already a daily shutdown running!;
 					// do nothing!
 					return;
@@ -604,10 +605,7 @@ public class Server implements Runnable {
 
 	private void resetEvent() {
 		if (getConfig().WANT_RESET_EVENT) {
-			List<GameTickEvent> events = getWorld().getServer().getGameEventHandler().getEvents();
-			for (GameTickEvent event : events) {
-				if (!(event instanceof HourlyResetEvent)) continue;
-
+			if (getWorld().getServer().getGameEventHandler().hasEvent(HourlyResetEvent.class)) {
 				// There is already an hourly reset running!;
 				// do nothing!
 				return;
@@ -767,6 +765,10 @@ public class Server implements Runnable {
 		return packetFilter.getPlayersCount(hostAddress);
 	}
 
+	public final OutgoingPacketFlusher getOutgoingPacketFlusher() {
+		return outgoingPacketFlusher;
+	}
+
 	public final long getLastIncomingPacketsDuration() {
 		return lastIncomingPacketsDuration;
 	}
@@ -803,6 +805,18 @@ public class Server implements Runnable {
 		return lastExecuteWalkToActionsDuration;
 	}
 
+	public int getLastOutgoingFlushes() {
+		return lastOutgoingFlushes;
+	}
+
+	public long getLastOutgoingBytes() {
+		return lastOutgoingBytes;
+	}
+
+	public long getLastOutgoingBytesPerFlush() {
+		return lastOutgoingFlushes == 0 ? 0 : lastOutgoingBytes / lastOutgoingFlushes;
+	}
+
 	public final long getTimeLate() {
 		return timeLate;
 	}
@@ -881,48 +895,12 @@ public class Server implements Runnable {
 		return shuttingDown;
 	}
 
-	public Map<Integer, Long> getIncomingTimePerPacketOpcode() {
-		return incomingTimePerPacketOpcode;
-	}
-
-	public Map<Integer, Integer> getIncomingCountPerPacketOpcode() {
-		return incomingCountPerPacketOpcode;
-	}
-
-	public Map<Integer, Long> getOutgoingTimePerPacketOpcode() {
-		return outgoingTimePerPacketOpcode;
+	public OpcodeStatistics getIncomingPacketStatistics() {
+		return incomingPacketStatistics;
 	}
 
-	public Map<Integer, Integer> getOutgoingCountPerPacketOpcode() {
-		return outgoingCountPerPacketOpcode;
-	}
-
-	public void addIncomingPacketDuration(final int packetOpcode, final long additionalTime) {
-		if (!incomingTimePerPacketOpcode.containsKey(packetOpcode)) {
-			incomingTimePerPacketOpcode.put(packetOpcode, 0L);
-		}
-		incomingTimePerPacketOpcode.put(packetOpcode, incomingTimePerPacketOpcode.get(packetOpcode) + additionalTime);
-	}
-
-	public void incrementIncomingPacketCount(final int packetOpcode) {
-		if (!incomingCountPerPacketOpcode.containsKey(packetOpcode)) {
-			incomingCountPerPacketOpcode.put(packetOpcode, 0);
-		}
-		incomingCountPerPacketOpcode.put(packetOpcode, incomingCountPerPacketOpcode.get(packetOpcode) + 1);
-	}
-
-	public void addOutgoingPacketDuration(final int packetOpcode, final long additionalTime) {
-		if (!outgoingTimePerPacketOpcode.containsKey(packetOpcode)) {
-			outgoingTimePerPacketOpcode.put(packetOpcode, 0L);
-		}
-		outgoingTimePerPacketOpcode.put(packetOpcode, outgoingTimePerPacketOpcode.get(packetOpcode) + additionalTime);
-	}
-
-	public void incrementOutgoingPacketCount(final int packetOpcode) {
-		if (!outgoingCountPerPacketOpcode.containsKey(packetOpcode)) {
-			outgoingCountPerPacketOpcode.put(packetOpcode, 0);
-		}
-		outgoingCountPerPacketOpcode.put(packetOpcode, outgoingCountPerPacketOpcode.get(packetOpcode) + 1);
+	public OpcodeStatistics getOutgoingPacketStatistics() {
+		return outgoingPacketStatistics;
 	}
 
 	public synchronized int getMaxItemID() {
@@ -977,6 +955,11 @@ public class Server implements Runnable {
 		this.lastExecuteWalkToActionsDuration += duration;
 	}
 
+	public synchronized void incrementLastOutgoingFlushes(final int bytes) {
+		this.lastOutgoingFlushes++;
+		this.lastOutgoingBytes += bytes;
+	}
+
 	public synchronized void resetBenchmarkDurations() {
 		this.lastIncomingPacketsDuration = 0;
 		this.lastEventsDuration = 0;
@@ -988,5 +971,7 @@ public class Server implements Runnable {
 		this.lastUpdateClientsDuration = 0;
 		this.lastDoCleanupDuration = 0;
 		this.lastExecuteWalkToActionsDuration = 0;
+		this.lastOutgoingFlushes = 0;
+		this.lastOutgoingBytes = 0;
 	}
 }
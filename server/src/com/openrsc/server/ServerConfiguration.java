@@ -50,6 +50,12 @@ public class ServerConfiguration {
 	public String DB_USER;
 	public String DB_PASS;
 	public String DB_TABLE_PREFIX;
+	public int DB_POOL_SIZE;
+	public int DB_STATEMENT_CACHE_SIZE;
+	public int DB_ASYNC_THREADS;
+	public int DB_LOG_QUEUE_SIZE;
+	public int DB_LOG_BATCH_SIZE;
+	public String DB_LOG_JOURNAL;
 	public int PLAYER_LEVEL_LIMIT;
 	public boolean WANT_EXPERIENCE_CAP;
 	public int EXPERIENCE_LIMIT;
@@ -58,6 +64,7 @@ public class ServerConfiguration {
 	public double WILDERNESS_BOOST;
 	public double SKULL_BOOST;
 	public double NPC_RESPAWN_MULTIPLIER;
+	public boolean WANT_NPC_DORMANCY;
 	public int VIEW_DISTANCE;
 	public String LOGO_SPRITE_ID;
 	public int NPC_BLOCKING;
@@ -69,7 +76,18 @@ public class ServerConfiguration {
 	public int MAX_PASSWORD_GUESSES_PER_FIVE_MINUTES;
 	public int NETWORK_FLOOD_IP_BAN_MINUTES;
 	public boolean WANT_PCAP_LOGGING;
-	public boolean WANT_THREADING__BREAK_PID_PRIORITY;
+	public boolean WANT_COALESCED_FLUSHES;
+	public int WRITE_BUFFER_LOW_WATER_MARK;
+	public int WRITE_BUFFER_HIGH_WATER_MARK;
+	public int MAX_UNWRITABLE_TICKS;
+	public boolean WANT_PARALLEL_CLIENT_UPDATES;
+	public int CLIENT_UPDATE_THREADS;
+	public boolean WANT_VIRTUAL_PLUGIN_THREADS;
+	public boolean WANT_PARALLEL_EVENT_ISLANDS;
+	public int EVENT_ISLAND_THREADS;
+	public int LOGIN_AUTH_THREADS;
+	public int LOGIN_AUTH_PER_SECOND;
+	public int LOGIN_LOAD_THREADS;
 	public boolean IS_LOCALHOST_RESTRICTED;
 
 	// Location of the server conf files.
@@ -144,6 +162,8 @@ public class ServerConfiguration {
 	public boolean PLAYER_COMMANDS;
 	public boolean WANT_PETS;
 	public int MAX_WALKING_SPEED;
+	public int PATHFINDING_MAX_NODES;
+	public boolean WANT_JUMP_POINT_SEARCH;
 	public boolean SHOW_UNIDENTIFIED_HERB_NAMES;
 	public boolean WANT_QUEST_STARTED_INDICATOR;
 	public boolean WANT_POISON_NPCS;
@@ -241,6 +261,8 @@ public class ServerConfiguration {
 	public boolean MICE_TO_MEET_YOU_EVENT = false;
 	public boolean DEATH_ISLAND = false;
 	public int BASED_MAP_DATA = 64;
+	public boolean WANT_LANDSCAPE_CACHE;
+	public boolean WANT_DEFINITION_CACHE;
 	public int BASED_CONFIG_DATA = 85;
 	public boolean CAN_FEATURE_MEMBS;
 
@@ -322,6 +344,12 @@ public class ServerConfiguration {
 		DB_USER = tryReadString("db_user").orElse("root");
 		DB_PASS = tryReadString("db_pass").orElse("root");
 		DB_TABLE_PREFIX = tryReadString("db_table_prefix").orElse("");
+		DB_POOL_SIZE = tryReadInt("db_pool_size").orElse(8);
+		DB_STATEMENT_CACHE_SIZE = tryReadInt("db_statement_cache_size").orElse(64);
+		DB_ASYNC_THREADS = tryReadInt("db_async_threads").orElse(2);
+		DB_LOG_QUEUE_SIZE = tryReadInt("db_log_queue_size").orElse(16384);
+		DB_LOG_BATCH_SIZE = tryReadInt("db_log_batch_size").orElse(256);
+		DB_LOG_JOURNAL = tryReadString("db_log_journal").orElse("logs" + File.separator + DB_NAME + "_gamelog.journal");
 
 		// World settings
 		SERVER_NAME = tryReadString("server_name").orElse("Runescape");
@@ -351,7 +379,19 @@ public class ServerConfiguration {
 		AVATAR_GENERATOR = tryReadBool("avatar_generator").orElse(false);
 		MEMBER_WORLD = tryReadBool("member_world").orElse(true);
 		WANT_PCAP_LOGGING = tryReadBool("want_pcap_logging").orElse(false);
-		WANT_THREADING__BREAK_PID_PRIORITY = tryReadBool("want_threading__break_pid_priority").orElse(false);
+		WANT_COALESCED_FLUSHES = tryReadBool("want_coalesced_flushes").orElse(true);
+		WRITE_BUFFER_LOW_WATER_MARK = tryReadInt("write_buffer_low_water_mark").orElse(32 * 1024);
+		WRITE_BUFFER_HIGH_WATER_MARK = tryReadInt("write_buffer_high_water_mark").orElse(256 * 1024);
+		MAX_UNWRITABLE_TICKS = tryReadInt("max_unwritable_ticks").orElse(50);
+		WANT_PARALLEL_CLIENT_UPDATES = tryReadBool("want_parallel_client_updates").orElse(true);
+		CLIENT_UPDATE_THREADS = tryReadInt("client_update_threads").orElse(0);
+		WANT_VIRTUAL_PLUGIN_THREADS = tryReadBool("want_virtual_plugin_threads").orElse(true);
+		WANT_PARALLEL_EVENT_ISLANDS = tryReadBool("want_parallel_event_islands").orElse(false);
+		EVENT_ISLAND_THREADS = tryReadInt("event_island_threads").orElse(0);
+		LOGIN_AUTH_THREADS = tryReadInt("login_auth_threads").orElse(0);
+		LOGIN_AUTH_PER_SECOND = tryReadInt("login_auth_per_second").orElse(50);
+		// SQLite has a single connection to lease, so more load threads would only wait for it
+		LOGIN_LOAD_THREADS = DB_TYPE == DatabaseType.SQLITE ? 1 : tryReadInt("login_load_threads").orElse(4);
 		WORLD_NUMBER = tryReadInt("world_number").orElse(1);
 		PLAYER_LEVEL_LIMIT = tryReadInt("player_level_limit").orElse(99);
 		WANT_EXPERIENCE_CAP = tryReadBool("want_experience_cap").orElse(false);
@@ -362,6 +402,7 @@ public class ServerConfiguration {
 		SKULL_BOOST = tryReadDouble("skull_boost").orElse(0.0);
 		IS_DOUBLE_EXP = tryReadBool("double_exp").orElse(false);
 		NPC_RESPAWN_MULTIPLIER = tryReadDouble("npc_respawn_multiplier").orElse(1.0);
+		WANT_NPC_DORMANCY = tryReadBool("want_npc_dormancy").orElse(true);
 		WANT_REGISTRATION_LIMIT = tryReadBool("want_registration_limit").orElse(false);
 		PACKET_LIMIT = tryReadInt("packet_limit").orElse(100);
 		IS_LOCALHOST_RESTRICTED = tryReadBool("is_localhost_restricted").orElse(true);
@@ -388,6 +429,8 @@ public class ServerConfiguration {
 		RESTART_HOUR = tryReadInt("restart_hour").orElse(7);
 		WANT_RESET_EVENT = tryReadBool("want_reset_event").orElse(false);
 		BASED_MAP_DATA = tryReadInt("based_map_data").orElse(100);
+		WANT_LANDSCAPE_CACHE = tryReadBool("want_landscape_cache").orElse(true);
+		WANT_DEFINITION_CACHE = tryReadBool("want_definition_cache").orElse(true);
 		BASED_CONFIG_DATA = tryReadInt("based_config_data").orElse(85);
 		FEATURES_SLEEP = tryReadBool("features_sleep").orElse(true);
 		RESTRICT_ITEM_ID = tryReadInt("restrict_item_id").orElse(1289);
@@ -490,6 +533,8 @@ public class ServerConfiguration {
 		WANT_PETS = tryReadBool("want_pets").orElse(false);
 		MAX_WALKING_SPEED = tryReadInt("max_walking_speed").orElse(1);
 		MAX_TICKS_UNTIL_FULL_WALKING_SPEED = tryReadInt("max_ticks_until_full_walking_speed").orElse(0);
+		PATHFINDING_MAX_NODES = tryReadInt("pathfinding_max_nodes").orElse(0);
+		WANT_JUMP_POINT_SEARCH = tryReadBool("want_jump_point_search").orElse(false);
 		SHOW_UNIDENTIFIED_HERB_NAMES = tryReadBool("show_unidentified_herb_names").orElse(false);
 		FISHING_SPOTS_DEPLETABLE = tryReadBool("fishing_spots_depletable").orElse(false);
 		IMPROVED_ITEM_OBJECT_NAMES = tryReadBool("improved_item_object_names").orElse(false);
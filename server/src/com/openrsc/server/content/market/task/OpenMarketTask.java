@@ -43,7 +43,7 @@ public class OpenMarketTask extends MarketTask {
 
 	private class AuctionPacketChunk {
 		private ArrayList<MarketItem> items = new ArrayList<>();
-		private PacketBuilder builder = new PacketBuilder();
+		private PacketBuilder builder;
 
 		private boolean finished = false;
 
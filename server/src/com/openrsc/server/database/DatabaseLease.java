@@ -0,0 +1,16 @@
+package com.openrsc.server.database;
+
+/**
+ * A database connection held by one thread until the lease is closed.
+ */
+@FunctionalInterface
+public interface DatabaseLease extends AutoCloseable {
+	/**
+	 * For databases without connections to hand out.
+	 */
+	DatabaseLease NONE = () -> {
+	};
+
+	@Override
+	void close();
+}
@@ -20,7 +20,9 @@ import com.openrsc.server.model.entity.npc.Npc;
 import com.openrsc.server.model.entity.player.Player;
 import com.openrsc.server.model.entity.player.PlayerSettings;
 import com.openrsc.server.util.SystemUtil;
+import com.openrsc.server.util.ServerAwareThreadFactory;
 import com.openrsc.server.util.checked.CheckedRunnable;
+import com.openrsc.server.util.checked.CheckedSupplier;
 import com.openrsc.server.util.rsc.DataConversions;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -29,6 +31,11 @@ import java.io.ByteArrayOutputStream;
 import java.io.DataOutputStream;
 import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 public abstract class GameDatabase {
 	/**
@@ -38,6 +45,11 @@ public abstract class GameDatabase {
 
 	public final Server server;
 	private volatile Boolean open;
+	/**
+	 * Runs queries for callers that must not wait on the database, such as the game thread.
+	 */
+	private volatile ThreadPoolExecutor asyncExecutor;
+	private final SaveStatistics saveStatistics = new SaveStatistics();
 
 	public GameDatabase(final Server server) {
 		this.server = server;
@@ -214,6 +226,14 @@ public abstract class GameDatabase {
 
 	public abstract void querySavePlayerNpcKills(int playerId, PlayerNpcKills[] kills) throws GameDatabaseException;
 
+	public abstract void querySaveItemStatuses(PlayerItemStatus[] items) throws GameDatabaseException;
+
+	public abstract void querySavePlayerQuestChanges(int playerId, PlayerQuest[] added, PlayerQuest[] updated, int[] removed) throws GameDatabaseException;
+
+	public abstract void querySavePlayerCacheChanges(int playerId, PlayerCache[] added, PlayerCache[] updated, String[] removed) throws GameDatabaseException;
+
+	public abstract void querySavePlayerNpcKillChanges(int playerId, PlayerNpcKills[] added, PlayerNpcKills[] updated) throws GameDatabaseException;
+
 	public abstract void querySavePlayerMaxSkills(int playerId, PlayerSkills[] maxSkillLevels) throws GameDatabaseException;
 
 	public abstract void querySavePlayerSkills(int playerId, PlayerSkills[] currSkillLevels) throws GameDatabaseException;
@@ -290,6 +310,9 @@ public abstract class GameDatabase {
 			try {
 				openInternal();
 				initializeOnlinePlayers();
+				final int asyncThreads = Math.max(1, getServer().getConfig().DB_ASYNC_THREADS);
+				asyncExecutor = new ThreadPoolExecutor(asyncThreads, asyncThreads, 0L, TimeUnit.MILLISECONDS,
+					new LinkedBlockingQueue<>(), new ServerAwareThreadFactory(getServer().getName() + " : DatabaseThread-%d", getServer().getConfig()));
 				open = true;
 			} catch (final GameDatabaseException ex) {
 				LOGGER.catching(ex);
@@ -300,12 +323,86 @@ public abstract class GameDatabase {
 
 	public void close() {
 		synchronized (open) {
+			if (asyncExecutor != null) {
+				asyncExecutor.shutdown();
+				try {
+					if (!asyncExecutor.awaitTermination(1, TimeUnit.MINUTES)) {
+						LOGGER.error("GameDatabase thread pool termination failed");
+					}
+				} catch (final InterruptedException e) {
+					LOGGER.catching(e);
+				}
+				asyncExecutor = null;
+			}
 			closeInternal();
 			open = false;
 		}
 	}
 
+	/**
+	 * Reserves a connection for the calling thread until the lease is closed, so its statements are not interleaved
+	 * with other threads'. Leases taken while one is held share it.
+	 */
+	public DatabaseLease lease() {
+		return DatabaseLease.NONE;
+	}
+
+	/**
+	 * Runs a query on a database thread with a connection of its own.
+	 *
+	 * @return The query's result. It completes on the database thread, so anything touching the world should be handed back to the game thread.
+	 */
+	public <T> CompletableFuture<T> supplyAsync(final CheckedSupplier<Exception, T> query) {
+		final CompletableFuture<T> future = new CompletableFuture<>();
+		final ThreadPoolExecutor executor = asyncExecutor;
+		if (executor == null) {
+			future.completeExceptionally(new GameDatabaseException(getClass(), "Database is not open"));
+			return future;
+		}
+		try {
+			executor.execute(() -> {
+				try {
+					final DatabaseLease lease = lease();
+					try {
+						future.complete(query.get());
+					} finally {
+						lease.close();
+					}
+				} catch (final Throwable e) {
+					future.completeExceptionally(e);
+				}
+			});
+		} catch (final RejectedExecutionException e) {
+			future.completeExceptionally(e);
+		}
+		return future;
+	}
+
+	/**
+	 * Runs queries on a database thread with a connection of its own.
+	 */
+	public CompletableFuture<Void> runAsync(final CheckedRunnable<Exception> query) {
+		return supplyAsync(() -> {
+			query.run();
+			return null;
+		});
+	}
+
 	public boolean atomically(CheckedRunnable<Exception> runnable) {
+		try {
+			final DatabaseLease lease = lease();
+			try {
+				return runAtomically(runnable);
+			} finally {
+				lease.close();
+			}
+		} catch (final GameDatabaseException ex) {
+			LOGGER.catching(ex);
+			return false;
+		}
+	}
+
+	private boolean runAtomically(CheckedRunnable<Exception> runnable) {
 		try {
 			startTransaction();
 			runnable.run();
@@ -743,6 +840,10 @@ public abstract class GameDatabase {
 		return open;
 	}
 
+	public SaveStatistics getSaveStatistics() {
+		return saveStatistics;
+	}
+
 	public void querySavePlayerData(Player player) throws GameDatabaseException {
 		final PlayerData playerData = new PlayerData();
 
@@ -782,9 +883,10 @@ public abstract class GameDatabase {
 		querySavePlayerData(player.getDatabaseID(), playerData);
 	}
 
-	public void savePlayerInventory(Player player) throws GameDatabaseException {
+	public void savePlayerInventory(Player player, PlayerSaveState.Changes changes) throws GameDatabaseException {
 		final int invSize = player.getCarriedItems().getInventory().size();
 		final PlayerInventory[] inventory = new PlayerInventory[invSize];
+		final PlayerItemStatus[] statuses = new PlayerItemStatus[invSize];
 
 		for (int i = 0; i < invSize; i++) {
 			inventory[i] = new PlayerInventory();
@@ -796,16 +898,20 @@ public abstract class GameDatabase {
 			inventory[i].noted = player.getCarriedItems().getInventory().get(i).getNoted();
 			inventory[i].catalogID = player.getCarriedItems().getInventory().get(i).getCatalogId();
 			inventory[i].durability = 100;
+			statuses[i] = itemStatus(inventory[i].itemId, inventory[i].catalogID, inventory[i].amount,
+				inventory[i].noted, inventory[i].wielded, inventory[i].durability);
 		}
 
-		savePlayerInventory(player.getDatabaseID(), inventory);
+		savePlayerItems(changes, PlayerSaveState.Container.INVENTORY, statuses,
+			() -> savePlayerInventory(player.getDatabaseID(), inventory));
 	}
 
-	public void querySavePlayerEquipped(Player player) throws GameDatabaseException {
+	public void querySavePlayerEquipped(Player player, PlayerSaveState.Changes changes) throws GameDatabaseException {
 		if (getServer().getConfig().WANT_EQUIPMENT_TAB) {
 			final int equipSize = Equipment.SLOT_COUNT;
 
 			final ArrayList<PlayerEquipped> list = new ArrayList<>();
+			final ArrayList<PlayerItemStatus> statuses = new ArrayList<>();
 
 			for (int i = 0; i < equipSize; i++) {
 				final Item item = player.getCarriedItems().getEquipment().get(i);
@@ -815,29 +921,73 @@ public abstract class GameDatabase {
 					equipment.itemId = item.getItemId();
 					equipment.itemStatus = item.getItemStatus();
 					list.add(equipment);
+					statuses.add(itemStatus(equipment.itemId, equipment.itemStatus.getCatalogId(), equipment.itemStatus.getAmount(),
+						equipment.itemStatus.getNoted(), true, equipment.itemStatus.getDurability()));
 				}
 			}
 
 			final PlayerEquipped[] equippedItems = list.toArray(new PlayerEquipped[0]);
 
-			querySavePlayerEquipped(player.getDatabaseID(), equippedItems);
+			savePlayerItems(changes, PlayerSaveState.Container.EQUIPMENT,
+				PlayerSaveState.sortedByItemId(statuses.toArray(new PlayerItemStatus[0])),
+				() -> querySavePlayerEquipped(player.getDatabaseID(), equippedItems));
 		}
 	}
 
-	public void savePlayerBank(Player player) throws GameDatabaseException {
+	public void savePlayerBank(Player player, PlayerSaveState.Changes changes) throws GameDatabaseException {
 		final int bankSize = player.getBank().size();
 		final PlayerBank[] bank = new PlayerBank[bankSize];
+		final PlayerItemStatus[] statuses = new PlayerItemStatus[bankSize];
 
 		for (int i = 0; i < bankSize; i++) {
 			bank[i] = new PlayerBank();
 			bank[i].itemId = player.getBank().get(i).getItemId();
 			bank[i].itemStatus = player.getBank().get(i).getItemStatus();
+			statuses[i] = itemStatus(bank[i].itemId, bank[i].itemStatus.getCatalogId(), bank[i].itemStatus.getAmount(),
+				bank[i].itemStatus.getNoted(), false, bank[i].itemStatus.getDurability());
+		}
+
+		savePlayerItems(changes, PlayerSaveState.Container.BANK, statuses,
+			() -> savePlayerBank(player.getDatabaseID(), bank));
+	}
+
+	/**
+	 * Writes a container of items in full if items were added, removed or moved since it was saved,
+	 * or else only the statuses of the items that changed.
+	 */
+	private void savePlayerItems(final PlayerSaveState.Changes changes, final PlayerSaveState.Container container,
+								 final PlayerItemStatus[] items, final CheckedRunnable<GameDatabaseException> writeAll) throws GameDatabaseException {
+		final int[] image = PlayerSaveState.itemImage(items);
+		final int[] changed = PlayerSaveState.changedItems(changes.getSaved(container), image);
+		if (changed == null) {
+			writeAll.run();
+			changes.saved(container, image, items.length, Math.max(1, items.length));
+			return;
 		}
 
-		savePlayerBank(player.getDatabaseID(), bank);
+		if (changed.length > 0) {
+			final PlayerItemStatus[] updates = new PlayerItemStatus[changed.length];
+			for (int i = 0; i < changed.length; i++) {
+				updates[i] = items[changed[i]];
+			}
+			querySaveItemStatuses(updates);
+		}
+		changes.saved(container, image, items.length, changed.length);
+	}
+
+	private static PlayerItemStatus itemStatus(final int itemId, final int catalogId, final int amount,
+											   final boolean noted, final boolean wielded, final int durability) {
+		final PlayerItemStatus item = new PlayerItemStatus();
+		item.itemId = itemId;
+		item.catalogId = catalogId;
+		item.amount = amount;
+		item.noted = noted;
+		item.wielded = wielded;
+		item.durability = durability;
+		return item;
 	}
 
-	public void querySavePlayerBankPresets(Player player) throws GameDatabaseException {
+	public void querySavePlayerBankPresets(Player player, PlayerSaveState.Changes changes) throws GameDatabaseException {
 		try {
 			if (getServer().getConfig().WANT_BANK_PRESETS) {
 				final ArrayList<PlayerBankPreset> list = new ArrayList<>();
@@ -883,7 +1033,13 @@ public abstract class GameDatabase {
 				final PlayerBankPreset[] presets = list.toArray(new PlayerBankPreset[list.size()]);
 
 				if (presets.length > 0) {
-					querySavePlayerBankPresets(player.getDatabaseID(), presets);
+					final byte[][] image = PlayerSaveState.presetImage(presets);
+					if (changes.isSaved(PlayerSaveState.Container.BANK_PRESETS, image)) {
+						changes.saved(PlayerSaveState.Container.BANK_PRESETS, image, presets.length, 0);
+					} else {
+						querySavePlayerBankPresets(player.getDatabaseID(), presets);
+						changes.saved(PlayerSaveState.Container.BANK_PRESETS, image, presets.length, presets.length);
+					}
 				}
 			}
 		} catch (final IOException ex) {
@@ -892,97 +1048,167 @@ public abstract class GameDatabase {
 		}
 	}
 
-	public void querySavePlayerFriends(Player player) throws GameDatabaseException {
+	public void querySavePlayerFriends(Player player, PlayerSaveState.Changes changes) throws GameDatabaseException {
 		final ArrayList<PlayerFriend> list = new ArrayList<>();
+		final Set<Long> image = new HashSet<>();
 		final Set<Map.Entry<Long, Integer>> entrySet = player.getSocial().getFriendList().entrySet();
 
 		for (final Map.Entry<Long, Integer> entry : entrySet) {
 			PlayerFriend friend = new PlayerFriend();
 			friend.playerHash = entry.getKey();
 			list.add(friend);
+			image.add(friend.playerHash);
+		}
+
+		if (changes.isSaved(PlayerSaveState.Container.FRIENDS, image)) {
+			changes.saved(PlayerSaveState.Container.FRIENDS, image, list.size(), 0);
+			return;
 		}
 
 		final PlayerFriend[] friends = list.toArray(new PlayerFriend[list.size()]);
 
 		querySavePlayerFriends(player.getDatabaseID(), friends);
+		changes.saved(PlayerSaveState.Container.FRIENDS, image, friends.length, Math.max(1, friends.length));
 	}
 
-	public void querySavePlayerIgnored(Player player) throws GameDatabaseException {
-		final int ignoreSize = player.getSocial().getIgnoreList().size();
-		final PlayerIgnore[] ignores = new PlayerIgnore[ignoreSize];
+	public void querySavePlayerIgnored(Player player, PlayerSaveState.Changes changes) throws GameDatabaseException {
+		final List<Long> ignoreList = new ArrayList<>(player.getSocial().getIgnoreList());
+		final PlayerIgnore[] ignores = new PlayerIgnore[ignoreList.size()];
 
-		for (int i = 0; i < ignoreSize; i++) {
+		for (int i = 0; i < ignores.length; i++) {
 			ignores[i] = new PlayerIgnore();
-			ignores[i].playerHash = player.getSocial().getIgnoreList().get(i);
+			ignores[i].playerHash = ignoreList.get(i);
+		}
+
+		final Set<Long> image = new HashSet<>(ignoreList);
+		if (changes.isSaved(PlayerSaveState.Container.IGNORES, image)) {
+			changes.saved(PlayerSaveState.Container.IGNORES, image, ignores.length, 0);
+			return;
 		}
 
 		querySavePlayerIgnored(player.getDatabaseID(), ignores);
+		changes.saved(PlayerSaveState.Container.IGNORES, image, ignores.length, Math.max(1, ignores.length));
 	}
 
-	public void querySavePlayerQuests(Player player) throws GameDatabaseException {
-		final ArrayList<PlayerQuest> list = new ArrayList<>();
-		final Set<Integer> keys = player.getQuestStages().keySet();
+	public void querySavePlayerQuests(Player player, PlayerSaveState.Changes changes) throws GameDatabaseException {
+		final Map<Integer, Integer> image = new HashMap<>(player.getQuestStages());
+		final PlayerSaveState.Delta<Integer> delta = PlayerSaveState.diff(changes.getSaved(PlayerSaveState.Container.QUESTS), image);
 
-		for (final int id : keys) {
-			final PlayerQuest quest = new PlayerQuest();
-			quest.questId = id;
-			quest.stage = player.getQuestStage(id);
-			list.add(quest);
+		if (delta == null) {
+			querySavePlayerQuests(player.getDatabaseID(), quests(image, image.keySet()));
+			changes.saved(PlayerSaveState.Container.QUESTS, image, image.size(), Math.max(1, image.size()));
+			return;
 		}
 
-		final PlayerQuest[] quests = list.toArray(new PlayerQuest[list.size()]);
+		if (delta.size() > 0) {
+			final int[] removed = new int[delta.removed.size()];
+			for (int i = 0; i < removed.length; i++) {
+				removed[i] = delta.removed.get(i);
+			}
+			querySavePlayerQuestChanges(player.getDatabaseID(), quests(image, delta.added), quests(image, delta.updated), removed);
+		}
+		changes.saved(PlayerSaveState.Container.QUESTS, image, image.size(), delta.size());
+	}
 
-		querySavePlayerQuests(player.getDatabaseID(), quests);
+	private static PlayerQuest[] quests(final Map<Integer, Integer> stages, final Collection<Integer> ids) {
+		final PlayerQuest[] quests = new PlayerQuest[ids.size()];
+		int i = 0;
+		for (final int id : ids) {
+			quests[i] = new PlayerQuest();
+			quests[i].questId = id;
+			quests[i].stage = stages.get(id);
+			i++;
+		}
+		return quests;
 	}
 
 	public void querySavePlayerAchievements(Player player) throws GameDatabaseException {
 
 	}
 
-	public void querySavePlayerCache(Player player) throws GameDatabaseException {
-		final int cacheSize = player.getCache().getCacheMap().size();
-		final PlayerCache[] caches = new PlayerCache[cacheSize];
+	public void querySavePlayerCache(Player player, PlayerSaveState.Changes changes) throws GameDatabaseException {
+		final Map<String, PlayerCache> cacheByKey = new HashMap<>();
 
-		int i = 0;
-		for (final String key : player.getCache().getCacheMap().keySet()) {
-			final Object o = player.getCache().getCacheMap().get(key);
+		for (final Map.Entry<String, Object> entry : player.getCache().getCacheMap().entrySet()) {
+			final Object o = entry.getValue();
 
-			caches[i] = new PlayerCache();
-			caches[i].value = o != null ? o.toString() : null;
-			caches[i].key = key;
+			final PlayerCache cache = new PlayerCache();
+			cache.value = o != null ? o.toString() : null;
+			cache.key = entry.getKey();
 
 			if (o instanceof Integer) {
-				caches[i].type = 0;
+				cache.type = 0;
 			} else if (o instanceof String) {
-				caches[i].type = 1;
+				cache.type = 1;
 			} else if (o instanceof Boolean) {
-				caches[i].type = 2;
+				cache.type = 2;
 			} else if (o instanceof Long) {
-				caches[i].type = 3;
+				cache.type = 3;
 			}
-			i++;
+			cacheByKey.put(cache.key, cache);
 		}
 
-		querySavePlayerCache(player.getDatabaseID(), caches);
-	}
+		final PlayerCache[] caches = cacheByKey.values().toArray(new PlayerCache[0]);
+		final Map<String, String> image = PlayerSaveState.cacheImage(caches);
+		final PlayerSaveState.Delta<String> delta = PlayerSaveState.diff(changes.getSaved(PlayerSaveState.Container.CACHE), image);
 
-	public void querySavePlayerNpcKills(Player player) throws GameDatabaseException {
-		final int killsSize = player.getKillCache().size();
-		final PlayerNpcKills[] killMap = new PlayerNpcKills[killsSize];
+		if (delta == null) {
+			querySavePlayerCache(player.getDatabaseID(), caches);
+			changes.saved(PlayerSaveState.Container.CACHE, image, caches.length, Math.max(1, caches.length));
+			return;
+		}
+
+		if (delta.size() > 0) {
+			querySavePlayerCacheChanges(player.getDatabaseID(), caches(cacheByKey, delta.added), caches(cacheByKey, delta.updated),
+				delta.removed.toArray(new String[0]));
+		}
+		changes.saved(PlayerSaveState.Container.CACHE, image, caches.length, delta.size());
+	}
 
+	private static PlayerCache[] caches(final Map<String, PlayerCache> cacheByKey, final Collection<String> keys) {
+		final PlayerCache[] caches = new PlayerCache[keys.size()];
 		int i = 0;
-		for (final Map.Entry<Integer, Integer> e : player.getKillCache().entrySet()) {
-			killMap[i] = new PlayerNpcKills();
-			killMap[i].killCount = e.getValue();
-			killMap[i].npcId = e.getKey();
+		for (final String key : keys) {
+			caches[i++] = cacheByKey.get(key);
+		}
+		return caches;
+	}
 
-			i++;
+	public void querySavePlayerNpcKills(Player player, PlayerSaveState.Changes changes) throws GameDatabaseException {
+		final Map<Integer, Integer> image = new HashMap<>(player.getKillCache());
+		final Map<Integer, Integer> saved = changes.getSaved(PlayerSaveState.Container.NPC_KILLS);
+		final PlayerSaveState.Delta<Integer> delta = PlayerSaveState.diff(saved, image);
+
+		if (delta == null) {
+			querySavePlayerNpcKills(player.getDatabaseID(), npcKills(image, image.keySet()));
+			changes.saved(PlayerSaveState.Container.NPC_KILLS, image, image.size(), Math.max(1, image.size()));
+			return;
 		}
 
-		querySavePlayerNpcKills(player.getDatabaseID(), killMap);
+		// Kills are never deleted, so anything no longer in the cache is still saved
+		for (final int npcId : delta.removed) {
+			image.put(npcId, saved.get(npcId));
+		}
+		final int written = delta.added.size() + delta.updated.size();
+		if (written > 0) {
+			querySavePlayerNpcKillChanges(player.getDatabaseID(), npcKills(image, delta.added), npcKills(image, delta.updated));
+		}
+		changes.saved(PlayerSaveState.Container.NPC_KILLS, image, image.size(), written);
 	}
 
-	public void querySavePlayerSkills(Player player) throws GameDatabaseException {
+	private static PlayerNpcKills[] npcKills(final Map<Integer, Integer> killCounts, final Collection<Integer> npcIds) {
+		final PlayerNpcKills[] kills = new PlayerNpcKills[npcIds.size()];
+		int i = 0;
+		for (final int npcId : npcIds) {
+			kills[i] = new PlayerNpcKills();
+			kills[i].npcId = npcId;
+			kills[i].killCount = killCounts.get(npcId);
+			i++;
+		}
+		return kills;
+	}
+
+	public void querySavePlayerSkills(Player player, PlayerSaveState.Changes changes) throws GameDatabaseException {
 		final int skillsSize = getServer().getConstants().getSkills().getSkillsCount();
 		final PlayerSkills[] skills = new PlayerSkills[skillsSize];
 
@@ -992,10 +1218,17 @@ public abstract class GameDatabase {
 			skills[i].skillLevel = player.getSkills().getLevel(i);
 		}
 
+		final int[] image = PlayerSaveState.skillImage(skills);
+		if (changes.isSaved(PlayerSaveState.Container.SKILLS, image)) {
+			changes.saved(PlayerSaveState.Container.SKILLS, image, 1, 0);
+			return;
+		}
+
 		querySavePlayerSkills(player.getDatabaseID(), skills);
+		changes.saved(PlayerSaveState.Container.SKILLS, image, 1, 1);
 	}
 
-	public void querySavePlayerExperience(Player player) throws GameDatabaseException {
+	public void querySavePlayerExperience(Player player, PlayerSaveState.Changes changes) throws GameDatabaseException {
 		final int skillsSize = getServer().getConstants().getSkills().getSkillsCount();
 		final PlayerExperience[] skills = new PlayerExperience[skillsSize];
 
@@ -1005,10 +1238,24 @@ public abstract class GameDatabase {
 			skills[i].experience = player.getSkills().getExperience(i);
 		}
 
+		final int[] image = PlayerSaveState.experienceImage(skills);
+		if (changes.isSaved(PlayerSaveState.Container.EXPERIENCE, image)) {
+			changes.saved(PlayerSaveState.Container.EXPERIENCE, image, 1, 0);
+			return;
+		}
+
 		querySavePlayerExperience(player.getDatabaseID(), skills);
+		changes.saved(PlayerSaveState.Container.EXPERIENCE, image, 1, 1);
 	}
 
 	public void querySavePlayerMaxSkills(Player player) throws GameDatabaseException {
+		querySavePlayerMaxSkills(player.getDatabaseID(), getMaxSkills(player));
+	}
+
+	/**
+	 * @return The player's max skill levels as they are now, to be saved later or on another thread.
+	 */
+	public PlayerSkills[] getMaxSkills(Player player) {
 		final int skillsSize = getServer().getConstants().getSkills().getSkillsCount();
 		final PlayerSkills[] skills = new PlayerSkills[skillsSize];
 
@@ -1017,8 +1264,7 @@ public abstract class GameDatabase {
 			skills[i].skillId = i;
 			skills[i].skillLevel = player.getSkills().getMaxStat(i);
 		}
-
-		querySavePlayerMaxSkills(player.getDatabaseID(), skills);
+		return skills;
 	}
 
 	public int getMaxItemID() {
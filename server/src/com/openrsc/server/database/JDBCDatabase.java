@@ -16,6 +16,11 @@ public abstract class JDBCDatabase extends GameDatabase {
 
     public abstract JDBCDatabaseConnection getConnection();
 
+    @Override
+    public DatabaseLease lease() {
+        return getConnection().lease();
+    }
+
     public void withPreparedStatement(
             String query,
             CheckedConsumer<Exception, PreparedStatement> statementConsumer
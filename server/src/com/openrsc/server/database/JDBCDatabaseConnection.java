@@ -5,38 +5,177 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
 
+/**
+ * A bounded pool of connections to the database.
+ *
+ * A thread holding a {@link #lease()} has one of the connections to itself until it closes the lease,
+ * so transactions and async queries are not interleaved with anyone else's statements. Everyone else shares
+ * one more connection, one statement at a time, as before there was a pool. That one is never leased, so a
+ * transaction never picks up statements of threads without a lease.
+ */
 public abstract class JDBCDatabaseConnection {
-    public synchronized int executeUpdate(final String string) throws SQLException {
-        return getStatement().executeUpdate(string);
+    /**
+     * How long to wait for a connection to be free before giving up.
+     */
+    private static final long LEASE_TIMEOUT_SECONDS = 30;
+    /**
+     * The connection used by threads without a lease.
+     */
+    private static final int SHARED_CONNECTION = 0;
+
+    private final ThreadLocal<Lease> leases = new ThreadLocal<>();
+    private BlockingQueue<PooledConnection> idleConnections;
+    private PooledConnection[] connections;
+
+    public int executeUpdate(final String string) throws SQLException {
+        final PooledConnection connection = current();
+        synchronized (connection) {
+            return connection.getStatement().executeUpdate(string);
+        }
     }
 
-    public synchronized ResultSet executeQuery(final String string) throws SQLException {
-        return getStatement().executeQuery(string);
+    public ResultSet executeQuery(final String string) throws SQLException {
+        final PooledConnection connection = current();
+        synchronized (connection) {
+            return connection.getStatement().executeQuery(string);
+        }
     }
 
     /**
-     * Create a Prepared Statement
+     * Create a Prepared Statement. It is cached, so preparing the same query again on this thread's connection is cheap.
      *
      * @param statement The MySQL query to run represented as a java.lang.String
      * @return The MySQL query to run represented as a java.sql.PreparedStatement
      * @throws SQLException if there was an error when preparing the statement
      */
-    public synchronized PreparedStatement prepareStatement(final String statement) throws SQLException {
-        return getConnection().prepareStatement(statement);
+    public PreparedStatement prepareStatement(final String statement) throws SQLException {
+        return current().prepareStatement(statement);
+    }
+
+    public PreparedStatement prepareStatement(final String statement, final String[] generatedColumns) throws SQLException {
+        final PooledConnection connection = current();
+        synchronized (connection) {
+            return connection.getConnection().prepareStatement(statement, generatedColumns);
+        }
+    }
+
+    public PreparedStatement prepareStatement(final String statement, final int returnKeys) throws SQLException {
+        final PooledConnection connection = current();
+        synchronized (connection) {
+            return connection.getConnection().prepareStatement(statement, returnKeys);
+        }
     }
 
-    public synchronized PreparedStatement prepareStatement(final String statement, final String[] generatedColumns) throws SQLException {
-        return getConnection().prepareStatement(statement, generatedColumns);
+    /**
+     * Reserves a connection for the calling thread until the lease is closed. Leases taken while one is held share it.
+     *
+     * @throws GameDatabaseException if no connection became free in time
+     */
+    public DatabaseLease lease() {
+        final Lease held = leases.get();
+        if (held != null) {
+            held.depth++;
+            return held;
+        }
+
+        final BlockingQueue<PooledConnection> idleConnections = this.idleConnections;
+        if (idleConnections == null) {
+            throw new GameDatabaseException(getClass(), "Database is not open");
+        }
+        final PooledConnection connection;
+        try {
+            connection = idleConnections.poll(LEASE_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new GameDatabaseException(getClass(), "Interrupted waiting for a connection");
+        }
+        if (connection == null) {
+            throw new GameDatabaseException(getClass(), "No connection free after " + LEASE_TIMEOUT_SECONDS + " seconds");
+        }
+
+        final Lease lease = new Lease(connection, idleConnections);
+        leases.set(lease);
+        return lease;
     }
 
-    public synchronized PreparedStatement prepareStatement(final String statement, final int returnKeys) throws SQLException {
-        return getConnection().prepareStatement(statement, returnKeys);
+    /**
+     * @return The connection leased by this thread, or the shared one.
+     */
+    private PooledConnection current() {
+        final Lease lease = leases.get();
+        return lease != null ? lease.connection : connections[SHARED_CONNECTION];
     }
 
-    protected abstract Statement getStatement();
+    /**
+     * Opens the pool, closing any connections already open.
+     *
+     * @param size               Number of connections that can be leased. One more is opened for threads without a lease.
+     * @param statementCacheSize Number of prepared statements kept per connection.
+     * @throws SQLException if a connection could not be opened
+     */
+    protected synchronized void openPool(final int size, final int statementCacheSize) throws SQLException {
+        closePool();
 
-    public abstract Connection getConnection();
+        final PooledConnection[] connections = new PooledConnection[Math.max(1, size) + 1];
+        try {
+            for (int i = 0; i < connections.length; i++) {
+                connections[i] = new PooledConnection(createConnection(), statementCacheSize);
+            }
+        } catch (final SQLException e) {
+            for (final PooledConnection connection : connections) {
+                if (connection != null) {
+                    connection.close();
+                }
+            }
+            throw e;
+        }
+
+        final BlockingQueue<PooledConnection> idleConnections = new ArrayBlockingQueue<>(connections.length - 1);
+        for (int i = 0; i < connections.length; i++) {
+            if (i != SHARED_CONNECTION) {
+                idleConnections.add(connections[i]);
+            }
+        }
+        this.connections = connections;
+        this.idleConnections = idleConnections;
+    }
+
+    protected synchronized void closePool() {
+        if (connections == null) {
+            return;
+        }
+        for (final PooledConnection connection : connections) {
+            connection.close();
+        }
+        connections = null;
+        idleConnections = null;
+    }
+
+    /**
+     * @return Number of connections that can be leased, not counting the shared one.
+     */
+    public int getPoolSize() {
+        final PooledConnection[] connections = this.connections;
+        return connections == null ? 0 : connections.length - 1;
+    }
+
+    protected Statement getStatement() {
+        return current().getStatement();
+    }
+
+    public Connection getConnection() {
+        final PooledConnection[] connections = this.connections;
+        return connections == null ? null : current().getConnection();
+    }
+
+    /**
+     * Opens a new connection for the pool.
+     */
+    protected abstract Connection createConnection() throws SQLException;
 
     protected abstract boolean checkConnection();
 
@@ -47,4 +186,24 @@ public abstract class JDBCDatabaseConnection {
     public abstract void close();
 
     public abstract DatabaseType getDatabaseType();
+
+    private final class Lease implements DatabaseLease {
+        private final PooledConnection connection;
+        private final BlockingQueue<PooledConnection> idleConnections;
+        private int depth = 1;
+
+        private Lease(final PooledConnection connection, final BlockingQueue<PooledConnection> idleConnections) {
+            this.connection = connection;
+            this.idleConnections = idleConnections;
+        }
+
+        @Override
+        public void close() {
+            if (--depth > 0) {
+                return;
+            }
+            leases.remove();
+            idleConnections.offer(connection);
+        }
+    }
 }
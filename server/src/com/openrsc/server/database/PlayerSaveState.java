@@ -0,0 +1,320 @@
+package com.openrsc.server.database;
+
+import com.openrsc.server.database.struct.*;
+import com.openrsc.server.model.container.BankPreset;
+import com.openrsc.server.model.container.ItemStatus;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * What the database holds for a player, as of when the player was loaded or last saved, so saves only write what changed since.
+ *
+ * Containers are compared against it as they are saved rather than marked dirty as they change, since items are changed in
+ * place all over the server and the plugins. A container with nothing recorded is written in full.
+ */
+public final class PlayerSaveState {
+	public enum Container {
+		INVENTORY,
+		EQUIPMENT,
+		BANK,
+		BANK_PRESETS,
+		FRIENDS,
+		IGNORES,
+		QUESTS,
+		CACHE,
+		NPC_KILLS,
+		SKILLS,
+		EXPERIENCE
+	}
+
+	/**
+	 * Each item is kept as its item ID followed by the columns of its status.
+	 */
+	private static final int ITEM_FIELDS = 6;
+
+	private final EnumMap<Container, Object> saved = new EnumMap<>(Container.class);
+
+	/**
+	 * @return A new save, which records what it wrote here once it commits.
+	 */
+	public Changes changes() {
+		return new Changes();
+	}
+
+	public void loadedInventory(final PlayerInventory[] inventory) {
+		final PlayerItemStatus[] items = new PlayerItemStatus[inventory.length];
+		for (int i = 0; i < inventory.length; i++) {
+			items[i] = itemStatus(inventory[i].itemId, inventory[i].item.getItemStatus());
+		}
+		set(Container.INVENTORY, itemImage(items));
+	}
+
+	public void loadedEquipment(final PlayerEquipped[] equipment) {
+		final PlayerItemStatus[] items = new PlayerItemStatus[equipment.length];
+		for (int i = 0; i < equipment.length; i++) {
+			items[i] = itemStatus(equipment[i].itemId, equipment[i].itemStatus);
+		}
+		set(Container.EQUIPMENT, itemImage(sortedByItemId(items)));
+	}
+
+	public void loadedBank(final PlayerBank[] bank) {
+		final PlayerItemStatus[] items = new PlayerItemStatus[bank.length];
+		for (int i = 0; i < bank.length; i++) {
+			items[i] = itemStatus(bank[i].itemId, bank[i].itemStatus);
+		}
+		set(Container.BANK, itemImage(items));
+	}
+
+	public void loadedBankPresets(final PlayerBankPreset[] presets) {
+		set(Container.BANK_PRESETS, presetImage(presets));
+	}
+
+	public void loadedFriends(final PlayerFriend[] friends) {
+		final Set<Long> image = new HashSet<>();
+		for (final PlayerFriend friend : friends) {
+			image.add(friend.playerHash);
+		}
+		set(Container.FRIENDS, image);
+	}
+
+	public void loadedIgnores(final PlayerIgnore[] ignores) {
+		final Set<Long> image = new HashSet<>();
+		for (final PlayerIgnore ignore : ignores) {
+			image.add(ignore.playerHash);
+		}
+		set(Container.IGNORES, image);
+	}
+
+	public void loadedQuests(final PlayerQuest[] quests) {
+		set(Container.QUESTS, questImage(quests));
+	}
+
+	public void loadedCache(final PlayerCache[] cache) {
+		set(Container.CACHE, cacheImage(cache));
+	}
+
+	public void loadedNpcKills(final PlayerNpcKills[] kills) {
+		set(Container.NPC_KILLS, npcKillImage(kills));
+	}
+
+	public void loadedSkills(final PlayerSkills[] skills) {
+		set(Container.SKILLS, skillImage(skills));
+	}
+
+	public void loadedExperience(final PlayerExperience[] experience) {
+		set(Container.EXPERIENCE, experienceImage(experience));
+	}
+
+	private synchronized void set(final Container container, final Object image) {
+		saved.put(container, image);
+	}
+
+	private synchronized Object get(final Container container) {
+		return saved.get(container);
+	}
+
+	static PlayerItemStatus itemStatus(final int itemId, final ItemStatus status) {
+		final PlayerItemStatus item = new PlayerItemStatus();
+		item.itemId = itemId;
+		item.catalogId = status.getCatalogId();
+		item.amount = status.getAmount();
+		item.noted = status.getNoted();
+		item.wielded = status.isWielded();
+		item.durability = status.getDurability();
+		return item;
+	}
+
+	/**
+	 * For containers that do not save the order of their items.
+	 */
+	static PlayerItemStatus[] sortedByItemId(final PlayerItemStatus[] items) {
+		final PlayerItemStatus[] sorted = items.clone();
+		Arrays.sort(sorted, Comparator.comparingInt(item -> item.itemId));
+		return sorted;
+	}
+
+	static int[] itemImage(final PlayerItemStatus[] items) {
+		final int[] image = new int[items.length * ITEM_FIELDS];
+		int offset = 0;
+		for (final PlayerItemStatus item : items) {
+			image[offset++] = item.itemId;
+			image[offset++] = item.catalogId;
+			image[offset++] = item.amount;
+			image[offset++] = item.noted ? 1 : 0;
+			image[offset++] = item.wielded ? 1 : 0;
+			image[offset++] = item.durability;
+		}
+		return image;
+	}
+
+	/**
+	 * @return The positions of the items whose status changed, or null if items were added, removed or moved.
+	 */
+	static int[] changedItems(final int[] saved, final int[] current) {
+		if (saved == null || saved.length != current.length) {
+			return null;
+		}
+		final int[] changed = new int[current.length / ITEM_FIELDS];
+		int count = 0;
+		for (int offset = 0; offset < current.length; offset += ITEM_FIELDS) {
+			if (saved[offset] != current[offset]) {
+				return null;
+			}
+			for (int field = 1; field < ITEM_FIELDS; field++) {
+				if (saved[offset + field] != current[offset + field]) {
+					changed[count++] = offset / ITEM_FIELDS;
+					break;
+				}
+			}
+		}
+		return Arrays.copyOf(changed, count);
+	}
+
+	static byte[][] presetImage(final PlayerBankPreset[] presets) {
+		final byte[][] image = new byte[BankPreset.PRESET_COUNT * 2][];
+		for (final PlayerBankPreset preset : presets) {
+			if (preset.slot >= 0 && preset.slot < BankPreset.PRESET_COUNT) {
+				image[preset.slot * 2] = preset.inventory;
+				image[preset.slot * 2 + 1] = preset.equipment;
+			}
+		}
+		return image;
+	}
+
+	static Map<Integer, Integer> questImage(final PlayerQuest[] quests) {
+		final Map<Integer, Integer> image = new HashMap<>();
+		for (final PlayerQuest quest : quests) {
+			image.put(quest.questId, quest.stage);
+		}
+		return image;
+	}
+
+	static Map<String, String> cacheImage(final PlayerCache[] cache) {
+		final Map<String, String> image = new HashMap<>();
+		for (final PlayerCache entry : cache) {
+			image.put(entry.key, entry.type + ":" + entry.value);
+		}
+		return image;
+	}
+
+	static Map<Integer, Integer> npcKillImage(final PlayerNpcKills[] kills) {
+		final Map<Integer, Integer> image = new HashMap<>();
+		for (final PlayerNpcKills kill : kills) {
+			image.put(kill.npcId, kill.killCount);
+		}
+		return image;
+	}
+
+	static int[] skillImage(final PlayerSkills[] skills) {
+		int length = 0;
+		for (final PlayerSkills skill : skills) {
+			length = Math.max(length, skill.skillId + 1);
+		}
+		final int[] image = new int[length];
+		for (final PlayerSkills skill : skills) {
+			image[skill.skillId] = skill.skillLevel;
+		}
+		return image;
+	}
+
+	static int[] experienceImage(final PlayerExperience[] experience) {
+		int length = 0;
+		for (final PlayerExperience exp : experience) {
+			length = Math.max(length, exp.skillId + 1);
+		}
+		final int[] image = new int[length];
+		for (final PlayerExperience exp : experience) {
+			image[exp.skillId] = exp.experience;
+		}
+		return image;
+	}
+
+	/**
+	 * @return The keys added, changed and removed since the saved image, or null if nothing is saved.
+	 */
+	static <K, V> Delta<K> diff(final Map<K, V> saved, final Map<K, V> current) {
+		if (saved == null) {
+			return null;
+		}
+		final Delta<K> delta = new Delta<>();
+		for (final Map.Entry<K, V> entry : current.entrySet()) {
+			if (!saved.containsKey(entry.getKey())) {
+				delta.added.add(entry.getKey());
+			} else if (!Objects.equals(saved.get(entry.getKey()), entry.getValue())) {
+				delta.updated.add(entry.getKey());
+			}
+		}
+		for (final K key : saved.keySet()) {
+			if (!current.containsKey(key)) {
+				delta.removed.add(key);
+			}
+		}
+		return delta;
+	}
+
+	static final class Delta<K> {
+		final List<K> added = new ArrayList<>();
+		final List<K> updated = new ArrayList<>();
+		final List<K> removed = new ArrayList<>();
+
+		int size() {
+			return added.size() + updated.size() + removed.size();
+		}
+	}
+
+	/**
+	 * One save of a player. What it writes only becomes the player's saved state when it commits,
+	 * so a save that is rolled back is compared against again next time.
+	 */
+	public final class Changes {
+		private final EnumMap<Container, Object> images = new EnumMap<>(Container.class);
+		private int rowsHeld;
+		private int rowsWritten;
+		private int containersWritten;
+		private int containersSkipped;
+
+		@SuppressWarnings("unchecked")
+		<T> T getSaved(final Container container) {
+			return (T) get(container);
+		}
+
+		/**
+		 * @return Whether the database already holds the image.
+		 */
+		boolean isSaved(final Container container, final Object image) {
+			return Objects.deepEquals(get(container), image);
+		}
+
+		/**
+		 * @param image   What the database holds for the container once the save commits.
+		 * @param held    How many rows a full write of the container would be.
+		 * @param written How many rows were written.
+		 */
+		void saved(final Container container, final Object image, final int held, final int written) {
+			images.put(container, image);
+			rowsHeld += held;
+			rowsWritten += written;
+			if (written > 0) {
+				containersWritten++;
+			} else {
+				containersSkipped++;
+			}
+		}
+
+		public void commit(final SaveStatistics statistics) {
+			synchronized (PlayerSaveState.this) {
+				saved.putAll(images);
+			}
+			statistics.record(rowsHeld, rowsWritten, containersWritten, containersSkipped);
+		}
+	}
+}
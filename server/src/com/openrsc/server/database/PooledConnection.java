@@ -0,0 +1,158 @@
+package com.openrsc.server.database;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * One connection of a {@link JDBCDatabaseConnection} pool, with the prepared statements made on it.
+ *
+ * Statements are kept open when callers close them and handed out again the next time the same query is prepared,
+ * with their parameters cleared. A statement still in use is never handed out twice; preparing its query again
+ * meanwhile gives a new statement that is not kept.
+ */
+final class PooledConnection {
+	/**
+	 * The asynchronous logger.
+	 */
+	private static final Logger LOGGER = LogManager.getLogger();
+
+	private final Connection connection;
+	private final Statement statement;
+	private final int statementCacheSize;
+	private final LinkedHashMap<String, CachedStatement> statements = new LinkedHashMap<>(16, 0.75f, true);
+
+	PooledConnection(final Connection connection, final int statementCacheSize) throws SQLException {
+		this.connection = connection;
+		this.statement = connection.createStatement();
+		this.statement.setEscapeProcessing(true);
+		this.statementCacheSize = statementCacheSize;
+	}
+
+	Connection getConnection() {
+		return connection;
+	}
+
+	Statement getStatement() {
+		return statement;
+	}
+
+	synchronized PreparedStatement prepareStatement(final String sql) throws SQLException {
+		CachedStatement cached = statements.get(sql);
+		if (cached != null && cached.inUse) {
+			return connection.prepareStatement(sql);
+		}
+		if (cached == null || cached.statement.isClosed()) {
+			cached = new CachedStatement(connection.prepareStatement(sql));
+			statements.put(sql, cached);
+			evict();
+		}
+		cached.inUse = true;
+		return cached.proxy;
+	}
+
+	private void evict() {
+		final Iterator<Map.Entry<String, CachedStatement>> iterator = statements.entrySet().iterator();
+		while (statements.size() > statementCacheSize && iterator.hasNext()) {
+			final CachedStatement eldest = iterator.next().getValue();
+			iterator.remove();
+			eldest.evicted = true;
+			if (!eldest.inUse) {
+				closeQuietly(eldest.statement);
+			}
+		}
+	}
+
+	private synchronized void release(final CachedStatement cached) throws SQLException {
+		if (!cached.inUse) {
+			return;
+		}
+		cached.inUse = false;
+		if (cached.resultSet != null) {
+			cached.resultSet.close();
+			cached.resultSet = null;
+		}
+		if (cached.evicted) {
+			cached.statement.close();
+		} else if (!cached.statement.isClosed()) {
+			cached.statement.clearParameters();
+			cached.statement.clearBatch();
+		}
+	}
+
+	synchronized void close() {
+		for (final CachedStatement cached : statements.values()) {
+			closeQuietly(cached.statement);
+		}
+		statements.clear();
+		closeQuietly(statement);
+		try {
+			connection.close();
+		} catch (final SQLException e) {
+			LOGGER.catching(e);
+		}
+	}
+
+	private static void closeQuietly(final Statement statement) {
+		try {
+			statement.close();
+		} catch (final SQLException e) {
+			LOGGER.catching(e);
+		}
+	}
+
+	private final class CachedStatement implements InvocationHandler {
+		private final PreparedStatement statement;
+		private final PreparedStatement proxy;
+		private boolean inUse;
+		private boolean evicted;
+		/**
+		 * The last result of executeQuery, closed along with the statement as the caller expects.
+		 */
+		private ResultSet resultSet;
+
+		private CachedStatement(final PreparedStatement statement) {
+			this.statement = statement;
+			this.proxy = (PreparedStatement) Proxy.newProxyInstance(
+				PreparedStatement.class.getClassLoader(), new Class<?>[]{PreparedStatement.class}, this);
+		}
+
+		@Override
+		public Object invoke(final Object proxy, final Method method, final Object[] args) throws Throwable {
+			switch (method.getName()) {
+				case "close":
+					release(this);
+					return null;
+				case "isClosed":
+					return !inUse || statement.isClosed();
+				case "equals":
+					return proxy == args[0];
+				case "hashCode":
+					return System.identityHashCode(proxy);
+				default:
+					break;
+			}
+			try {
+				final Object result = method.invoke(statement, args);
+				if (result instanceof ResultSet && method.getName().equals("executeQuery")) {
+					resultSet = (ResultSet) result;
+				}
+				return result;
+			} catch (final InvocationTargetException e) {
+				throw e.getCause();
+			}
+		}
+	}
+}
@@ -0,0 +1,49 @@
+package com.openrsc.server.database;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * How much player saves write compared to the rows the saved players hold, which is what every save used to rewrite.
+ * Saves run on the login threads and the game thread, so the counters are safe to update from any of them.
+ */
+public final class SaveStatistics {
+	private final LongAdder saves = new LongAdder();
+	private final LongAdder rowsHeld = new LongAdder();
+	private final LongAdder rowsWritten = new LongAdder();
+	private final LongAdder containersWritten = new LongAdder();
+	private final LongAdder containersSkipped = new LongAdder();
+
+	void record(final int rowsHeld, final int rowsWritten, final int containersWritten, final int containersSkipped) {
+		saves.increment();
+		this.rowsHeld.add(rowsHeld);
+		this.rowsWritten.add(rowsWritten);
+		this.containersWritten.add(containersWritten);
+		this.containersSkipped.add(containersSkipped);
+	}
+
+	public long getSaves() {
+		return saves.sum();
+	}
+
+	/**
+	 * @return How many rows the saved containers held, counting each container every time it was saved.
+	 */
+	public long getRowsHeld() {
+		return rowsHeld.sum();
+	}
+
+	public long getRowsWritten() {
+		return rowsWritten.sum();
+	}
+
+	public long getContainersWritten() {
+		return containersWritten.sum();
+	}
+
+	/**
+	 * @return How many times a container was saved without writing anything, as nothing had changed.
+	 */
+	public long getContainersSkipped() {
+		return containersSkipped.sum();
+	}
+}
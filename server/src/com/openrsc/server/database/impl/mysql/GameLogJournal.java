@@ -0,0 +1,263 @@
+package com.openrsc.server.database.impl.mysql;
+
+import com.openrsc.server.database.impl.mysql.queries.Query;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * An append-only file of game log rows that could not be written to the database in time, kept until they are replayed.
+ *
+ * The file starts with the offset of the first row not yet replayed, which is only moved on once the rows before it
+ * are in the database, so rows are replayed at least once even across restarts. Each row is its SQL and parameters,
+ * prefixed with its length so a row cut short by a crash is dropped on open.
+ */
+final class GameLogJournal implements Closeable {
+	private static final int HEADER_LENGTH = Long.BYTES;
+
+	private static final byte TYPE_NULL = 0;
+	private static final byte TYPE_STRING = 1;
+	private static final byte TYPE_INT = 2;
+	private static final byte TYPE_LONG = 3;
+	private static final byte TYPE_BYTE = 4;
+	private static final byte TYPE_BOOLEAN = 5;
+
+	private final RandomAccessFile file;
+	private long replayOffset;
+
+	GameLogJournal(final File path) throws IOException {
+		final File parent = path.getAbsoluteFile().getParentFile();
+		if (parent != null && !parent.exists() && !parent.mkdirs()) {
+			throw new IOException("Could not create " + parent);
+		}
+		file = new RandomAccessFile(path, "rw");
+		if (file.length() < HEADER_LENGTH) {
+			file.setLength(0);
+			file.writeLong(HEADER_LENGTH);
+		}
+		file.seek(0);
+		replayOffset = Math.max(HEADER_LENGTH, Math.min(file.readLong(), file.length()));
+		file.setLength(findEnd());
+		if (replayOffset >= file.length()) {
+			replayOffset = HEADER_LENGTH;
+			file.setLength(HEADER_LENGTH);
+			file.seek(0);
+			file.writeLong(replayOffset);
+		}
+	}
+
+	/**
+	 * @return The end of the last complete row.
+	 */
+	private long findEnd() throws IOException {
+		long offset = replayOffset;
+		final long length = file.length();
+		while (offset + Integer.BYTES <= length) {
+			file.seek(offset);
+			final int rowLength = file.readInt();
+			if (rowLength < 0 || offset + Integer.BYTES + rowLength > length) {
+				break;
+			}
+			offset += Integer.BYTES + rowLength;
+		}
+		return offset;
+	}
+
+	synchronized void append(final List<Entry> entries) throws IOException {
+		final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+		final DataOutputStream out = new DataOutputStream(buffer);
+		for (final Entry entry : entries) {
+			final byte[] row = entry.toBytes();
+			out.writeInt(row.length);
+			out.write(row);
+		}
+		out.flush();
+		file.seek(file.length());
+		file.write(buffer.toByteArray());
+		file.getChannel().force(false);
+	}
+
+	/**
+	 * Reads the next rows to replay, without moving past them.
+	 */
+	synchronized Batch read(final int limit) throws IOException {
+		final List<Entry> entries = new ArrayList<>();
+		long offset = replayOffset;
+		final long length = file.length();
+		while (entries.size() < limit && offset < length) {
+			file.seek(offset);
+			final byte[] row = new byte[file.readInt()];
+			file.readFully(row);
+			entries.add(Entry.fromBytes(row));
+			offset += Integer.BYTES + row.length;
+		}
+		return new Batch(entries, offset);
+	}
+
+	/**
+	 * Marks a batch as replayed. Once everything has been replayed, the file is emptied.
+	 */
+	synchronized void replayed(final Batch batch) throws IOException {
+		replayOffset = batch.end;
+		if (replayOffset >= file.length()) {
+			replayOffset = HEADER_LENGTH;
+			file.setLength(HEADER_LENGTH);
+		}
+		file.seek(0);
+		file.writeLong(replayOffset);
+		file.getChannel().force(false);
+	}
+
+	synchronized boolean isEmpty() throws IOException {
+		return replayOffset >= file.length();
+	}
+
+	/**
+	 * @return Bytes of rows waiting to be replayed.
+	 */
+	synchronized long getBacklog() throws IOException {
+		return file.length() - replayOffset;
+	}
+
+	@Override
+	public synchronized void close() throws IOException {
+		file.close();
+	}
+
+	static final class Batch {
+		final List<Entry> entries;
+		private final long end;
+
+		private Batch(final List<Entry> entries, final long end) {
+			this.entries = entries;
+			this.end = end;
+		}
+	}
+
+	/**
+	 * A game log query as its SQL and parameters.
+	 */
+	static final class Entry {
+		final String sql;
+		private final Object[] parameters;
+
+		private Entry(final String sql, final Object[] parameters) {
+			this.sql = sql;
+			this.parameters = parameters;
+		}
+
+		/**
+		 * Records the parameters the query binds.
+		 */
+		static Entry of(final Query query) throws SQLException {
+			final Object[][] parameters = {new Object[0]};
+			final InvocationHandler recorder = (proxy, method, args) -> {
+				if (method.getName().startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer) {
+					final int index = (Integer) args[0];
+					if (index > parameters[0].length) {
+						parameters[0] = Arrays.copyOf(parameters[0], index);
+					}
+					parameters[0][index - 1] = method.getName().equals("setNull") ? null : args[1];
+				}
+				return null;
+			};
+			final PreparedStatement statement = (PreparedStatement) Proxy.newProxyInstance(
+				PreparedStatement.class.getClassLoader(), new Class<?>[]{PreparedStatement.class}, recorder);
+			query.addBatch(statement);
+			return new Entry(query.getQuery(), parameters[0]);
+		}
+
+		void addBatch(final PreparedStatement statement) throws SQLException {
+			for (int i = 0; i < parameters.length; i++) {
+				statement.setObject(i + 1, parameters[i]);
+			}
+			statement.addBatch();
+		}
+
+		private byte[] toBytes() throws IOException {
+			final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+			final DataOutputStream out = new DataOutputStream(buffer);
+			writeString(out, sql);
+			out.writeShort(parameters.length);
+			for (final Object parameter : parameters) {
+				if (parameter == null) {
+					out.writeByte(TYPE_NULL);
+				} else if (parameter instanceof Integer || parameter instanceof Short) {
+					out.writeByte(TYPE_INT);
+					out.writeInt(((Number) parameter).intValue());
+				} else if (parameter instanceof Long) {
+					out.writeByte(TYPE_LONG);
+					out.writeLong((Long) parameter);
+				} else if (parameter instanceof Byte) {
+					out.writeByte(TYPE_BYTE);
+					out.writeByte((Byte) parameter);
+				} else if (parameter instanceof Boolean) {
+					out.writeByte(TYPE_BOOLEAN);
+					out.writeBoolean((Boolean) parameter);
+				} else {
+					out.writeByte(TYPE_STRING);
+					writeString(out, parameter.toString());
+				}
+			}
+			out.flush();
+			return buffer.toByteArray();
+		}
+
+		private static Entry fromBytes(final byte[] row) throws IOException {
+			final DataInputStream in = new DataInputStream(new ByteArrayInputStream(row));
+			final String sql = readString(in);
+			final Object[] parameters = new Object[in.readUnsignedShort()];
+			for (int i = 0; i < parameters.length; i++) {
+				final byte type = in.readByte();
+				switch (type) {
+					case TYPE_NULL:
+						break;
+					case TYPE_STRING:
+						parameters[i] = readString(in);
+						break;
+					case TYPE_INT:
+						parameters[i] = in.readInt();
+						break;
+					case TYPE_LONG:
+						parameters[i] = in.readLong();
+						break;
+					case TYPE_BYTE:
+						parameters[i] = in.readByte();
+						break;
+					case TYPE_BOOLEAN:
+						parameters[i] = in.readBoolean();
+						break;
+					default:
+						throw new IOException("Unknown parameter type " + type);
+				}
+			}
+			return new Entry(sql, parameters);
+		}
+
+		private static void writeString(final DataOutputStream out, final String string) throws IOException {
+			final byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+			out.writeInt(bytes.length);
+			out.write(bytes);
+		}
+
+		private static String readString(final DataInputStream in) throws IOException {
+			final byte[] bytes = new byte[in.readInt()];
+			in.readFully(bytes);
+			return new String(bytes, StandardCharsets.UTF_8);
+		}
+	}
+}
@@ -16,8 +16,6 @@ public class MySQLDatabaseConnection extends JDBCDatabaseConnection {
 	private static final Logger LOGGER = LogManager.getLogger();
 
 	private final Server server;
-	private Connection connection;
-	private Statement statement;
 	private boolean connected;
 
 	public MySQLDatabaseConnection(final Server server) {
@@ -37,12 +35,7 @@ public class MySQLDatabaseConnection extends JDBCDatabaseConnection {
 		}
 
 		try {
-			connection = DriverManager.getConnection("jdbc:mysql://"
-					+ getServer().getConfig().DB_HOST + "/" + getServer().getConfig().DB_NAME + "?autoReconnect=true&useSSL=false&rewriteBatchedStatements=true&serverTimezone=UTC",
-				getServer().getConfig().DB_USER,
-				getServer().getConfig().DB_PASS);
-			statement = getConnection().createStatement();
-			statement.setEscapeProcessing(true);
+			openPool(getServer().getConfig().DB_POOL_SIZE, getServer().getConfig().DB_STATEMENT_CACHE_SIZE);
 			connected = checkConnection();
 		} catch (final SQLException e) {
 			LOGGER.catching(e);
@@ -59,25 +52,18 @@ public class MySQLDatabaseConnection extends JDBCDatabaseConnection {
 		return isConnected();
 	}
 
+	@Override
+	protected Connection createConnection() throws SQLException {
+		return DriverManager.getConnection("jdbc:mysql://"
+				+ getServer().getConfig().DB_HOST + "/" + getServer().getConfig().DB_NAME + "?autoReconnect=true&useSSL=false&rewriteBatchedStatements=true&serverTimezone=UTC",
+			getServer().getConfig().DB_USER,
+			getServer().getConfig().DB_PASS);
+	}
+
 	@Override
 	public synchronized void close() {
-		try {
-			if(statement != null) {
-				statement.close();
-			}
-		} catch (final SQLException e) {
-			LOGGER.catching(e);
-		}
-		try {
-			if(getConnection() != null) {
-				getConnection().close();
-			}
-		} catch (final SQLException e) {
-			LOGGER.catching(e);
-		}
+		closePool();
 		connected = false;
-		statement = null;
-		connection = null;
 	}
 
 	@Override
@@ -99,15 +85,6 @@ public class MySQLDatabaseConnection extends JDBCDatabaseConnection {
 		return server;
 	}
 
-	@Override
-	protected Statement getStatement() {
-		return statement;
-	}
-
-	public synchronized Connection getConnection() {
-		return connection;
-	}
-
 	public boolean isConnected() {
 		return connected;
 	}
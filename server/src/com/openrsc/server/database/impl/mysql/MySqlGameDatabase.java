@@ -1677,6 +1677,127 @@ public class MySqlGameDatabase extends JDBCDatabase {
 		}
 	}
 
+	@Override
+	public void querySaveItemStatuses(final PlayerItemStatus[] items) throws GameDatabaseException {
+		try (final PreparedStatement statement = getConnection().prepareStatement(getMySqlQueries().save_ItemStatusUpdate)) {
+			for (final PlayerItemStatus item : items) {
+				statement.setInt(1, item.catalogId);
+				statement.setInt(2, item.amount);
+				statement.setInt(3, item.noted ? 1 : 0);
+				statement.setInt(4, item.wielded ? 1 : 0);
+				statement.setInt(5, item.durability);
+				statement.setInt(6, item.itemId);
+				statement.addBatch();
+			}
+
+			statement.executeBatch();
+		} catch (final SQLException ex) {
+			// Convert SQLException to a general usage exception
+			throw new GameDatabaseException(MySqlGameDatabase.class, ex.getMessage());
+		}
+	}
+
+	@Override
+	public void querySavePlayerQuestChanges(final int playerId, final PlayerQuest[] added, final PlayerQuest[] updated, final int[] removed) throws GameDatabaseException {
+		try (final PreparedStatement statementInsert = getConnection().prepareStatement(getMySqlQueries().save_AddQuest);
+			 final PreparedStatement statementUpdate = getConnection().prepareStatement(getMySqlQueries().save_UpdateQuest);
+			 final PreparedStatement statementDelete = getConnection().prepareStatement(getMySqlQueries().save_DeleteQuest)) {
+
+			for (final PlayerQuest quest : added) {
+				statementInsert.setInt(1, playerId);
+				statementInsert.setInt(2, quest.questId);
+				statementInsert.setInt(3, quest.stage);
+				statementInsert.addBatch();
+			}
+			for (final PlayerQuest quest : updated) {
+				statementUpdate.setInt(1, quest.stage);
+				statementUpdate.setInt(2, playerId);
+				statementUpdate.setInt(3, quest.questId);
+				statementUpdate.addBatch();
+			}
+			for (final int questId : removed) {
+				statementDelete.setInt(1, playerId);
+				statementDelete.setInt(2, questId);
+				statementDelete.addBatch();
+			}
+
+			statementInsert.executeBatch();
+			statementUpdate.executeBatch();
+			statementDelete.executeBatch();
+		} catch (final SQLException ex) {
+			// Convert SQLException to a general usage exception
+			throw new GameDatabaseException(MySqlGameDatabase.class, ex.getMessage());
+		}
+	}
+
+	@Override
+	public void querySavePlayerCacheChanges(final int playerId, final PlayerCache[] added, final PlayerCache[] updated, final String[] removed) throws GameDatabaseException {
+		try (final PreparedStatement statementInsert = getConnection().prepareStatement(getMySqlQueries().save_AddCache);
+			 final PreparedStatement statementUpdate = getConnection().prepareStatement(getMySqlQueries().save_UpdateCache);
+			 final PreparedStatement statementDelete = getConnection().prepareStatement(getMySqlQueries().save_DeleteCacheKey)) {
+
+			// Added keys are deleted first, so a save that raced another or was retried after failing part way
+			// cannot leave a key in twice
+			for (final PlayerCache cacheKey : added) {
+				statementDelete.setInt(1, playerId);
+				statementDelete.setString(2, cacheKey.key);
+				statementDelete.addBatch();
+			}
+			for (final PlayerCache cacheKey : added) {
+				statementInsert.setInt(1, playerId);
+				statementInsert.setInt(2, cacheKey.type);
+				statementInsert.setString(3, cacheKey.key);
+				statementInsert.setString(4, cacheKey.value);
+				statementInsert.addBatch();
+			}
+			for (final PlayerCache cacheKey : updated) {
+				statementUpdate.setInt(1, cacheKey.type);
+				statementUpdate.setString(2, cacheKey.value);
+				statementUpdate.setInt(3, playerId);
+				statementUpdate.setString(4, cacheKey.key);
+				statementUpdate.addBatch();
+			}
+			for (final String key : removed) {
+				statementDelete.setInt(1, playerId);
+				statementDelete.setString(2, key);
+				statementDelete.addBatch();
+			}
+
+			statementDelete.executeBatch();
+			statementInsert.executeBatch();
+			statementUpdate.executeBatch();
+		} catch (final SQLException ex) {
+			// Convert SQLException to a general usage exception
+			throw new GameDatabaseException(MySqlGameDatabase.class, ex.getMessage());
+		}
+	}
+
+	@Override
+	public void querySavePlayerNpcKillChanges(final int playerId, final PlayerNpcKills[] added, final PlayerNpcKills[] updated) throws GameDatabaseException {
+		try (final PreparedStatement statementInsert = getConnection().prepareStatement(getMySqlQueries().npcKillInsert);
+			 final PreparedStatement statementUpdate = getConnection().prepareStatement(getMySqlQueries().npcKillUpdateByNpc)) {
+
+			for (final PlayerNpcKills kill : added) {
+				statementInsert.setInt(1, kill.killCount);
+				statementInsert.setInt(2, kill.npcId);
+				statementInsert.setInt(3, playerId);
+				statementInsert.addBatch();
+			}
+			for (final PlayerNpcKills kill : updated) {
+				statementUpdate.setInt(1, kill.killCount);
+				statementUpdate.setInt(2, kill.npcId);
+				statementUpdate.setInt(3, playerId);
+				statementUpdate.addBatch();
+			}
+
+			statementInsert.executeBatch();
+			statementUpdate.executeBatch();
+		} catch (final SQLException ex) {
+			// Convert SQLException to a general usage exception
+			throw new GameDatabaseException(MySqlGameDatabase.class, ex.getMessage());
+		}
+	}
+
 	@Override
 	public void querySavePlayerMaxSkills(final int playerId, final PlayerSkills[] maxSkillLevels) throws GameDatabaseException {
 		try (final PreparedStatement statement = getConnection().prepareStatement(getMySqlQueries().updateMaxStats)) {
@@ -1,21 +1,45 @@
 package com.openrsc.server.database.impl.mysql;
 
 import com.openrsc.server.Server;
+import com.openrsc.server.database.DatabaseLease;
+import com.openrsc.server.database.GameDatabaseException;
 import com.openrsc.server.database.GameLogger;
 import com.openrsc.server.database.impl.mysql.queries.Query;
 import com.openrsc.server.database.impl.mysql.queries.ResultQuery;
+import com.openrsc.server.util.LatencyStatistics;
+import com.openrsc.server.util.MpscRing;
 import com.openrsc.server.util.ServerAwareThreadFactory;
 import com.openrsc.server.util.SystemUtil;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import java.io.File;
+import java.io.IOException;
+import java.sql.BatchUpdateException;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.SQLNonTransientConnectionException;
+import java.sql.SQLRecoverableException;
+import java.sql.SQLTransientConnectionException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
 
+/**
+ * Writes game logs from a queue any thread can add to without waiting.
+ *
+ * Queued queries are written in batches, one statement per SQL, which the driver sends as multi-row inserts.
+ * If the database cannot be reached, or the queue fills faster than the database takes it, log rows are appended
+ * to a journal on disk instead and replayed once the database has caught up. Other queries are never journalled, see
+ * {@link Query#isAppendOnly()}. Queries added while the queue is full
+ * are dropped and counted rather than holding up the game.
+ */
 public final class MySqlGameLogger extends GameLogger {
 
 	/**
@@ -23,17 +47,33 @@ public final class MySqlGameLogger extends GameLogger {
 	 */
 	private static final Logger LOGGER = LogManager.getLogger();
 
+	/**
+	 * Most journal batches replayed in one run, so a long backlog does not hold up stopping the server.
+	 */
+	private static final int MAX_REPLAYS_PER_RUN = 8;
+
 	private volatile AtomicBoolean running;
-	private final BlockingQueue<Query> queries;
+	private final MpscRing<Query> queries;
 	private final Server server;
 	private ScheduledExecutorService scheduledExecutor;
 	private final MySqlGameDatabase database;
+	private volatile GameLogJournal journal;
+	private final List<Query> drained = new ArrayList<>();
+	private volatile boolean warnedFull;
+
+	private final LongAdder rowsWritten = new LongAdder();
+	private final LongAdder rowsFailed = new LongAdder();
+	private final LongAdder rowsDropped = new LongAdder();
+	private final LongAdder rowsSpilled = new LongAdder();
+	private final LongAdder rowsReplayed = new LongAdder();
+	private final LongAccumulator maxBatchSize = new LongAccumulator(Math::max, 0);
+	private final LatencyStatistics batchStatistics = new LatencyStatistics();
 
 	public MySqlGameLogger(final Server server, final MySqlGameDatabase database) {
 		this.server = server;
 
 		running = new AtomicBoolean(false);
-		queries = new ArrayBlockingQueue<>(10000);
+		queries = new MpscRing<>(server.getConfig().DB_LOG_QUEUE_SIZE);
 		// TODO: Implement GameLogger into the database driver.
 		if (database == null) {
 			LOGGER.error("GameDatabase provided was null or not a MySqlGameDatabase.");
@@ -48,6 +88,12 @@ public final class MySqlGameLogger extends GameLogger {
 
 	public void start() {
 		synchronized (running) {
+			try {
+				journal = new GameLogJournal(new File(server.getConfig().DB_LOG_JOURNAL));
+			} catch (final IOException e) {
+				LOGGER.error("Unable to open the game log journal, logs the database cannot take will be dropped", e);
+				journal = null;
+			}
 			running.set(true);
 			scheduledExecutor = Executors.newSingleThreadScheduledExecutor(
 					new ServerAwareThreadFactory(
@@ -72,29 +118,223 @@ public final class MySqlGameLogger extends GameLogger {
 			} catch (final InterruptedException e) {
 				LOGGER.catching(e);
 			}
-			clearQueries();
+			// Whatever is left goes to the database, or the journal for next time
+			processQueries();
+			closeJournal();
 			scheduledExecutor = null;
 			running.set(false);
 		}
 	}
 
-	private void clearQueries() {
-		queries.clear();
+	private void closeJournal() {
+		if (journal == null) {
+			return;
+		}
+		try {
+			journal.close();
+		} catch (final IOException e) {
+			LOGGER.catching(e);
+		}
+		journal = null;
 	}
 
 	@Override
 	public void run() {
 		synchronized (running) {
 			if (running.get()) {
-				while (queries.size() > 0 && getDatabase().getConnection().isConnected()) {
-					pollNextQuery();
+				processQueries();
+				replayJournal();
+			}
+		}
+	}
+
+	private void processQueries() {
+		final int batchSize = Math.max(1, getServer().getConfig().DB_LOG_BATCH_SIZE);
+		while (true) {
+			// A queue this deep means the database is falling behind, so move it to disk before it fills
+			final boolean behind = queries.size() > queries.capacity() / 2;
+			if (queries.drain(drained, batchSize) == 0) {
+				break;
+			}
+			try {
+				if (!isConnected() || (journal != null && (behind || hasBacklog()))) {
+					spill(drained);
+				} else {
+					write(drained);
 				}
+			} finally {
+				drained.clear();
 			}
 		}
+		warnedFull = false;
 	}
 
-	protected void pollNextQuery() {
-		runQuery(queries.poll());
+	private void write(final List<Query> batch) {
+		final Map<String, List<Query>> groups = new LinkedHashMap<>();
+		for (final Query query : batch) {
+			if (query instanceof ResultQuery) {
+				runQuery(query);
+			} else {
+				groups.computeIfAbsent(query.getQuery(), sql -> new ArrayList<>()).add(query);
+			}
+		}
+
+		final List<Query> unwritten = new ArrayList<>();
+		try {
+			final DatabaseLease lease = getDatabase().lease();
+			try {
+				for (final Map.Entry<String, List<Query>> group : groups.entrySet()) {
+					final List<Query> rows = group.getValue();
+					if (!unwritten.isEmpty()) {
+						unwritten.addAll(rows);
+						continue;
+					}
+					final int written = writeGroup(group.getKey(), rows, Query::addBatch);
+					unwritten.addAll(rows.subList(written, rows.size()));
+				}
+			} finally {
+				lease.close();
+			}
+		} catch (final GameDatabaseException e) {
+			LOGGER.catching(e);
+			unwritten.clear();
+			for (final List<Query> rows : groups.values()) {
+				unwritten.addAll(rows);
+			}
+		}
+		if (!unwritten.isEmpty()) {
+			spill(unwritten);
+		}
+	}
+
+	/**
+	 * Writes rows sharing the same SQL as one batch. If the batch fails for anything other than the connection,
+	 * the rows are written one at a time and the ones that still fail are dropped.
+	 *
+	 * @return How many of the rows were dealt with before the connection failed. The rest should be tried again later.
+	 */
+	private <T> int writeGroup(final String sql, final List<T> rows, final Binder<T> binder) {
+		final long start = System.nanoTime();
+		try (PreparedStatement statement = getDatabase().getConnection().prepareStatement(sql)) {
+			for (final T row : rows) {
+				binder.addBatch(row, statement);
+			}
+			statement.executeBatch();
+			batchStatistics.record(System.nanoTime() - start);
+			maxBatchSize.accumulate(rows.size());
+			rowsWritten.add(rows.size());
+			return rows.size();
+		} catch (final SQLException ex) {
+			if (isConnectionFailure(ex)) {
+				LOGGER.error("Lost the database while writing game logs: " + ex.getMessage());
+				return 0;
+			}
+			LOGGER.catching(ex);
+		}
+
+		for (int i = 0; i < rows.size(); i++) {
+			try (PreparedStatement statement = getDatabase().getConnection().prepareStatement(sql)) {
+				binder.addBatch(rows.get(i), statement);
+				statement.executeBatch();
+				rowsWritten.increment();
+			} catch (final SQLException ex) {
+				if (isConnectionFailure(ex)) {
+					LOGGER.error("Lost the database while writing game logs: " + ex.getMessage());
+					return i;
+				}
+				LOGGER.catching(ex);
+				rowsFailed.increment();
+			}
+		}
+		return rows.size();
+	}
+
+	private static boolean isConnectionFailure(final SQLException ex) {
+		final SQLException cause = ex instanceof BatchUpdateException && ex.getNextException() != null ? ex.getNextException() : ex;
+		final String state = cause.getSQLState();
+		return cause instanceof SQLRecoverableException
+			|| cause instanceof SQLNonTransientConnectionException
+			|| cause instanceof SQLTransientConnectionException
+			|| (state != null && state.startsWith("08"));
+	}
+
+	private void spill(final List<Query> rows) {
+		if (journal == null) {
+			rowsDropped.add(rows.size());
+			return;
+		}
+		final List<GameLogJournal.Entry> entries = new ArrayList<>(rows.size());
+		for (final Query query : rows) {
+			if (query instanceof ResultQuery || !query.isAppendOnly()) {
+				// Someone is waiting on the result, or a later write could be overwritten, so it cannot be put off
+				runQuery(query);
+				continue;
+			}
+			try {
+				entries.add(GameLogJournal.Entry.of(query));
+			} catch (final SQLException e) {
+				LOGGER.catching(e);
+				rowsFailed.increment();
+			}
+		}
+		try {
+			journal.append(entries);
+			rowsSpilled.add(entries.size());
+		} catch (final IOException e) {
+			LOGGER.catching(e);
+			rowsDropped.add(entries.size());
+		}
+	}
+
+	/**
+	 * Replays journalled rows. Queries are journalled behind them until the journal is empty, so rows are written in
+	 * the order they were added. Rows are only marked replayed once written, so a failure partway through a batch
+	 * replays some of them twice.
+	 */
+	private void replayJournal() {
+		if (journal == null) {
+			return;
+		}
+		final int batchSize = Math.max(1, getServer().getConfig().DB_LOG_BATCH_SIZE);
+		try {
+			for (int replays = 0; replays < MAX_REPLAYS_PER_RUN; replays++) {
+				if (journal.isEmpty() || !isConnected()) {
+					return;
+				}
+				final GameLogJournal.Batch batch = journal.read(batchSize);
+				final Map<String, List<GameLogJournal.Entry>> groups = new LinkedHashMap<>();
+				for (final GameLogJournal.Entry entry : batch.entries) {
+					groups.computeIfAbsent(entry.sql, sql -> new ArrayList<>()).add(entry);
+				}
+				final DatabaseLease lease = getDatabase().lease();
+				try {
+					for (final Map.Entry<String, List<GameLogJournal.Entry>> group : groups.entrySet()) {
+						if (writeGroup(group.getKey(), group.getValue(), GameLogJournal.Entry::addBatch) < group.getValue().size()) {
+							return;
+						}
+					}
+				} finally {
+					lease.close();
+				}
+				journal.replayed(batch);
+				rowsReplayed.add(batch.entries.size());
+			}
+		} catch (final IOException | GameDatabaseException e) {
+			LOGGER.catching(e);
+		}
+	}
+
+	private boolean hasBacklog() {
+		try {
+			return !journal.isEmpty();
+		} catch (final IOException e) {
+			LOGGER.catching(e);
+			return true;
+		}
+	}
+
+	private boolean isConnected() {
+		return getDatabase().getConnection().isConnected();
 	}
 
 	protected void runQuery(final Query query) {
@@ -124,7 +364,13 @@ public final class MySqlGameLogger extends GameLogger {
 		if (!running.get()) {
 			return;
 		}
-		queries.add(query);
+		if (!queries.offer(query)) {
+			rowsDropped.increment();
+			if (!warnedFull) {
+				warnedFull = true;
+				LOGGER.warn("Game log queue is full, dropping logs until it drains");
+			}
+		}
 	}
 
 	// Runs a query on whatever program thread initiated the request. This is mostly useful for playing loading/saving to ensure data is returned.
@@ -135,4 +381,65 @@ public final class MySqlGameLogger extends GameLogger {
 	private MySqlGameDatabase getDatabase() {
 		return database;
 	}
+
+	public int getQueueDepth() {
+		return queries.size();
+	}
+
+	/**
+	 * @return Bytes of journalled rows waiting to be replayed.
+	 */
+	public long getJournalBacklog() {
+		final GameLogJournal journal = this.journal;
+		if (journal == null) {
+			return 0;
+		}
+		try {
+			return journal.getBacklog();
+		} catch (final IOException e) {
+			return 0;
+		}
+	}
+
+	/**
+	 * @return How long each batch took to write, one per distinct SQL in a run.
+	 */
+	public LatencyStatistics getBatchStatistics() {
+		return batchStatistics;
+	}
+
+	public long getMaxBatchSize() {
+		return maxBatchSize.get();
+	}
+
+	public long getRowsWritten() {
+		return rowsWritten.sum();
+	}
+
+	/**
+	 * @return Rows the database refused, which are dropped.
+	 */
+	public long getRowsFailed() {
+		return rowsFailed.sum();
+	}
+
+	/**
+	 * @return Rows dropped because the queue was full, or the journal could not take them.
+	 */
+	public long getRowsDropped() {
+		return rowsDropped.sum();
+	}
+
+	public long getRowsSpilled() {
+		return rowsSpilled.sum();
+	}
+
+	public long getRowsReplayed() {
+		return rowsReplayed.sum();
+	}
+
+	@FunctionalInterface
+	private interface Binder<T> {
+		void addBatch(T row, PreparedStatement statement) throws SQLException;
+	}
 }
@@ -17,6 +17,33 @@ public abstract class Query {
 
 	public abstract Query build(); // add any logic here
 
-	public abstract PreparedStatement prepareStatement(Connection connection) throws SQLException;
+	/**
+	 * Sets the query's parameters. Queries with the same SQL are bound one after another to a shared statement
+	 * and run as a batch, so this must set every parameter.
+	 */
+	protected abstract void bind(PreparedStatement statement) throws SQLException;
+
+	public PreparedStatement prepareStatement(Connection connection) throws SQLException {
+		final PreparedStatement statement = connection.prepareStatement(query);
+		bind(statement);
+		return statement;
+	}
+
+	public final void addBatch(final PreparedStatement statement) throws SQLException {
+		bind(statement);
+		statement.addBatch();
+	}
+
+	public final String getQuery() {
+		return query;
+	}
+
+	/**
+	 * @return Whether the query only adds a log row, so it can be journalled and written later without overwriting
+	 * anything newer. Anything else is run straight away, even while journalled rows wait.
+	 */
+	public boolean isAppendOnly() {
+		return false;
+	}
 
 }
@@ -3,7 +3,6 @@ package com.openrsc.server.database.impl.mysql.queries.logging;
 import com.openrsc.server.model.world.World;
 import com.openrsc.server.database.impl.mysql.queries.Query;
 
-import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
 
@@ -18,12 +17,10 @@ public final class ChatLog extends Query {
 	}
 
 	@Override
-	public PreparedStatement prepareStatement(Connection connection) throws SQLException {
-		PreparedStatement statement = connection.prepareStatement(query);
+	protected void bind(PreparedStatement statement) throws SQLException {
 		statement.setString(1, sender);
 		statement.setString(2, message);
 		statement.setLong(3, time);
-		return statement;
 	}
 
 	@Override
@@ -31,4 +28,9 @@ public final class ChatLog extends Query {
 		return this;
 	}
 
+	@Override
+	public boolean isAppendOnly() {
+		return true;
+	}
+
 }
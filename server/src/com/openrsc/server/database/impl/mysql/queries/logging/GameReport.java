@@ -6,7 +6,6 @@ import com.openrsc.server.model.snapshot.Snapshot;
 import com.openrsc.server.database.impl.mysql.queries.Query;
 import com.openrsc.server.util.rsc.DataConversions;
 
-import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
 import java.util.Iterator;
@@ -48,8 +47,7 @@ public final class GameReport extends Query {
 	}
 
 	@Override
-	public PreparedStatement prepareStatement(Connection connection) throws SQLException {
-		PreparedStatement statement = connection.prepareStatement(query);
+	protected void bind(PreparedStatement statement) throws SQLException {
 		statement.setLong(1, time);
 		statement.setString(2, reporterPlayer.getUsername());
 		statement.setString(3, reported);
@@ -61,11 +59,15 @@ public final class GameReport extends Query {
 		statement.setInt(9, reported_y);
 		statement.setBoolean(10, suggestsOrMutes);
 		statement.setBoolean(11, triedApplyAction);
-		return statement;
 	}
 
 	@Override
 	public Query build() {
 		return this;
 	}
+
+	@Override
+	public boolean isAppendOnly() {
+		return true;
+	}
 }
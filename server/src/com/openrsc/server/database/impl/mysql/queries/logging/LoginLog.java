@@ -3,7 +3,6 @@ package com.openrsc.server.database.impl.mysql.queries.logging;
 import com.openrsc.server.model.world.World;
 import com.openrsc.server.database.impl.mysql.queries.Query;
 
-import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
 
@@ -21,13 +20,11 @@ public final class LoginLog extends Query {
 	}
 
 	@Override
-	public PreparedStatement prepareStatement(Connection connection) throws SQLException {
-		PreparedStatement statement = connection.prepareStatement(query);
+	protected void bind(PreparedStatement statement) throws SQLException {
 		statement.setInt(1, player);
 		statement.setString(2, ip);
 		statement.setLong(3, time);
 		statement.setInt(4, clientVersion);
-		return statement;
 	}
 
 	@Override
@@ -35,4 +32,9 @@ public final class LoginLog extends Query {
 		return this;
 	}
 
+	@Override
+	public boolean isAppendOnly() {
+		return true;
+	}
+
 }
@@ -3,7 +3,6 @@ package com.openrsc.server.database.impl.mysql.queries.logging;
 import com.openrsc.server.model.entity.player.Player;
 import com.openrsc.server.database.impl.mysql.queries.Query;
 
-import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
 
@@ -96,8 +95,7 @@ public final class StaffLog extends Query {
 	}
 
 	@Override
-	public PreparedStatement prepareStatement(Connection connection) throws SQLException {
-		PreparedStatement statement = connection.prepareStatement(query);
+	protected void bind(PreparedStatement statement) throws SQLException {
 		statement.setString(1, staffUsername);
 		statement.setInt(2, action);
 		statement.setString(3, affectedUsername);
@@ -110,7 +108,11 @@ public final class StaffLog extends Query {
 		statement.setString(10, affectedIp);
 		if (extra != null)
 			statement.setString(11, extra);
-		return statement;
+	}
+
+	@Override
+	public boolean isAppendOnly() {
+		return true;
 	}
 
 }
@@ -4,7 +4,6 @@ import com.openrsc.server.model.container.Item;
 import com.openrsc.server.model.world.World;
 import com.openrsc.server.database.impl.mysql.queries.Query;
 
-import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
 import java.util.List;
@@ -31,8 +30,7 @@ public final class TradeLog extends Query {
 	}
 
 	@Override
-	public PreparedStatement prepareStatement(Connection connection) throws SQLException {
-		PreparedStatement statement = connection.prepareStatement(query);
+	protected void bind(PreparedStatement statement) throws SQLException {
 		statement.setString(1, player1);
 		statement.setString(2, player2);
 		statement.setString(3, playerOnesOffer);
@@ -40,7 +38,6 @@ public final class TradeLog extends Query {
 		statement.setString(5, player1_ip);
 		statement.setString(6, player2_ip);
 		statement.setLong(7, time);
-		return statement;
 	}
 
 	@Override
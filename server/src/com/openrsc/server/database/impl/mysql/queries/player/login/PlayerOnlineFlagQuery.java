@@ -3,7 +3,6 @@ package com.openrsc.server.database.impl.mysql.queries.player.login;
 import com.openrsc.server.Server;
 import com.openrsc.server.database.impl.mysql.queries.Query;
 
-import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
 
@@ -33,8 +32,7 @@ public class PlayerOnlineFlagQuery extends Query {
 	}
 
 	@Override
-	public PreparedStatement prepareStatement(Connection connection) throws SQLException {
-		PreparedStatement statement = connection.prepareStatement(query);
+	protected void bind(PreparedStatement statement) throws SQLException {
 		int id = 1;
 		statement.setInt(id++, online ? 1 : 0);
 		if (loginIP != null) {
@@ -42,7 +40,6 @@ public class PlayerOnlineFlagQuery extends Query {
 			statement.setString(id++, loginIP);
 		}
 		statement.setInt(id++, playerID);
-		return statement;
 	}
 
 }
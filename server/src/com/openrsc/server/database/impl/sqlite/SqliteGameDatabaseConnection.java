@@ -11,13 +11,15 @@ import java.io.File;
 import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.SQLException;
-import java.sql.Statement;
+import java.util.Properties;
 
 public class SqliteGameDatabaseConnection extends JDBCDatabaseConnection {
     public static final String DB_FOLDER = "inc/sqlite/";
+    /**
+     * How long a statement waits for the other connection's lock before failing.
+     */
+    private static final int BUSY_TIMEOUT_MILLIS = 30000;
     private final Logger LOGGER = LogManager.getLogger();
-    private Connection connection;
-    private Statement statement;
     private boolean connected;
     private final Server server;
 
@@ -42,8 +44,9 @@ public class SqliteGameDatabaseConnection extends JDBCDatabaseConnection {
         }
 
         try {
-            connection = DriverManager.getConnection("jdbc:sqlite:" + getDBPath(dbName));
-            statement = getConnection().createStatement();
+            // SQLite lets one connection write at a time, so more would only wait on each other's locks.
+            // The pool still opens a second connection for threads without a lease, which waits out the other's locks.
+            openPool(1, server.getConfig().DB_STATEMENT_CACHE_SIZE);
             connected = checkConnection();
         } catch (final SQLException e) {
             LOGGER.catching(e);
@@ -60,25 +63,17 @@ public class SqliteGameDatabaseConnection extends JDBCDatabaseConnection {
         return isConnected();
     }
 
+    @Override
+    protected Connection createConnection() throws SQLException {
+        final Properties properties = new Properties();
+        properties.setProperty("busy_timeout", String.valueOf(BUSY_TIMEOUT_MILLIS));
+        return DriverManager.getConnection("jdbc:sqlite:" + getDBPath(server.getConfig().DB_NAME), properties);
+    }
+
     @Override
     public synchronized void close() {
-        try {
-            if(statement != null) {
-                statement.close();
-            }
-        } catch (final SQLException e) {
-            LOGGER.catching(e);
-        }
-        try {
-            if(getConnection() != null) {
-                getConnection().close();
-            }
-        } catch (final SQLException e) {
-            LOGGER.catching(e);
-        }
+        closePool();
         connected = false;
-        statement = null;
-        connection = null;
     }
 
     @Override
@@ -86,16 +81,6 @@ public class SqliteGameDatabaseConnection extends JDBCDatabaseConnection {
         return DatabaseType.SQLITE;
     }
 
-    @Override
-    protected Statement getStatement() {
-        return statement;
-    }
-
-    @Override
-    public Connection getConnection() {
-        return connection;
-    }
-
     @Override
     protected boolean checkConnection() {
         try {
@@ -0,0 +1,10 @@
+package com.openrsc.server.database.struct;
+
+public class PlayerItemStatus {
+	public int itemId;
+	public int catalogId;
+	public int amount;
+	public boolean noted;
+	public boolean wielded;
+	public int durability;
+}
@@ -9,7 +9,6 @@ import com.openrsc.server.model.world.region.Region;
 import com.openrsc.server.util.rsc.MessageType;
 
 import java.util.ArrayList;
-import java.util.concurrent.ConcurrentHashMap;
 
 import static com.openrsc.server.plugins.Functions.changeloc;
 
@@ -32,13 +31,11 @@ public class HourlyResetEvent extends HourlyEvent  {
 
 	public void action() {
 		actionedResets = 0;
-		for (final ConcurrentHashMap<Integer, Region> yRegionList : getWorld().getRegionManager().getRegions().values()) {
-			for (final Region region : yRegionList.values()) {
-				for (GameObject obj : new ArrayList<>(region.getGameObjects())) {
-					if (obj.getType() == 0) {
-						// only for scenery
-						resetScenery(obj);
-					}
+		for (final Region region : getWorld().getRegionManager().getRegions()) {
+			for (GameObject obj : new ArrayList<>(region.getGameObjects())) {
+				if (obj.getType() == 0) {
+					// only for scenery
+					resetScenery(obj);
 				}
 			}
 		}
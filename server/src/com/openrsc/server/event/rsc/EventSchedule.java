@@ -0,0 +1,23 @@
+package com.openrsc.server.event.rsc;
+
+/**
+ * How an event store keeps track of an event it only calls on the ticks the event is due.
+ */
+public interface EventSchedule {
+	/**
+	 * @return The ticks the event has counted down that are not yet reflected in its countdown.
+	 */
+	long getTicksElapsed();
+
+	/**
+	 * Called when the event's countdown has been set from outside of the event store.
+	 *
+	 * @param ticksBeforeRun The new countdown.
+	 */
+	void countdownReset(long ticksBeforeRun);
+
+	/**
+	 * Called when the event has been stopped.
+	 */
+	void stopped();
+}
@@ -25,6 +25,10 @@ public abstract class GameTickEvent implements Callable<Integer> {
 	private long lastEventDuration = 0;
 	private final UUID uuid;
 	private final DuplicationStrategy duplicationStrategy;
+	/**
+	 * Set while the event is tracked by an event store, which only calls it on the ticks it is due
+	 */
+	private volatile EventSchedule schedule;
 
 	public GameTickEvent(final World world, final Mob owner, final long ticks, final String descriptor, DuplicationStrategy duplicationStrategy) {
 		this.world = world;
@@ -68,6 +72,10 @@ public abstract class GameTickEvent implements Callable<Integer> {
 
 	public void stop() {
 		running = false;
+		final EventSchedule schedule = this.schedule;
+		if (schedule != null) {
+			schedule.stopped();
+		}
 	}
 
 	protected void setDelayTicks(long delayTicks) {
@@ -77,14 +85,25 @@ public abstract class GameTickEvent implements Callable<Integer> {
 
 	public void resetCountdown() {
 		ticksBeforeRun = delayTicks;
+		final EventSchedule schedule = this.schedule;
+		if (schedule != null) {
+			schedule.countdownReset(ticksBeforeRun);
+		}
 	}
 
 	public void tick() {
 		ticksBeforeRun--;
 	}
 
+	/**
+	 * Counts down several ticks at once, for the ticks an event store did not call this event on.
+	 */
+	public final void tick(final long ticks) {
+		ticksBeforeRun -= ticks;
+	}
+
 	public long timeTillNextRun() {
-		return System.currentTimeMillis() + (ticksBeforeRun * getWorld().getServer().getConfig().GAME_TICK);
+		return System.currentTimeMillis() + (getTicksBeforeRun() * getWorld().getServer().getConfig().GAME_TICK);
 	}
 
 	public final boolean shouldRemove() {
@@ -119,7 +138,12 @@ public abstract class GameTickEvent implements Callable<Integer> {
 	}
 
 	public long getTicksBeforeRun() {
-		return ticksBeforeRun;
+		final EventSchedule schedule = this.schedule;
+		return schedule == null ? ticksBeforeRun : ticksBeforeRun - schedule.getTicksElapsed();
+	}
+
+	public final void setSchedule(final EventSchedule schedule) {
+		this.schedule = schedule;
 	}
 
 	public final long getLastEventDuration() {
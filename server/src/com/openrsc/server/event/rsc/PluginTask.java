@@ -13,6 +13,7 @@ import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Future;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
 
 public abstract class PluginTask extends GameTickEvent implements Callable<Integer> {
 	/**
@@ -32,6 +33,11 @@ public abstract class PluginTask extends GameTickEvent implements Callable<Integ
 	private AtomicBoolean initialized = new AtomicBoolean(false);
 	private AtomicBoolean threadRunning = new AtomicBoolean(false);
 	private volatile Thread pluginThread;
+	/**
+	 * The thread waiting in {@link #awaitPause()} for the script to pause or finish
+	 */
+	private volatile Thread tickThread;
+	private volatile boolean completed;
 
 	private final ScriptContext scriptContext;
 	private final Object[] data;
@@ -50,7 +56,11 @@ public abstract class PluginTask extends GameTickEvent implements Callable<Integ
 		}
 	}
 
-	public synchronized Integer call() {
+	/**
+	 * Runs the script on the plugin thread. The task's monitor is not held while it runs, so the script can be parked
+	 * in {@link #pause(int)} without pinning or blocking anyone; the tick thread waits in {@link #awaitPause()} instead.
+	 */
+	public Integer call() {
 		try {
 			registerPluginThread();
 			final int result = action();
@@ -60,6 +70,9 @@ public abstract class PluginTask extends GameTickEvent implements Callable<Integ
 			LOGGER.catching(ex);
 			stop();
 			return 0;
+		} finally {
+			completed = true;
+			LockSupport.unpark(tickThread);
 		}
 	}
 
@@ -75,7 +88,24 @@ public abstract class PluginTask extends GameTickEvent implements Callable<Integ
 
 			resetCountdown();
 			setThreadRunning(true);
-			notifyAll();
+			LockSupport.unpark(getPluginThread());
+		}
+	}
+
+	/**
+	 * Blocks the tick until the script has started and reached its next pause point, or finished.
+	 */
+	public void awaitPause() {
+		tickThread = Thread.currentThread();
+		try {
+			while ((!isInitialized() || isThreadRunning()) && !isComplete()) {
+				LockSupport.park(this);
+				if (Thread.interrupted()) {
+					LOGGER.warn(getDescriptor() + " was interrupted waiting for its script to pause");
+				}
+			}
+		} finally {
+			tickThread = null;
 		}
 	}
 
@@ -84,19 +114,24 @@ public abstract class PluginTask extends GameTickEvent implements Callable<Integ
 		super.stop();
 		cancel(false);
 		unregisterPluginThread();
+		LockSupport.unpark(tickThread);
 	}
 
-	public synchronized void pause(final int ticks) {
-		try {
-			setDelayTicks(ticks);
-			setThreadRunning(false);
-			//LOGGER.info(getDescriptor() + " tick " + getWorld().getServer().getCurrentTick() + " pausing script...");
-			wait();
-			//LOGGER.info(getDescriptor() + " tick " + getWorld().getServer().getCurrentTick() + " resuming script...");
-			setThreadRunning(true);
-		} catch (final InterruptedException ex) {
-			throw new PluginInterruptedException("pause() was interrupted", ex);
+	/**
+	 * Called on the plugin thread to hand the tick back and park until {@link #run()} resumes the script.
+	 */
+	public void pause(final int ticks) {
+		setDelayTicks(ticks);
+		setThreadRunning(false);
+		//LOGGER.info(getDescriptor() + " tick " + getWorld().getServer().getCurrentTick() + " pausing script...");
+		LockSupport.unpark(tickThread);
+		while (!isThreadRunning()) {
+			LockSupport.park(this);
+			if (Thread.interrupted()) {
+				throw new PluginInterruptedException("pause() was interrupted", new InterruptedException());
+			}
 		}
+		//LOGGER.info(getDescriptor() + " tick " + getWorld().getServer().getCurrentTick() + " resuming script...");
 	}
 
 	private synchronized void registerPluginThread() {
@@ -135,7 +170,7 @@ public abstract class PluginTask extends GameTickEvent implements Callable<Integ
 	}
 
 	public synchronized boolean isComplete() {
-		return getFuture() != null && getFuture().isDone();
+		return completed || (getFuture() != null && getFuture().isDone());
 	}
 
 	public boolean isInitialized() {
@@ -1,18 +1,28 @@
 package com.openrsc.server.event.rsc.handler;
 
+import com.openrsc.server.LoginExecutor;
 import com.openrsc.server.Server;
+import com.openrsc.server.constants.Constants;
+import com.openrsc.server.database.SaveStatistics;
+import com.openrsc.server.database.impl.mysql.MySqlGameLogger;
 import com.openrsc.server.event.rsc.GameTickEvent;
 import com.openrsc.server.event.rsc.ImmediateEvent;
+import com.openrsc.server.model.Point;
 import com.openrsc.server.model.entity.player.Player;
-import com.openrsc.server.util.NamedThreadFactory;
+import com.openrsc.server.net.OpcodeStatistics;
+import com.openrsc.server.net.rsc.enums.OpcodeIn;
+import com.openrsc.server.plugins.handler.TriggerStatistics;
+import com.openrsc.server.util.LatencyStatistics;
+import com.openrsc.server.util.LogUtil;
 import com.openrsc.server.util.rsc.DataConversions;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.LinkedBlockingQueue;
-import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
 import java.util.concurrent.TimeUnit;
 
 public class GameEventHandler {
@@ -22,19 +32,31 @@ public class GameEventHandler {
 	 */
 	private static final Logger LOGGER = LogManager.getLogger();
 
+	/**
+	 * Npcs in regions that do not touch cannot reach the same mob within a tick, so their events can run at the same time.
+	 */
+	private static final int ISLAND_SIZE = Constants.REGION_SIZE;
+
 	private final GameTickEventStore eventStore = new GameTickEventStore();
 	private final ConcurrentHashMap<String, Integer> eventsCounts = new ConcurrentHashMap<>();
 	private final ConcurrentHashMap<String, Long> eventsDurations = new ConcurrentHashMap<>();
 	private final Server server;
-	private ThreadPoolExecutor executor;
+	/**
+	 * Runs independent islands of non player events at once, or null to run every event in order on the game thread.
+	 */
+	private ForkJoinPool islandPool;
 
 	public GameEventHandler(final Server server) {
 		this.server = server;
 	}
 
 	public void load() {
-		executor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(), new NamedThreadFactory(getServer().getName() + " : EventHandler", getServer().getConfig()));
-		executor.prestartAllCoreThreads();
+		if (getServer().getConfig().WANT_PARALLEL_EVENT_ISLANDS) {
+			final int threads = getServer().getConfig().EVENT_ISLAND_THREADS > 0
+				? getServer().getConfig().EVENT_ISLAND_THREADS
+				: Runtime.getRuntime().availableProcessors();
+			islandPool = new ForkJoinPool(threads, EventIslandThread::new, null, false);
+		}
 	}
 
 	public final Server getServer() {
@@ -45,14 +67,17 @@ public class GameEventHandler {
 		// Process any events still in the queue.
 		processEvents();
 
-		executor.shutdown();
-		try {
-			final boolean terminationResult = executor.awaitTermination(1, TimeUnit.MINUTES);
-			if (!terminationResult) {
-				LOGGER.error("GameEventHandler thread pool termination failed");
+		if (islandPool != null) {
+			islandPool.shutdown();
+			try {
+				final boolean terminationResult = islandPool.awaitTermination(1, TimeUnit.MINUTES);
+				if (!terminationResult) {
+					LOGGER.error("GameEventHandler thread pool termination failed");
+				}
+			} catch (final InterruptedException e) {
+				LOGGER.catching(e);
 			}
-		} catch (final InterruptedException e) {
-			LOGGER.catching(e);
+			islandPool = null;
 		}
 
 		cleanupEvents();
@@ -64,35 +89,25 @@ public class GameEventHandler {
 	}
 
 	public void cleanupEvents() {
-		eventStore.getTrackedEvents().forEach(event -> {
-			incrementCounts(event);
-			if (event.shouldRemove()) {
-				eventStore.remove(event);
-			}
-		});
+		eventStore.removeStoppedEvents();
 		eventsCounts.clear();
 		eventsDurations.clear();
 	}
 
 	public long processNonPlayerEvents() {
 		return getServer().bench(() -> {
-			final int maxThreads;
-			if (getServer().getConfig().WANT_THREADING__BREAK_PID_PRIORITY) {
-				// can be slightly faster if we don't care which order events are done in (you always should care!)
-				// TODO: currently also causes issues with scenery breaking from having two players accessing it
-				maxThreads = (Runtime.getRuntime().availableProcessors() * 2) / (Server.serversList.size() > 0 ? Server.serversList.size() : 1);
-			} else {
-				// single thread events so that PID order is always respected.
-				maxThreads = 1;
-			}
-
-			executor.setMaximumPoolSize(maxThreads);
-			executor.setCorePoolSize(maxThreads / 2);
-
+			final GameTickEventStore.EventQueue events = eventStore.getNonPlayerEvents();
+			eventStore.startPass(events);
 			try {
-				executor.invokeAll(eventStore.getNonPlayerEvents());
+				if (islandPool != null) {
+					runIslands(events);
+				} else {
+					runInline(events);
+				}
 			} catch (final Exception e) {
 				LOGGER.catching(e);
+			} finally {
+				eventStore.endPass(events);
 			}
 		});
 	}
@@ -102,36 +117,163 @@ public class GameEventHandler {
 	}
 
 	private void incrementCounts(GameTickEvent event) {
-		eventsCounts.put(event.getDescriptor(),
-			eventsCounts.containsKey(event.getDescriptor()) ?
-				eventsCounts.get(event.getDescriptor()) + 1 :
-				1);
-		eventsDurations.put(event.getDescriptor(),
-			eventsDurations.containsKey(event.getDescriptor()) ?
-				eventsDurations.get(event.getDescriptor()) + event.getLastEventDuration() :
-				event.getLastEventDuration());
+		eventsCounts.merge(event.getDescriptor(), 1, Integer::sum);
+		eventsDurations.merge(event.getDescriptor(), event.getLastEventDuration(), Long::sum);
 	}
 
+	/**
+	 * Runs the player's due events on the calling thread, which is the game thread working through players in PID order.
+	 */
 	public void processEvents(final Player player) {
-		final int maxThreads;
-		if (getServer().getConfig().WANT_THREADING__BREAK_PID_PRIORITY) {
-			// can be slightly faster if we don't care which order events are done in (you always should care!)
-			// TODO: currently also causes issues with scenery breaking from having two players accessing it
-			maxThreads = (Runtime.getRuntime().availableProcessors() * 2) / (Server.serversList.size() > 0 ? Server.serversList.size() : 1);
-		} else {
-			// single thread events so that PID order is always respected.
-			maxThreads = 1;
+		final GameTickEventStore.EventQueue events = eventStore.getPlayerEvents(player.getUsernameHash());
+		if (events == null) {
+			return;
 		}
-
-		executor.setMaximumPoolSize(maxThreads);
-		executor.setCorePoolSize(maxThreads / 2);
-
+		eventStore.startPass(events);
 		try {
-			executor.invokeAll(eventStore.getPlayerEvents(player.getUsernameHash()));
+			runInline(events);
 		} catch (final Exception e) {
 			LOGGER.catching(e);
+		} finally {
+			eventStore.endPass(events);
 		}
+	}
 
+	/**
+	 * Runs the due events one after another on the calling thread, picking up events that become due as it goes.
+	 */
+	private void runInline(final GameTickEventStore.EventQueue events) {
+		ScheduledEvent scheduled;
+		while ((scheduled = eventStore.nextDue(events)) != null) {
+			run(scheduled);
+		}
+	}
+
+	private void run(final ScheduledEvent scheduled) {
+		try {
+			scheduled.getEvent().call();
+		} finally {
+			eventStore.ran(scheduled);
+		}
+		incrementCounts(scheduled.getEvent());
+	}
+
+	/**
+	 * Runs the due non player events an island at a time. Events owned by npcs are grouped into islands of
+	 * touching regions, and islands run at the same time, each in event order. An event with no npc owner could
+	 * touch anything, so it runs on its own once every event due before it has run.
+	 */
+	private void runIslands(final GameTickEventStore.EventQueue events) {
+		final List<ScheduledEvent> island = new ArrayList<>();
+		ScheduledEvent scheduled;
+		while ((scheduled = eventStore.nextDue(events)) != null) {
+			if (scheduled.getEvent().getNpcOwner() != null) {
+				island.add(scheduled);
+			} else {
+				runIslands(island);
+				island.clear();
+				run(scheduled);
+			}
+		}
+		runIslands(island);
+	}
+
+	private void runIslands(final List<ScheduledEvent> due) {
+		if (due.isEmpty()) {
+			return;
+		}
+		final Collection<List<ScheduledEvent>> islands = partitionIslands(due);
+		if (islands.size() == 1) {
+			due.forEach(this::run);
+			return;
+		}
+		final List<ForkJoinTask<?>> tasks = new ArrayList<>(islands.size());
+		for (final List<ScheduledEvent> island : islands) {
+			tasks.add(islandPool.submit(() -> island.forEach(this::run)));
+		}
+		for (final ForkJoinTask<?> task : tasks) {
+			try {
+				task.join();
+			} catch (final Exception e) {
+				LOGGER.catching(e);
+			}
+		}
+	}
+
+	/**
+	 * Groups npc owned events by the island of touching regions their owner is in, keeping event order in each island.
+	 */
+	private Collection<List<ScheduledEvent>> partitionIslands(final List<ScheduledEvent> due) {
+		final Map<Long, Integer> cells = new HashMap<>();
+		final int[] cellOf = new int[due.size()];
+		for (int i = 0; i < due.size(); i++) {
+			final Point location = due.get(i).getEvent().getNpcOwner().getLocation();
+			final long cell = cellKey(location.getX() / ISLAND_SIZE, location.getY() / ISLAND_SIZE);
+			final Integer index = cells.get(cell);
+			if (index != null) {
+				cellOf[i] = index;
+			} else {
+				cellOf[i] = cells.size();
+				cells.put(cell, cells.size());
+			}
+		}
+
+		// Join each occupied cell with the occupied cells around it
+		final int[] parents = new int[cells.size()];
+		for (int i = 0; i < parents.length; i++) {
+			parents[i] = i;
+		}
+		for (final Map.Entry<Long, Integer> entry : cells.entrySet()) {
+			final int cellX = (int) (entry.getKey() >> 32);
+			final int cellY = (int) (long) entry.getKey();
+			for (int dx = -1; dx <= 1; dx++) {
+				for (int dy = -1; dy <= 1; dy++) {
+					final Integer neighbour = cells.get(cellKey(cellX + dx, cellY + dy));
+					if (neighbour != null) {
+						union(parents, entry.getValue(), neighbour);
+					}
+				}
+			}
+		}
+
+		final Map<Integer, List<ScheduledEvent>> islands = new LinkedHashMap<>();
+		for (int i = 0; i < due.size(); i++) {
+			islands.computeIfAbsent(find(parents, cellOf[i]), root -> new ArrayList<>()).add(due.get(i));
+		}
+		return islands.values();
+	}
+
+	private static long cellKey(final int cellX, final int cellY) {
+		return ((long) cellX << 32) | (cellY & 0xFFFFFFFFL);
+	}
+
+	private static int find(final int[] parents, int cell) {
+		while (parents[cell] != cell) {
+			parents[cell] = parents[parents[cell]];
+			cell = parents[cell];
+		}
+		return cell;
+	}
+
+	private static void union(final int[] parents, final int a, final int b) {
+		final int rootA = find(parents, a);
+		final int rootB = find(parents, b);
+		if (rootA != rootB) {
+			parents[Math.max(rootA, rootB)] = Math.min(rootA, rootB);
+		}
+	}
+
+	private final class EventIslandThread extends ForkJoinWorkerThread {
+		private EventIslandThread(final ForkJoinPool pool) {
+			super(pool);
+			setName(getServer().getName() + " : EventIslandThread : " + getPoolIndex());
+		}
+
+		@Override
+		protected void onStart() {
+			super.onStart();
+			LogUtil.populateThreadContext(getServer().getConfig());
+		}
 	}
 
 	public void submit(final Runnable r, final String descriptor) {
@@ -213,15 +355,64 @@ public class GameEventHandler {
 			s.append("========================").append(newLine);
 			s.append("=== Incoming Packets ===").append(newLine);
 			s.append("========================").append(newLine);
-			for (Map.Entry<Integer, Integer> entry : getServer().getIncomingCountPerPacketOpcode().entrySet()) {
-				final int incomingPacketId = entry.getKey();
-				final int incomingCount = entry.getValue();
-				final long incomingTime = getServer().getIncomingTimePerPacketOpcode().get(incomingPacketId);
-				s.append("Packet ID: ").append(incomingPacketId).append(" : ")
+			final OpcodeStatistics incomingStatistics = getServer().getIncomingPacketStatistics();
+			for (final OpcodeIn opcode : OpcodeIn.values()) {
+				final int incomingCount = incomingStatistics.getCount(opcode.ordinal());
+				if (incomingCount == 0) {
+					continue;
+				}
+				final long incomingTime = incomingStatistics.getDuration(opcode.ordinal());
+				s.append("Packet: ").append(opcode).append(" : ")
 					.append(incomingTime / 1000000).append("ms").append(" : ")
 					.append(incomingTime / 1000).append("us").append(" : ")
 					.append(incomingCount).append(newLine);
 			}
+			s.append("========================").append(newLine);
+			s.append("===      Logins      ===").append(newLine);
+			s.append("========================").append(newLine);
+			final LoginExecutor loginExecutor = getServer().getLoginExecutor();
+			s.append("Queued: ").append(loginExecutor.getQueueDepth())
+				.append(", Auth: ").append(loginExecutor.getAuthQueueDepth())
+				.append(", Load: ").append(loginExecutor.getLoadQueueDepth()).append(newLine);
+			appendLatency(s, "Wait", loginExecutor.getQueueStatistics(), newLine);
+			appendLatency(s, "Auth", loginExecutor.getAuthStatistics(), newLine);
+			appendLatency(s, "Load", loginExecutor.getLoadStatistics(), newLine);
+			final SaveStatistics saveStatistics = getServer().getDatabase().getSaveStatistics();
+			final long rowsHeld = saveStatistics.getRowsHeld();
+			s.append("Saves: ").append(saveStatistics.getSaves())
+				.append(", Rows: ").append(saveStatistics.getRowsWritten()).append(" of ").append(rowsHeld)
+				.append(" (").append(rowsHeld == 0 ? 0 : saveStatistics.getRowsWritten() * 100 / rowsHeld).append("%)")
+				.append(", Containers: ").append(saveStatistics.getContainersWritten()).append(" written, ")
+				.append(saveStatistics.getContainersSkipped()).append(" unchanged").append(newLine);
+			s.append("========================").append(newLine);
+			s.append("===    Game Logs     ===").append(newLine);
+			s.append("========================").append(newLine);
+			final MySqlGameLogger gameLogger = getServer().getGameLogger();
+			s.append("Queued: ").append(gameLogger.getQueueDepth())
+				.append(", Written: ").append(gameLogger.getRowsWritten())
+				.append(", Largest batch: ").append(gameLogger.getMaxBatchSize()).append(newLine);
+			s.append("Journal: ").append(DataConversions.formatBytes(gameLogger.getJournalBacklog()))
+				.append(", Spilled: ").append(gameLogger.getRowsSpilled())
+				.append(", Replayed: ").append(gameLogger.getRowsReplayed())
+				.append(", Failed: ").append(gameLogger.getRowsFailed())
+				.append(", Dropped: ").append(gameLogger.getRowsDropped()).append(newLine);
+			appendLatency(s, "Batch", gameLogger.getBatchStatistics(), newLine);
+			s.append("========================").append(newLine);
+			s.append("=== Plugin Triggers  ===").append(newLine);
+			s.append("========================").append(newLine);
+			for (final Map.Entry<Class<?>, TriggerStatistics> entry : getServer().getPluginHandler().getTriggerStatistics().entrySet()) {
+				final TriggerStatistics statistics = entry.getValue();
+				final long triggerCount = statistics.getCount();
+				if (triggerCount == 0) {
+					continue;
+				}
+				s.append("Trigger: ").append(entry.getKey().getSimpleName()).append(" : ")
+					.append(statistics.getDuration() / 1000).append("us").append(" : ")
+					.append(statistics.getDuration() / triggerCount / 1000).append("us avg").append(" : ")
+					.append(statistics.getMaxDuration() / 1000).append("us max").append(" : ")
+					.append(triggerCount).append(" : ")
+					.append(statistics.getBlockedCount()).append(" blocked").append(newLine);
+			}
 		}
 
 		// Running GC before grabbing memory usage in order to get the actual used and referenced memory amount.
@@ -233,6 +424,7 @@ public class GameEventHandler {
 		final String returnString = (
 			"Tick: " + getServer().getConfig().GAME_TICK + "ms, Server: " + (getServer().getLastTickDuration() / 1000000) + "ms " + (getServer().getLastIncomingPacketsDuration() / 1000000) + "ms " + (getServer().getLastEventsDuration() / 1000000) + "ms " + (getServer().getLastOutgoingPacketsDuration() / 1000000) + "ms" + newLine +
 				"Game Updater: " + (getServer().getLastWorldUpdateDuration() / 1000000) + "ms " + (getServer().getLastProcessPlayersDuration() / 1000000) + "ms " + (getServer().getLastProcessNpcsDuration() / 1000000) + "ms " + (getServer().getLastProcessMessageQueuesDuration() / 1000000) + "ms " + (getServer().getLastUpdateClientsDuration() / 1000000) + "ms " + (getServer().getLastDoCleanupDuration() / 1000000) + "ms " + (getServer().getLastExecuteWalkToActionsDuration() / 1000000) + "ms " + newLine +
+				"Outgoing: " + getServer().getLastOutgoingFlushes() + " flushes, " + getServer().getLastOutgoingBytes() + " bytes, " + getServer().getLastOutgoingBytesPerFlush() + " bytes/flush" + newLine +
 				"Events: " + countAllEvents + ", NPCs: " + getServer().getWorld().getNpcs().size() + ", Players: " + getServer().getWorld().getPlayers().size() + ", Shops: " + getServer().getWorld().getShops().size() + newLine +
 				"Threads: " + Thread.activeCount() + ", Total: " + totalMemory + ", Free: " + freeMemory + ", Used: " + usedMemory + newLine +
 				/*"Player Atk Map: " + getWorld().getPlayersUnderAttack().size() + ", NPC Atk Map: " + getWorld().getNpcsUnderAttack().size() + ", Quests: " + getWorld().getQuests().size() + ", Mini Games: " + getWorld().getMiniGames().size() + newLine +*/
@@ -246,6 +438,13 @@ public class GameEventHandler {
 		return returnString.substring(0, Math.min(returnString.length(), 1999)); // Limit to 2000 characters for Discord.
 	}
 
+	private static void appendLatency(final StringBuilder s, final String name, final LatencyStatistics statistics, final String newLine) {
+		s.append(name).append(" : ")
+			.append(statistics.getAverageDuration() / 1000).append("us avg").append(" : ")
+			.append(statistics.getMaxDuration() / 1000).append("us max").append(" : ")
+			.append(statistics.getCount()).append(newLine);
+	}
+
 	public HashMap<String, Integer> getEventsCounts() {
 		return new LinkedHashMap<>(eventsCounts);
 	}
@@ -1,55 +1,71 @@
 package com.openrsc.server.event.rsc.handler;
 
-import com.google.common.collect.ArrayListMultimap;
 import com.google.common.collect.LinkedHashMultimap;
 import com.google.common.collect.Multimap;
-import com.google.inject.Key;
 import com.openrsc.server.event.rsc.DuplicationStrategy;
 import com.openrsc.server.event.rsc.GameTickEvent;
 import com.openrsc.server.event.rsc.PluginTickEvent;
-import com.openrsc.server.model.entity.Mob;
 import com.openrsc.server.model.entity.player.Player;
-import org.apache.commons.lang3.builder.EqualsBuilder;
-import org.apache.commons.lang3.builder.HashCodeBuilder;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import java.text.MessageFormat;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.Optional;
-import java.util.UUID;
+import java.util.Objects;
 
+/**
+ * Tracks every game tick event and works out which are due each tick.
+ *
+ * Events are grouped by owner: each player's events make up one group, and all other events another. Every
+ * time a group is processed is a pass, and each group keeps its events in a {@link TimingWheel} keyed by the
+ * pass they are next due in. A pass hands out only the events due in it, in the order they were added, and
+ * brings their countdowns up to date just before they are called, so an event that is not due is not touched.
+ * Events that have their countdown changed or are stopped from elsewhere tell the store through their
+ * {@link com.openrsc.server.event.rsc.EventSchedule}.
+ */
 class GameTickEventStore {
     private static final Logger LOGGER = LogManager.getLogger(GameTickEventStore.class);
 
+    private static final Comparator<ScheduledEvent> BY_SEQUENCE = Comparator.comparingLong(event -> event.sequence);
+
     private final Object LOCK = new Object();
 
     /**
      * Tracks whether the event should be added using the criteria determined by the key
      */
-    private final Map<GameTickKey, GameTickEvent> events = new LinkedHashMap<>();
+    private final Map<GameTickKey, ScheduledEvent> events = new LinkedHashMap<>();
 
     /**
-     * Indexes events by username for fast-lookup during individual player tick processing
+     * Each player's events, by username hash, so they are kept while the player logs back in
      */
-    private final Multimap<Long, GameTickEvent> byUsernameHash = ArrayListMultimap.create();
+    private final Map<Long, EventQueue> byUsernameHash = new HashMap<>();
 
     /**
-     * Keep the non player events ready
+     * The non player events
      */
-    private final Map<GameTickKey, GameTickEvent> nonPlayerEvents = new LinkedHashMap<>();
+    private final EventQueue nonPlayerEvents = new EventQueue(null);
 
     /**
      * Index by event type to quickly know if a certain event type exists (i.e. instanceof)
      */
-    private final Multimap<Key<? extends GameTickEvent>, GameTickEvent> byType = LinkedHashMultimap.create();
+    private final Multimap<Class<? extends GameTickEvent>, GameTickEvent> byType = LinkedHashMultimap.create();
+
+    /**
+     * Events stopped since the last cleanup
+     */
+    private final List<ScheduledEvent> stoppedEvents = new ArrayList<>();
+
+    private long nextSequence;
 
     public boolean add(GameTickEvent event) {
         synchronized (LOCK) {
-            final GameTickKey eventKey = getKey(event);
+            final GameTickKey eventKey = new GameTickKey(event);
 
             if (events.containsKey(eventKey)) {
                 // We already have an instance of this event
@@ -57,12 +73,21 @@ class GameTickEventStore {
                 return false;
             }
 
-            events.put(eventKey, event);
-            byType.put(Key.get(event.getClass()), event);
-            if (isPlayerOwner(event)) {
-                byUsernameHash.put(((Player) event.getOwner()).getUsernameHash(), event);
-            } else {
-                nonPlayerEvents.put(eventKey, event);
+            final EventQueue queue = isPlayerOwner(event)
+                    ? byUsernameHash.computeIfAbsent(((Player) event.getOwner()).getUsernameHash(), EventQueue::new)
+                    : nonPlayerEvents;
+            final ScheduledEvent scheduled = new ScheduledEvent(this, event, eventKey, queue, nextSequence++);
+            final long ticksBeforeRun = event.getTicksBeforeRun();
+
+            events.put(eventKey, scheduled);
+            byType.put(event.getClass(), event);
+            queue.size++;
+
+            scheduled.countdownPass = queue.wheel.getTick() + 1;
+            schedule(scheduled, ticksBeforeRun);
+            event.setSchedule(scheduled);
+            if (event.shouldRemove()) {
+                stopped(scheduled);
             }
             return true;
         }
@@ -70,100 +95,291 @@ class GameTickEventStore {
 
     public void remove(GameTickEvent event) {
         synchronized (LOCK) {
-            final GameTickKey eventKey = getKey(event);
+            final GameTickKey eventKey = new GameTickKey(event);
+            final ScheduledEvent scheduled = events.get(eventKey);
 
-            if(!events.containsKey(eventKey)) {
+            if (scheduled == null) {
                 // Event does not exist
                 LOGGER.warn("Failed to remove event: {}", eventKey);
                 return;
             }
 
-            events.remove(eventKey);
-            byType.remove(Key.get(event.getClass()), event);
-            if(isPlayerOwner(event)) {
-                byUsernameHash.remove(((Player) event.getOwner()).getUsernameHash(), event);
-            } else {
-                nonPlayerEvents.remove(eventKey);
+            remove(scheduled);
+        }
+    }
+
+    /**
+     * Removes the events that have been stopped since the last cleanup.
+     */
+    public void removeStoppedEvents() {
+        synchronized (LOCK) {
+            for (final ScheduledEvent scheduled : stoppedEvents) {
+                scheduled.stopped = false;
+                if (!scheduled.removed && scheduled.event.shouldRemove()) {
+                    remove(scheduled);
+                }
             }
+            stoppedEvents.clear();
+        }
+    }
+
+    public EventQueue getNonPlayerEvents() {
+        return nonPlayerEvents;
+    }
+
+    /**
+     * @return The player's events, or null if they have none.
+     */
+    public EventQueue getPlayerEvents(long usernameHash) {
+        synchronized (LOCK) {
+            return byUsernameHash.get(usernameHash);
         }
     }
 
-    public Collection<GameTickEvent> getPlayerEvents(Player player) {
+    /**
+     * Starts the next pass over a group of events, which then hands out its due events through {@link #nextDue}.
+     */
+    public void startPass(EventQueue queue) {
         synchronized (LOCK) {
-            return new ArrayList<>(byUsernameHash.get(player.getUsernameHash()));
+            queue.inPass = true;
+            queue.sequenceLimit = nextSequence;
+            queue.cursorSequence = -1;
+            queue.cursor = 0;
+            queue.wheel.advance(queue.due);
+            queue.due.sort(BY_SEQUENCE);
+            for (final ScheduledEvent scheduled : queue.due) {
+                scheduled.pending = true;
+            }
         }
     }
 
-    public Collection<GameTickEvent> getPlayerEvents(Long usernameHash) {
+    /**
+     * Hands out the next event due in the current pass, ready to be called. It must be handed back
+     * through {@link #ran} once called.
+     *
+     * @return The event, or null if no more are due.
+     */
+    public ScheduledEvent nextDue(EventQueue queue) {
         synchronized (LOCK) {
-            return new ArrayList<>(byUsernameHash.get(usernameHash));
+            final long pass = queue.wheel.getTick();
+            while (queue.cursor < queue.due.size()) {
+                final ScheduledEvent scheduled = queue.due.get(queue.cursor++);
+                scheduled.pending = false;
+                if (scheduled.removed || scheduled.linked || scheduled.due != pass) {
+                    // Rescheduled or removed since the pass started
+                    continue;
+                }
+                queue.cursorSequence = scheduled.sequence;
+                scheduled.event.tick(pass - scheduled.countdownPass);
+                scheduled.countdownPass = pass;
+                scheduled.calling = true;
+                return scheduled;
+            }
+            return null;
         }
     }
 
-    public Collection<GameTickEvent> getNonPlayerEvents() {
+    /**
+     * Schedules an event handed out by {@link #nextDue} after it has been called.
+     */
+    public void ran(ScheduledEvent scheduled) {
         synchronized (LOCK) {
-            return new ArrayList<>(nonPlayerEvents.values());
+            // Read while still calling, so the countdown is taken as it is
+            final long ticksBeforeRun = scheduled.event.getTicksBeforeRun();
+            scheduled.calling = false;
+            if (scheduled.removed) {
+                return;
+            }
+            if (scheduled.event.shouldRemove()) {
+                // Left out of the wheel until the cleanup removes it
+                stopped(scheduled);
+                return;
+            }
+            scheduled.countdownPass = scheduled.queue.wheel.getTick() + 1;
+            schedule(scheduled, ticksBeforeRun);
+        }
+    }
+
+    /**
+     * Ends the current pass over a group of events.
+     */
+    public void endPass(EventQueue queue) {
+        synchronized (LOCK) {
+            final long pass = queue.wheel.getTick();
+            for (int i = queue.cursor; i < queue.due.size(); i++) {
+                final ScheduledEvent scheduled = queue.due.get(i);
+                scheduled.pending = false;
+                if (!scheduled.removed && !scheduled.linked && !scheduled.calling && scheduled.due == pass) {
+                    // Became due after the pass had handed its events out
+                    scheduled.due = pass + 1;
+                    queue.wheel.insert(scheduled);
+                }
+            }
+            queue.due.clear();
+            queue.inPass = false;
+            if (queue.size == 0 && queue.usernameHash != null) {
+                byUsernameHash.remove(queue.usernameHash, queue);
+            }
         }
     }
 
     public Collection<GameTickEvent> getEvents(Class<? extends GameTickEvent> type) {
         synchronized (LOCK) {
-            return new ArrayList<>(byType.get(Key.get(type)));
+            return new ArrayList<>(byType.get(type));
         }
     }
 
     public boolean hasEvent(Class<? extends GameTickEvent> eventType) {
         synchronized (LOCK) {
-            return byType.containsKey(Key.get(eventType));
+            return byType.containsKey(eventType);
         }
     }
 
     public Collection<GameTickEvent> getTrackedEvents() {
         synchronized (LOCK) {
-            return new ArrayList<>(events.values());
+            final List<GameTickEvent> tracked = new ArrayList<>(events.size());
+            for (final ScheduledEvent scheduled : events.values()) {
+                tracked.add(scheduled.event);
+            }
+            return tracked;
+        }
+    }
+
+    long getTicksElapsed(ScheduledEvent scheduled) {
+        synchronized (LOCK) {
+            if (scheduled.calling || scheduled.removed) {
+                return 0;
+            }
+            return Math.max(0, scheduled.queue.wheel.getTick() - scheduled.countdownPass + 1);
         }
     }
 
-    private boolean isPlayerOwner(GameTickEvent event) {
+    void countdownReset(ScheduledEvent scheduled, long ticksBeforeRun) {
+        synchronized (LOCK) {
+            if (scheduled.calling || scheduled.removed) {
+                // Picked up once the call is over
+                return;
+            }
+            final EventQueue queue = scheduled.queue;
+            queue.wheel.remove(scheduled);
+            // An event the current pass has yet to reach still counts down in it, as it is run in order
+            final boolean reachedThisPass = !queue.inPass
+                    || scheduled.sequence <= queue.cursorSequence
+                    || scheduled.sequence >= queue.sequenceLimit;
+            scheduled.countdownPass = queue.wheel.getTick() + (reachedThisPass ? 1 : 0);
+            schedule(scheduled, ticksBeforeRun);
+        }
+    }
+
+    void stopped(ScheduledEvent scheduled) {
+        synchronized (LOCK) {
+            if (!scheduled.removed && !scheduled.stopped) {
+                scheduled.stopped = true;
+                stoppedEvents.add(scheduled);
+            }
+        }
+    }
+
+    private void schedule(ScheduledEvent scheduled, long ticksBeforeRun) {
+        final EventQueue queue = scheduled.queue;
+        scheduled.due = scheduled.countdownPass + Math.max(ticksBeforeRun, 1) - 1;
+        if (scheduled.due > queue.wheel.getTick()) {
+            queue.wheel.insert(scheduled);
+        } else if (!scheduled.pending) {
+            // Due in the pass under way, after the event it is on
+            int index = queue.cursor;
+            while (index < queue.due.size() && queue.due.get(index).sequence < scheduled.sequence) {
+                index++;
+            }
+            queue.due.add(index, scheduled);
+            scheduled.pending = true;
+        }
+    }
+
+    private void remove(ScheduledEvent scheduled) {
+        final GameTickEvent event = scheduled.event;
+        final EventQueue queue = scheduled.queue;
+        event.tick(getTicksElapsed(scheduled));
+        event.setSchedule(null);
+
+        events.remove(scheduled.key);
+        byType.remove(event.getClass(), event);
+        queue.wheel.remove(scheduled);
+        scheduled.removed = true;
+        queue.size--;
+        if (queue.size == 0 && !queue.inPass && queue.usernameHash != null) {
+            byUsernameHash.remove(queue.usernameHash, queue);
+        }
+    }
+
+    private static boolean isPlayerOwner(GameTickEvent event) {
         return event.hasOwner() && event.getOwner() instanceof Player;
     }
 
-    private GameTickKey getKey(GameTickEvent event) {
-        if(event instanceof PluginTickEvent) {
-            return new GameTickKey((PluginTickEvent) event);
+    /**
+     * One player's events, or the non player events, and the pass being made over them.
+     */
+    static final class EventQueue {
+        private final Long usernameHash;
+        private final TimingWheel wheel = new TimingWheel();
+        private int size;
+
+        /**
+         * Events due in the current pass, in the order they were added
+         */
+        private final List<ScheduledEvent> due = new ArrayList<>();
+        private int cursor;
+        private boolean inPass;
+        /**
+         * The last event handed out in the current pass
+         */
+        private long cursorSequence;
+        /**
+         * Events added during the pass, from this one on, wait for the next pass
+         */
+        private long sequenceLimit;
+
+        private EventQueue(Long usernameHash) {
+            this.usernameHash = usernameHash;
         }
-        return new GameTickKey(event);
     }
 
-    class GameTickKey {
+    /**
+     * Decides which events are duplicates of each other, according to their {@link DuplicationStrategy}.
+     * Worked out once, when the event is added.
+     */
+    static final class GameTickKey {
         private final String name;
-        private final Boolean isPlayerEvent;
-        private final UUID ownerUUID;
+        private final boolean isPlayerEvent;
+        /**
+         * The event for ALLOW_MULTIPLE, its owner for ONE_PER_MOB, or the strategy itself for ONE_PER_SERVER
+         */
+        private final Object discriminator;
+        private final int hash;
 
         private GameTickKey(GameTickEvent event) {
             this.name = resolveName(event);
             this.isPlayerEvent = isPlayerOwner(event);
-            this.ownerUUID = resolveUUID(event);
+            this.discriminator = resolveDiscriminator(event);
+            this.hash = Objects.hash(name, isPlayerEvent, discriminator);
         }
 
-        private String resolveName(GameTickEvent event) {
-            if(event instanceof PluginTickEvent) {
+        private static String resolveName(GameTickEvent event) {
+            if (event instanceof PluginTickEvent) {
                 return ((PluginTickEvent) event).getPluginName();
             }
 
             return String.valueOf(event.getClass());
         }
 
-        private UUID resolveUUID(GameTickEvent event) {
+        private static Object resolveDiscriminator(GameTickEvent event) {
             DuplicationStrategy strategy = event.getDuplicationStrategy();
-            if(strategy == DuplicationStrategy.ALLOW_MULTIPLE) {
+            if (strategy == DuplicationStrategy.ALLOW_MULTIPLE) {
                 return event.getUUID();
-            } else if(strategy == DuplicationStrategy.ONE_PER_SERVER) {
-                return UUID.nameUUIDFromBytes(resolveName(event).getBytes());
-            } else if(strategy == DuplicationStrategy.ONE_PER_MOB) {
-                return Optional.ofNullable(event.getOwner())
-                        .map(Mob::getUUID)
-                        .orElse(event.getUUID());
+            } else if (strategy == DuplicationStrategy.ONE_PER_SERVER) {
+                return strategy;
+            } else if (strategy == DuplicationStrategy.ONE_PER_MOB) {
+                return event.hasOwner() ? event.getOwner().getUUID() : event.getUUID();
             }
 
             throw new IllegalArgumentException(
@@ -176,19 +392,20 @@ class GameTickEventStore {
             if (this == o) return true;
             if (o == null || getClass() != o.getClass()) return false;
             GameTickKey that = (GameTickKey) o;
-            return new EqualsBuilder()
-                    .append(name, that.name)
-                    .append(isPlayerEvent, that.isPlayerEvent)
-                    .append(ownerUUID, that.ownerUUID).isEquals();
+            return hash == that.hash
+                    && isPlayerEvent == that.isPlayerEvent
+                    && name.equals(that.name)
+                    && discriminator.equals(that.discriminator);
         }
 
         @Override
         public int hashCode() {
-            return new HashCodeBuilder(17, 37)
-                    .append(name)
-                    .append(isPlayerEvent)
-                    .append(ownerUUID)
-                    .toHashCode();
+            return hash;
+        }
+
+        @Override
+        public String toString() {
+            return name + " (" + discriminator + ")";
         }
     }
 }
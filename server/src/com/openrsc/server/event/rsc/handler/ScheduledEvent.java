@@ -0,0 +1,73 @@
+package com.openrsc.server.event.rsc.handler;
+
+import com.openrsc.server.event.rsc.EventSchedule;
+import com.openrsc.server.event.rsc.GameTickEvent;
+
+/**
+ * An event tracked by a {@link GameTickEventStore}, and its place in its owner's {@link TimingWheel}.
+ *
+ * Only read or written while holding the store's lock.
+ */
+final class ScheduledEvent implements EventSchedule {
+	private final GameTickEventStore store;
+	final GameTickEvent event;
+	final GameTickEventStore.GameTickKey key;
+	final GameTickEventStore.EventQueue queue;
+	/**
+	 * Order the event was added in, which it is run in among the events due in the same pass.
+	 */
+	final long sequence;
+
+	/**
+	 * The pass the event is next due to run in.
+	 */
+	long due;
+	/**
+	 * The first pass that has not counted down the event's countdown yet.
+	 */
+	long countdownPass;
+	/**
+	 * Whether the event has been handed out to be called and is not back yet.
+	 */
+	boolean calling;
+	/**
+	 * Whether the event is in its queue's list of events due this pass.
+	 */
+	boolean pending;
+	boolean stopped;
+	boolean removed;
+
+	ScheduledEvent previous;
+	ScheduledEvent next;
+	int level;
+	int slot;
+	boolean linked;
+
+	ScheduledEvent(final GameTickEventStore store, final GameTickEvent event, final GameTickEventStore.GameTickKey key,
+				   final GameTickEventStore.EventQueue queue, final long sequence) {
+		this.store = store;
+		this.event = event;
+		this.key = key;
+		this.queue = queue;
+		this.sequence = sequence;
+	}
+
+	GameTickEvent getEvent() {
+		return event;
+	}
+
+	@Override
+	public long getTicksElapsed() {
+		return store.getTicksElapsed(this);
+	}
+
+	@Override
+	public void countdownReset(final long ticksBeforeRun) {
+		store.countdownReset(this, ticksBeforeRun);
+	}
+
+	@Override
+	public void stopped() {
+		store.stopped(this);
+	}
+}
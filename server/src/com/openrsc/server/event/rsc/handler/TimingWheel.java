@@ -0,0 +1,148 @@
+package com.openrsc.server.event.rsc.handler;
+
+import java.util.List;
+
+/**
+ * A hierarchical timing wheel of scheduled events, counting the passes made over one group of events.
+ *
+ * Every level has 64 slots, and each slot of a level spans as many passes as the whole level below it.
+ * An event goes in the lowest level whose span reaches its due pass, and is moved down a level each time
+ * its slot comes round, so a pass only looks at the events due in it and the odd slot being cascaded.
+ * Events due further ahead than the top level reaches wait in an overflow list.
+ */
+final class TimingWheel {
+	private static final int SLOT_BITS = 6;
+	private static final int SLOTS = 1 << SLOT_BITS;
+	private static final int SLOT_MASK = SLOTS - 1;
+	private static final int LEVELS = 4;
+	private static final int OVERFLOW = -1;
+
+	/**
+	 * Heads of each slot's list of events, allocated as levels are first needed.
+	 */
+	private final ScheduledEvent[][] slots = new ScheduledEvent[LEVELS][];
+	private ScheduledEvent overflow;
+
+	/**
+	 * The last pass advanced to.
+	 */
+	private long tick;
+
+	long getTick() {
+		return tick;
+	}
+
+	/**
+	 * Adds an event, which must not be due before the current pass.
+	 */
+	void insert(final ScheduledEvent event) {
+		final long delta = event.due - tick;
+		if (delta < 0) {
+			throw new IllegalArgumentException("Event is due in past pass " + event.due + ", now " + tick);
+		}
+		int level = 0;
+		while (level < LEVELS && delta >= 1L << (SLOT_BITS * (level + 1))) {
+			level++;
+		}
+		if (level == LEVELS) {
+			link(event, OVERFLOW, 0);
+		} else {
+			link(event, level, (int) ((event.due >>> (SLOT_BITS * level)) & SLOT_MASK));
+		}
+	}
+
+	void remove(final ScheduledEvent event) {
+		if (!event.linked) {
+			return;
+		}
+		if (event.previous != null) {
+			event.previous.next = event.next;
+		} else if (event.level == OVERFLOW) {
+			overflow = event.next;
+		} else {
+			slots[event.level][event.slot] = event.next;
+		}
+		if (event.next != null) {
+			event.next.previous = event.previous;
+		}
+		event.previous = null;
+		event.next = null;
+		event.linked = false;
+	}
+
+	/**
+	 * Moves on to the next pass.
+	 *
+	 * @param due Receives the events due in the new pass, which are taken out of the wheel.
+	 */
+	void advance(final List<ScheduledEvent> due) {
+		tick++;
+		if ((tick & ((1L << (SLOT_BITS * LEVELS)) - 1)) == 0) {
+			ScheduledEvent event = overflow;
+			overflow = null;
+			reinsert(event);
+		}
+		for (int level = LEVELS - 1; level > 0; level--) {
+			if ((tick & ((1L << (SLOT_BITS * level)) - 1)) == 0) {
+				cascade(level, (int) ((tick >>> (SLOT_BITS * level)) & SLOT_MASK));
+			}
+		}
+
+		if (slots[0] == null) {
+			return;
+		}
+		final int slot = (int) (tick & SLOT_MASK);
+		ScheduledEvent event = slots[0][slot];
+		slots[0][slot] = null;
+		while (event != null) {
+			final ScheduledEvent next = event.next;
+			event.previous = null;
+			event.next = null;
+			event.linked = false;
+			due.add(event);
+			event = next;
+		}
+	}
+
+	private void cascade(final int level, final int slot) {
+		if (slots[level] == null) {
+			return;
+		}
+		final ScheduledEvent event = slots[level][slot];
+		slots[level][slot] = null;
+		reinsert(event);
+	}
+
+	private void reinsert(ScheduledEvent event) {
+		while (event != null) {
+			final ScheduledEvent next = event.next;
+			event.previous = null;
+			event.next = null;
+			event.linked = false;
+			insert(event);
+			event = next;
+		}
+	}
+
+	private void link(final ScheduledEvent event, final int level, final int slot) {
+		final ScheduledEvent head;
+		if (level == OVERFLOW) {
+			head = overflow;
+			overflow = event;
+		} else {
+			if (slots[level] == null) {
+				slots[level] = new ScheduledEvent[SLOTS];
+			}
+			head = slots[level][slot];
+			slots[level][slot] = event;
+		}
+		event.level = level;
+		event.slot = slot;
+		event.previous = null;
+		event.next = head;
+		if (head != null) {
+			head.previous = event;
+		}
+		event.linked = true;
+	}
+}
@@ -0,0 +1,193 @@
+package com.openrsc.server.external;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InvalidClassException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamClass;
+import java.io.ObjectStreamField;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * A file holding every definition file as it was parsed, serialized, so later boots can read them back without
+ * parsing any JSON or XML.
+ *
+ * The file is tied to a hash of the contents of the files the definitions were parsed from. A file with another
+ * hash, version or checksum, or written from definition classes that have since changed, is ignored and written
+ * again once the definitions have been parsed.
+ */
+final class DefinitionCache {
+	private static final Logger LOGGER = LogManager.getLogger();
+
+	private static final int MAGIC = 0x52534443; // RSDC
+	/**
+	 * Increase when the file layout or the fields of a definition class change. Definition classes declare their
+	 * serial version, so a file stays usable across compilers; a changed class is also refused when it is read.
+	 */
+	private static final int VERSION = 2;
+	private static final int KEY_LENGTH = 32;
+	private static final int HEADER_LENGTH = Integer.BYTES * 2 + KEY_LENGTH + Integer.BYTES * 2;
+
+	private final File file;
+	private final byte[] key;
+
+	/**
+	 * @param sources The name of every definition file and the file it is read from.
+	 */
+	DefinitionCache(final File file, final Map<String, File> sources) throws IOException {
+		this.file = file;
+		this.key = hash(sources);
+	}
+
+	private static byte[] hash(final Map<String, File> sources) throws IOException {
+		final MessageDigest digest;
+		try {
+			digest = MessageDigest.getInstance("SHA-256");
+		} catch (final NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+		digest.update(ByteBuffer.allocate(Integer.BYTES).putInt(VERSION).array());
+		for (final Map.Entry<String, File> source : sources.entrySet()) {
+			digest.update(source.getKey().getBytes(StandardCharsets.UTF_8));
+			final File sourceFile = source.getValue();
+			if (sourceFile.isFile()) {
+				digest.update((byte) 1);
+				digest.update(Files.readAllBytes(sourceFile.toPath()));
+			} else {
+				digest.update((byte) 0);
+			}
+		}
+		return digest.digest();
+	}
+
+	/**
+	 * @return The parsed definitions by file name, or null if the file could not be used.
+	 */
+	@SuppressWarnings("unchecked")
+	Map<String, Object> read() {
+		if (!file.isFile()) {
+			return null;
+		}
+		try {
+			final byte[] bytes = Files.readAllBytes(file.toPath());
+			final ByteBuffer buffer = ByteBuffer.wrap(bytes);
+			if (bytes.length < HEADER_LENGTH || buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+				LOGGER.info("Definition cache " + file + " is from another version, rebuilding it");
+				return null;
+			}
+			final byte[] fileKey = new byte[KEY_LENGTH];
+			buffer.get(fileKey);
+			if (!Arrays.equals(fileKey, key)) {
+				LOGGER.info("Definition cache " + file + " is older than the definition files, rebuilding it");
+				return null;
+			}
+			final int checksum = buffer.getInt();
+			final int length = buffer.getInt();
+			if (length != buffer.remaining() || checksum(bytes, HEADER_LENGTH, length) != checksum) {
+				LOGGER.warn("Definition cache " + file + " is corrupt, rebuilding it");
+				return null;
+			}
+			try (ObjectInputStream in = new FieldCheckingInputStream(new ByteArrayInputStream(bytes, HEADER_LENGTH, length))) {
+				return (Map<String, Object>) in.readObject();
+			}
+		} catch (final IOException | ClassNotFoundException | RuntimeException e) {
+			LOGGER.warn("Unable to read definition cache " + file + ", rebuilding it: " + e.getMessage());
+			return null;
+		}
+	}
+
+	/**
+	 * Writes the definitions to a temporary file and moves it into place, so a file that is there is always complete.
+	 * Must be called before anything changes the parsed definitions.
+	 */
+	void write(final Map<String, Object> definitions) {
+		final ByteArrayOutputStream data = new ByteArrayOutputStream(1 << 20);
+		try (ObjectOutputStream out = new ObjectOutputStream(data)) {
+			out.writeObject(definitions);
+		} catch (final IOException e) {
+			LOGGER.warn("Unable to write definition cache " + file + ": " + e);
+			return;
+		}
+		final byte[] bytes = data.toByteArray();
+
+		final ByteBuffer header = ByteBuffer.allocate(HEADER_LENGTH);
+		header.putInt(MAGIC);
+		header.putInt(VERSION);
+		header.put(key);
+		header.putInt(checksum(bytes, 0, bytes.length));
+		header.putInt(bytes.length);
+
+		final File parent = file.getAbsoluteFile().getParentFile();
+		final File temporary = new File(parent, file.getName() + ".tmp");
+		try {
+			if (parent != null && !parent.exists() && !parent.mkdirs()) {
+				throw new IOException("Could not create " + parent);
+			}
+			final byte[] contents = Arrays.copyOf(header.array(), HEADER_LENGTH + bytes.length);
+			System.arraycopy(bytes, 0, contents, HEADER_LENGTH, bytes.length);
+			Files.write(temporary.toPath(), contents);
+			Files.move(temporary.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			LOGGER.info("Wrote definition cache " + file);
+		} catch (final IOException e) {
+			LOGGER.warn("Unable to write definition cache " + file + ": " + e.getMessage());
+			temporary.delete();
+		}
+	}
+
+	/**
+	 * Refuses classes whose fields differ from the ones they were written with. Their serial versions are declared,
+	 * so otherwise a definition class with a field added would be read with it left at its default.
+	 */
+	private static final class FieldCheckingInputStream extends ObjectInputStream {
+		private FieldCheckingInputStream(final InputStream in) throws IOException {
+			super(in);
+		}
+
+		@Override
+		protected Class<?> resolveClass(final ObjectStreamClass desc) throws IOException, ClassNotFoundException {
+			final Class<?> type = super.resolveClass(desc);
+			// Classes from the JDK keep their serialized form between versions
+			if (type.getClassLoader() == null || type.isEnum()) {
+				return type;
+			}
+			final ObjectStreamClass local = ObjectStreamClass.lookup(type);
+			if (local == null || !fields(local).equals(fields(desc))) {
+				throw new InvalidClassException(type.getName(), "fields have changed since the cache was written");
+			}
+			return type;
+		}
+
+		private static String fields(final ObjectStreamClass type) {
+			final StringBuilder fields = new StringBuilder();
+			for (final ObjectStreamField field : type.getFields()) {
+				fields.append(field.getName()).append(' ').append(field.getTypeCode());
+				if (!field.isPrimitive()) {
+					fields.append(field.getTypeString());
+				}
+				fields.append(';');
+			}
+			return fields.toString();
+		}
+	}
+
+	private static int checksum(final byte[] bytes, final int offset, final int length) {
+		final CRC32 crc = new CRC32();
+		crc.update(bytes, offset, length);
+		return (int) crc.getValue();
+	}
+}
@@ -15,10 +15,16 @@ import org.json.JSONArray;
 import org.json.JSONObject;
 
 import java.io.File;
+import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.IntStream;
 
 import static com.openrsc.server.plugins.Functions.ZERO_RESERVED;
 import static com.openrsc.server.plugins.Functions.patchObject;
@@ -149,11 +155,13 @@ public final class EntityHandler {
 	}
 
 	public void load() {
+		final Map<String, Object> definitions = loadDefinitions();
+
 		npcs = new ArrayList<>();
 		npcsPatch = new ArrayList<>();
 		LOGGER.info("Loading npc definitions...");
-		loadNpcs(getServer().getConfig().CONFIG_DIR + "/defs/NpcDefs.json");
-		loadNpcs(getServer().getConfig().CONFIG_DIR + "/defs/NpcDefsCustom.json");
+		addAll(npcs, definitions.get("defs/NpcDefs.json"));
+		addAll(npcs, definitions.get("defs/NpcDefsCustom.json"));
 		patchNpcs();
 		customNpcConditions();
 		LOGGER.info("Loaded " + npcs.size() + " total npc definitions");
@@ -161,46 +169,41 @@ public final class EntityHandler {
 		items = new ArrayList<>();
 		itemsPatch = new ArrayList<>();
 		LOGGER.info("Loading item definitions...");
-		loadItems(getServer().getConfig().CONFIG_DIR + "/defs/ItemDefs.json");
-		loadItems(getServer().getConfig().CONFIG_DIR + "/defs/ItemDefsCustom.json");
+		addAll(items, definitions.get("defs/ItemDefs.json"));
+		addAll(items, definitions.get("defs/ItemDefsCustom.json"));
 		patchItems();
 		customItemConditions();
 		LOGGER.info("Loaded " + items.size() + " item definitions");
 
-		doors = (DoorDef[]) getPersistenceManager().load("defs/DoorDef.xml");
-		gameObjects = (GameObjectDef[]) getPersistenceManager().load("defs/GameObjectDef.xml");
-		prayers = (PrayerDef[]) getPersistenceManager().load("defs/PrayerDef.xml");
-		if (!getServer().getConfig().LACKS_PRAYERS) {
-			// On May 24 2001 original magic/prayer rework, new spells featured
-			spells = (SpellDef[]) getPersistenceManager().load("defs/SpellDef.xml");
-		} else {
-			spells = (SpellDef[]) getPersistenceManager().load("defs/SpellDefRetro.xml");
-		}
-		tiles = (TileDef[]) getPersistenceManager().load("defs/TileDef.xml");
-
-		herbSeconds = (ItemHerbSecond[]) getPersistenceManager().load(getPath("defs/extras/ItemHerbSecond.xml"));
-		dartTips = (HashMap<Integer, ItemDartTipDef>) getPersistenceManager().load(getPath("defs/extras/ItemDartTipDef.xml"));
-		gems = (HashMap<Integer, ItemGemDef>) getPersistenceManager().load(getPath("defs/extras/ItemGemDef.xml"));
-		logCut = (HashMap<Integer, ItemLogCutDef>) getPersistenceManager().load(getPath("defs/extras/ItemLogCutDef.xml"));
-		bowString = (HashMap<Integer, ItemBowStringDef>) getPersistenceManager().load(getPath("defs/extras/ItemBowStringDef.xml"));
-		arrowHeads = (HashMap<Integer, ItemArrowHeadDef>) getPersistenceManager().load(getPath("defs/extras/ItemArrowHeadDef.xml"));
-		firemaking = (HashMap<Integer, FiremakingDef>) getPersistenceManager().load(getPath("defs/extras/FiremakingDef.xml"));
-		itemAffectedTypes = (HashMap<Integer, int[]>) getPersistenceManager().load(getPath("defs/extras/ItemAffectedTypes.xml"));
-		itemUnIdentHerb = (HashMap<Integer, ItemUnIdentHerbDef>) getPersistenceManager().load(getPath("defs/extras/ItemUnIdentHerbDef.xml"));
-		itemHerb = (HashMap<Integer, ItemHerbDef>) getPersistenceManager().load(getPath("defs/extras/ItemHerbDef.xml"));
-		itemEdibleHeals = (HashMap<Integer, Integer>) getPersistenceManager().load(getPath("defs/extras/ItemEdibleHeals.xml"));
-		itemCooking = (HashMap<Integer, ItemCookingDef>) getPersistenceManager().load(getPath("defs/extras/ItemCookingDef.xml"));
-		itemPerfectCooking = (HashMap<Integer, ItemPerfectCookingDef>) getPersistenceManager().load(getPath("defs/extras/ItemPerfectCookingDef.xml"));
-		itemSmelting = (HashMap<Integer, ItemSmeltingDef>) getPersistenceManager().load(getPath("defs/extras/ItemSmeltingDef.xml"));
-		itemSmithing = (ItemSmithingDef[]) getPersistenceManager().load(getPath("defs/extras/ItemSmithingDef.xml"));
-		itemCrafting = (ItemCraftingDef[]) getPersistenceManager().load(getPath("defs/extras/ItemCraftingDef.xml"));
-		objectMining = (HashMap<Integer, ObjectMiningDef>) getPersistenceManager().load(getPath("defs/extras/ObjectMining.xml"));
-		objectWoodcutting = (HashMap<Integer, ObjectWoodcuttingDef>) getPersistenceManager().load(getPath("defs/extras/ObjectWoodcutting.xml"));
-		objectRunecraft = (HashMap<Integer, ObjectRunecraftDef>) getPersistenceManager().load(getPath("defs/extras/ObjectRunecraft.xml"));
-		objectFishing = (HashMap<Integer, ObjectFishingDef[]>) getPersistenceManager().load(getPath("defs/extras/ObjectFishing.xml"));
-		objectHarvesting = (HashMap<Integer, ObjectHarvestingDef>) getPersistenceManager().load(getPath("defs/extras/ObjectHarvesting.xml"));
-		objectTelePoints = (HashMap<Point, TelePoint>) getPersistenceManager().load(getPath("locs/extras/ObjectTelePoints.xml"));
-		certers = (HashMap<Integer, CerterDef>) getPersistenceManager().load(getPath("defs/extras/NpcCerters.xml"));
+		doors = (DoorDef[]) definitions.get("defs/DoorDef.xml");
+		gameObjects = (GameObjectDef[]) definitions.get("defs/GameObjectDef.xml");
+		prayers = (PrayerDef[]) definitions.get("defs/PrayerDef.xml");
+		spells = (SpellDef[]) definitions.get(getSpellsPath());
+		tiles = (TileDef[]) definitions.get("defs/TileDef.xml");
+
+		herbSeconds = (ItemHerbSecond[]) definitions.get(getPath("defs/extras/ItemHerbSecond.xml"));
+		dartTips = (HashMap<Integer, ItemDartTipDef>) definitions.get(getPath("defs/extras/ItemDartTipDef.xml"));
+		gems = (HashMap<Integer, ItemGemDef>) definitions.get(getPath("defs/extras/ItemGemDef.xml"));
+		logCut = (HashMap<Integer, ItemLogCutDef>) definitions.get(getPath("defs/extras/ItemLogCutDef.xml"));
+		bowString = (HashMap<Integer, ItemBowStringDef>) definitions.get(getPath("defs/extras/ItemBowStringDef.xml"));
+		arrowHeads = (HashMap<Integer, ItemArrowHeadDef>) definitions.get(getPath("defs/extras/ItemArrowHeadDef.xml"));
+		firemaking = (HashMap<Integer, FiremakingDef>) definitions.get(getPath("defs/extras/FiremakingDef.xml"));
+		itemAffectedTypes = (HashMap<Integer, int[]>) definitions.get(getPath("defs/extras/ItemAffectedTypes.xml"));
+		itemUnIdentHerb = (HashMap<Integer, ItemUnIdentHerbDef>) definitions.get(getPath("defs/extras/ItemUnIdentHerbDef.xml"));
+		itemHerb = (HashMap<Integer, ItemHerbDef>) definitions.get(getPath("defs/extras/ItemHerbDef.xml"));
+		itemEdibleHeals = (HashMap<Integer, Integer>) definitions.get(getPath("defs/extras/ItemEdibleHeals.xml"));
+		itemCooking = (HashMap<Integer, ItemCookingDef>) definitions.get(getPath("defs/extras/ItemCookingDef.xml"));
+		itemPerfectCooking = (HashMap<Integer, ItemPerfectCookingDef>) definitions.get(getPath("defs/extras/ItemPerfectCookingDef.xml"));
+		itemSmelting = (HashMap<Integer, ItemSmeltingDef>) definitions.get(getPath("defs/extras/ItemSmeltingDef.xml"));
+		itemSmithing = (ItemSmithingDef[]) definitions.get(getPath("defs/extras/ItemSmithingDef.xml"));
+		itemCrafting = (ItemCraftingDef[]) definitions.get(getPath("defs/extras/ItemCraftingDef.xml"));
+		objectMining = (HashMap<Integer, ObjectMiningDef>) definitions.get(getPath("defs/extras/ObjectMining.xml"));
+		objectWoodcutting = (HashMap<Integer, ObjectWoodcuttingDef>) definitions.get(getPath("defs/extras/ObjectWoodcutting.xml"));
+		objectRunecraft = (HashMap<Integer, ObjectRunecraftDef>) definitions.get(getPath("defs/extras/ObjectRunecraft.xml"));
+		objectFishing = (HashMap<Integer, ObjectFishingDef[]>) definitions.get(getPath("defs/extras/ObjectFishing.xml"));
+		objectHarvesting = (HashMap<Integer, ObjectHarvestingDef>) definitions.get(getPath("defs/extras/ObjectHarvesting.xml"));
+		objectTelePoints = (HashMap<Point, TelePoint>) definitions.get(getPath("locs/extras/ObjectTelePoints.xml"));
+		certers = (HashMap<Integer, CerterDef>) definitions.get(getPath("defs/extras/NpcCerters.xml"));
 
 		for (int fishSpot : objectFishing.keySet()) {
 			for (ObjectFishingDef fishDef : objectFishing.get(fishSpot)) {
@@ -213,6 +216,95 @@ public final class EntityHandler {
 		}
 	}
 
+	/**
+	 * Every definition file, by the name it is looked up by, and how it is parsed.
+	 */
+	private Map<String, Function<String, Object>> getDefinitionSources() {
+		final Map<String, Function<String, Object>> sources = new LinkedHashMap<>();
+		final Function<String, Object> xml = getPersistenceManager()::load;
+		sources.put("defs/NpcDefs.json", this::loadNpcs);
+		sources.put("defs/NpcDefsCustom.json", this::loadNpcs);
+		sources.put("defs/ItemDefs.json", this::loadItems);
+		sources.put("defs/ItemDefsCustom.json", this::loadItems);
+		sources.put("defs/DoorDef.xml", xml);
+		sources.put("defs/GameObjectDef.xml", xml);
+		sources.put("defs/PrayerDef.xml", xml);
+		sources.put(getSpellsPath(), xml);
+		sources.put("defs/TileDef.xml", xml);
+		for (String extra : new String[]{"ItemHerbSecond", "ItemDartTipDef", "ItemGemDef", "ItemLogCutDef",
+			"ItemBowStringDef", "ItemArrowHeadDef", "FiremakingDef", "ItemAffectedTypes", "ItemUnIdentHerbDef",
+			"ItemHerbDef", "ItemEdibleHeals", "ItemCookingDef", "ItemPerfectCookingDef", "ItemSmeltingDef",
+			"ItemSmithingDef", "ItemCraftingDef", "ObjectMining", "ObjectWoodcutting", "ObjectRunecraft",
+			"ObjectFishing", "ObjectHarvesting", "NpcCerters"}) {
+			sources.put(getPath("defs/extras/" + extra + ".xml"), xml);
+		}
+		sources.put(getPath("locs/extras/ObjectTelePoints.xml"), xml);
+		return sources;
+	}
+
+	/**
+	 * Reads the definitions from the definition cache if it is up to date. Otherwise parses the definition files,
+	 * several at once, and writes the cache for next time.
+	 *
+	 * @return The parsed contents of each definition file by its name, before anything is patched.
+	 */
+	private Map<String, Object> loadDefinitions() {
+		final long start = System.currentTimeMillis();
+		final Map<String, Function<String, Object>> sources = getDefinitionSources();
+
+		DefinitionCache cache = null;
+		if (getServer().getConfig().WANT_DEFINITION_CACHE) {
+			final Map<String, File> files = new LinkedHashMap<>();
+			for (String name : sources.keySet()) {
+				files.put(name, getPersistenceManager().getFile(name));
+			}
+			try {
+				cache = new DefinitionCache(new File(getServer().getConfig().CONFIG_DIR, "data/cache/definitions"
+					+ (getServer().getConfig().OLD_SKILL_DEFS ? "_retro" : "")
+					+ (getServer().getConfig().LACKS_PRAYERS ? "_retrospells" : "") + ".cache"), files);
+				final Map<String, Object> definitions = cache.read();
+				if (definitions != null && definitions.keySet().containsAll(sources.keySet())) {
+					LOGGER.info((System.currentTimeMillis() - start) + "ms to load " + definitions.size() + " definition files from cache");
+					return definitions;
+				}
+			} catch (IOException e) {
+				LOGGER.catching(e);
+			}
+		}
+
+		final List<String> names = new ArrayList<>(sources.keySet());
+		final Object[] parsed = new Object[names.size()];
+		IntStream.range(0, names.size()).parallel().forEach(i -> parsed[i] = sources.get(names.get(i)).apply(names.get(i)));
+
+		final Map<String, Object> definitions = new HashMap<>();
+		boolean complete = true;
+		for (int i = 0; i < names.size(); i++) {
+			definitions.put(names.get(i), parsed[i]);
+			complete &= parsed[i] != null;
+		}
+		LOGGER.info((System.currentTimeMillis() - start) + "ms to parse " + names.size() + " definition files");
+
+		// Leave a file that failed to parse to be tried again next time
+		if (cache != null && complete) {
+			cache.write(definitions);
+		}
+		return definitions;
+	}
+
+	private String getSpellsPath() {
+		if (!getServer().getConfig().LACKS_PRAYERS) {
+			// On May 24 2001 original magic/prayer rework, new spells featured
+			return "defs/SpellDef.xml";
+		}
+		return "defs/SpellDefRetro.xml";
+	}
+
+	private static <T> void addAll(List<T> definitions, Object parsed) {
+		if (parsed != null) {
+			definitions.addAll((List<T>) parsed);
+		}
+	}
+
 	private String getPath(String filePath) {
 		String path = filePath;
 		if (getServer().getConfig().OLD_SKILL_DEFS) {
@@ -232,8 +324,10 @@ public final class EntityHandler {
 		return path;
 	}
 
-	private void loadNpcs(String filename) {
+	private List<NPCDef> loadNpcs(String name) {
+		String filename = getServer().getConfig().CONFIG_DIR + "/" + name;
 		try {
+			List<NPCDef> npcs = new ArrayList<>();
 			JSONObject object = new JSONObject(new String(Files.readAllBytes(Paths.get(filename))));
 			JSONArray npcDefs = object.getJSONArray(JSONObject.getNames(object)[0]);
 			for (int i = 0; i < npcDefs.length(); i++) {
@@ -271,9 +365,11 @@ public final class EntityHandler {
 				npcs.add(def);
 			}
 			LOGGER.info("Loaded " + npcDefs.length() + " npcs from " + filename);
+			return npcs;
 		}
 		catch (Exception e) {
 			LOGGER.error(e);
+			return null;
 		}
 	}
 
@@ -347,8 +443,10 @@ public final class EntityHandler {
 		npcs.get(NpcId.GUARD_KHAZARD_MACE.id()).setCommand1("pickpocket");
 	}
 
-	private void loadItems(String filename) {
+	private List<ItemDefinition> loadItems(String name) {
+		String filename = getServer().getConfig().CONFIG_DIR + "/" + name;
 		try {
+			List<ItemDefinition> items = new ArrayList<>();
 			JSONObject object = new JSONObject(new String(Files.readAllBytes(Paths.get(filename))));
 			JSONArray itemDefs = object.getJSONArray(JSONObject.getNames(object)[0]);
 			for (int i = 0; i < itemDefs.length(); i++) {
@@ -382,9 +480,11 @@ public final class EntityHandler {
 				}
 				items.add(toAdd);
 			}
+			return items;
 		}
 		catch (Exception e) {
 			LOGGER.error(e);
+			return null;
 		}
 	}
 
@@ -1,9 +1,12 @@
 package com.openrsc.server.external;
 
+import java.io.Serializable;
+
 /**
  * The definition wrapper for items
  */
-public class ItemBowStringDef {
+public class ItemBowStringDef implements Serializable {
+	private static final long serialVersionUID = 1L;
 
 	/**
 	 * The ID of the bow created
@@ -1,6 +1,8 @@
 package com.openrsc.server.external;
 
 public final class ItemDefinition extends EntityDef {
+	private static final long serialVersionUID = 1L;
+
 	/**
 	 * The command for an <code>InventoryItem</code>,
 	 * or a <code>GroundItem</code> represented by
@@ -1,9 +1,12 @@
 package com.openrsc.server.external;
 
+import java.io.Serializable;
+
 /**
  * The definition wrapper for items
  */
-public class ItemGemDef {
+public class ItemGemDef implements Serializable {
+	private static final long serialVersionUID = 1L;
 
 	/**
 	 * The exp given by attaching this bow string
@@ -1,9 +1,12 @@
 package com.openrsc.server.external;
 
+import java.io.Serializable;
+
 /**
  * The definition wrapper for items
  */
-public class ItemPerfectCookingDef {
+public class ItemPerfectCookingDef implements Serializable {
+	private static final long serialVersionUID = 1L;
 
 	public int exp;
 	/**
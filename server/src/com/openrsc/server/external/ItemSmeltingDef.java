@@ -1,9 +1,12 @@
 package com.openrsc.server.external;
 
+import java.io.Serializable;
+
 /**
  * The definition wrapper for items
  */
-public class ItemSmeltingDef {
+public class ItemSmeltingDef implements Serializable {
+	private static final long serialVersionUID = 1L;
 
 	/**
 	 * The id of the related bar
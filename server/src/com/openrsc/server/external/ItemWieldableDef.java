@@ -1,5 +1,6 @@
 package com.openrsc.server.external;
 
+import java.io.Serializable;
 import java.util.HashMap;
 import java.util.Map.Entry;
 import java.util.Set;
@@ -7,7 +8,8 @@ import java.util.Set;
 /**
  * The definition wrapper for items
  */
-public class ItemWieldableDef {
+public class ItemWieldableDef implements Serializable {
+	private static final long serialVersionUID = 1L;
 
 	/**
 	 * How many armour points should be given
@@ -1,9 +1,12 @@
 package com.openrsc.server.external;
 
+import java.io.Serializable;
+
 /**
  * The definition wrapper for fish
  */
-public class ObjectFishDef {
+public class ObjectFishDef implements Serializable {
+	private static final long serialVersionUID = 1L;
 
 	/**
 	 * How much experience this fish should give
@@ -2,10 +2,13 @@ package com.openrsc.server.external;
 
 import com.openrsc.server.util.rsc.Formulae;
 
+import java.io.Serializable;
+
 /**
  * The definition wrapper for trees
  */
-public final class ObjectWoodcuttingDef {
+public final class ObjectWoodcuttingDef implements Serializable {
+	private static final long serialVersionUID = 1L;
 
 	/**
 	 * How much experience identifying gives
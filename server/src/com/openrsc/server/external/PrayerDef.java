@@ -4,6 +4,7 @@ package com.openrsc.server.external;
  * The definition wrapper for prayers
  */
 public class PrayerDef extends EntityDef {
+	private static final long serialVersionUID = 1L;
 
 	/**
 	 * The drain rate of the prayer (perhaps points per min?)
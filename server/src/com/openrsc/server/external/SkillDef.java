@@ -1,6 +1,9 @@
 package com.openrsc.server.external;
 
-public class SkillDef {
+import java.io.Serializable;
+
+public class SkillDef implements Serializable {
+	private static final long serialVersionUID = 1L;
 
 	//Allow for different exp curves
 	public enum EXP_CURVE {
@@ -1,6 +1,10 @@
 package com.openrsc.server.external;
 
-public class SkillSuccessRate {
+import java.io.Serializable;
+
+public class SkillSuccessRate implements Serializable {
+	private static final long serialVersionUID = 1L;
+
 	public int requiredLevel;
 	public int lowRate;
 	public int highRate;
@@ -8,6 +8,7 @@ import java.util.Set;
  * The definition wrapper for spells
  */
 public final class SpellDef extends EntityDef {
+	private static final long serialVersionUID = 1L;
 
 	/**
 	 * The amount of experience given by this spell
@@ -1,6 +1,10 @@
 package com.openrsc.server.external;
 
-public class TileDef {
+import java.io.Serializable;
+
+public class TileDef implements Serializable {
+	private static final long serialVersionUID = 1L;
+
 	public int colour;
 	public int objectType;
 	public int unknown;
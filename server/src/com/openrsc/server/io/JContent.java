@@ -22,11 +22,14 @@ public class JContent {
 			BZLib.decompress(dest, uncompressedLength, src, compressedLength, offset);
 			return dest;
 		} else {
-			m_data[2] = 0x42;
-			m_data[3] = 0x5A;
-			m_data[4] = 0x68;
-			m_data[5] = 0x31;
-			return BZip2.decompress(m_data, dest, 2, compressedLength + 4, uncompressedLength);
+			// Writes a header over the archive data, so only one entry at a time
+			synchronized (this) {
+				m_data[2] = 0x42;
+				m_data[3] = 0x5A;
+				m_data[4] = 0x68;
+				m_data[5] = 0x31;
+				return BZip2.decompress(m_data, dest, 2, compressedLength + 4, uncompressedLength);
+			}
 		}
 	}
 
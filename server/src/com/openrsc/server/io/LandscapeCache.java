@@ -0,0 +1,181 @@
+package com.openrsc.server.io;
+
+import com.openrsc.server.model.world.region.TileMap;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+
+/**
+ * A file holding the tiles of the world as they are once the landscape is loaded, so later boots can read them
+ * straight back instead of decoding every sector again.
+ *
+ * The file is tied to a key made from everything the tiles were worked out from. A file with a different key,
+ * version or checksum is ignored and written again once the landscape has been loaded the slow way.
+ */
+final class LandscapeCache {
+	private static final Logger LOGGER = LogManager.getLogger();
+
+	private static final int MAGIC = 0x52534C43; // RSLC
+	/**
+	 * Increase when the file layout or how tiles are worked out from sectors changes.
+	 */
+	private static final int VERSION = 1;
+	private static final int KEY_LENGTH = 32;
+	private static final int HEADER_LENGTH = Integer.BYTES * 2 + KEY_LENGTH + Integer.BYTES * 2 + Long.BYTES;
+
+	private final File file;
+	private final byte[] key;
+
+	private LandscapeCache(final File file, final byte[] key) {
+		this.file = file;
+		this.key = key;
+	}
+
+	/**
+	 * Builds the key from the files the landscape is read from and anything else that changes the tiles, such as
+	 * the door and tile definitions.
+	 */
+	static final class Key {
+		private final MessageDigest digest;
+
+		Key() {
+			try {
+				digest = MessageDigest.getInstance("SHA-256");
+			} catch (final NoSuchAlgorithmException e) {
+				throw new IllegalStateException(e);
+			}
+			add(VERSION);
+		}
+
+		Key add(final int value) {
+			digest.update((byte) (value >>> 24));
+			digest.update((byte) (value >>> 16));
+			digest.update((byte) (value >>> 8));
+			digest.update((byte) value);
+			return this;
+		}
+
+		Key add(final long value) {
+			add((int) (value >>> 32));
+			return add((int) value);
+		}
+
+		/**
+		 * Adds a source file by its path, size and modification time, or its absence.
+		 */
+		Key add(final File source) {
+			digest.update(source.getAbsolutePath().getBytes(StandardCharsets.UTF_8));
+			if (!source.exists()) {
+				return add(-1);
+			}
+			add(source.length());
+			return add(source.lastModified());
+		}
+
+		LandscapeCache build(final File file) {
+			return new LandscapeCache(file, digest.digest());
+		}
+	}
+
+	/**
+	 * Reads the tiles into the map if the file matches.
+	 *
+	 * @return The number of sectors the file was made from, or -1 if it could not be used.
+	 */
+	int read(final TileMap tiles) {
+		if (!file.isFile()) {
+			return -1;
+		}
+		try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+			final long expectedLength = HEADER_LENGTH + (long) TileMap.getDataLength();
+			if (channel.size() != expectedLength) {
+				LOGGER.info("Landscape cache " + file + " is the wrong size, rebuilding it");
+				return -1;
+			}
+			final MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, expectedLength);
+			if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+				LOGGER.info("Landscape cache " + file + " is from another version, rebuilding it");
+				return -1;
+			}
+			final byte[] fileKey = new byte[KEY_LENGTH];
+			buffer.get(fileKey);
+			if (!Arrays.equals(fileKey, key)) {
+				LOGGER.info("Landscape cache " + file + " was made from other map data, rebuilding it");
+				return -1;
+			}
+			final int sectors = buffer.getInt();
+			final int checksum = buffer.getInt();
+			final long dataLength = buffer.getLong();
+			final ByteBuffer data = buffer.slice();
+			if (dataLength != TileMap.getDataLength() || checksum(data.duplicate()) != checksum) {
+				LOGGER.warn("Landscape cache " + file + " is corrupt, rebuilding it");
+				return -1;
+			}
+			tiles.read(data);
+			return sectors;
+		} catch (final IOException e) {
+			LOGGER.catching(e);
+			return -1;
+		}
+	}
+
+	/**
+	 * Writes the tiles to a temporary file and moves it into place, so a file that is there is always complete.
+	 */
+	void write(final TileMap tiles, final int sectors) {
+		final ByteBuffer data = ByteBuffer.allocate(TileMap.getDataLength());
+		tiles.write(data);
+		data.flip();
+
+		final ByteBuffer header = ByteBuffer.allocate(HEADER_LENGTH);
+		header.putInt(MAGIC);
+		header.putInt(VERSION);
+		header.put(key);
+		header.putInt(sectors);
+		header.putInt(checksum(data.duplicate()));
+		header.putLong(data.remaining());
+		header.flip();
+
+		final File parent = file.getAbsoluteFile().getParentFile();
+		final File temporary = new File(parent, file.getName() + ".tmp");
+		try {
+			if (parent != null && !parent.exists() && !parent.mkdirs()) {
+				throw new IOException("Could not create " + parent);
+			}
+			try (FileChannel channel = FileChannel.open(temporary.toPath(), StandardOpenOption.CREATE,
+				StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+				while (header.hasRemaining()) {
+					channel.write(header);
+				}
+				while (data.hasRemaining()) {
+					channel.write(data);
+				}
+				channel.force(false);
+			}
+			Files.move(temporary.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			LOGGER.info("Wrote landscape cache " + file);
+		} catch (final IOException e) {
+			LOGGER.warn("Unable to write landscape cache " + file + ": " + e.getMessage());
+			temporary.delete();
+		}
+	}
+
+	private static int checksum(final ByteBuffer data) {
+		final CRC32 crc = new CRC32();
+		crc.update(data);
+		return (int) crc.getValue();
+	}
+}
@@ -3,10 +3,11 @@ package com.openrsc.server.io;
 import com.openrsc.server.ServerConfiguration;
 import com.openrsc.server.constants.Constants;
 import com.openrsc.server.database.WorldPopulator;
+import com.openrsc.server.external.DoorDef;
+import com.openrsc.server.external.EntityHandler;
+import com.openrsc.server.external.TileDef;
 import com.openrsc.server.model.world.World;
-import com.openrsc.server.model.world.region.Region;
-import com.openrsc.server.model.world.region.RegionManager;
-import com.openrsc.server.model.world.region.TileValue;
+import com.openrsc.server.model.world.region.TileMap;
 import com.openrsc.server.util.rsc.DataConversions;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -14,6 +15,9 @@ import org.apache.logging.log4j.Logger;
 import java.io.BufferedInputStream;
 import java.io.File;
 import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipFile;
 
@@ -25,6 +29,11 @@ public class WorldLoader {
 
 	private static final int[] ALLOWED_WALL_ID_TYPES = {5, 6, 14, 42, 63, 128, 229, 230};
 
+	/**
+	 * How many sectors are decoded at once before being applied to the world.
+	 */
+	private static final int DECODE_BATCH_SIZE = 64;
+
 	private JContent jagArchive;
 	private JContent memArchive;
 	private JContent landJagArchive;
@@ -334,7 +343,12 @@ public class WorldLoader {
 		return s;
 	}
 
-	private boolean loadSection(final int sectionX, final int sectionY, final int height, final int bigX, final int bigY) {
+	/**
+	 * Decodes a sector without touching the world, so sectors can be decoded on several threads at once.
+	 *
+	 * @return The sector, or null if there is none.
+	 */
+	private Sector decodeSection(final int sectionX, final int sectionY, final int height) {
 		Sector s = null;
 
 		if (jagArchive != null || memArchive != null || landJagArchive != null || landMemArchive != null) {
@@ -342,15 +356,13 @@ public class WorldLoader {
 			// This is official via client world loader
 			boolean useAltLoader = getWorld().getServer().getConfig().BASED_MAP_DATA >= 28 && getWorld().getServer().getConfig().BASED_MAP_DATA <= 62;
 			s = loadJAGSector(sectionX, sectionY, height, useAltLoader);
-			if (s == null)
-				return false;
-		} else {
+		} else if (tileArchive != null) {
 			try {
 				final String filename = "h" + height + "x" + sectionX + "y" + sectionY;
 				final ZipEntry e = tileArchive.getEntry(filename);
 				if (e == null) {
 					//LOGGER.warn("Ignoring Missing Sector: " + filename);
-					return false;
+					return null;
 				}
 				final ByteBuffer data = DataConversions.streamToBuffer(new BufferedInputStream(tileArchive.getInputStream(e)));
 				s = Sector.unpack(data);
@@ -358,7 +370,15 @@ public class WorldLoader {
 				LOGGER.catching(e);
 			}
 		}
+		return s;
+	}
 
+	/**
+	 * Puts a decoded sector into the world. Walls mark tiles of the sectors to the north and west too,
+	 * so sectors must be applied in the order they are laid out.
+	 */
+	private void applySection(final Sector s, final int bigX, final int bigY) {
+		final TileMap tiles = getWorld().getTiles();
 		for (int y = 0; y < Constants.REGION_SIZE; y++) {
 			for (int x = 0; x < Constants.REGION_SIZE; x++) {
 				final int bx = bigX + x;
@@ -368,14 +388,10 @@ public class WorldLoader {
 					continue;
 				}
 				Tile sectorTile = s.getTile(x, y);
-				TileValue tile = getWorld().getTile(bx, by);
 
-				tile.overlay = sectorTile.groundOverlay;
-				tile.diagWallVal = sectorTile.diagonalWalls;
-				tile.horizontalWallVal = sectorTile.horizontalWall;
-				tile.verticalWallVal = sectorTile.verticalWall;
-				tile.elevation = sectorTile.groundElevation;
-				tile.traversalMask = 0;
+				tiles.setTile(bx, by, sectorTile.groundOverlay, sectorTile.diagonalWalls, sectorTile.horizontalWall,
+					sectorTile.verticalWall, sectorTile.groundElevation);
+				tiles.setTraversalMask(bx, by, 0);
 
 				if ((sectorTile.groundOverlay & 0xff) == 250) {
 					sectorTile.groundOverlay = (byte) 2;
@@ -384,19 +400,19 @@ public class WorldLoader {
 				final byte groundOverlay = sectorTile.groundOverlay;
 				if (groundOverlay > 0
 					&& getWorld().getServer().getEntityHandler().getTileDef(groundOverlay - 1).getObjectType() != 0) {
-					tile.traversalMask |= 0x40; // 64
+					tiles.addTraversalFlags(bx, by, 0x40); // 64
 				}
 
 				final int verticalWall = sectorTile.verticalWall & 0xFF;
 				if (verticalWall > 0
 					&& getWorld().getServer().getEntityHandler().getDoorDef(verticalWall - 1).getUnknown() == 0
 					&& getWorld().getServer().getEntityHandler().getDoorDef(verticalWall - 1).getDoorType() != 0) {
-					getWorld().getTile(bx, by).traversalMask |= 1; // 1
-					getWorld().getTile(bx, by - 1).traversalMask |= 4; // 4
+					tiles.addTraversalFlags(bx, by, 1); // 1
+					tiles.addTraversalFlags(bx, by - 1, 4); // 4
 
 					if (projectileClipAllowed(verticalWall)) {
-						tile.projectileAllowed = true;
-						getWorld().getTile(bx, by - 1).projectileAllowed = true;
+						tiles.setProjectileAllowed(bx, by);
+						tiles.setProjectileAllowed(bx, by - 1);
 					}
 				}
 
@@ -404,11 +420,11 @@ public class WorldLoader {
 				if (horizontalWall > 0
 					&& getWorld().getServer().getEntityHandler().getDoorDef(horizontalWall - 1).getUnknown() == 0
 					&& getWorld().getServer().getEntityHandler().getDoorDef(horizontalWall - 1).getDoorType() != 0) {
-					tile.traversalMask |= 2; // 2
-					getWorld().getTile(bx - 1, by).traversalMask |= 8; // 8
+					tiles.addTraversalFlags(bx, by, 2); // 2
+					tiles.addTraversalFlags(bx - 1, by, 8); // 8
 					if (projectileClipAllowed(horizontalWall)) {
-						tile.projectileAllowed = true;
-						getWorld().getTile(bx - 1, by).projectileAllowed = true;
+						tiles.setProjectileAllowed(bx, by);
+						tiles.setProjectileAllowed(bx - 1, by);
 					}
 				}
 
@@ -417,56 +433,79 @@ public class WorldLoader {
 					&& diagonalWalls < 12000
 					&& getWorld().getServer().getEntityHandler().getDoorDef(diagonalWalls - 1).getUnknown() == 0
 					&& getWorld().getServer().getEntityHandler().getDoorDef(diagonalWalls - 1).getDoorType() != 0) {
-					tile.traversalMask |= 0x20; // 32
+					tiles.addTraversalFlags(bx, by, 0x20); // 32
 					if (projectileClipAllowed(diagonalWalls)) {
-						tile.projectileAllowed = true;
+						tiles.setProjectileAllowed(bx, by);
 					}
 				}
 				if (diagonalWalls > 12000
 					&& diagonalWalls < 24000
 					&& getWorld().getServer().getEntityHandler().getDoorDef(diagonalWalls - 12001).getUnknown() == 0
 					&& getWorld().getServer().getEntityHandler().getDoorDef(diagonalWalls - 12001).getDoorType() != 0) {
-					tile.traversalMask |= 0x10; // 16
+					tiles.addTraversalFlags(bx, by, 0x10); // 16
 
 					if (projectileClipAllowed(diagonalWalls)) {
-						tile.projectileAllowed = true;
+						tiles.setProjectileAllowed(bx, by);
 					}
 				}
 
-				if (tile.overlay == 2 || tile.overlay == 11) {
-					tile.projectileAllowed = true;
+				if (tiles.getOverlay(bx, by) == 2 || tiles.getOverlay(bx, by) == 11) {
+					tiles.setProjectileAllowed(bx, by);
 				}
 			}
 		}
-		return true;
-
 	}
 
 	public void loadWorld() {
 		final long start = System.currentTimeMillis();
 		final ServerConfiguration config = getWorld().getServer().getConfig();
 
-		if (!config.WANT_CUSTOM_LANDSCAPE) {
-			boolean useBZip2 = config.BASED_MAP_DATA >= 28; // Map versions 28+ use BZip2
-			File fJag;
-			File fMem;
-			File fLandJag;
-			File fLandMem;
-			// Load official map files if found
-			if (config.BASED_MAP_DATA == 100) {
-				String mapDir = "./conf/server/data/maps/";
-				fJag = new File(mapDir + "content4_ffffffffaaca2b0d"); // maps.jag
-				fMem = new File(mapDir + "content5_6a1d6b00"); // maps.mem
-				fLandJag = new File(mapDir + "content6_ffffffffe997514b"); // land.jag
-				fLandMem = new File(mapDir + "content7_3fc5d9e3"); // land.mem
+		boolean useBZip2 = config.BASED_MAP_DATA >= 28; // Map versions 28+ use BZip2
+		File fJag;
+		File fMem;
+		File fLandJag;
+		File fLandMem;
+		// Load official map files if found
+		if (config.BASED_MAP_DATA == 100) {
+			String mapDir = "./conf/server/data/maps/";
+			fJag = new File(mapDir + "content4_ffffffffaaca2b0d"); // maps.jag
+			fMem = new File(mapDir + "content5_6a1d6b00"); // maps.mem
+			fLandJag = new File(mapDir + "content6_ffffffffe997514b"); // land.jag
+			fLandMem = new File(mapDir + "content7_3fc5d9e3"); // land.mem
+		} else {
+			String mapFname = "./conf/server/data/maps/maps" + config.BASED_MAP_DATA;
+			String landFname = "./conf/server/data/maps/land" + config.BASED_MAP_DATA;
+			fJag = new File(mapFname + ".jag");
+			fMem = new File(mapFname + ".mem");
+			fLandJag = new File(landFname + ".jag");
+			fLandMem = new File(landFname + ".mem");
+		}
+		File archiveFile;
+		if (config.MEMBER_WORLD) {
+			if (config.WANT_CUSTOM_LANDSCAPE) {
+				archiveFile = new File("./conf/server/data/Custom_P2PLandscape.orsc");
 			} else {
-				String mapFname = "./conf/server/data/maps/maps" + config.BASED_MAP_DATA;
-				String landFname = "./conf/server/data/maps/land" + config.BASED_MAP_DATA;
-				fJag = new File(mapFname + ".jag");
-				fMem = new File(mapFname + ".mem");
-				fLandJag = new File(landFname + ".jag");
-				fLandMem = new File(landFname + ".mem");
+				archiveFile = new File("./conf/server/data/Authentic_P2PLandscape.orsc"); // Members landscape
+			}
+		} else {
+			archiveFile = new File("./conf/server/data/F2PLandscape.orsc"); // Free landscape
+		}
+
+		final TileMap tiles = getWorld().getTiles();
+		LandscapeCache cache = null;
+		if (config.WANT_LANDSCAPE_CACHE) {
+			cache = buildCacheKey(config, new File[]{fJag, fMem, fLandJag, fLandMem, archiveFile}).build(new File(
+				"./conf/server/data/cache/landscape" + config.BASED_MAP_DATA
+					+ (config.MEMBER_WORLD ? "_p2p" : "_f2p") + (config.WANT_CUSTOM_LANDSCAPE ? "_custom" : "") + ".cache"));
+			final int sectors = cache.read(tiles);
+			if (sectors >= 0) {
+				LOGGER.info((System.currentTimeMillis() - start) + "ms to load landscape with " + sectors + " regions from cache.");
+				return;
 			}
+			tiles.clear();
+		}
+
+		if (!config.WANT_CUSTOM_LANDSCAPE) {
 			if (fJag.exists()) {
 				jagArchive = new JContent();
 				if (!jagArchive.open(fJag.getAbsolutePath(), useBZip2))
@@ -493,16 +532,6 @@ public class WorldLoader {
 
 		if (jagArchive == null && memArchive == null) {
 			try {
-				File archiveFile;
-				if (config.MEMBER_WORLD) {
-					if (config.WANT_CUSTOM_LANDSCAPE) {
-						archiveFile = new File("./conf/server/data/Custom_P2PLandscape.orsc");
-					} else {
-						archiveFile = new File("./conf/server/data/Authentic_P2PLandscape.orsc"); // Members landscape
-					}
-				} else {
-					archiveFile = new File("./conf/server/data/F2PLandscape.orsc"); // Free landscape
-				}
 				tileArchive = new ZipFile(archiveFile);
 				LOGGER.info("Loading landscape from " + archiveFile.getAbsolutePath());
 			} catch (final Exception e) {
@@ -510,7 +539,7 @@ public class WorldLoader {
 			}
 		}
 
-		int sectors = 0;
+		final List<int[]> sections = new ArrayList<>();
 		int FloorCount = 4;
 		//Reluctant to use FloorHeight without knowing the effects
 		int FloorHeight = Constants.MAX_HEIGHT / FloorCount;
@@ -521,33 +550,63 @@ public class WorldLoader {
 				for (int sy = 0; sy < 944; sy += Constants.REGION_SIZE) {
 					int x = (sx + wildX) / Constants.REGION_SIZE;
 					int y = (sy + (lvl * 944) + wildY) / Constants.REGION_SIZE;
-					if (loadSection(x, y, lvl, sx, sy + (944 * lvl))) {
-						sectors++;
-					}
+					sections.add(new int[]{x, y, lvl, sx, sy + (944 * lvl)});
 				}
 			}
 		}
 
-		// Detect if all tiles in each Region are equal, and if so only store that fact rather than array of all tiles.
-		// There are a lot of "null" sectors in the map file and storing tile values for all eats a lot of memory.
-		// The authentic map file may have a way to flag null regions and only use one tile value across the entire thing
-		// Unfortunately, the map files we are using currently do not support that feature so we need to detect
-		// Unfortunately, we also have to allocate all the tiles and then clear them because the process of loading a sector can effect other sectors.
-		// Downside is that Scenery/Boundary spawn can change tile values, and if one is spawned in a "null region," then we will not be able to change the tile value from the Scenery/Boundary spawn.
-
-		final RegionManager regionManager = getWorld().getRegionManager();
-		for (int lvl = 0; lvl < 4; lvl++) {
-			for (int sx = 0; sx < 20; sx++) {
-				for (int sy = 0; sy < 20; sy++) {
-					final Region region = regionManager.getRegion(sx * Constants.REGION_SIZE, sy * Constants.REGION_SIZE + (Constants.REGION_SIZE * 20 * lvl));
-					region.checkRegionValues();
+		// Decoding is most of the work, so batches of sectors are decoded in parallel and then applied in order
+		int sectors = 0;
+		final Sector[] decoded = new Sector[DECODE_BATCH_SIZE];
+		for (int first = 0; first < sections.size(); first += DECODE_BATCH_SIZE) {
+			final int batchStart = first;
+			final int batchSize = Math.min(DECODE_BATCH_SIZE, sections.size() - first);
+			IntStream.range(0, batchSize).parallel().forEach(i -> {
+				final int[] section = sections.get(batchStart + i);
+				decoded[i] = decodeSection(section[0], section[1], section[2]);
+			});
+			for (int i = 0; i < batchSize; i++) {
+				if (decoded[i] != null) {
+					final int[] section = sections.get(batchStart + i);
+					applySection(decoded[i], section[3], section[4]);
+					sectors++;
 				}
+				decoded[i] = null;
 			}
 		}
 
+		if (cache != null) {
+			cache.write(tiles, sectors);
+		}
+
 		LOGGER.info((System.currentTimeMillis() - start) + "ms to load landscape with " + sectors + " regions.");
 	}
 
+	/**
+	 * @param sources Every file the landscape may be read from.
+	 */
+	private LandscapeCache.Key buildCacheKey(final ServerConfiguration config, final File[] sources) {
+		final LandscapeCache.Key key = new LandscapeCache.Key()
+			.add(config.BASED_MAP_DATA)
+			.add(config.MEMBER_WORLD ? 1 : 0)
+			.add(config.WANT_CUSTOM_LANDSCAPE ? 1 : 0);
+		for (final File source : sources) {
+			key.add(source);
+		}
+		// Which walls and overlays block is decided by the definitions
+		final EntityHandler entityHandler = getWorld().getServer().getEntityHandler();
+		DoorDef door;
+		for (int id = 0; (door = entityHandler.getDoorDef(id)) != null; id++) {
+			key.add(door.getDoorType()).add(door.getUnknown());
+		}
+		key.add(-1);
+		TileDef tile;
+		for (int id = 0; (tile = entityHandler.getTileDef(id)) != null; id++) {
+			key.add(tile.getObjectType());
+		}
+		return key;
+	}
+
 	public void unloadWorld() {
 		tileArchive = null;
 	}
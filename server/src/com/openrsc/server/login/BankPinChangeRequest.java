@@ -45,6 +45,11 @@ public class BankPinChangeRequest extends LoginExecutorProcess {
 		return server;
 	}
 
+	@Override
+	public long getUsernameHash() {
+		return getPlayer().getUsernameHash();
+	}
+
 	protected void processInternal() {
 		try {
 			if(!getServer().getPacketFilter().shouldAllowLogin(getIpAddress(), false)) {
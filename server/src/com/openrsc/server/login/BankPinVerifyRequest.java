@@ -40,6 +40,11 @@ public class BankPinVerifyRequest extends LoginExecutorProcess {
 		return server;
 	}
 
+	@Override
+	public long getUsernameHash() {
+		return getPlayer().getUsernameHash();
+	}
+
 	protected void processInternal() {
 		try {
 			if(!getServer().getPacketFilter().shouldAllowLogin(getIpAddress(), false)) {
@@ -127,6 +127,11 @@ public class CharacterCreateRequest extends LoginExecutorProcess{
 		this.clientVersion = clientVersion;
 	}
 
+	@Override
+	public long getUsernameHash() {
+		return DataConversions.usernameToHash(getUsername());
+	}
+
 	protected void processInternal() {
 		if (getAuthenticClient()) {
 			int registerResponse = validateRegister();
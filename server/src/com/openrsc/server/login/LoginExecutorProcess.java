@@ -1,14 +1,63 @@
 package com.openrsc.server.login;
 
 public abstract class LoginExecutorProcess {
-	private boolean processed = false;
+	private volatile boolean processed = false;
+	private long queuedAt;
 
+	/**
+	 * Runs every stage of the request on the calling thread.
+	 */
 	public final void process() {
-		processInternal();
-		processed = true;
+		authenticate();
+		processRequest();
+	}
+
+	/**
+	 * Runs the request after its authentication stage, if it has one.
+	 */
+	public final void processRequest() {
+		try {
+			processInternal();
+		} finally {
+			processed = true;
+		}
 	}
 
 	public final boolean isProcessed() { return processed; }
 
+	/**
+	 * @return The account the request is for. Requests for the same account are processed one at a time, in the order they were added.
+	 */
+	public abstract long getUsernameHash();
+
+	/**
+	 * @return Whether {@link #authenticate()} has work to do, such as checking a password, that should be rate limited.
+	 */
+	public boolean hasAuthentication() {
+		return false;
+	}
+
+	/**
+	 * Checks the request's credentials before it is processed. Password hashes are slow on purpose,
+	 * so this runs on its own small pool and at a limited rate.
+	 */
+	public void authenticate() {
+	}
+
+	/**
+	 * Called instead of processing the request when {@link #authenticate()} threw, so that whoever is waiting on it
+	 * gets an answer.
+	 */
+	public void authenticationFailed() {
+	}
+
+	public final long getQueuedAt() {
+		return queuedAt;
+	}
+
+	public final void setQueuedAt(final long queuedAt) {
+		this.queuedAt = queuedAt;
+	}
+
 	abstract protected void processInternal();
 }
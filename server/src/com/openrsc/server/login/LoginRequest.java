@@ -6,6 +6,7 @@ import com.openrsc.server.database.struct.PlayerLoginData;
 import com.openrsc.server.event.rsc.ImmediateEvent;
 import com.openrsc.server.model.entity.player.Group;
 import com.openrsc.server.model.entity.player.Player;
+import com.openrsc.server.net.RSCPayloadDecoder;
 import com.openrsc.server.util.rsc.DataConversions;
 import com.openrsc.server.util.rsc.LoginResponse;
 import com.openrsc.server.util.rsc.RegisterLoginResponse;
@@ -33,6 +34,7 @@ public abstract class LoginRequest extends LoginExecutorProcess{
 	private boolean reconnecting;
 	private boolean checkPass;
 	private boolean isSimLogin;
+	private int loginResponse = LoginResponse.LOGIN_UNSUCCESSFUL;
 
 	protected LoginRequest(final Server server, final Channel channel, final String username, final String password, final boolean isAuthenticClient, final int clientVersion, final boolean reconnecting) {
 		this.server = server;
@@ -121,17 +123,39 @@ public abstract class LoginRequest extends LoginExecutorProcess{
 
 	public abstract void loadingComplete(Player loadedPlayer);
 
-	protected void processInternal() {
+	@Override
+	public boolean hasAuthentication() {
+		return true;
+	}
+
+	@Override
+	public void authenticate() {
 		int loginResponse = validateLogin();
 
 		if (clientVersion <= 204) {
 			loginResponse = RegisterLoginResponse.translateNewToOld(loginResponse, clientVersion, false);
 		}
+		this.loginResponse = loginResponse;
+	}
+
+	@Override
+	public void authenticationFailed() {
+		int loginResponse = LoginResponse.LOGIN_UNSUCCESSFUL;
+
+		if (clientVersion <= 204) {
+			loginResponse = RegisterLoginResponse.translateNewToOld(loginResponse, clientVersion, false);
+		}
+		this.loginResponse = loginResponse;
+		loginValidated(loginResponse);
+	}
+
+	protected void processInternal() {
 		loginValidated(loginResponse);
 
 		if (!isSimLogin && isLoginSuccessful(loginResponse)) {
 			final Player loadedPlayer = getServer().getPlayerService().loadPlayer(this);
 			loadedPlayer.setLoggedIn(true);
+			RSCPayloadDecoder.install(getChannel(), loadedPlayer);
 
 			LOGGER.info("Player Loaded: " + getUsername() +  String.format("; Client Version: %d", clientVersion));
 
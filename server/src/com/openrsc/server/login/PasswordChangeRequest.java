@@ -66,6 +66,11 @@ public class PasswordChangeRequest extends LoginExecutorProcess {
 		return channel;
 	}
 
+	@Override
+	public long getUsernameHash() {
+		return getPlayer().getUsernameHash();
+	}
+
 	protected void processInternal() {
 		LOGGER.info("Password change attempt from: " + getPlayer().getCurrentIP());
 
@@ -2,6 +2,7 @@ package com.openrsc.server.login;
 
 import com.openrsc.server.Server;
 import com.openrsc.server.database.GameDatabaseException;
+import com.openrsc.server.database.impl.mysql.queries.player.login.PlayerOnlineFlagQuery;
 import com.openrsc.server.model.entity.player.Player;
 import com.openrsc.server.model.world.World;
 import org.apache.logging.log4j.LogManager;
@@ -16,6 +17,12 @@ public class PlayerSaveRequest extends LoginExecutorProcess {
 	 */
 	private static final Logger LOGGER = LogManager.getLogger();
 
+	/**
+	 * Removing a player touches the world, clans, parties and everyone's friends lists,
+	 * so logouts are finished one at a time however many login threads there are.
+	 */
+	private static final Object LOGOUT_LOCK = new Object();
+
 	private final Server server;
 	private final Player player;
 	private final boolean logout;
@@ -34,12 +41,23 @@ public class PlayerSaveRequest extends LoginExecutorProcess {
 		return server;
 	}
 
+	@Override
+	public long getUsernameHash() {
+		return getPlayer().getUsernameHash();
+	}
+
 	protected void processInternal() {
 //		LOGGER.info("Saved player " + player.getUsername() + "");
 		try {
 			boolean success = getServer().getPlayerService().savePlayer(player);
-			if (success && this.logout)
-				logoutSaveSuccess();
+			if (success && this.logout) {
+				// Written here rather than through the game log, which may journal it and write it after the player's
+				// next login. Logins for the account wait behind this request.
+				getServer().getGameLogger().run(new PlayerOnlineFlagQuery(getServer(), player.getDatabaseID(), false));
+				synchronized (LOGOUT_LOCK) {
+					logoutSaveSuccess();
+				}
+			}
 		} catch (final GameDatabaseException ex) {
 			LOGGER.warn("Error saving the player, phantom player may have extra login count on their IP address now...!");
 			LOGGER.catching(ex);
@@ -87,6 +87,11 @@ public class RecoveryAttemptRequest extends LoginExecutorProcess{
 		return server;
 	}
 
+	@Override
+	public long getUsernameHash() {
+		return DataConversions.usernameToHash(getUsername());
+	}
+
 	protected void processInternal() {
 		try {
 			server.getPacketFilter().addPasswordAttempt(getIpAddress());
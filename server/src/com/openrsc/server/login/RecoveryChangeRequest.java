@@ -66,6 +66,11 @@ public class RecoveryChangeRequest extends LoginExecutorProcess{
 		return channel;
 	}
 
+	@Override
+	public long getUsernameHash() {
+		return getPlayer().getUsernameHash();
+	}
+
 	protected void processInternal() {
 		try {
 			LOGGER.info("Recovery questions change from: " + getPlayer().getCurrentIP());
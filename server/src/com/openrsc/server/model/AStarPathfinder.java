@@ -1,419 +1,451 @@
 package com.openrsc.server.model;
 
 import com.openrsc.server.model.world.World;
-import com.openrsc.server.model.world.region.TileValue;
+import com.openrsc.server.model.world.region.TileMap;
 import com.openrsc.server.util.rsc.CollisionFlag;
 
-import javax.swing.*;
-import java.awt.*;
-import java.util.ArrayList;
-
-public class AStarPathfinder {
-
-	boolean debug = false;
-	//JPanel2 panel = new JPanel2();
-	//JFrame frame = new JFrame();
-	//javax.swing.GroupLayout layout = new javax.swing.GroupLayout(panel);
-	final static int basicCost = 10;
-	final static int diagCost = 14;
-	private int depth;
-	private Node[][] costBoard = null;
-	private Path bestPath = null;
-	private Point worldStart;
-	private Point pointStart;
-	private Point pointEnd;
-	private Point currentPosition;
-	long starttime;
-	long endtime;
-	private Path path;
-	private ArrayList<Node> openNodes = new ArrayList<>();
-	private ArrayList<Node> closedNodes = new ArrayList<>();
-
-	public AStarPathfinder(World world, Point start, Point end, int depth) {
-		this.worldStart = start;
-		this.pointStart = new Point(depth,depth);
-		this.pointEnd = new Point((start.getX()+depth)-end.getX(), end.getY() - (start.getY() - depth));
-		this.depth = depth;
-		this.generateTraversalInfo(world, start, depth);
-		/*
-		if (debug) {
-			panel.setLayout(layout);
-			frame.add(panel);
-			frame.setSize(600, 600);
-			frame.setVisible(true);
-		}
-		 */
+import java.util.Arrays;
+
+/**
+ * Finds a path to a tile around walls and blocked tiles, searching the square of tiles within a depth of the start.
+ *
+ * A pathfinder keeps its grid between searches, so one is kept per thread, see {@link #get()}. Tiles are only read
+ * from the world once a search reaches them, and every cell is stamped with the search that last reached it, so
+ * nothing needs clearing between searches. The open tiles are kept in a binary heap indexed by cell and the closed
+ * ones in a bitset.
+ *
+ * Jump point search can be turned on to cross open ground without opening every tile on the way.
+ */
+public final class AStarPathfinder {
+	private static final int BASIC_COST = 10;
+	private static final int DIAGONAL_COST = 14;
+
+	/*
+	 * Directions in world terms, east being towards lower x. The four straight ones are followed by north east,
+	 * south east, south west and north west.
+	 */
+	private static final int NORTH = 0;
+	private static final int EAST = 1;
+	private static final int SOUTH = 2;
+	private static final int WEST = 3;
+	private static final int[] DELTA_X = {0, -1, 0, 1, -1, -1, 1, 1};
+	private static final int[] DELTA_Y = {-1, 0, 1, 0, -1, 1, 1, -1};
+	private static final int[] HORIZONTAL = {-1, -1, -1, -1, EAST, EAST, WEST, WEST};
+	private static final int[] VERTICAL = {-1, -1, -1, -1, NORTH, SOUTH, SOUTH, NORTH};
+
+	private static final int OBSTACLES = CollisionFlag.FULL_BLOCK
+		| CollisionFlag.WALL_NORTH | CollisionFlag.WALL_EAST | CollisionFlag.WALL_SOUTH | CollisionFlag.WALL_WEST;
+
+	private static final ThreadLocal<AStarPathfinder> PATHFINDERS = ThreadLocal.withInitial(AStarPathfinder::new);
+
+	/**
+	 * Search the current search stamps cells with.
+	 */
+	private int generation;
+	private int capacity;
+	private int side;
+	private int originX;
+	private int originY;
+	private int start;
+	private int goal;
+	private TileMap tiles;
+
+	private int[] maskStamps = new int[0];
+	private byte[] masks = new byte[0];
+	private int[] openStamps = new int[0];
+	private boolean[] open = new boolean[0];
+	private int[] nodeStamps = new int[0];
+	/**
+	 * Bit per straight direction that can not be moved in from the cell.
+	 */
+	private byte[] blocked = new byte[0];
+	private int[] costs = new int[0];
+	private int[] estimates = new int[0];
+	private int[] parents = new int[0];
+	private int[] heapIndices = new int[0];
+	private long[] closed = new long[0];
+	private int[] heap = new int[0];
+	private int heapSize;
+
+	private AStarPathfinder() {
 	}
 
-	public void feedPath(Path path) {
-		this.path = path;
+	/**
+	 * @return The pathfinder for the current thread.
+	 */
+	public static AStarPathfinder get() {
+		return PATHFINDERS.get();
 	}
-	public void generateTraversalInfo(World world, Point center, int depth) {
-		if (depth < 1)
-			return;
 
-		costBoard = new Node[2*depth + 1][2*depth + 1];
-		initBoard(costBoard);
-		int curposx, curposy;
-		for (int x = -depth; x <= depth; x++) {
-			for (int y = -depth; y <= depth; y++) {
-				TileValue tile = world.getTile(center.getX() - x, center.getY() + y);
-				if (tile == null) {
-					continue;
-				}
-				curposx = x + depth;
-				curposy = y + depth;
+	/**
+	 * @param path Where the steps are added, not including the start or the end.
+	 * @param maxNodes Tiles to open before giving up, or 0 to search the whole square.
+	 * @param jumpPoints Whether to use jump point search.
+	 * @return The path, or null if the end could not be reached.
+	 */
+	public Path findPath(final World world, final Point startPoint, final Point end, final int depth, final Path path,
+						 final int maxNodes, final boolean jumpPoints) {
+		return findPath(world.getTiles(), startPoint, end, depth, path, maxNodes, jumpPoints);
+	}
 
-				if ((tile.traversalMask & (CollisionFlag.FULL_BLOCK_A | CollisionFlag.FULL_BLOCK_B | CollisionFlag.FULL_BLOCK_C)) != 0) {
-					if (y < depth) {
-						costBoard[curposx][curposy+1].northBlocked = true;
-					}
-					if (x > -depth) {
-						costBoard[curposx-1][curposy].eastBlocked = true;
-					}
-					if (y > -depth) {
-						costBoard[curposx][curposy-1].southBlocked = true;
-					}
-					if (x < depth) {
-						costBoard[curposx+1][curposy].westBlocked = true;
-					}
+	/**
+	 * Finds a path over the given tiles, see {@link #findPath(World, Point, Point, int, Path, int, boolean)}.
+	 */
+	public Path findPath(final TileMap tileMap, final Point startPoint, final Point end, final int depth, final Path path,
+						 final int maxNodes, final boolean jumpPoints) {
+		if (depth < 1) {
+			return null;
+		}
+		side = 2 * depth + 1;
+		originX = startPoint.getX() - depth;
+		originY = startPoint.getY() - depth;
+		final int goalX = end.getX() - originX;
+		final int goalY = end.getY() - originY;
+		if ((goalX == depth && goalY == depth) || !inBounds(goalX, goalY)
+			|| (tileMap.getTraversalMask(end.getX(), end.getY()) & CollisionFlag.FULL_BLOCK) != 0) {
+			return null;
+		}
+
+		tiles = tileMap;
+		reset();
+		start = cell(depth, depth);
+		goal = cell(goalX, goalY);
+		touch(start);
+		costs[start] = 0;
+		estimates[start] = distance(depth, depth, goalX, goalY);
+		push(start);
+
+		int opened = 0;
+		try {
+			while (heapSize > 0) {
+				final int current = pop();
+				if (current == goal) {
+					return buildPath(path);
+				}
+				closed[current >>> 6] |= 1L << current;
+				if (maxNodes > 0 && ++opened > maxNodes) {
+					return null;
+				}
+				if (jumpPoints) {
+					expandJumpPoints(current);
 				} else {
-					if (!costBoard[curposx][curposy].southBlocked)
-						costBoard[curposx][curposy].southBlocked = (tile.traversalMask & CollisionFlag.SOUTH_BLOCKED) != 0;
-					if (!costBoard[curposx][curposy].westBlocked)
-						costBoard[curposx][curposy].westBlocked = (tile.traversalMask & CollisionFlag.WEST_BLOCKED) != 0;
-					if (!costBoard[curposx][curposy].northBlocked)
-						costBoard[curposx][curposy].northBlocked = (tile.traversalMask & CollisionFlag.NORTH_BLOCKED) != 0;
-					if (!costBoard[curposx][curposy].eastBlocked)
-						costBoard[curposx][curposy].eastBlocked = (tile.traversalMask & CollisionFlag.EAST_BLOCKED) != 0;
+					expand(current);
 				}
 			}
+			return null;
+		} finally {
+			tiles = null;
 		}
 	}
 
-	private int calcDistance(Point one, Point two) {
-		int xdiff = Math.abs(one.getX() - two.getX());
-		int ydiff = Math.abs(one.getY() - two.getY());
-
-		int shortL = xdiff > ydiff ? ydiff : xdiff;
-		int longL = xdiff > ydiff ? xdiff : ydiff;
-
-		return shortL * diagCost + (longL - shortL) * basicCost;
-	}
-
-	public Node findNextNode() {
-		int minimum = Integer.MAX_VALUE;
-		Node minNode = null;
-		for (Node node : openNodes) {
-			if (node.hCost < minimum) {
-				minimum = node.hCost;
-				minNode = node;
-			} else if (node.hCost == minimum && node.fCost < minNode.fCost)
-				minNode = node;
-
+	/**
+	 * Starts a new search, growing the grid if the square is bigger than any before.
+	 */
+	private void reset() {
+		final int size = side * side;
+		if (size > capacity) {
+			capacity = size;
+			maskStamps = new int[size];
+			masks = new byte[size];
+			openStamps = new int[size];
+			open = new boolean[size];
+			nodeStamps = new int[size];
+			blocked = new byte[size];
+			costs = new int[size];
+			estimates = new int[size];
+			parents = new int[size];
+			heapIndices = new int[size];
+			heap = new int[size];
+			closed = new long[(size + 63) >>> 6];
+			generation = 0;
+		}
+		if (++generation == 0) {
+			// Stamps have wrapped around, so old ones could look current
+			Arrays.fill(maskStamps, 0);
+			Arrays.fill(openStamps, 0);
+			Arrays.fill(nodeStamps, 0);
+			generation = 1;
 		}
-		return minNode;
+		Arrays.fill(closed, 0, (size + 63) >>> 6, 0L);
+		heapSize = 0;
 	}
 
-	private Path buildPath() {
-		Point parent = closedNodes.get(closedNodes.size()-1).parent;
-		Node endNode = costBoard[parent.getX()][parent.getY()];
-		while (endNode != null) {
-			int worldX = worldStart.getX() + depth - endNode.position.getX();
-			int worldY = worldStart.getY() - depth + endNode.position.getY();
-			if (endNode.parent == null)
-				endNode = null;
-			else {
-				path.addDirect(worldX, worldY);
-				endNode = costBoard[endNode.parent.getX()][endNode.parent.getY()];
+	private Path buildPath(final Path path) {
+		final int startX = start % side;
+		final int startY = start / side;
+		int x = goal % side;
+		int y = goal / side;
+		int node = goal;
+		// Jump points can be several tiles apart, always in a straight or diagonal line
+		while (node != start) {
+			final int parent = parents[node];
+			final int parentX = parent % side;
+			final int parentY = parent / side;
+			while (x != parentX || y != parentY) {
+				x += Integer.signum(parentX - x);
+				y += Integer.signum(parentY - y);
+				if (x != startX || y != startY) {
+					path.addDirect(originX + x, originY + y);
+				}
 			}
-
+			node = parent;
 		}
 		return path;
 	}
 
-	public Path findPath() {
-		if (depth < 1)
-			return null;
-
-		if (pointStart.getX() == pointEnd.getX()
-		&& pointStart.getY() == pointEnd.getY())
-			return null;
-
-		boolean quit = false;
-		starttime = System.currentTimeMillis();
-		costBoard[depth][depth].selectNode();
-
-		while (true) {
-			Node next = findNextNode();
-			endtime = System.currentTimeMillis();
-			if (next == null)
-				return null;
-
-			if (next.position.getX() == pointEnd.getX()
-			&& next.position.getY() == pointEnd.getY()) {
-				closedNodes.add(next);
-				return buildPath();
-			}
-
-
-			next.selectNode();
-			if (debug) {
-			//	panel.repaint();
-
-				/*
-				// We should no longer put threads to sleep
-				try {
-					Thread.sleep(100);
-				} catch (InterruptedException a) {
-					a.printStackTrace();
-				}*/
-
+	private void expand(final int current) {
+		final int x = current % side;
+		final int y = current / side;
+		for (int direction = 0; direction < 8; direction++) {
+			if (canMove(x, y, direction)) {
+				relax(current, cell(x + DELTA_X[direction], y + DELTA_Y[direction]),
+					direction < 4 ? BASIC_COST : DIAGONAL_COST);
 			}
 		}
 	}
 
-	private void initBoard(Node[][] board) {
-		if (board == null)
+	/**
+	 * Follows each direction worth following from the cell until it reaches a tile that could turn the path.
+	 * On open ground only the directions continuing the way the cell was reached are followed.
+	 */
+	private void expandJumpPoints(final int current) {
+		final int x = current % side;
+		final int y = current / side;
+		final int parent = parents[current];
+		if (parent < 0 || !isOpen(x, y)) {
+			for (int direction = 0; direction < 8; direction++) {
+				jumpFrom(current, x, y, direction);
+			}
 			return;
+		}
+		final int direction = direction(Integer.signum(x - parent % side), Integer.signum(y - parent / side));
+		jumpFrom(current, x, y, direction);
+		if (direction >= 4) {
+			jumpFrom(current, x, y, HORIZONTAL[direction]);
+			jumpFrom(current, x, y, VERTICAL[direction]);
+		}
+	}
 
-		for(int i = 0; i < board[0].length; i++) {
-			for (int j = 0; j < board[0].length; j++) {
-				board[i][j] = new Node(i,j);
-			}
+	private void jumpFrom(final int current, final int x, final int y, final int direction) {
+		final int jumpPoint = jump(x, y, direction);
+		if (jumpPoint >= 0) {
+			relax(current, jumpPoint, distance(x, y, jumpPoint % side, jumpPoint / side));
 		}
 	}
 
-	public boolean diagBlocked(Node node, adjacent_direction dir) {
-		Node neighbor1 = null;
-		Node neighbor2 = null;
-		if (dir == adjacent_direction.SOUTHWEST) {
-			neighbor1 = node.getNeighbor(adjacent_direction.WEST);
-			if (neighbor1 != null) {
-				neighbor2 = node.getNeighbor(adjacent_direction.SOUTH);
-				if (neighbor2 != null) {
-					if (!neighbor1.southBlocked && !neighbor2.westBlocked)
-						return false;
-				}
+	/**
+	 * @return The first cell in the direction that is the goal, next to something in the way, or from which
+	 * a straight line reaches such a cell. -1 if the direction is blocked first.
+	 */
+	private int jump(int x, int y, final int direction) {
+		while (canMove(x, y, direction)) {
+			x += DELTA_X[direction];
+			y += DELTA_Y[direction];
+			final int cell = cell(x, y);
+			if (cell == goal || !isOpen(x, y)) {
+				return cell;
 			}
-		} else if (dir == adjacent_direction.NORTHWEST) {
-			neighbor1 = node.getNeighbor(adjacent_direction.WEST);
-			if (neighbor1 != null) {
-				neighbor2 = node.getNeighbor(adjacent_direction.NORTH);
-				if (neighbor2 != null) {
-					if (!neighbor1.northBlocked && !neighbor2.westBlocked)
-						return false;
-				}
-			}
-		} else if (dir == adjacent_direction.NORTHEAST) {
-			neighbor1 = node.getNeighbor(adjacent_direction.EAST);
-			if (neighbor1 != null) {
-				neighbor2 = node.getNeighbor(adjacent_direction.NORTH);
-				if (neighbor2 != null) {
-					if (!neighbor1.northBlocked && !neighbor2.eastBlocked)
-						return false;
-				}
+			if (direction >= 4 && (jump(x, y, HORIZONTAL[direction]) >= 0 || jump(x, y, VERTICAL[direction]) >= 0)) {
+				return cell;
 			}
-		} else if (dir == adjacent_direction.SOUTHEAST) {
-			neighbor1 = node.getNeighbor(adjacent_direction.EAST);
-			if (neighbor1 != null) {
-				neighbor2 = node.getNeighbor(adjacent_direction.SOUTH);
-				if (neighbor2 != null) {
-					if (!neighbor1.southBlocked && !neighbor2.eastBlocked)
-						return false;
+		}
+		return -1;
+	}
+
+	/**
+	 * @return Whether the cell and all around it are free of walls and blocked tiles, so every move from it is allowed
+	 * and none is forced.
+	 */
+	private boolean isOpen(final int x, final int y) {
+		if (x < 1 || y < 1 || x >= side - 1 || y >= side - 1) {
+			return false;
+		}
+		final int cell = cell(x, y);
+		if (openStamps[cell] != generation) {
+			openStamps[cell] = generation;
+			open[cell] = true;
+			for (int dy = -1; dy <= 1 && open[cell]; dy++) {
+				for (int dx = -1; dx <= 1; dx++) {
+					if ((mask(x + dx, y + dy) & OBSTACLES) != 0) {
+						open[cell] = false;
+						break;
+					}
 				}
 			}
 		}
-		return true;
+		return open[cell];
 	}
 
-	public long getRunTime() { return endtime - starttime; }
-
-	public class Node {
-		int fCost, gCost, hCost;
-		node_state state;
-		boolean southBlocked = false;
-		boolean northBlocked = false;
-		boolean westBlocked = false;
-		boolean eastBlocked = false;
-		public Point position;
-		Point parent;
-
-		public Node(int x, int y) {
-			position = new Point(x,y);
-			fCost = 0;
-			gCost = 0;
-			hCost = 0;
-			state = node_state.INIT;
+	private void relax(final int from, final int to, final int cost) {
+		if ((closed[to >>> 6] & (1L << to)) != 0) {
+			return;
+		}
+		touch(to);
+		final int newCost = costs[from] + cost;
+		if (newCost >= costs[to]) {
+			return;
 		}
+		costs[to] = newCost;
+		estimates[to] = newCost + distance(to % side, to / side, goal % side, goal / side);
+		parents[to] = from;
+		if (heapIndices[to] < 0) {
+			push(to);
+		} else {
+			siftUp(heapIndices[to]);
+		}
+	}
 
-		public void setState(node_state state) {
-			this.state = state;
+	private boolean canMove(final int x, final int y, final int direction) {
+		final int toX = x + DELTA_X[direction];
+		final int toY = y + DELTA_Y[direction];
+		if (!inBounds(toX, toY)) {
+			return false;
 		}
+		final int from = blocked(cell(x, y));
+		if (direction < 4) {
+			return (from & (1 << direction)) == 0;
+		}
+		// Diagonals also need both tiles beside the move to be passable towards the tile it ends on
+		final int horizontal = HORIZONTAL[direction];
+		final int vertical = VERTICAL[direction];
+		return (from & ((1 << horizontal) | (1 << vertical))) == 0
+			&& (blocked(cell(toX, y)) & (1 << vertical)) == 0
+			&& (blocked(cell(x, toY)) & (1 << horizontal)) == 0;
+	}
 
-		public void update(Node node, int cost) {
-			if (this.state == node_state.INIT) {
-				this.setState(node_state.OPEN);
-				this.fCost = node.fCost + cost;
-				calcGCost();
-				openNodes.add(this);
-			} else if (this.state == node_state.CLOSED)
-				return;
-			else {
-				int newFcost = node.fCost + cost;
-				if (newFcost > this.fCost)
-					return;
-				this.fCost = newFcost;
+	private int blocked(final int cell) {
+		touch(cell);
+		return blocked[cell];
+	}
+
+	/**
+	 * Sets the cell up for the current search if it is the first time the search has reached it.
+	 */
+	private void touch(final int cell) {
+		if (nodeStamps[cell] == generation) {
+			return;
+		}
+		nodeStamps[cell] = generation;
+		costs[cell] = Integer.MAX_VALUE;
+		parents[cell] = -1;
+		heapIndices[cell] = -1;
+
+		final int x = cell % side;
+		final int y = cell / side;
+		final int mask = mask(x, y);
+		int flags = 0;
+		if ((mask & CollisionFlag.FULL_BLOCK) == 0) {
+			if ((mask & CollisionFlag.WALL_NORTH) != 0) flags |= 1 << NORTH;
+			if ((mask & CollisionFlag.WALL_EAST) != 0) flags |= 1 << EAST;
+			if ((mask & CollisionFlag.WALL_SOUTH) != 0) flags |= 1 << SOUTH;
+			if ((mask & CollisionFlag.WALL_WEST) != 0) flags |= 1 << WEST;
+		}
+		// Blocked tiles can not be walked onto from any side
+		for (int direction = 0; direction < 4; direction++) {
+			final int nextX = x + DELTA_X[direction];
+			final int nextY = y + DELTA_Y[direction];
+			if (inBounds(nextX, nextY) && (mask(nextX, nextY) & CollisionFlag.FULL_BLOCK) != 0) {
+				flags |= 1 << direction;
 			}
-			calcHCost();
-			this.parent = node.position;
 		}
+		blocked[cell] = (byte) flags;
+	}
 
-		public void calcGCost() {
-			gCost = calcDistance(this.position, pointEnd);
+	private int mask(final int x, final int y) {
+		final int cell = cell(x, y);
+		if (maskStamps[cell] != generation) {
+			maskStamps[cell] = generation;
+			final int worldX = originX + x;
+			final int worldY = originY + y;
+			// Tiles outside the world are left open, they can not be reached anyway
+			masks[cell] = TileMap.withinWorld(worldX, worldY) ? tiles.getTraversalMask(worldX, worldY) : 0;
 		}
+		return masks[cell];
+	}
 
-		public void calcHCost() {
-			hCost = fCost + gCost;
-		}
+	private boolean inBounds(final int x, final int y) {
+		return x >= 0 && y >= 0 && x < side && y < side;
+	}
+
+	private int cell(final int x, final int y) {
+		return y * side + x;
+	}
 
-		public Node getNeighbor(adjacent_direction dir) {
-			switch (dir) {
-				case SOUTH:
-					if (position.getY() < 2*depth)
-						return costBoard[position.getX()][position.getY()+1];
-					else
-						return null;
-				case SOUTHWEST:
-					if (position.getY() < 2*depth && position.getX() > 0)
-						return costBoard[position.getX()-1][position.getY()+1];
-					else
-						return null;
-				case WEST:
-					if (position.getX() > 0)
-						return costBoard[position.getX()-1][position.getY()];
-					else
-						return null;
-				case NORTHWEST:
-					if (position.getY() > 0 && position.getX() > 0)
-						return costBoard[position.getX()-1][position.getY()-1];
-					else
-						return null;
-				case NORTH:
-					if (position.getY() > 0)
-						return costBoard[position.getX()][position.getY()-1];
-					else
-						return null;
-				case NORTHEAST:
-					if (position.getY() > 0 && position.getX() < 2*depth)
-						return costBoard[position.getX()+1][position.getY()-1];
-					else
-						return null;
-				case EAST:
-					if (position.getX() < 2*depth)
-						return costBoard[position.getX()+1][position.getY()];
-					else
-						return null;
-				case SOUTHEAST:
-					if (position.getY() < 2*depth && position.getX() < 2*depth)
-						return costBoard[position.getX()+1][position.getY()+1];
-					else
-						return null;
+	private static int direction(final int dx, final int dy) {
+		for (int direction = 0; direction < 8; direction++) {
+			if (DELTA_X[direction] == dx && DELTA_Y[direction] == dy) {
+				return direction;
 			}
-			return null;
 		}
+		throw new IllegalArgumentException(dx + ", " + dy);
+	}
 
-		private void selectNode() {
-			if (state == node_state.OPEN)
-				openNodes.remove(this);
-
-			setState(node_state.CLOSED);
-			closedNodes.add(this);
-			Node neighbor = null;
-			//South to SouthEast
-			if (!southBlocked && (neighbor = getNeighbor(adjacent_direction.SOUTH)) != null)
-				neighbor.update(this, basicCost);
-			if (!westBlocked && (neighbor = getNeighbor(adjacent_direction.WEST)) != null)
-				neighbor.update(this, basicCost);
-			if (!northBlocked && (neighbor = getNeighbor(adjacent_direction.NORTH)) != null)
-				neighbor.update(this, basicCost);
-			if (!eastBlocked && (neighbor = getNeighbor(adjacent_direction.EAST)) != null)
-				neighbor.update(this, basicCost);
-			if (!(southBlocked || westBlocked) && !diagBlocked(this, adjacent_direction.SOUTHWEST)
-				&& (neighbor = getNeighbor(adjacent_direction.SOUTHWEST)) != null)
-				neighbor.update(this, diagCost);
-			if (!(northBlocked || westBlocked) && !diagBlocked(this, adjacent_direction.NORTHWEST)
-				&& (neighbor = getNeighbor(adjacent_direction.NORTHWEST)) != null)
-				neighbor.update(this, diagCost);
-			if (!(northBlocked || eastBlocked) && !diagBlocked(this, adjacent_direction.NORTHEAST)
-				&& (neighbor = getNeighbor(adjacent_direction.NORTHEAST)) != null)
-				neighbor.update(this, diagCost);
-			if (!(southBlocked || eastBlocked) && !diagBlocked(this, adjacent_direction.SOUTHEAST)
-				&& (neighbor = getNeighbor(adjacent_direction.SOUTHEAST)) != null)
-				neighbor.update(this, diagCost);
-		}
+	private static int distance(final int x, final int y, final int toX, final int toY) {
+		final int dx = Math.abs(x - toX);
+		final int dy = Math.abs(y - toY);
+		final int diagonal = Math.min(dx, dy);
+		return diagonal * DIAGONAL_COST + (Math.max(dx, dy) - diagonal) * BASIC_COST;
 	}
 
+	/*
+	 * The heap is ordered by estimated total cost, then by cost so far.
+	 */
 
-	public enum node_state{
-		INIT,
-		OPEN,
-		CLOSED
+	private boolean before(final int a, final int b) {
+		return estimates[a] < estimates[b] || (estimates[a] == estimates[b] && costs[a] < costs[b]);
 	}
 
-	public enum adjacent_direction{
-		SOUTH,
-		SOUTHWEST,
-		WEST,
-		NORTHWEST,
-		NORTH,
-		NORTHEAST,
-		EAST,
-		SOUTHEAST
+	private void push(final int cell) {
+		heap[heapSize] = cell;
+		heapIndices[cell] = heapSize;
+		siftUp(heapSize++);
 	}
 
-	/*debug code*/
-	class JPanel2 extends JPanel {
-		int width = 20;
-		JPanel2() {
+	private int pop() {
+		final int top = heap[0];
+		heapIndices[top] = -1;
+		final int last = heap[--heapSize];
+		if (heapSize > 0) {
+			heap[0] = last;
+			heapIndices[last] = 0;
+			siftDown(0);
 		}
+		return top;
+	}
 
+	private void siftUp(int index) {
+		final int cell = heap[index];
+		while (index > 0) {
+			final int parent = (index - 1) >>> 1;
+			if (!before(cell, heap[parent])) {
+				break;
+			}
+			heap[index] = heap[parent];
+			heapIndices[heap[index]] = index;
+			index = parent;
+		}
+		heap[index] = cell;
+		heapIndices[cell] = index;
+	}
 
-		@Override
-		public void paintComponent(Graphics g) {
-			super.paintComponent(g);
-			g.setFont(new Font("Arial",1,10));
-			for (Node[] nodes : costBoard) {
-				for (Node node : nodes) {
-					g.setColor(Color.black);
-					g.drawRect(node.position.getX()*width, node.position.getY()*width, width, width);
-					g.setColor(Color.red);
-					if (node.southBlocked)
-						g.fillRect(node.position.getX()*width, node.position.getY()*width+width - 4,width,3);
-					if (node.eastBlocked)
-						g.fillRect(node.position.getX()*width + width - 4, node.position.getY()*width,3,width);
-					if (node.northBlocked)
-						g.fillRect(node.position.getX()*width, node.position.getY()*width+1,width,3);
-					if (node.westBlocked)
-						g.fillRect(node.position.getX()*width+1, node.position.getY()*width,3,width);
-					if (node.state == node_state.OPEN) {
-						g.setColor(Color.green);
-						g.drawString("" + node.hCost, node.position.getX()*width, node.position.getY()*width + width/2);
-					} else if (node.state == node_state.CLOSED) {
-						g.setColor(Color.red);
-						g.drawString("" + node.hCost, node.position.getX()*width, node.position.getY()*width + width/2);
-					}
-				}
+	private void siftDown(int index) {
+		final int cell = heap[index];
+		while (true) {
+			int child = (index << 1) + 1;
+			if (child >= heapSize) {
+				break;
+			}
+			if (child + 1 < heapSize && before(heap[child + 1], heap[child])) {
+				child++;
 			}
-			Node guy = closedNodes.get(closedNodes.size()-1);
-			g.setColor(Color.ORANGE);
-			while (guy != null) {
-				g.fillRect(guy.position.getX() * width, guy.position.getY()*width, 5,5);
-				if (guy.parent == null)
-					guy = null;
-				else
-					guy = costBoard[guy.parent.getX()][guy.parent.getY()];
+			if (!before(heap[child], cell)) {
+				break;
 			}
+			heap[index] = heap[child];
+			heapIndices[heap[index]] = index;
+			index = child;
 		}
+		heap[index] = cell;
+		heapIndices[cell] = index;
 	}
 }
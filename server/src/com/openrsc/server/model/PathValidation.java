@@ -7,7 +7,6 @@ import com.openrsc.server.model.entity.npc.Npc;
 import com.openrsc.server.model.entity.player.Player;
 import com.openrsc.server.model.world.World;
 import com.openrsc.server.model.world.region.Region;
-import com.openrsc.server.model.world.region.TileValue;
 import com.openrsc.server.util.rsc.CollisionFlag;
 
 import java.util.ArrayList;
@@ -171,12 +170,11 @@ public class PathValidation {
 	}
 
 	private static boolean checkBlockingDistance(World world, int x, int y, int bit, boolean isCurrentTile, boolean ignoreProjectileAllowed) {
-		TileValue t = world.getTile(x, y);
-		if (!ignoreProjectileAllowed && t.projectileAllowed) {
+		if (!ignoreProjectileAllowed && world.getTiles().isProjectileAllowed(x, y)) {
 			return false;
 		}
 
-		return isBlocking(t.traversalMask, (byte) bit, isCurrentTile);
+		return isBlocking(world.getTiles().getTraversalMask(x, y), (byte) bit, isCurrentTile);
 	}
 
 	public static boolean isBlocking(int objectValue, byte bit, boolean isCurrentTile) {
@@ -225,7 +223,7 @@ public class PathValidation {
 
 	// returns true if the point is *not* blocked by anything
 	static boolean checkPoint(World world, Point point) {
-		return (world.getTile(point.getX(), point.getY()).traversalMask & CollisionFlag.FULL_BLOCK) == 0;
+		return (world.getTiles().getTraversalMask(point.getX(), point.getY()) & CollisionFlag.FULL_BLOCK) == 0;
 	}
 
 	private static boolean checkNortheast(World world, Point curPoint) {
@@ -236,19 +234,19 @@ public class PathValidation {
 		// Object east
 		// |   or   |
 		//  \        X
-		int mask = world.getTile(x - 1, y).traversalMask;
+		int mask = world.getTiles().getTraversalMask(x - 1, y);
 		boolean blocking = (mask & (CollisionFlag.FULL_BLOCK_A + CollisionFlag.FULL_BLOCK_C)) != 0;
 		if (blocking) {
 
 			// Wall on north tile, east side
-			mask = world.getTile(x, y - 1).traversalMask;
+			mask = world.getTiles().getTraversalMask(x, y - 1);
 			blocking = (mask & CollisionFlag.WALL_EAST) != 0;
 			if (blocking) {
 				return true;
 			}
 
 			// Wall on northeast tile, west side
-			mask = world.getTile(x - 1, y - 1).traversalMask;
+			mask = world.getTiles().getTraversalMask(x - 1, y - 1);
 			blocking = (mask & CollisionFlag.WALL_WEST) != 0;
 			if (blocking) {
 				return true;
@@ -257,19 +255,19 @@ public class PathValidation {
 
 		// Object north
 		// \__  or  X__
-		mask = world.getTile(x, y - 1).traversalMask;
+		mask = world.getTiles().getTraversalMask(x, y - 1);
 		blocking = (mask & (CollisionFlag.FULL_BLOCK_A + CollisionFlag.FULL_BLOCK_C)) != 0;
 		if (blocking) {
 
 			// Wall on east tile, north side
-			mask = world.getTile(x - 1, y).traversalMask;
+			mask = world.getTiles().getTraversalMask(x - 1, y);
 			blocking = (mask & CollisionFlag.WALL_NORTH) != 0;
 			if (blocking) {
 				return true;
 			}
 
 			// Wall on northeast tile, south side
-			mask = world.getTile(x - 1, y - 1).traversalMask;
+			mask = world.getTiles().getTraversalMask(x - 1, y - 1);
 			blocking = (mask & CollisionFlag.WALL_SOUTH) != 0;
 			return blocking;
 
@@ -287,19 +285,19 @@ public class PathValidation {
 		// Object west
 		//   |  or  |
 		//  /      X
-		int mask = world.getTile(x + 1, y).traversalMask;
+		int mask = world.getTiles().getTraversalMask(x + 1, y);
 		boolean blocking = (mask & (CollisionFlag.FULL_BLOCK_B + CollisionFlag.FULL_BLOCK_C)) != 0;
 		if (blocking) {
 
 			// Wall on north tile, west side
-			mask = world.getTile(x, y - 1).traversalMask;
+			mask = world.getTiles().getTraversalMask(x, y - 1);
 			blocking = (mask & CollisionFlag.WALL_WEST) != 0;
 			if (blocking) {
 				return true;
 			}
 
 			// Wall on northwest tile, east side
-			mask = world.getTile(x + 1, y + 1).traversalMask;
+			mask = world.getTiles().getTraversalMask(x + 1, y + 1);
 			blocking = (mask & CollisionFlag.WALL_EAST) != 0;
 			if (blocking) {
 				return true;
@@ -308,19 +306,19 @@ public class PathValidation {
 
 		// Object north
 		// __/  or  __X
-		mask = world.getTile(x, y - 1).traversalMask;
+		mask = world.getTiles().getTraversalMask(x, y - 1);
 		blocking = (mask & (CollisionFlag.FULL_BLOCK_B + CollisionFlag.FULL_BLOCK_C)) != 0;
 		if (blocking) {
 
 			// Wall on west tile, north side
-			mask = world.getTile(x + 1, y).traversalMask;
+			mask = world.getTiles().getTraversalMask(x + 1, y);
 			blocking = (mask & CollisionFlag.WALL_NORTH) != 0;
 			if (blocking) {
 				return true;
 			}
 
 			// Wall on northwest tile, south side
-			mask = world.getTile(x + 1, y - 1).traversalMask;
+			mask = world.getTiles().getTraversalMask(x + 1, y - 1);
 			blocking = (mask & CollisionFlag.WALL_SOUTH) != 0;
 			return blocking;
 
@@ -337,19 +335,19 @@ public class PathValidation {
 		// Object east
 		//   /  or   X
 		//  |       |
-		int mask = world.getTile(x - 1, y).traversalMask;
+		int mask = world.getTiles().getTraversalMask(x - 1, y);
 		boolean blocking = (mask & (CollisionFlag.FULL_BLOCK_B + CollisionFlag.FULL_BLOCK_C)) != 0;
 		if (blocking) {
 
 			// Wall on south tile, east side
-			mask = world.getTile(x, y + 1).traversalMask;
+			mask = world.getTiles().getTraversalMask(x, y + 1);
 			blocking = (mask & CollisionFlag.WALL_EAST) != 0;
 			if (blocking) {
 				return true;
 			}
 
 			// Wall on southeast tile, west side
-			mask = world.getTile(x - 1, y + 1).traversalMask;
+			mask = world.getTiles().getTraversalMask(x - 1, y + 1);
 			blocking = (mask & CollisionFlag.WALL_WEST) != 0;
 			if (blocking) {
 				return true;
@@ -359,19 +357,19 @@ public class PathValidation {
 		// Object south
 		//  __       __
 		// /    or  X
-		mask = world.getTile(x, y + 1).traversalMask;
+		mask = world.getTiles().getTraversalMask(x, y + 1);
 		blocking = (mask & (CollisionFlag.FULL_BLOCK_B + CollisionFlag.FULL_BLOCK_C)) != 0;
 		if (blocking) {
 
 			// Wall on east tile, south side
-			mask = world.getTile(x - 1, y).traversalMask;
+			mask = world.getTiles().getTraversalMask(x - 1, y);
 			blocking = (mask & CollisionFlag.WALL_SOUTH) != 0;
 			if (blocking) {
 				return true;
 			}
 
 			// Wall on southeast tile, north side
-			mask = world.getTile(x - 1, y + 1).traversalMask;
+			mask = world.getTiles().getTraversalMask(x - 1, y + 1);
 			blocking = (mask & CollisionFlag.WALL_NORTH) != 0;
 			return blocking;
 
@@ -389,19 +387,19 @@ public class PathValidation {
 		// Object west
 		//  \  or  X
 		//   |      |
-		int mask = world.getTile(x + 1, y).traversalMask;
+		int mask = world.getTiles().getTraversalMask(x + 1, y);
 		boolean blocking = (mask & (CollisionFlag.FULL_BLOCK_A + CollisionFlag.FULL_BLOCK_C)) != 0;
 		if (blocking) {
 
 			// Wall on south tile, west side
-			mask = world.getTile(x, y + 1).traversalMask;
+			mask = world.getTiles().getTraversalMask(x, y + 1);
 			blocking = (mask & CollisionFlag.WALL_WEST) != 0;
 			if (blocking) {
 				return true;
 			}
 
 			// Wall on southwest tile, east side
-			mask = world.getTile(x + 1, y + 1).traversalMask;
+			mask = world.getTiles().getTraversalMask(x + 1, y + 1);
 			blocking = (mask & CollisionFlag.WALL_EAST) != 0;
 			if (blocking) {
 				return true;
@@ -411,19 +409,19 @@ public class PathValidation {
 		// Object south
 		// __       __
 		//   \  or    X
-		mask = world.getTile(x, y + 1).traversalMask;
+		mask = world.getTiles().getTraversalMask(x, y + 1);
 		blocking = (mask & (CollisionFlag.FULL_BLOCK_A + CollisionFlag.FULL_BLOCK_C)) != 0;
 		if (blocking) {
 
 			// Wall on west tile, south side
-			mask = world.getTile(x + 1, y).traversalMask;
+			mask = world.getTiles().getTraversalMask(x + 1, y);
 			blocking = (mask & CollisionFlag.WALL_SOUTH) != 0;
 			if (blocking) {
 				return true;
 			}
 
 			// Wall on southwest tile, north side
-			mask = world.getTile(x + 1, y + 1).traversalMask;
+			mask = world.getTiles().getTraversalMask(x + 1, y + 1);
 			blocking = (mask & CollisionFlag.WALL_NORTH) != 0;
 			return blocking;
 
@@ -536,10 +534,9 @@ public class PathValidation {
 	}
 
 	private static boolean checkBlocking(Mob mob, int x, int y, int bit, boolean isCurrentTile) {
-		TileValue t = mob.getWorld().getTile(x, y);
 		/*boolean inFisherKingdom = (mob.getLocation().inBounds(415, 976, 423, 984)
 			|| mob.getLocation().inBounds(511, 976, 519, 984));*/
-		boolean blockedPath = PathValidation.isBlocking(t.traversalMask, (byte) bit, isCurrentTile);
+		boolean blockedPath = PathValidation.isBlocking(mob.getWorld().getTiles().getTraversalMask(x, y), (byte) bit, isCurrentTile);
 		blockedPath |= isMobBlocking(mob, x, y);
 		if (mob.isPlayer() && mob.getConfig().PLAYER_BLOCKING == 2) {
 			blockedPath |= isPlayerBlocking((Player)mob, x, y);
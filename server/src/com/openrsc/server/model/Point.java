@@ -7,9 +7,11 @@ import com.openrsc.server.model.world.World;
 import com.openrsc.server.util.rsc.DataConversions;
 import com.openrsc.server.util.rsc.Formulae;
 
+import java.io.Serializable;
 import java.util.ArrayList;
 
-public class Point {
+public class Point implements Serializable {
+	private static final long serialVersionUID = 1L;
 
 	private static ArrayList<WildernessLocation> wildernessLocations = new ArrayList<WildernessLocation>();
 
@@ -1,6 +1,7 @@
 package com.openrsc.server.model;
 
 public class TimePoint extends Point {
+	private static final long serialVersionUID = 1L;
 
 	protected long timestamp;
 	protected Point point;
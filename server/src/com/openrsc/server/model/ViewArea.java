@@ -1,36 +1,62 @@
 package com.openrsc.server.model;
 
+import com.openrsc.server.model.entity.EntityType;
 import com.openrsc.server.model.entity.GameObject;
 import com.openrsc.server.model.entity.GroundItem;
 import com.openrsc.server.model.entity.Mob;
 import com.openrsc.server.model.entity.npc.Npc;
 import com.openrsc.server.model.entity.player.Player;
+import com.openrsc.server.model.world.region.RegionManager;
+import com.openrsc.server.model.world.region.RegionView;
 
 import java.util.Collection;
 
 
+/**
+ * What a mob can see around it.
+ *
+ * Each kind of entity is looked up at most once for as long as the mob stays put and nothing enters,
+ * leaves or moves within the regions in view. Until then every call returns the same unmodifiable collection.
+ */
 public class ViewArea {
 
 	private final Mob mob;
 
+	private volatile RegionView<GameObject> gameObjects;
+	private volatile RegionView<GroundItem> groundItems;
+	private volatile RegionView<Npc> npcs;
+	private volatile RegionView<Player> players;
+
 	public ViewArea(final Mob mob) {
 		this.mob = mob;
 	}
 
+	private RegionManager getRegionManager() {
+		return mob.getWorld().getRegionManager();
+	}
+
 	public Collection<GameObject> getGameObjectsInView() {
-		return mob.getWorld().getRegionManager().getLocalObjects(mob);
+		final RegionView<GameObject> view = getRegionManager().getView(EntityType.GAME_OBJECT, mob.getLocation(), gameObjects);
+		gameObjects = view;
+		return view.getEntities();
 	}
 
 	public Collection<GroundItem> getItemsInView() {
-		return mob.getWorld().getRegionManager().getLocalGroundItems(mob);
+		final RegionView<GroundItem> view = getRegionManager().getView(EntityType.GROUND_ITEM, mob.getLocation(), groundItems);
+		groundItems = view;
+		return view.getEntities();
 	}
 
 	public Collection<Npc> getNpcsInView() {
-		return mob.getWorld().getRegionManager().getLocalNpcs(mob);
+		final RegionView<Npc> view = getRegionManager().getView(EntityType.NPC, mob.getLocation(), npcs);
+		npcs = view;
+		return view.getEntities();
 	}
 
 	public Collection<Player> getPlayersInView() {
-		return mob.getWorld().getRegionManager().getLocalPlayers(mob);
+		final RegionView<Player> view = getRegionManager().getView(EntityType.PLAYER, mob.getLocation(), players);
+		players = view;
+		return view.getEntities();
 	}
 
 	public GameObject getGameObject(final Point location) {
@@ -40,6 +40,10 @@ public class Npc extends Mob {
 	private boolean shouldRespawn = true;
 	private boolean isRespawning = false;
 	private boolean executedAggroScript = false;
+	/**
+	 * Set while no player is near enough for the NPC's roaming to matter.
+	 */
+	private boolean dormant = false;
 	private NpcBehavior npcBehavior;
 	private ArrayList<NpcLootEvent> deathListeners = new ArrayList<NpcLootEvent>(1); // TODO: Should use a more generic class. Maybe PlayerKilledNpcListener, but that is in plugins jar.
 	private static int[] removeHandledInPlugin = {
@@ -703,10 +707,47 @@ public class Npc extends Mob {
 	}
 
 	public void updatePosition() {
+		if (getConfig().WANT_NPC_DORMANCY && updateDormancy()) {
+			return;
+		}
 		getNpcBehavior().tick();
 		super.updatePosition();
 	}
 
+	/**
+	 * Puts the NPC to sleep while it is roaming with nothing to do in a region no player is near, and wakes it once
+	 * a player comes near or something else gives it something to do.
+	 *
+	 * @return Whether the NPC is dormant, and so should not be ticked.
+	 */
+	private boolean updateDormancy() {
+		final boolean idle = getNpcBehavior().isRoaming() && !inCombat() && !isBusy() && !isFollowing() && finishedPath();
+		if (idle && !getWorld().getRegionManager().isActive(getLocation())) {
+			dormant = true;
+			return true;
+		}
+		if (dormant) {
+			wake();
+		}
+		return false;
+	}
+
+	/**
+	 * Catches the NPC up on what nobody was there to see. Respawning and stat restoration run as events and carry on
+	 * while the NPC sleeps, but one left outside its roaming area would have walked home, so it is put back at its
+	 * spawn point.
+	 */
+	private void wake() {
+		dormant = false;
+		if (!isRespawning() && !getLocation().inBounds(loc.minX(), loc.minY(), loc.maxX(), loc.maxY())) {
+			teleport(loc.startX(), loc.startY());
+		}
+	}
+
+	public boolean isDormant() {
+		return dormant;
+	}
+
 	public void produceUnderAttack() {
 		getWorld().produceUnderAttack(this);
 	}
@@ -391,6 +391,10 @@ public class NpcBehavior {
 		return state == State.AGGRO;
 	}
 
+	boolean isRoaming() {
+		return state == State.ROAM;
+	}
+
 	public void setChasing(final Player player) {
 		state = State.AGGRO;
 		target = player;
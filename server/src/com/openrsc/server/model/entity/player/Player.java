@@ -9,6 +9,7 @@ import com.openrsc.server.content.minigame.fishingtrawler.FishingTrawler;
 import com.openrsc.server.content.party.Party;
 import com.openrsc.server.content.party.PartyInvite;
 import com.openrsc.server.content.party.PartyPlayer;
+import com.openrsc.server.database.PlayerSaveState;
 import com.openrsc.server.database.impl.mysql.queries.logging.GenericLog;
 import com.openrsc.server.database.impl.mysql.queries.logging.LiveFeedLog;
 import com.openrsc.server.event.DelayedEvent;
@@ -29,12 +30,13 @@ import com.openrsc.server.model.entity.*;
 import com.openrsc.server.model.entity.npc.Npc;
 import com.openrsc.server.model.struct.UnequipRequest;
 import com.openrsc.server.model.world.World;
+import com.openrsc.server.net.BitWriter;
 import com.openrsc.server.net.Packet;
+import com.openrsc.server.net.UnresolvedPayload;
 import com.openrsc.server.net.rsc.ActionSender;
 import com.openrsc.server.net.rsc.ClientLimitations;
 import com.openrsc.server.net.rsc.PayloadProcessorManager;
-import com.openrsc.server.net.rsc.parsers.PayloadParser;
-import com.openrsc.server.net.rsc.parsers.impl.*;
+import com.openrsc.server.net.rsc.enums.OpcodeIn;
 import com.openrsc.server.net.rsc.struct.AbstractStruct;
 import com.openrsc.server.plugins.QuestInterface;
 import com.openrsc.server.plugins.menu.Menu;
@@ -54,6 +56,8 @@ import java.net.InetSocketAddress;
 import java.util.*;
 import java.util.Map.Entry;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 
 /**
@@ -134,6 +138,10 @@ public final class Player extends Mob {
 	public PrerenderedSleepword queuedSleepword = null;
 	public Player queuedSleepwordSender = null;
 	private int saveAttempts = 0;
+	/**
+	 * What the database holds for this player, so saves only write what changed.
+	 */
+	private final PlayerSaveState saveState = new PlayerSaveState();
 
 	private final UUID uuid;
 
@@ -151,17 +159,25 @@ public final class Player extends Mob {
 	 */
 	private final Cache cache = new Cache();
 	/**
-	 * Received packets from this player yet to be processed.
+	 * Payloads parsed from this player's packets on the network I/O thread, yet to be processed.
+	 */
+	private final Queue<AbstractStruct<OpcodeIn>> incomingPayloads = new ConcurrentLinkedQueue<>();
+	/**
+	 * Size of incomingPayloads, which is not constant time to compute on the queue itself.
 	 */
-	private final LinkedList<Packet> incomingPackets = new LinkedList<>();
+	private final AtomicInteger incomingPayloadCount = new AtomicInteger();
 	/**
 	 * Outgoing packets from this player yet to be processed.
 	 */
 	private final ArrayList<Packet> outgoingPackets = new ArrayList<>();
 	/**
-	 * Current active packets - used on packets that should be rated to 1-per-player.
+	 * Consecutive ticks the channel has spent above its write buffer high water mark.
+	 */
+	private int unwritableTicks = 0;
+	/**
+	 * Reused for every player and npc position update sent to this player.
 	 */
-	private final ArrayList<Integer> activePackets = new ArrayList<>();
+	private final BitWriter mobUpdateWriter = new BitWriter(256);
 	/**
 	 * The last menu reply this player gave in a quest
 	 */
@@ -549,6 +565,7 @@ public final class Player extends Mob {
 
 	public void incAppearanceID() {
 		appearanceID++;
+		getUpdateFlags().clearEncodedBlocks();
 	}
 
 	public long getLastCommand() {
@@ -596,6 +613,10 @@ public final class Player extends Mob {
 		return true;
 	}
 
+	public BitWriter getMobUpdateWriter() {
+		return mobUpdateWriter;
+	}
+
 	public HashMap<Long, Integer> getKnownPlayerAppearanceIDs() {
 		return knownPlayersAppearanceIDs;
 	}
@@ -605,6 +626,20 @@ public final class Player extends Mob {
 			synchronized (outgoingPackets) {
 				outgoingPackets.add(o);
 			}
+		} else {
+			o.release();
+		}
+	}
+
+	/**
+	 * Drops every packet still waiting to be sent, handing their buffers back to the pool.
+	 */
+	public void discardOutgoingPackets() {
+		synchronized (outgoingPackets) {
+			for (final Packet outgoing : outgoingPackets) {
+				outgoing.release();
+			}
+			outgoingPackets.clear();
 		}
 	}
 
@@ -2187,11 +2222,7 @@ public final class Player extends Mob {
 					+ " actions with mouse still. Mouse was last moved " + String.format("%.02f", minutesFlagged)
 					+ " mins ago";
 
-				for (Player player : getWorld().getPlayers()) {
-					if (player.isMod()) {
-						player.message("@red@Server@whi@: " + string);
-					}
-				}
+				ActionSender.sendMessage(getWorld().getPlayers(), Player::isMod, null, MessageType.GAME, "@red@Server@whi@: " + string, 0, null);
 				setSuspiciousPlayer(true, "mouse movement check");
 			}
 		} else {
@@ -2200,15 +2231,13 @@ public final class Player extends Mob {
 		}
 	}
 
-	public void addToPacketQueue(final Packet packet) {
-		updateClientActivity();
-		int packetID = packet.getID();
-
-		if (incomingPackets.size() <= getWorld().getServer().getConfig().PACKET_LIMIT) {
-			synchronized (incomingPackets) {
-				incomingPackets.add(packet);
-				activePackets.add(packetID);
-			}
+	/**
+	 * Queues a payload parsed on the network I/O thread for the next tick.
+	 */
+	public void addToPayloadQueue(final AbstractStruct<OpcodeIn> payload) {
+		if (incomingPayloadCount.get() <= getWorld().getServer().getConfig().PACKET_LIMIT) {
+			incomingPayloadCount.incrementAndGet();
+			incomingPayloads.offer(payload);
 		}
 	}
 
@@ -2224,61 +2253,35 @@ public final class Player extends Mob {
 			getWorld().getServer().getGameUpdater().processMessageQueue(this));
 	}
 
-	public void sendUpdates() {
-		getWorld().getServer().incrementLastUpdateClientsDuration(
-			getWorld().getServer().getGameUpdater().updateClient(this));
-		getWorld().getServer().incrementLastOutgoingPacketsDuration(processOutgoingPackets());
-	}
-
 	public long processIncomingPackets() {
 		return getWorld().getServer().bench(() -> {
 			if (!channel.isOpen() && !channel.isWritable()) {
 				return;
 			}
-			synchronized (incomingPackets) {
-				Packet packet = incomingPackets.poll();
-				while (packet != null) {
-					// Final copied variable needed to pass into lambda
-					final Packet curPacket = packet;
-					final long packetTime = getWorld().getServer().bench(
-						() -> {
-							activePackets.remove(activePackets.indexOf(curPacket.getID()));
-							PayloadParser<com.openrsc.server.net.rsc.enums.OpcodeIn> parser;
-							if (isUsing38CompatibleClient() || isUsing39CompatibleClient()) {
-								parser = new Payload38Parser();
-							} else if (isUsing69CompatibleClient()) {
-								parser = new Payload69Parser();
-							} else if (isUsing233CompatibleClient()) {
-								parser = new Payload235Parser();
-							} else if (isUsing177CompatibleClient()) {
-								parser = new Payload177Parser();
-							} else if (isUsing140CompatibleClient()) {
-								parser = new Payload140Parser();
-							} else {
-								parser = new PayloadCustomParser();
-							}
-							AbstractStruct<com.openrsc.server.net.rsc.enums.OpcodeIn> res = parser.parse(curPacket, this);
-							if (res != null) {
-								boolean couldProcess;
-								try {
-									couldProcess = PayloadProcessorManager.processed(res, this);
-								} catch (final Exception e) {
-									LOGGER.catching(e);
-									couldProcess = false;
-								}
-								if (!couldProcess) {
-									unregister(false, "Malformed packet!");
-								}
-							}
-						}
-					);
-					getWorld().getServer().addIncomingPacketDuration(curPacket.getID(), packetTime);
-					getWorld().getServer().incrementIncomingPacketCount(curPacket.getID());
-
-					packet = incomingPackets.poll();
+			AbstractStruct<OpcodeIn> payload;
+			while ((payload = incomingPayloads.poll()) != null) {
+				incomingPayloadCount.decrementAndGet();
+				if (payload instanceof UnresolvedPayload) {
+					try {
+						payload = ((UnresolvedPayload) payload).resolve(this);
+					} catch (final Exception e) {
+						LOGGER.error("Unable to parse packet from " + getUsername());
+						LOGGER.catching(e);
+						continue;
+					}
+					if (payload == null) {
+						continue;
+					}
 				}
-
-				incomingPackets.clear();
+				final AbstractStruct<OpcodeIn> curPayload = payload;
+				final long packetTime = getWorld().getServer().bench(
+					() -> {
+						if (!PayloadProcessorManager.processed(curPayload, this)) {
+							unregister(false, "Malformed packet!");
+						}
+					}
+				);
+				getWorld().getServer().getIncomingPacketStatistics().record(curPayload.getOpcode().ordinal(), packetTime);
 			}
 		});
 	}
@@ -2290,26 +2293,37 @@ public final class Player extends Mob {
 		}*/
 
 		return getWorld().getServer().bench(() -> {
-			if (!channel.isOpen() || !isLoggedIn() || !channel.isActive() || !channel.isWritable()) {
+			if (!channel.isOpen() || !isLoggedIn() || !channel.isActive()) {
 				return;
 			}
+			if (!channel.isWritable()) {
+				// The client is not reading fast enough. Hold on to its packets until the write buffer drains
+				// below the low water mark, and let go of the client if it never does.
+				if (++unwritableTicks > getConfig().MAX_UNWRITABLE_TICKS) {
+					discardOutgoingPackets();
+					unwritableTicks = 0;
+					unregister(true, "Outgoing write buffer saturated");
+				}
+				return;
+			}
+			unwritableTicks = 0;
+
+			final List<Packet> batch;
 			synchronized (outgoingPackets) {
-				try {
-					for (final Packet outgoing : outgoingPackets) {
-						final long packetTime = getWorld().getServer().bench(
-							() -> {
-								channel.writeAndFlush(outgoing);
-							}
-						);
-						getWorld().getServer().addOutgoingPacketDuration(outgoing.getID(), packetTime);
-						getWorld().getServer().incrementOutgoingPacketCount(outgoing.getID());
-					}
-				} catch (final Exception e) {
-					LOGGER.catching(e);
+				if (outgoingPackets.isEmpty()) {
+					return;
 				}
-				//channel.flush();
+				batch = new ArrayList<>(outgoingPackets);
 				outgoingPackets.clear();
 			}
+
+			int bytes = 0;
+			for (final Packet outgoing : batch) {
+				bytes += outgoing.getBuffer().readableBytes();
+				getWorld().getServer().getOutgoingPacketStatistics().increment(outgoing.getID());
+			}
+			getWorld().getServer().getOutgoingPacketFlusher().submit(channel, batch);
+			getWorld().getServer().incrementLastOutgoingFlushes(bytes);
 		});
 	}
 
@@ -3770,4 +3784,8 @@ public final class Player extends Mob {
 	public void resetSaveAttempts() {
 		saveAttempts = 0;
 	}
+
+	public PlayerSaveState getSaveState() {
+		return saveState;
+	}
 }
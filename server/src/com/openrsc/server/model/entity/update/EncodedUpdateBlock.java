@@ -0,0 +1,35 @@
+package com.openrsc.server.model.entity.update;
+
+/**
+ * An appearance or chat update block already encoded for one protocol family.
+ *
+ * Observers on the same client version copy these bytes into their own update packet
+ * instead of encoding the same block again.
+ */
+public final class EncodedUpdateBlock {
+	/**
+	 * The client update pass the block was encoded in. It is only valid during that pass.
+	 */
+	private final long updatePass;
+	/**
+	 * What the block was encoded from, when that can change within a pass (a chat message).
+	 */
+	private final Object source;
+	private final int clientVersion;
+	private final byte[] bytes;
+
+	public EncodedUpdateBlock(final long updatePass, final Object source, final int clientVersion, final byte[] bytes) {
+		this.updatePass = updatePass;
+		this.source = source;
+		this.clientVersion = clientVersion;
+		this.bytes = bytes;
+	}
+
+	public boolean isValidFor(final long updatePass, final Object source, final int clientVersion) {
+		return this.updatePass == updatePass && this.source == source && this.clientVersion == clientVersion;
+	}
+
+	public byte[] getBytes() {
+		return bytes;
+	}
+}
@@ -1,7 +1,10 @@
 package com.openrsc.server.model.entity.update;
 
+import com.openrsc.server.net.rsc.enums.ProtocolFamily;
+
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 /**
  * Holds all the values for appearance updates
@@ -43,6 +46,23 @@ public class UpdateFlags {
 	 */
 	private AtomicReference<Projectile> projectile = new AtomicReference<Projectile>();
 
+	/**
+	 * Kinds of update block that are encoded once and shared between observers.
+	 */
+	public static final int APPEARANCE_BLOCK = 0;
+	public static final int CHAT_BLOCK = 1;
+	private static final int BLOCK_TYPES = 2;
+	/**
+	 * Observers can be shown a different block depending on their privileges.
+	 */
+	private static final int BLOCK_VARIANTS = 2;
+
+	/**
+	 * Update blocks already encoded for observers, indexed by block type, protocol family and variant.
+	 */
+	private final AtomicReferenceArray<EncodedUpdateBlock> encodedBlocks =
+		new AtomicReferenceArray<>(BLOCK_TYPES * ProtocolFamily.values().length * BLOCK_VARIANTS);
+
 	public AtomicReference<Bubble> getActionBubble() {
 		return actionBubble;
 	}
@@ -64,12 +84,16 @@ public class UpdateFlags {
 	}
 	public void setAppearanceChanged(boolean b) {
 		this.appearanceChanged.set(b);
+		if (b) {
+			clearEncodedBlocks();
+		}
 	}
 	public ChatMessage getChatMessage() {
 		return chatMessage.get();
 	}
 	public void setChatMessage(ChatMessage message) {
 		this.chatMessage.set(message);
+		clearEncodedBlocks();
 	}
 	public AtomicReference<Damage> getDamage() {
 		return damage;
@@ -148,6 +172,27 @@ public class UpdateFlags {
 		return getHpUpdate().get() != null;
 	}
 
+	private static int encodedBlockIndex(final int blockType, final ProtocolFamily family, final int variant) {
+		return (blockType * ProtocolFamily.values().length + family.ordinal()) * BLOCK_VARIANTS + variant;
+	}
+
+	public EncodedUpdateBlock getEncodedBlock(final int blockType, final ProtocolFamily family, final int variant) {
+		return encodedBlocks.get(encodedBlockIndex(blockType, family, variant));
+	}
+
+	public void setEncodedBlock(final int blockType, final ProtocolFamily family, final int variant, final EncodedUpdateBlock block) {
+		encodedBlocks.set(encodedBlockIndex(blockType, family, variant), block);
+	}
+
+	/**
+	 * Forgets every encoded update block, after whatever they were encoded from has changed.
+	 */
+	public void clearEncodedBlocks() {
+		for (int i = 0; i < encodedBlocks.length(); i++) {
+			encodedBlocks.set(i, null);
+		}
+	}
+
 	/**
 	 * Resets all update flags
 	 */
@@ -162,6 +207,7 @@ public class UpdateFlags {
 		chatMessage.set(null);
 
 		appearanceChanged.set(false);
+		clearEncodedBlocks();
 	}
 
 	@Override
@@ -31,6 +31,7 @@ import com.openrsc.server.model.entity.player.Player;
 import com.openrsc.server.model.entity.player.PlayerSettings;
 import com.openrsc.server.model.snapshot.Snapshot;
 import com.openrsc.server.model.world.region.RegionManager;
+import com.openrsc.server.model.world.region.TileMap;
 import com.openrsc.server.model.world.region.TileValue;
 import com.openrsc.server.net.ConnectionAttachment;
 import com.openrsc.server.net.PcapLogger;
@@ -38,6 +39,7 @@ import com.openrsc.server.net.rsc.ActionSender;
 import com.openrsc.server.plugins.MiniGameInterface;
 import com.openrsc.server.plugins.QuestInterface;
 import com.openrsc.server.util.EntityList;
+import com.openrsc.server.util.NpcList;
 import com.openrsc.server.util.IPTracker;
 import com.openrsc.server.util.PathfindingDebug;
 import com.openrsc.server.util.PlayerList;
@@ -92,7 +94,7 @@ public final class World implements SimpleSubscriber<FishingTrawler>, Runnable {
 
 	private final Server server;
 	private final RegionManager regionManager;
-	private final EntityList<Npc> npcs;
+	private final NpcList npcs;
 	private final PlayerList players;
 
 	//Maximum bank items allowed
@@ -118,8 +120,8 @@ public final class World implements SimpleSubscriber<FishingTrawler>, Runnable {
 
 	public World(final Server server) {
 		this.server = server;
-		this.npcs = new EntityList<>(4000);
-		this.players = new PlayerList(2000);
+		this.npcs = new NpcList(4000, NpcList.MAX_NPCS);
+		this.players = new PlayerList(2000, PlayerList.MAX_PLAYERS);
 		this.sceneryLocs = new HashMap<>();
 		this.npcDrops = new NpcDrops(this);
 		this.quests = new CopyOnWriteArrayList<>();
@@ -179,7 +181,7 @@ public final class World implements SimpleSubscriber<FishingTrawler>, Runnable {
 			public void action() {
 				registerGameObject(new GameObject(getWorld(), loc));
 				if (forceFullBlock) {
-					getTile(loc.getX(), loc.getY()).traversalMask |= 64;
+					getTiles().addTraversalFlags(loc.getX(), loc.getY(), CollisionFlag.FULL_BLOCK_C);
 				}
 			}
 		});
@@ -198,44 +200,47 @@ public final class World implements SimpleSubscriber<FishingTrawler>, Runnable {
 	}
 
 	public Npc getNpc(final int id, final int minX, final int maxX, final int minY, final int maxY) {
-		for (final Npc npc : getNpcs()) {
+		Npc found = null;
+		for (final Npc npc : npcs.getNpcsById(id)) {
 			boolean exists = !npc.isRemoved() && !npc.isRespawning();
-			if (npc.getID() == id && npc.getX() >= minX && npc.getX() <= maxX && npc.getY() >= minY
+			if (npc.getX() >= minX && npc.getX() <= maxX && npc.getY() >= minY
 				&& npc.getY() <= maxY && exists) {
-				return npc;
+				found = lowestIndex(found, npc);
 			}
 		}
-		return null;
+		return found;
 	}
 
 	public Npc getNpc(final int id, final int minX, final int maxX, final int minY, final int maxY, final boolean notNull) {
-		for (final Npc npc : getNpcs()) {
-			if (npc.getID() == id && npc.getX() >= minX && npc.getX() <= maxX && npc.getY() >= minY
+		Npc found = null;
+		for (final Npc npc : npcs.getNpcsById(id)) {
+			if (npc.getX() >= minX && npc.getX() <= maxX && npc.getY() >= minY
 				&& npc.getY() <= maxY) {
 				if (!npc.inCombat()) {
-					return npc;
+					found = lowestIndex(found, npc);
 				}
 			}
 		}
-		return null;
+		return found;
 	}
 
 	public Npc getNpcById(final int id) {
-		for (final Npc npc : getNpcs()) {
-			if (npc.getID() == id) {
-				return npc;
-			}
+		Npc found = null;
+		for (final Npc npc : npcs.getNpcsById(id)) {
+			found = lowestIndex(found, npc);
 		}
-		return null;
+		return found;
+	}
+
+	/**
+	 * NPCs with an id are not kept in order, so this picks the one a search through every NPC would have found first.
+	 */
+	private static Npc lowestIndex(final Npc found, final Npc npc) {
+		return found == null || npc.getIndex() < found.getIndex() ? npc : found;
 	}
 
 	public Npc getNpcByUUID(final UUID id) {
-		for (final Npc npc : getNpcs()) {
-			if (npc.getUUID().equals(id)) {
-				return npc;
-			}
-		}
-		return null;
+		return npcs.getNpcByUUID(id);
 	}
 
 	/**
@@ -263,24 +268,14 @@ public final class World implements SimpleSubscriber<FishingTrawler>, Runnable {
 	 * Gets a player by their ID
 	 */
 	public Player getPlayerID(final int databaseID) {
-		for (final Player player : getPlayers()) {
-			if (player.getDatabaseID() == databaseID) {
-				return player;
-			}
-		}
-		return null;
+		return players.getPlayerByDatabaseId(databaseID);
 	}
 
 	/**
 	 * Gets a player by their UUID
 	 */
 	public Player getPlayerByUUID(final UUID uuid) {
-		for (final Player player : getPlayers()) {
-			if (player.getUUID().equals(uuid)) {
-				return player;
-			}
-		}
-		return null;
+		return players.getPlayerByUUID(uuid);
 	}
 
 	public EntityList<Player> getPlayers() {
@@ -474,23 +469,19 @@ public final class World implements SimpleSubscriber<FishingTrawler>, Runnable {
 							handleProjectileClipAllowance(x, y, dir, o.getType(), o.getGameObjectDef().getType(), -1);
 						}
 						if (o.getGameObjectDef().getType() == 1) {
-							getTile(x, y).traversalMask |= CollisionFlag.FULL_BLOCK_C;
+							getTiles().addTraversalFlags(x, y, CollisionFlag.FULL_BLOCK_C);
 						} else if (dir == 0) {
-							getTile(x, y).traversalMask |= CollisionFlag.WALL_EAST;
-							if (getTile(x - 1, y) != null)
-								getTile(x - 1, y).traversalMask |= CollisionFlag.WALL_WEST;
+							getTiles().addTraversalFlags(x, y, CollisionFlag.WALL_EAST);
+							getTiles().addTraversalFlags(x - 1, y, CollisionFlag.WALL_WEST);
 						} else if (dir == 2) {
-							getTile(x, y).traversalMask |= CollisionFlag.WALL_SOUTH;
-							if (getTile(x, y + 1) != null)
-								getTile(x, y + 1).traversalMask |= CollisionFlag.WALL_NORTH;
+							getTiles().addTraversalFlags(x, y, CollisionFlag.WALL_SOUTH);
+							getTiles().addTraversalFlags(x, y + 1, CollisionFlag.WALL_NORTH);
 						} else if (dir == 4) {
-							getTile(x, y).traversalMask |= CollisionFlag.WALL_WEST;
-							if (getTile(x + 1, y) != null)
-								getTile(x + 1, y).traversalMask |= CollisionFlag.WALL_EAST;
+							getTiles().addTraversalFlags(x, y, CollisionFlag.WALL_WEST);
+							getTiles().addTraversalFlags(x + 1, y, CollisionFlag.WALL_EAST);
 						} else if (dir == 6) {
-							getTile(x, y).traversalMask |= CollisionFlag.WALL_NORTH;
-							if (getTile(x, y - 1) != null)
-								getTile(x, y - 1).traversalMask |= CollisionFlag.WALL_SOUTH;
+							getTiles().addTraversalFlags(x, y, CollisionFlag.WALL_NORTH);
+							getTiles().addTraversalFlags(x, y - 1, CollisionFlag.WALL_SOUTH);
 						}
 					}
 				}
@@ -506,17 +497,15 @@ public final class World implements SimpleSubscriber<FishingTrawler>, Runnable {
 				}
 				if (dir == 0) {
 
-					getTile(x, y).traversalMask |= CollisionFlag.WALL_NORTH;
-					if (getTile(x, y - 1) != null)
-						getTile(x, y - 1).traversalMask |= CollisionFlag.WALL_SOUTH;
+					getTiles().addTraversalFlags(x, y, CollisionFlag.WALL_NORTH);
+					getTiles().addTraversalFlags(x, y - 1, CollisionFlag.WALL_SOUTH);
 				} else if (dir == 1) {
-					getTile(x, y).traversalMask |= CollisionFlag.WALL_EAST;
-					if (getTile(x - 1, y) != null)
-						getTile(x - 1, y).traversalMask |= CollisionFlag.WALL_WEST;
+					getTiles().addTraversalFlags(x, y, CollisionFlag.WALL_EAST);
+					getTiles().addTraversalFlags(x - 1, y, CollisionFlag.WALL_WEST);
 				} else if (dir == 2) {
-					getTile(x, y).traversalMask |= CollisionFlag.FULL_BLOCK_A;
+					getTiles().addTraversalFlags(x, y, CollisionFlag.FULL_BLOCK_A);
 				} else if (dir == 3) {
-					getTile(x, y).traversalMask |= CollisionFlag.FULL_BLOCK_B;
+					getTiles().addTraversalFlags(x, y, CollisionFlag.FULL_BLOCK_B);
 				}
 				break;
 		}
@@ -546,24 +535,24 @@ public final class World implements SimpleSubscriber<FishingTrawler>, Runnable {
 	private void handleProjectileClipAllowance(final int x, final int y, final int dir, final int type, final int objectType, final int doorType) {
 
 		// Always give the current tile a clip mask.
-		getTile(x, y).projectileAllowed = true;
+		getTiles().setProjectileAllowed(x, y);
 
 		if ((type == 0 && objectType == 1) || (type == 1 && doorType != 1)) return;
 
-		if (dir == 0 && getTile(x - 1, y) != null) {
-			getTile(x - 1, y).projectileAllowed = true;
+		if (dir == 0) {
+			getTiles().setProjectileAllowed(x - 1, y);
 		}
 
-		else if (dir == 2 && getTile(x, y + 1) != null) {
-			getTile(x, y + 1).projectileAllowed = true;
+		else if (dir == 2) {
+			getTiles().setProjectileAllowed(x, y + 1);
 		}
 
-		else if (dir == 4 && getTile(x + 1, y) != null) {
-			getTile(x + 1, y).projectileAllowed = true;
+		else if (dir == 4) {
+			getTiles().setProjectileAllowed(x + 1, y);
 		}
 
-		else if (dir == 6 && getTile(x, y - 1) != null) {
-			getTile(x, y - 1).projectileAllowed = true;
+		else if (dir == 6) {
+			getTiles().setProjectileAllowed(x, y - 1);
 		}
 	}
 
@@ -589,7 +578,7 @@ public final class World implements SimpleSubscriber<FishingTrawler>, Runnable {
 	public Npc registerNpc(final Npc n) {
 		final NPCLoc npc = n.getLoc();
 		if (npc.startX < npc.minX || npc.startX > npc.maxX || npc.startY < npc.minY || npc.startY > npc.maxY
-			|| (getTile(npc.startX, npc.startY).overlay & 64) != 0) {
+			|| (getTiles().getOverlay(npc.startX, npc.startY) & 64) != 0) {
 			LOGGER.error("Broken Npc: <id>" + npc.id + "</id><startX>" + npc.startX + "</startX><startY>"
 				+ npc.startY + "</startY>");
 		}
@@ -667,31 +656,21 @@ public final class World implements SimpleSubscriber<FishingTrawler>, Runnable {
 	}
 
 	public void sendKilledUpdate(final long killedHash, final long killerHash, final int type) {
-		for (final Player player : getPlayers()) {
-			ActionSender.sendKillUpdate(player, killedHash, killerHash, type);
-		}
+		ActionSender.sendKillUpdate(getPlayers(), killedHash, killerHash, type);
 	}
 
 	public void sendModAnnouncement(final String string) {
-		for (final Player player : getPlayers()) {
-			if (player.isMod()) {
-				player.message("[@cya@SERVER@whi@]: " + string);
-			}
-		}
+		ActionSender.sendMessage(getPlayers(), Player::isMod, null, MessageType.GAME, "[@cya@SERVER@whi@]: " + string, 0, null);
 	}
 
 	public void sendWorldAnnouncement(final String msg) {
 		if (getServer().getConfig().WANT_GLOBAL_CHAT) {
-			for (final Player player : getPlayers()) {
-				player.playerServerMessage(MessageType.QUEST, "@gre@[Global] @whi@" + msg);
-			}
+			ActionSender.sendMessage(getPlayers(), player -> true, null, MessageType.QUEST, "@gre@[Global] @whi@" + msg, 0, null);
 		}
 	}
 
 	public void sendWorldMessage(final String msg) {
-		for (final Player player : getPlayers()) {
-			player.playerServerMessage(MessageType.QUEST, msg);
-		}
+		ActionSender.sendMessage(getPlayers(), player -> true, null, MessageType.QUEST, msg, 0, null);
 	}
 
 	/**
@@ -716,19 +695,19 @@ public final class World implements SimpleSubscriber<FishingTrawler>, Runnable {
 				for (int x = o.getX(); x < o.getX() + width; ++x) {
 					for (int y = o.getY(); y < o.getY() + height; ++y) {
 						if (o.getGameObjectDef().getType() == 1) {
-							getTile(x, y).traversalMask &= 0xffbf;
+							getTiles().removeTraversalFlags(x, y, CollisionFlag.FULL_BLOCK_C);
 						} else if (dir == 0) {
-							getTile(x, y).traversalMask &= 0xfffd;
-							getTile(x - 1, y).traversalMask &= 65535 - 8;
+							getTiles().removeTraversalFlags(x, y, CollisionFlag.WALL_EAST);
+							getTiles().removeTraversalFlags(x - 1, y, CollisionFlag.WALL_WEST);
 						} else if (dir == 2) {
-							getTile(x, y).traversalMask &= 0xfffb;
-							getTile(x, y + 1).traversalMask &= 65535 - 1;
+							getTiles().removeTraversalFlags(x, y, CollisionFlag.WALL_SOUTH);
+							getTiles().removeTraversalFlags(x, y + 1, CollisionFlag.WALL_NORTH);
 						} else if (dir == 4) {
-							getTile(x, y).traversalMask &= 0xfff7;
-							getTile(x + 1, y).traversalMask &= 65535 - 2;
+							getTiles().removeTraversalFlags(x, y, CollisionFlag.WALL_WEST);
+							getTiles().removeTraversalFlags(x + 1, y, CollisionFlag.WALL_EAST);
 						} else if (dir == 6) {
-							getTile(x, y).traversalMask &= 0xfffe;
-							getTile(x, y - 1).traversalMask &= 65535 - 4;
+							getTiles().removeTraversalFlags(x, y, CollisionFlag.WALL_NORTH);
+							getTiles().removeTraversalFlags(x, y - 1, CollisionFlag.WALL_SOUTH);
 						}
 					}
 				}
@@ -739,15 +718,15 @@ public final class World implements SimpleSubscriber<FishingTrawler>, Runnable {
 				}
 				int x = o.getX(), y = o.getY();
 				if (dir == 0) {
-					getTile(x, y).traversalMask &= 0xfffe;
-					getTile(x, y - 1).traversalMask &= 65535 - 4;
+					getTiles().removeTraversalFlags(x, y, CollisionFlag.WALL_NORTH);
+					getTiles().removeTraversalFlags(x, y - 1, CollisionFlag.WALL_SOUTH);
 				} else if (dir == 1) {
-					getTile(x, y).traversalMask &= 0xfffd;
-					getTile(x - 1, y).traversalMask &= 65535 - 8;
+					getTiles().removeTraversalFlags(x, y, CollisionFlag.WALL_EAST);
+					getTiles().removeTraversalFlags(x - 1, y, CollisionFlag.WALL_WEST);
 				} else if (dir == 2) {
-					getTile(x, y).traversalMask &= 0xffef;
+					getTiles().removeTraversalFlags(x, y, CollisionFlag.FULL_BLOCK_A);
 				} else if (dir == 3) {
-					getTile(x, y).traversalMask &= 0xffdf;
+					getTiles().removeTraversalFlags(x, y, CollisionFlag.FULL_BLOCK_B);
 				}
 				break;
 		}
@@ -784,12 +763,12 @@ public final class World implements SimpleSubscriber<FishingTrawler>, Runnable {
 	public void unregisterPlayer(final Player player) {
 		try {
 			if (getServer().getLoginExecutor() != null) {
-				getServer().getGameLogger().addQuery(new PlayerOnlineFlagQuery(getServer(), player.getDatabaseID(), false));
 				if (avatarGenerator != null) {
 					avatarGenerator.generateAvatar(player.getDatabaseID(), player.getSettings().getAppearance(), player.getWornItems());
 				}
 			}
 			player.logout();
+			player.discardOutgoingPackets();
 			LOGGER.info("Unregistered " + player.getUsername() + " from player list.");
 
 			if (getServer().getConfig().WANT_PCAP_LOGGING) {
@@ -837,6 +816,13 @@ public final class World implements SimpleSubscriber<FishingTrawler>, Runnable {
 		return getRegionManager().withinWorld(x, y);
 	}
 
+	public TileMap getTiles() {
+		return getRegionManager().getTiles();
+	}
+
+	/**
+	 * @return A copy of the tile, or null if it is outside the world.
+	 */
 	public TileValue getTile(final int x, final int y) {
 		return getRegionManager().getTile(x, y);
 	}
@@ -977,23 +963,21 @@ public final class World implements SimpleSubscriber<FishingTrawler>, Runnable {
 		return getServer().bench(() -> {
 			GlobalMessage gm;
 			while ((gm = getServer().getWorld().getNextGlobalMessage()) != null) {
-				for (final Player player : getPlayers()) {
-					if (player == gm.getPlayer()) {
-						player.getWorld().getServer().getGameLogger().addQuery(new PMLog(player.getWorld(), player.getUsername(), gm.getMessage(),
-							"Global$"));
-						ActionSender.sendPrivateMessageSent(gm.getPlayer(), -1L, gm.getMessage(), true);
-					} else {
-						if (!player.getBlockGlobalFriend()) {
-							boolean blockNone = player.getSettings().getPrivacySetting(PlayerSettings.PRIVACY_BLOCK_PRIVATE_MESSAGES, player.isUsingCustomClient())
-								== PlayerSettings.BlockingMode.None.id();
-							boolean blockNonFriend = player.getSettings().getPrivacySetting(PlayerSettings.PRIVACY_BLOCK_PRIVATE_MESSAGES, player.isUsingCustomClient())
-								== PlayerSettings.BlockingMode.NonFriends.id();
-							if ((blockNone || blockNonFriend) && !player.getSocial().isIgnoring(gm.getPlayer().getUsernameHash()) || gm.getPlayer().isMod()) {
-								ActionSender.sendPrivateMessageReceived(player, gm.getPlayer(), gm.getMessage(), true);
-							}
-						}
-					}
+				final Player sender = gm.getPlayer();
+				if (hasPlayer(sender)) {
+					getServer().getGameLogger().addQuery(new PMLog(this, sender.getUsername(), gm.getMessage(), "Global$"));
+					ActionSender.sendPrivateMessageSent(sender, -1L, gm.getMessage(), true);
 				}
+				ActionSender.sendGlobalMessageReceived(getPlayers(), player -> {
+					if (player == sender) {
+						return false;
+					}
+					boolean blockNone = player.getSettings().getPrivacySetting(PlayerSettings.PRIVACY_BLOCK_PRIVATE_MESSAGES, player.isUsingCustomClient())
+						== PlayerSettings.BlockingMode.None.id();
+					boolean blockNonFriend = player.getSettings().getPrivacySetting(PlayerSettings.PRIVACY_BLOCK_PRIVATE_MESSAGES, player.isUsingCustomClient())
+						== PlayerSettings.BlockingMode.NonFriends.id();
+					return (blockNone || blockNonFriend) && !player.getSocial().isIgnoring(sender.getUsernameHash()) || sender.isMod();
+				}, sender, gm.getMessage());
 			}
 		});
 	}
@@ -3,9 +3,9 @@ package com.openrsc.server.model.world.region;
 import com.google.common.collect.LinkedHashMultimap;
 import com.google.common.collect.Multimap;
 import com.google.common.collect.Multimaps;
-import com.openrsc.server.constants.Constants;
 import com.openrsc.server.model.Point;
 import com.openrsc.server.model.entity.Entity;
+import com.openrsc.server.model.entity.EntityType;
 import com.openrsc.server.model.entity.GameObject;
 import com.openrsc.server.model.entity.GameObjectType;
 import com.openrsc.server.model.entity.GroundItem;
@@ -15,6 +15,7 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import java.util.Collection;
+import java.util.concurrent.atomic.AtomicIntegerArray;
 
 public class Region {
 	private static final Logger LOGGER = LogManager.getLogger();
@@ -44,14 +45,10 @@ public class Region {
 	final private Multimap<Point, GroundItem> items = Multimaps.synchronizedMultimap(LinkedHashMultimap.create());
 
 	/**
-	 * A list of tiles in this region.
+	 * How many times each kind of entity has been added to or removed from this region, indexed by EntityType.
+	 * Lets a RegionView tell whether it is still accurate without scanning the region again.
 	 */
-	private volatile TileValue[][] tiles;
-
-	/**
-	 * The constant tile value used for this region.
-	 */
-	private volatile TileValue tile;
+	private final AtomicIntegerArray versions = new AtomicIntegerArray(EntityType.values().length);
 
 	/**
 	 * The X index of this region
@@ -74,15 +71,6 @@ public class Region {
 		this.regionManager = regionManager;
 		this.regionX = regionX;
 		this.regionY = regionY;
-
-		this.tiles = new TileValue[Constants.REGION_SIZE][Constants.REGION_SIZE];
-		this.tile = null;
-
-		for (int i = 0; i < Constants.REGION_SIZE; i++) {
-			for (int j = 0; j < Constants.REGION_SIZE; j++) {
-				tiles[i][j] = new TileValue();
-			}
-		}
 	}
 
 	public void unload() {
@@ -90,8 +78,9 @@ public class Region {
 		npcs.clear();
 		objects.clear();
 		items.clear();
-		tiles = null;
-		tile = null;
+		for (final EntityType type : EntityType.values()) {
+			versions.incrementAndGet(type.ordinal());
+		}
 	}
 
 	/**
@@ -125,6 +114,33 @@ public class Region {
 		return items.values();
 	}
 
+	/**
+	 * Gets the entities of one type in this region.
+	 *
+	 * @param type The type of entity.
+	 * @return The entities of that type.
+	 */
+	protected Collection<? extends Entity> getEntities(final EntityType type) {
+		switch (type) {
+			case PLAYER:
+				return getPlayers();
+			case NPC:
+				return getNpcs();
+			case GAME_OBJECT:
+				return getGameObjects();
+			default:
+				return getGroundItems();
+		}
+	}
+
+	/**
+	 * @param type The type of entity.
+	 * @return A number that changes whenever an entity of that type enters, leaves or moves within this region.
+	 */
+	public int getVersion(final EntityType type) {
+		return versions.get(type.ordinal());
+	}
+
 	public void removeEntity(Entity entity) {
 		removeEntity(entity.getLocation(), entity);
 	}
@@ -139,6 +155,7 @@ public class Region {
 		} else if (entity instanceof GroundItem) {
 			items.remove(location, entity);
 		}
+		versions.incrementAndGet(entity.getEntityType().ordinal());
 	}
 
 	public void addEntity(final Entity entity) {
@@ -159,6 +176,7 @@ public class Region {
 				items.put(entity.getLocation(), (GroundItem) entity);
 				break;
 		}
+		versions.incrementAndGet(entity.getEntityType().ordinal());
 	}
 
 	private String stringifyEntities(String title, Multimap<Point, ? extends Entity> multimap) {
@@ -247,14 +265,6 @@ public class Region {
 				.orElse(null);
 	}
 
-	public TileValue getTileValue(final int regionX, final int regionY) {
-		return tile != null ? tile : tiles[regionX][regionY];
-	}
-
-	public TileValue getTileValue(final Point regionPoint) {
-		return getTileValue(regionPoint.getX(), regionPoint.getY());
-	}
-
 	public RegionManager getRegionManager() {
 		return regionManager;
 	}
@@ -267,21 +277,6 @@ public class Region {
 		return regionY;
 	}
 
-	public void checkRegionValues() {
-		boolean allTilesEqual = true;
-		final TileValue firstTile = tiles[0][0];
-		for (int i = 0; i < Constants.REGION_SIZE && allTilesEqual; i++) {
-			for (int j = 0; j < Constants.REGION_SIZE && allTilesEqual; j++) {
-				allTilesEqual = allTilesEqual && firstTile.equals(tiles[i][j]);
-			}
-		}
-
-		if (allTilesEqual) {
-			tile = tiles[0][0];
-			tiles = null;
-		}
-	}
-
 	@Override
 	public boolean equals(Object obj) {
 		if(obj == this) {
@@ -3,6 +3,7 @@ package com.openrsc.server.model.world.region;
 import com.openrsc.server.constants.Constants;
 import com.openrsc.server.model.Point;
 import com.openrsc.server.model.entity.Entity;
+import com.openrsc.server.model.entity.EntityType;
 import com.openrsc.server.model.entity.GameObject;
 import com.openrsc.server.model.entity.GroundItem;
 import com.openrsc.server.model.entity.Mob;
@@ -11,20 +12,50 @@ import com.openrsc.server.model.entity.player.Player;
 import com.openrsc.server.model.world.World;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
-import java.util.Iterator;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 public class RegionManager {
-	private final ConcurrentHashMap<Integer, ConcurrentHashMap<Integer, Region>> regions;
+	/**
+	 * Number of region columns and rows covering the world.
+	 */
+	private static final int SECTORS_WIDE = Constants.MAX_WIDTH / Constants.REGION_SIZE + 1;
+	private static final int SECTORS_HIGH = Constants.MAX_HEIGHT / Constants.REGION_SIZE + 1;
+
+	/**
+	 * Regions within the world, indexed by sectorX * SECTORS_HIGH + sectorY and created on first use.
+	 */
+	private final AtomicReferenceArray<Region> regions;
+
+	/**
+	 * Regions somebody asked for outside of the world boundaries.
+	 */
+	private final ConcurrentHashMap<Long, Region> outOfBoundsRegions;
+
+	/**
+	 * The tiles of the world, which regions do not hold themselves.
+	 */
+	private final TileMap tiles;
+
+	/**
+	 * The pass of {@link #markActiveRegions} that last found a player in or next to each region, indexed like the
+	 * regions.
+	 */
+	private final int[] activePasses;
+	private int activePass;
 
 	private final World world;
 
 	public RegionManager(final World world) {
 		this.world = world;
-		this.regions = new ConcurrentHashMap<>();
+		this.regions = new AtomicReferenceArray<>(SECTORS_WIDE * SECTORS_HIGH);
+		this.outOfBoundsRegions = new ConcurrentHashMap<>();
+		this.tiles = new TileMap();
+		this.activePasses = new int[SECTORS_WIDE * SECTORS_HIGH];
 	}
 
 	public void load() {
@@ -33,12 +64,16 @@ public class RegionManager {
 	}
 
 	public void unload() {
-		for (final ConcurrentHashMap<Integer, Region> yRegionList : regions.values()) {
-			for (final Region region : yRegionList.values()) {
-				region.unload();
-			}
+		for (final Region region : getRegions()) {
+			region.unload();
+		}
+		for (int i = 0; i < regions.length(); i++) {
+			regions.set(i, null);
 		}
-		regions.clear();
+		outOfBoundsRegions.clear();
+		tiles.clear();
+		Arrays.fill(activePasses, 0);
+		activePass = 0;
 	}
 
 	/**
@@ -48,15 +83,7 @@ public class RegionManager {
 	 * @return The collection of local players.
 	 */
 	public Collection<Player> getLocalPlayers(final Entity entity) {
-		final LinkedHashSet<Player> localPlayers = new LinkedHashSet<Player>();
-		for (final Region region : getVisibleRegions(entity.getLocation())) {
-			for (final Player player : region.getPlayers()) {
-				if (player.withinRange(entity)) {
-					localPlayers.add(player);
-				}
-			}
-		}
-		return localPlayers;
+		return this.<Player>getView(EntityType.PLAYER, entity.getLocation(), null).getEntities();
 	}
 
 	/**
@@ -66,49 +93,72 @@ public class RegionManager {
 	 * @return The collection of local NPCs.
 	 */
 	public Collection<Npc> getLocalNpcs(final Entity entity) {
-		final LinkedHashSet<Npc> localNpcs = new LinkedHashSet<>();
-		for (final Region region : getVisibleRegions(entity.getLocation())) {
-			for (final Npc npc : region.getNpcs()) {
-				if (npc.withinRange(entity)) {
-					localNpcs.add(npc);
-				}
-			}
-		}
-		return localNpcs;
+		return this.<Npc>getView(EntityType.NPC, entity.getLocation(), null).getEntities();
 	}
 
 	public Collection<GameObject> getLocalObjects(final Mob entity) {
-		LinkedHashSet<GameObject> localObjects = new LinkedHashSet<GameObject>();
-		for (final Iterator<Region> region = getVisibleRegions(entity.getLocation()).iterator(); region.hasNext(); ) {
-			Collection<GameObject> objects = region.next().getGameObjects();
-			synchronized (objects) {
-				for (final Iterator<GameObject> o = objects.iterator(); o.hasNext(); ) {
-					final GameObject gameObject = o.next();
-					if (gameObject
-						.getLocation()
-						.withinGridRange(
-							entity.getLocation(),
-							getWorld().getServer().getConfig().VIEW_DISTANCE
-						)
-					) {
-						localObjects.add(gameObject);
-					}
+		return this.<GameObject>getView(EntityType.GAME_OBJECT, entity.getLocation(), null).getEntities();
+	}
+
+	public Collection<GroundItem> getLocalGroundItems(final Mob entity) {
+		return this.<GroundItem>getView(EntityType.GROUND_ITEM, entity.getLocation(), null).getEntities();
+	}
+
+	/**
+	 * Gets the entities of one type within view of a location.
+	 *
+	 * @param type     The type of entity.
+	 * @param location The location.
+	 * @param previous The view last returned for the same type, or null.
+	 * @return The previous view if nothing around the location has changed since it was built, otherwise a new one.
+	 */
+	public <T extends Entity> RegionView<T> getView(final EntityType type, final Point location, final RegionView<T> previous) {
+		if (previous != null && previous.isCurrent(location)) {
+			return previous;
+		}
+
+		final RegionView<T> view = new RegionView<>(this, type, location);
+		forEachVisibleSector(location, view::addRegion);
+
+		final int viewDistance = getWorld().getServer().getConfig().VIEW_DISTANCE;
+		final List<T> entities = new ArrayList<>(previous == null ? 16 : previous.size());
+		for (int i = 0; i < view.getRegionCount(); i++) {
+			final Region region = view.getRegion(i);
+			if (region == null) {
+				continue;
+			}
+			final Collection<? extends Entity> regionEntities = region.getEntities(type);
+			if (type == EntityType.GAME_OBJECT) {
+				synchronized (regionEntities) {
+					collectVisible(regionEntities, type, location, viewDistance, entities);
 				}
+			} else {
+				collectVisible(regionEntities, type, location, viewDistance, entities);
 			}
 		}
-		return localObjects;
+		view.setEntities(entities);
+		return view;
 	}
 
-	public Collection<GroundItem> getLocalGroundItems(final Mob entity) {
-		final LinkedHashSet<GroundItem> localItems = new LinkedHashSet<GroundItem>();
-		for (final Region region : getVisibleRegions(entity.getLocation())) {
-			for (final GroundItem o : region.getGroundItems()) {
-				if (o.getLocation().withinGridRange(entity.getLocation(), getWorld().getServer().getConfig().VIEW_DISTANCE)) {
-					localItems.add(o);
-				}
+	@SuppressWarnings("unchecked")
+	private static <T extends Entity> void collectVisible(final Collection<? extends Entity> regionEntities, final EntityType type,
+														  final Point location, final int viewDistance, final List<T> visible) {
+		for (final Entity entity : regionEntities) {
+			if (isVisible(type, entity, location, viewDistance)) {
+				visible.add((T) entity);
 			}
 		}
-		return localItems;
+	}
+
+	private static boolean isVisible(final EntityType type, final Entity entity, final Point location, final int viewDistance) {
+		switch (type) {
+			case PLAYER:
+			case NPC:
+				// Same range as Mob.withinRange
+				return entity.getLocation().withinRange(location, (viewDistance * 8) - 1);
+			default:
+				return entity.getLocation().withinGridRange(location, viewDistance);
+		}
 	}
 
 	/**
@@ -117,6 +167,20 @@ public class RegionManager {
 	 * @return regions within range of the given location
 	 */
 	public LinkedHashSet<Region> getVisibleRegions(final Point location) {
+		final LinkedHashSet<Region> visible = new LinkedHashSet<>();
+		forEachVisibleSector(location, (sectorX, sectorY) -> {
+			final Region region = getLoadedRegion(sectorX, sectorY);
+			if (region != null) {
+				visible.add(region);
+			}
+		});
+		return visible;
+	}
+
+	/**
+	 * Visits the sector coordinates of every region within range of the given location, in a fixed order.
+	 */
+	private void forEachVisibleSector(final Point location, final SectorConsumer consumer) {
 		// View distance is in multiples of 8
 		final int viewDistance = getWorld().getServer().getConfig().VIEW_DISTANCE << 3;
 
@@ -126,37 +190,35 @@ public class RegionManager {
 		final int offsetX = location.getX() % Constants.REGION_SIZE;
 		final int offsetY = location.getY() % Constants.REGION_SIZE;
 
-		List<Integer> xMod = new ArrayList<>(2);
-		List<Integer> yMod = new ArrayList<>(2);
-		xMod.add(0);
-		yMod.add(0);
+		int xMod = 0;
+		if (offsetX <= viewDistance) {
+			xMod = -1;
+		} else if (Constants.REGION_SIZE - offsetX <= viewDistance) {
+			xMod = 1;
+		}
 
-		final LinkedHashSet<Region> visible = new LinkedHashSet<>();
-		if(offsetX <= viewDistance) {
-			xMod.add(-1);
-		} else if(Constants.REGION_SIZE - offsetX <= viewDistance) {
-			xMod.add(1);
-		}
-
-		if(offsetY <= viewDistance) {
-			yMod.add(-1);
-		} else if(Constants.REGION_SIZE - offsetY <= viewDistance) {
-			yMod.add(1);
-		}
-
-		for(int x : xMod) {
-			for(int y : yMod) {
-				final Region tmpRegion = getRegionFromSectorCoordinates(
-						regionX + x,
-						regionY + y
-				);
-				if (tmpRegion != null) {
-					visible.add(tmpRegion);
-				}
+		int yMod = 0;
+		if (offsetY <= viewDistance) {
+			yMod = -1;
+		} else if (Constants.REGION_SIZE - offsetY <= viewDistance) {
+			yMod = 1;
+		}
+
+		consumer.accept(regionX, regionY);
+		if (yMod != 0) {
+			consumer.accept(regionX, regionY + yMod);
+		}
+		if (xMod != 0) {
+			consumer.accept(regionX + xMod, regionY);
+			if (yMod != 0) {
+				consumer.accept(regionX + xMod, regionY + yMod);
 			}
 		}
+	}
 
-		return visible;
+	@FunctionalInterface
+	private interface SectorConsumer {
+		void accept(int sectorX, int sectorY);
 	}
 
 	/**
@@ -182,17 +244,66 @@ public class RegionManager {
 		return surrounding;
 	}
 
+	/**
+	 * Works out again which regions are active: those with a player in them or in one of the eight regions around
+	 * them. Until this is first called every region is active.
+	 */
+	public void markActiveRegions(final Iterable<Player> players) {
+		activePass++;
+		for (final Player player : players) {
+			final int regionX = player.getX() / Constants.REGION_SIZE;
+			final int regionY = player.getY() / Constants.REGION_SIZE;
+			for (int x = regionX - 1; x <= regionX + 1; x++) {
+				for (int y = regionY - 1; y <= regionY + 1; y++) {
+					if (withinSectors(x, y)) {
+						activePasses[x * SECTORS_HIGH + y] = activePass;
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * @return Whether the region holding the location was active when {@link #markActiveRegions} was last called.
+	 * Locations outside of the world are always active.
+	 */
+	public boolean isActive(final Point location) {
+		final int regionX = location.getX() / Constants.REGION_SIZE;
+		final int regionY = location.getY() / Constants.REGION_SIZE;
+		return !withinSectors(regionX, regionY) || activePasses[regionX * SECTORS_HIGH + regionY] == activePass;
+	}
+
+	private static boolean withinSectors(final int regionX, final int regionY) {
+		return regionX >= 0 && regionX < SECTORS_WIDE && regionY >= 0 && regionY < SECTORS_HIGH;
+	}
+
 	private Region getRegionFromSectorCoordinates(final int regionX, final int regionY) {
-		// Create a new HashMap if it doesn't exist.
-		if (!getRegions().containsKey(regionX)) {
-			getRegions().put(regionX, new ConcurrentHashMap<>());
+		// Create the region if it doesn't exist. Client updates may look regions up from several threads at once.
+		if (!withinSectors(regionX, regionY)) {
+			return outOfBoundsRegions.computeIfAbsent(sectorKey(regionX, regionY), key -> new Region(this, regionX, regionY));
 		}
 
-		if (!getRegions().get(regionX).containsKey(regionY)) {
-			getRegions().get(regionX).put(regionY, new Region(this, regionX, regionY));
+		final int index = regionX * SECTORS_HIGH + regionY;
+		final Region region = regions.get(index);
+		if (region != null) {
+			return region;
 		}
+		regions.compareAndSet(index, null, new Region(this, regionX, regionY));
+		return regions.get(index);
+	}
 
-		return getRegions().get(regionX).get(regionY);
+	/**
+	 * Gets a region without creating it. A region that was never created has nothing in it.
+	 */
+	Region getLoadedRegion(final int regionX, final int regionY) {
+		if (!withinSectors(regionX, regionY)) {
+			return outOfBoundsRegions.isEmpty() ? null : outOfBoundsRegions.get(sectorKey(regionX, regionY));
+		}
+		return regions.get(regionX * SECTORS_HIGH + regionY);
+	}
+
+	private static long sectorKey(final int regionX, final int regionY) {
+		return ((long) regionX << 32) | (regionY & 0xFFFFFFFFL);
 	}
 
 	public Region getRegion(final int x, final int y) {
@@ -209,15 +320,18 @@ public class RegionManager {
 	 * Are the given coords within the world boundaries
 	 */
 	public boolean withinWorld(final int x, final int y) {
-		return x >= 0 && x < Constants.MAX_WIDTH && y >= 0 && y < Constants.MAX_HEIGHT;
+		return TileMap.withinWorld(x, y);
 	}
 
-	public TileValue getTile(final int x, final int y) {
-		if (!withinWorld(x, y)) {
-			return null;
-		}
+	public TileMap getTiles() {
+		return tiles;
+	}
 
-		return getRegion(x, y).getTileValue(x % Constants.REGION_SIZE, y % Constants.REGION_SIZE);
+	/**
+	 * @return A copy of the tile, or null if it is outside the world.
+	 */
+	public TileValue getTile(final int x, final int y) {
+		return tiles.getTileValue(x, y);
 	}
 
 	public TileValue getTile(final Point point) {
@@ -225,8 +339,16 @@ public class RegionManager {
 	}
 
 	// originally private, set to public to access for reset event
-	public ConcurrentHashMap<Integer, ConcurrentHashMap<Integer, Region>> getRegions() {
-		return regions;
+	public List<Region> getRegions() {
+		final List<Region> loaded = new ArrayList<>();
+		for (int i = 0; i < regions.length(); i++) {
+			final Region region = regions.get(i);
+			if (region != null) {
+				loaded.add(region);
+			}
+		}
+		loaded.addAll(outOfBoundsRegions.values());
+		return loaded;
 	}
 
 	public World getWorld() {
@@ -0,0 +1,90 @@
+package com.openrsc.server.model.world.region;
+
+import com.openrsc.server.model.Point;
+import com.openrsc.server.model.entity.Entity;
+import com.openrsc.server.model.entity.EntityType;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The entities of one type that can be seen from a location.
+ *
+ * Never changes once built. It remembers the regions it was read from and their versions, so it can be
+ * handed out again for as long as nothing in those regions has changed, and iterated without copying.
+ */
+public final class RegionView<T extends Entity> {
+	/**
+	 * At most two regions along each axis are within view of a location.
+	 */
+	static final int MAX_REGIONS = 4;
+
+	private final RegionManager regionManager;
+	private final EntityType type;
+	private final Point location;
+
+	private final int[] sectorXs = new int[MAX_REGIONS];
+	private final int[] sectorYs = new int[MAX_REGIONS];
+	private final Region[] regions = new Region[MAX_REGIONS];
+	private final int[] versions = new int[MAX_REGIONS];
+	private int regionCount;
+
+	private List<T> entities = Collections.emptyList();
+
+	RegionView(final RegionManager regionManager, final EntityType type, final Point location) {
+		this.regionManager = regionManager;
+		this.type = type;
+		this.location = location;
+	}
+
+	/**
+	 * Records a region within view. Its version is read before it is scanned, so a change made
+	 * while scanning leaves this view out of date rather than silently missing it.
+	 */
+	void addRegion(final int sectorX, final int sectorY) {
+		final Region region = regionManager.getLoadedRegion(sectorX, sectorY);
+		sectorXs[regionCount] = sectorX;
+		sectorYs[regionCount] = sectorY;
+		regions[regionCount] = region;
+		versions[regionCount] = region == null ? 0 : region.getVersion(type);
+		regionCount++;
+	}
+
+	int getRegionCount() {
+		return regionCount;
+	}
+
+	Region getRegion(final int index) {
+		return regions[index];
+	}
+
+	void setEntities(final List<T> entities) {
+		this.entities = Collections.unmodifiableList(entities);
+	}
+
+	/**
+	 * @param location The location the view is wanted from.
+	 * @return Whether this view is still accurate for that location.
+	 */
+	boolean isCurrent(final Point location) {
+		if (!this.location.equals(location)) {
+			return false;
+		}
+		for (int i = 0; i < regionCount; i++) {
+			final Region region = regionManager.getLoadedRegion(sectorXs[i], sectorYs[i]);
+			if (region != regions[i] || (region != null && region.getVersion(type) != versions[i])) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	public Collection<T> getEntities() {
+		return entities;
+	}
+
+	public int size() {
+		return entities.size();
+	}
+}
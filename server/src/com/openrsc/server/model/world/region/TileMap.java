@@ -0,0 +1,183 @@
+package com.openrsc.server.model.world.region;
+
+import com.openrsc.server.constants.Constants;
+import com.openrsc.server.util.rsc.CollisionFlag;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * The tiles of the whole world, kept as one flat array per attribute rather than an object per tile.
+ *
+ * Tiles are looked up by their world coordinates. Tiles outside the world read as fully blocked and ignore changes.
+ * Tiles no sector was loaded into are fully blocked too.
+ */
+public final class TileMap {
+	private static final int WIDTH = Constants.MAX_WIDTH;
+	private static final int HEIGHT = Constants.MAX_HEIGHT;
+	private static final int SIZE = WIDTH * HEIGHT;
+
+	private final byte[] traversalMasks = new byte[SIZE];
+	private final short[] diagonalWalls = new short[SIZE];
+	private final byte[] horizontalWalls = new byte[SIZE];
+	private final byte[] verticalWalls = new byte[SIZE];
+	private final byte[] overlays = new byte[SIZE];
+	private final byte[] elevations = new byte[SIZE];
+	/**
+	 * One bit per tile.
+	 */
+	private final long[] projectileAllowed = new long[(SIZE + 63) >>> 6];
+
+	public TileMap() {
+		clear();
+	}
+
+	/**
+	 * Puts every tile back to how it is before any sector is loaded.
+	 */
+	public void clear() {
+		Arrays.fill(traversalMasks, (byte) CollisionFlag.FULL_BLOCK);
+		Arrays.fill(diagonalWalls, (short) 0);
+		Arrays.fill(horizontalWalls, (byte) 0);
+		Arrays.fill(verticalWalls, (byte) 0);
+		Arrays.fill(overlays, (byte) 0);
+		Arrays.fill(elevations, (byte) 0);
+		Arrays.fill(projectileAllowed, 0L);
+	}
+
+	public static boolean withinWorld(final int x, final int y) {
+		return x >= 0 && x < WIDTH && y >= 0 && y < HEIGHT;
+	}
+
+	/**
+	 * Tiles next to each other east to west are next to each other in the arrays.
+	 */
+	private static int index(final int x, final int y) {
+		return y * WIDTH + x;
+	}
+
+	/**
+	 * Sets what a sector says about a tile. Its collision is worked out separately.
+	 */
+	public void setTile(final int x, final int y, final byte overlay, final short diagonalWall, final byte horizontalWall,
+						final byte verticalWall, final byte elevation) {
+		if (!withinWorld(x, y)) {
+			return;
+		}
+		final int index = index(x, y);
+		overlays[index] = overlay;
+		diagonalWalls[index] = diagonalWall;
+		horizontalWalls[index] = horizontalWall;
+		verticalWalls[index] = verticalWall;
+		elevations[index] = elevation;
+	}
+
+	/**
+	 * @return The tile's {@link CollisionFlag}s.
+	 */
+	public byte getTraversalMask(final int x, final int y) {
+		return withinWorld(x, y) ? traversalMasks[index(x, y)] : (byte) CollisionFlag.FULL_BLOCK;
+	}
+
+	public void setTraversalMask(final int x, final int y, final int mask) {
+		if (withinWorld(x, y)) {
+			traversalMasks[index(x, y)] = (byte) mask;
+		}
+	}
+
+	public void addTraversalFlags(final int x, final int y, final int flags) {
+		if (withinWorld(x, y)) {
+			traversalMasks[index(x, y)] |= flags;
+		}
+	}
+
+	public void removeTraversalFlags(final int x, final int y, final int flags) {
+		if (withinWorld(x, y)) {
+			traversalMasks[index(x, y)] &= ~flags;
+		}
+	}
+
+	public boolean isProjectileAllowed(final int x, final int y) {
+		if (!withinWorld(x, y)) {
+			return false;
+		}
+		final int index = index(x, y);
+		return (projectileAllowed[index >>> 6] & (1L << index)) != 0;
+	}
+
+	public void setProjectileAllowed(final int x, final int y) {
+		if (withinWorld(x, y)) {
+			final int index = index(x, y);
+			projectileAllowed[index >>> 6] |= 1L << index;
+		}
+	}
+
+	public short getDiagonalWall(final int x, final int y) {
+		return withinWorld(x, y) ? diagonalWalls[index(x, y)] : 0;
+	}
+
+	public byte getHorizontalWall(final int x, final int y) {
+		return withinWorld(x, y) ? horizontalWalls[index(x, y)] : 0;
+	}
+
+	public byte getVerticalWall(final int x, final int y) {
+		return withinWorld(x, y) ? verticalWalls[index(x, y)] : 0;
+	}
+
+	public byte getOverlay(final int x, final int y) {
+		return withinWorld(x, y) ? overlays[index(x, y)] : 0;
+	}
+
+	public byte getElevation(final int x, final int y) {
+		return withinWorld(x, y) ? elevations[index(x, y)] : 0;
+	}
+
+	/**
+	 * @return The number of bytes {@link #write} puts.
+	 */
+	public static int getDataLength() {
+		return SIZE * 5 + SIZE * Short.BYTES + ((SIZE + 63) >>> 6) * Long.BYTES;
+	}
+
+	/**
+	 * Writes every tile, as each attribute in turn.
+	 */
+	public void write(final ByteBuffer buffer) {
+		buffer.put(traversalMasks);
+		buffer.put(horizontalWalls);
+		buffer.put(verticalWalls);
+		buffer.put(overlays);
+		buffer.put(elevations);
+		buffer.asShortBuffer().put(diagonalWalls);
+		buffer.position(buffer.position() + SIZE * Short.BYTES);
+		buffer.asLongBuffer().put(projectileAllowed);
+		buffer.position(buffer.position() + projectileAllowed.length * Long.BYTES);
+	}
+
+	/**
+	 * Reads every tile as written by {@link #write}.
+	 */
+	public void read(final ByteBuffer buffer) {
+		buffer.get(traversalMasks);
+		buffer.get(horizontalWalls);
+		buffer.get(verticalWalls);
+		buffer.get(overlays);
+		buffer.get(elevations);
+		buffer.asShortBuffer().get(diagonalWalls);
+		buffer.position(buffer.position() + SIZE * Short.BYTES);
+		buffer.asLongBuffer().get(projectileAllowed);
+		buffer.position(buffer.position() + projectileAllowed.length * Long.BYTES);
+	}
+
+	/**
+	 * @return A copy of the tile, or null if it is outside the world.
+	 */
+	public TileValue getTileValue(final int x, final int y) {
+		if (!withinWorld(x, y)) {
+			return null;
+		}
+		final int index = index(x, y);
+		return new TileValue(traversalMasks[index], diagonalWalls[index], horizontalWalls[index], overlays[index],
+			verticalWalls[index], elevations[index], isProjectileAllowed(x, y));
+	}
+}
@@ -1,15 +1,27 @@
 package com.openrsc.server.model.world.region;
 
-import com.openrsc.server.util.rsc.CollisionFlag;
-
+/**
+ * A copy of one tile of the {@link TileMap}. Changing the map does not change copies already taken.
+ */
 public class TileValue {
-	public byte traversalMask = CollisionFlag.FULL_BLOCK;
-	public short diagWallVal = 0;
-	public byte horizontalWallVal = 0;
-	public byte overlay = 0;
-	public byte verticalWallVal = 0;
-	public byte elevation = 0;
-	public boolean projectileAllowed = false;
+	public final byte traversalMask;
+	public final short diagWallVal;
+	public final byte horizontalWallVal;
+	public final byte overlay;
+	public final byte verticalWallVal;
+	public final byte elevation;
+	public final boolean projectileAllowed;
+
+	public TileValue(final byte traversalMask, final short diagWallVal, final byte horizontalWallVal, final byte overlay,
+					 final byte verticalWallVal, final byte elevation, final boolean projectileAllowed) {
+		this.traversalMask = traversalMask;
+		this.diagWallVal = diagWallVal;
+		this.horizontalWallVal = horizontalWallVal;
+		this.overlay = overlay;
+		this.verticalWallVal = verticalWallVal;
+		this.elevation = elevation;
+		this.projectileAllowed = projectileAllowed;
+	}
 
 	@Override
 	public String toString() {
@@ -0,0 +1,103 @@
+package com.openrsc.server.net;
+
+import java.util.Arrays;
+
+/**
+ * A reusable, growable buffer of big endian bits.
+ *
+ * Mob position updates are written here as they are worked out and then copied into the packet
+ * with {@link PacketBuilder#write(BitWriter)}, so neither the values nor their widths need to be boxed.
+ * Each player owns one and resets it before every update, so its array is only grown, never reallocated per tick.
+ */
+public final class BitWriter {
+
+	private byte[] buffer;
+
+	/**
+	 * Number of whole bytes written to the buffer.
+	 */
+	private int length;
+
+	/**
+	 * Bits not yet making up a whole byte, in the low bits.
+	 */
+	private long pendingBits;
+	private int pendingBitCount;
+
+	public BitWriter() {
+		this(64);
+	}
+
+	public BitWriter(final int initialCapacity) {
+		buffer = new byte[Math.max(initialCapacity, 1)];
+	}
+
+	/**
+	 * Empties the writer, keeping its buffer.
+	 *
+	 * @return The BitWriter instance, for chaining.
+	 */
+	public BitWriter reset() {
+		length = 0;
+		pendingBits = 0;
+		pendingBitCount = 0;
+		return this;
+	}
+
+	/**
+	 * Writes the low bits of a value.
+	 *
+	 * @param value   The value.
+	 * @param numBits The number of bits to write.
+	 * @return The BitWriter instance, for chaining.
+	 */
+	public BitWriter writeBits(final int value, final int numBits) {
+		if (numBits < 1 || numBits > 32) {
+			throw new IllegalArgumentException("Invalid number of bits");
+		}
+		pendingBits = (pendingBits << numBits) | (value & ((1L << numBits) - 1));
+		pendingBitCount += numBits;
+		while (pendingBitCount >= 8) {
+			pendingBitCount -= 8;
+			put((byte) (pendingBits >>> pendingBitCount));
+		}
+		pendingBits &= (1L << pendingBitCount) - 1;
+		return this;
+	}
+
+	public BitWriter writeByte(final int value) {
+		return writeBits(value, 8);
+	}
+
+	public BitWriter writeShort(final int value) {
+		return writeBits(value, 16);
+	}
+
+	private void put(final byte b) {
+		if (length == buffer.length) {
+			buffer = Arrays.copyOf(buffer, buffer.length * 2);
+		}
+		buffer[length++] = b;
+	}
+
+	/**
+	 * @return The written bits, padded with zeroes up to a whole byte. Valid up to {@link #getLength()}.
+	 */
+	byte[] getBuffer() {
+		if (pendingBitCount > 0) {
+			// Pad the last byte in place without counting it, so further bits can still be appended
+			if (length == buffer.length) {
+				buffer = Arrays.copyOf(buffer, buffer.length * 2);
+			}
+			buffer[length] = (byte) (pendingBits << (8 - pendingBitCount));
+		}
+		return buffer;
+	}
+
+	/**
+	 * @return The number of bytes needed to hold every bit written so far.
+	 */
+	public int getLength() {
+		return length + (pendingBitCount > 0 ? 1 : 0);
+	}
+}
@@ -322,9 +322,7 @@ public class DiscordService implements Runnable{
 						&& !message.getContentRaw().isEmpty()) {
 				final String strMessage = EmojiParser.parseToAliases(message.getContentRaw());
 
-				for (Player p : this.server.getWorld().getPlayers()) {
-					ActionSender.sendMessage(p, null, MessageType.GLOBAL_CHAT, "@whi@[@gr2@D>G@whi@] @or1@" + message.getAuthor().getName() + "@yel@: " + strMessage, 0, null);
-				}
+				ActionSender.sendMessage(this.server.getWorld().getPlayers(), p -> true, null, MessageType.GLOBAL_CHAT, "@whi@[@gr2@D>G@whi@] @or1@" + message.getAuthor().getName() + "@yel@: " + strMessage, 0, null);
 			} else {
 				if (message.getContentRaw().startsWith("!help")) {
 					reply = "Please use !help in a DM to me for more information.";
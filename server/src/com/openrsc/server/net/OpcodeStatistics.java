@@ -0,0 +1,56 @@
+package com.openrsc.server.net;
+
+import java.util.Arrays;
+
+/**
+ * Per tick packet counts and processing times, indexed by opcode.
+ *
+ * Incoming packets are counted by OpcodeIn ordinal, since they are parsed before reaching the game thread,
+ * and outgoing packets by wire opcode. Only touched from the game thread, so plain arrays are enough and nothing is boxed.
+ */
+public class OpcodeStatistics {
+
+	/**
+	 * Wire opcodes are a single unsigned byte, and there are fewer OpcodeIn values than that.
+	 */
+	public static final int OPCODE_COUNT = 256;
+
+	private final int[] counts = new int[OPCODE_COUNT];
+	private final long[] durations = new long[OPCODE_COUNT];
+
+	/**
+	 * Counts one packet and adds the time it took to process.
+	 *
+	 * @param opcode   - the opcode
+	 * @param duration - processing time in nanoseconds
+	 */
+	public void record(final int opcode, final long duration) {
+		if (opcode < 0 || opcode >= OPCODE_COUNT) {
+			return;
+		}
+		counts[opcode]++;
+		durations[opcode] += duration;
+	}
+
+	/**
+	 * Counts one packet whose processing time is not measured.
+	 *
+	 * @param opcode - the opcode
+	 */
+	public void increment(final int opcode) {
+		record(opcode, 0);
+	}
+
+	public int getCount(final int opcode) {
+		return counts[opcode];
+	}
+
+	public long getDuration(final int opcode) {
+		return durations[opcode];
+	}
+
+	public void clear() {
+		Arrays.fill(counts, 0);
+		Arrays.fill(durations, 0);
+	}
+}
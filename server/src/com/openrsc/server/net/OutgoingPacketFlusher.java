@@ -0,0 +1,98 @@
+package com.openrsc.server.net;
+
+import com.openrsc.server.Server;
+import io.netty.channel.Channel;
+import io.netty.channel.EventLoop;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Hands each player's outgoing packets for the tick to Netty as a single batch.
+ *
+ * Every batch is written on the channel's own event loop and flushed once, instead of one
+ * writeAndFlush (and one event loop hand off) per packet. When coalescing is enabled, the batches
+ * of every player sharing an event loop are gathered until the end of the tick and submitted
+ * to that loop as a single task.
+ */
+public class OutgoingPacketFlusher {
+
+	private final Server server;
+
+	/**
+	 * Batches waiting for the end of the tick, grouped by the event loop that owns their channel.
+	 */
+	private final Map<EventLoop, List<PendingFlush>> pendingFlushes = new IdentityHashMap<>();
+
+	public OutgoingPacketFlusher(final Server server) {
+		this.server = server;
+	}
+
+	/**
+	 * Queues a batch of packets to be written to a channel and flushed once.
+	 *
+	 * @param channel - the channel to write to
+	 * @param packets - the packets, in the order they must reach the client
+	 */
+	public void submit(final Channel channel, final List<Packet> packets) {
+		if (packets.isEmpty()) {
+			return;
+		}
+
+		final PendingFlush pendingFlush = new PendingFlush(channel, packets);
+		if (!getServer().getConfig().WANT_COALESCED_FLUSHES) {
+			channel.eventLoop().execute(pendingFlush::writeAndFlush);
+			return;
+		}
+
+		synchronized (pendingFlushes) {
+			pendingFlushes.computeIfAbsent(channel.eventLoop(), loop -> new ArrayList<>()).add(pendingFlush);
+		}
+	}
+
+	/**
+	 * Submits every gathered batch to its event loop. Called once at the end of the tick.
+	 */
+	public void flush() {
+		synchronized (pendingFlushes) {
+			for (final Map.Entry<EventLoop, List<PendingFlush>> entry : pendingFlushes.entrySet()) {
+				final List<PendingFlush> flushes = entry.getValue();
+				entry.getKey().execute(() -> {
+					for (final PendingFlush pendingFlush : flushes) {
+						pendingFlush.writeAndFlush();
+					}
+				});
+			}
+			pendingFlushes.clear();
+		}
+	}
+
+	public final Server getServer() {
+		return server;
+	}
+
+	private static final class PendingFlush {
+		private final Channel channel;
+		private final List<Packet> packets;
+
+		private PendingFlush(final Channel channel, final List<Packet> packets) {
+			this.channel = channel;
+			this.packets = packets;
+		}
+
+		private void writeAndFlush() {
+			if (!channel.isActive()) {
+				for (final Packet packet : packets) {
+					packet.release();
+				}
+				return;
+			}
+			for (final Packet packet : packets) {
+				channel.write(packet, channel.voidPromise());
+			}
+			channel.flush();
+		}
+	}
+}
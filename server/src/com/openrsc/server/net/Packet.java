@@ -221,6 +221,24 @@ public class Packet {
 		return byte1 < 128 ? getBuffer().readUnsignedByte() : getBuffer().readUnsignedShort() - 32768;
 	}
 
+	/**
+	 * @return A packet with the same opcode sharing this packet's payload, holding its own reference to it. It reads
+	 * the payload independently and must be released like any other packet.
+	 */
+	public Packet retainedDuplicate() {
+		return new Packet(opcode, payload.retainedDuplicate());
+	}
+
+	/**
+	 * Hands the payload back to its allocator once the packet has been written or dropped.
+	 * Outgoing payloads are pooled, so every outgoing packet must be released exactly once.
+	 *
+	 * @throws io.netty.util.IllegalReferenceCountException if the packet was already released
+	 */
+	public void release() {
+		payload.release();
+	}
+
 	public long getPacketNumber() {
 		return packetNumber;
 	}
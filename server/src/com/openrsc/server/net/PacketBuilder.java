@@ -4,7 +4,7 @@ import com.openrsc.server.constants.AppearanceId;
 import com.openrsc.server.util.rsc.CipheredMessage;
 import com.openrsc.server.util.rsc.DataConversions;
 import io.netty.buffer.ByteBuf;
-import io.netty.buffer.Unpooled;
+import io.netty.buffer.PooledByteBufAllocator;
 
 public class PacketBuilder {
 
@@ -28,9 +28,10 @@ public class PacketBuilder {
 	private int opcode;
 
 	/**
-	 * The payload.
+	 * The payload. Heap backed so that bit access can work on the array, and pooled so that the
+	 * tick's worth of packets does not need to be collected; the encoder releases it once written.
 	 */
-	private ByteBuf payload = Unpooled.buffer();
+	private ByteBuf payload = PooledByteBufAllocator.DEFAULT.heapBuffer();
 
 	/**
 	 * The current bit position.
@@ -145,16 +146,23 @@ public class PacketBuilder {
 	 * @return The Packet object.
 	 */
 	public Packet toPacket() {
-		finalizeLength();
 		return new Packet(opcode, payload);
 	}
 
 	/**
-	 * Prevent a bunch of zeros from being kept at the end of the packet
-	 * Affects PCAP writing, but readableLength() prevents zeros from being written on stream without this
+	 * Copies out what has been written so far and releases the payload, for bytes that are kept
+	 * rather than sent. The builder must not be used afterwards.
+	 *
+	 * @return The written bytes.
 	 */
-	private void finalizeLength() {
-		payload.capacity(payload.writerIndex());
+	public byte[] toByteArray() {
+		try {
+			final byte[] bytes = new byte[payload.readableBytes()];
+			payload.getBytes(payload.readerIndex(), bytes);
+			return bytes;
+		} finally {
+			payload.release();
+		}
 	}
 
 	/**
@@ -217,10 +225,10 @@ public class PacketBuilder {
 		int offset = 8 - (bitPosition & 7);
 		bitPosition += numBits;
 		int pos = (bitPosition + 7) / 8;
-		while (pos + 1 > payload.capacity()) {
-			payload.writeByte((byte) 0);
+		// Pooled memory is not zeroed, so clear every byte the bits are about to be or'd into
+		if (pos > payload.writerIndex()) {
+			payload.writeZero(pos - payload.writerIndex());
 		}
-		payload.writerIndex(pos);
 		byte b;
 		for (; numBits > offset; offset = 8) {
 			b = payload.getByte(bytePos);
@@ -240,6 +248,17 @@ public class PacketBuilder {
 		return this;
 	}
 
+	/**
+	 * Writes the contents of a bit writer, padded to a whole byte.
+	 *
+	 * @param bits The bits.
+	 * @return The PacketBuilder instance, for chaining.
+	 */
+	public PacketBuilder write(final BitWriter bits) {
+		payload.writeBytes(bits.getBuffer(), 0, bits.getLength());
+		return this;
+	}
+
 	/**
 	 * writes an <code>ByteBuffer</code>.
 	 *
@@ -1,5 +1,7 @@
 package com.openrsc.server.net;
 
+import io.netty.buffer.ByteBufUtil;
+
 import java.io.*;
 import java.util.LinkedList;
 import java.util.zip.GZIPOutputStream;
@@ -25,7 +27,7 @@ public class PcapLogger {
 		p.incoming = incoming;
 		p.timestamp = System.currentTimeMillis();
 		p.opcode = packet.getID();
-		p.data = packet.getBuffer().array();
+		p.data = ByteBufUtil.getBytes(packet.getBuffer());
 		m_packets.add(p);
 	}
 
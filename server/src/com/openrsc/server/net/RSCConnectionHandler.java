@@ -83,7 +83,9 @@ public class RSCConnectionHandler extends ChannelInboundHandlerAdapter implement
 					return;
 				}
 
-				player.addToPacketQueue(packet);
+				// Parsed by the RSCPayloadDecoder installed for this player at login
+				ctx.fireChannelRead(packet);
+				return;
 			}
 		}
 
@@ -3,66 +3,74 @@ package com.openrsc.server.net;
 import com.openrsc.server.Server;
 import com.openrsc.server.model.entity.player.Player;
 import io.netty.channel.Channel;
+import io.netty.util.Attribute;
+import io.netty.util.AttributeKey;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import java.net.InetSocketAddress;
 import java.text.DateFormat;
 import java.util.*;
-
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Limits how fast hosts may connect, log in, guess passwords and send packets.
+ *
+ * Each limit is a {@link RateLimiter} per host, or per channel for packets, so checks take no locks shared between connections.
+ */
 public class RSCPacketFilter {
 	/**
 	 * The asynchronous Logger
 	 */
 	private static final Logger LOGGER = LogManager.getLogger();
+	/**
+	 * Holds a channel's packet limiter
+	 */
+	private static final AttributeKey<RateLimiter> packetLimiter = AttributeKey.valueOf("packet-limiter");
 	/**
 	 * Holds a reference to the context Server
 	 */
 	private final Server server;
 	/**
-	 * Holds host address and it's connection attempt times
+	 * Holds host address and it's connection attempt limiter
 	 */
-	private final HashMap<String, ArrayList<Long>> connectionAttempts;
+	private final ConcurrentHashMap<String, RateLimiter> connectionAttempts;
 	/**
-	 * Holds host address and it's login attempt times
+	 * Holds host address and it's login attempt limiter
 	 */
-	private final HashMap<String, ArrayList<Long>> loginAttempts;
+	private final ConcurrentHashMap<String, RateLimiter> loginAttempts;
 	/**
-	 * Holds host address and it's login attempt times
+	 * Holds host address and it's open channels
 	 */
-	private final HashMap<String, ArrayList<Channel>> connections;
+	private final ConcurrentHashMap<String, Set<Channel>> connections;
 	/**
 	 * Holds host addresses that belong to admins
 	 */
-	private final ArrayList<String> adminHosts;
-	/**
-	 * Holds host address and it's packet send times
-	 */
-	private final HashMap<Channel, ArrayList<Long>> packets;
+	private final Set<String> adminHosts;
 
 	/**
 	 * Holds host address list that have been IP banned
 	 */
-	private final HashMap<String, Long> ipBans;
+	private final ConcurrentHashMap<String, Long> ipBans;
 	/**
 	 * Holds track of logged in players per IP address
 	 */
 	private final HashMap<String, Set<Long>> loggedInTracker;
 	/**
-	 * Holds host address and it's password guess attempt times
+	 * Holds host address and it's password guess limiter
 	 */
-	private final HashMap<String, ArrayList<Long>> passwordAttempts;
+	private final ConcurrentHashMap<String, RateLimiter> passwordAttempts;
 
 	public RSCPacketFilter(final Server server) {
 		this.server = server;
-		this.connectionAttempts = new HashMap<>();
-		this.loginAttempts = new HashMap<>();
-		this.connections = new HashMap<>();
-		this.adminHosts = new ArrayList<>();
-		this.packets = new HashMap<>();
-		this.ipBans = new HashMap<>();
+		this.connectionAttempts = new ConcurrentHashMap<>();
+		this.loginAttempts = new ConcurrentHashMap<>();
+		this.connections = new ConcurrentHashMap<>();
+		this.adminHosts = ConcurrentHashMap.newKeySet();
+		this.ipBans = new ConcurrentHashMap<>();
 		this.loggedInTracker = new HashMap<>();
-		this.passwordAttempts = new HashMap<>();
+		this.passwordAttempts = new ConcurrentHashMap<>();
 	}
 
 	public void load() {
@@ -70,37 +78,17 @@ public class RSCPacketFilter {
 	}
 
 	public void unload() {
-		synchronized (connectionAttempts) {
-			connectionAttempts.clear();
-		}
-
-		synchronized (loginAttempts) {
-			loginAttempts.clear();
-		}
-
-		synchronized (connections) {
-			connections.clear();
-		}
-
-		synchronized (adminHosts) {
-			adminHosts.clear();
-		}
-
-		synchronized (packets) {
-			packets.clear();
-		}
-
-		synchronized (ipBans) {
-			ipBans.clear();
-		}
+		connectionAttempts.clear();
+		loginAttempts.clear();
+		connections.clear();
+		adminHosts.clear();
+		ipBans.clear();
 
 		synchronized (loggedInTracker) {
 			loggedInTracker.clear();
 		}
 
-		synchronized (passwordAttempts) {
-			passwordAttempts.clear();
-		}
+		passwordAttempts.clear();
 	}
 
 	public void ipBanHost(final String hostAddress, final long until, String reason) {
@@ -115,15 +103,13 @@ public class RSCPacketFilter {
 			return;
 		}
 
-		synchronized(ipBans) {
-			String time = (until == -1) ? " permanently" : " until " + DateFormat.getInstance().format(until);
-			if (until != 0) {
-				LOGGER.info("IP Banned " + hostAddress + time + " for " + reason);
-			} else {
-				LOGGER.info("un-IP Banned " + hostAddress + time + " for " + reason);
-			}
-			ipBans.put(hostAddress, until);
+		String time = (until == -1) ? " permanently" : " until " + DateFormat.getInstance().format(until);
+		if (until != 0) {
+			LOGGER.info("IP Banned " + hostAddress + time + " for " + reason);
+		} else {
+			LOGGER.info("un-IP Banned " + hostAddress + time + " for " + reason);
 		}
+		ipBans.put(hostAddress, until);
 	}
 
 	public final boolean isHostIpBanned(final String hostAddress) {
@@ -131,15 +117,14 @@ public class RSCPacketFilter {
 			return false;
 		}
 
-		synchronized(ipBans) {
-			return ipBans.containsKey(hostAddress) && (ipBans.get(hostAddress) >= System.currentTimeMillis() || ipBans.get(hostAddress) == -1);
-		}
+		final Long until = ipBans.get(hostAddress);
+		return until != null && (until >= System.currentTimeMillis() || until == -1);
 	}
 
 	public final boolean shouldAllowPacket(final Channel connection, boolean doIpBans) {
 		final String hostAddress = ((InetSocketAddress) connection.remoteAddress()).getAddress().getHostAddress();
 
-		addPacket(connection);
+		final boolean withinLimit = getPacketLimiter(connection).tryAcquire();
 
 		if(doIpBans && isHostIpBanned(hostAddress)) {
 			//LOGGER.info("Packet Received from " + hostAddress + " is IP Banned until " + DateFormat.getInstance().format(ipBans.get(hostAddress)));
@@ -152,25 +137,24 @@ public class RSCPacketFilter {
 			player = att.player.get();
 		}
 
-		final int pps = getServer().getPacketFilter().getPacketsPerSecond(connection);
-		final boolean allowPacket = isHostAdmin(hostAddress) || pps <= getServer().getConfig().MAX_PACKETS_PER_SECOND;
+		final boolean allowPacket = withinLimit || isHostAdmin(hostAddress);
 
-		//LOGGER.info("Channel Read: " + hostAddress + ", Allowed: " + allowPacket + ", PPS: " + pps);
+		//LOGGER.info("Channel Read: " + hostAddress + ", Allowed: " + allowPacket);
 
 		if(!allowPacket) {
-			LOGGER.info(hostAddress + " (" + player + ") filtered for reaching the PPS limit: " + pps);
+			LOGGER.info(hostAddress + " (" + player + ") filtered for reaching the PPS limit: " + getServer().getConfig().MAX_PACKETS_PER_SECOND);
 			if(doIpBans) {
 				ipBanHost(hostAddress, System.currentTimeMillis() + getServer().getConfig().NETWORK_FLOOD_IP_BAN_MINUTES * 60 * 1000, "reaching the PPS limit");
 			}
 		}
 
-		//LOGGER.info("Packet, pps: " + pps + ", isHostIpBanned: " + isHostIpBanned(hostAddress) + ", isHostAdmin: " + isHostAdmin(hostAddress));
+		//LOGGER.info("Packet, isHostIpBanned: " + isHostIpBanned(hostAddress) + ", isHostAdmin: " + isHostAdmin(hostAddress));
 
 		return allowPacket;
 	}
 
 	public final boolean shouldAllowConnection(final Channel channel, final String hostAddress, boolean doIpBans) {
-		addConnectionAttempt(hostAddress, channel);
+		final boolean withinLimit = addConnectionAttempt(hostAddress, channel);
 
 		if(doIpBans && isHostIpBanned(hostAddress)) {
 			//LOGGER.info("Connection Attempt from " + hostAddress + " is IP Banned until " + DateFormat.getInstance().format(ipBans.get(hostAddress)));
@@ -183,114 +167,93 @@ public class RSCPacketFilter {
 			player = att.player.get();
 		}
 
-		final int cps = getConnectionsPerSecond(hostAddress);
 		final int connectionCount = getConnectionCount(hostAddress);
 		final boolean allowConnection = hostAddress.equals("127.0.0.1") || isHostAdmin(hostAddress) || (
-			(connectionCount <= getServer().getConfig().MAX_CONNECTIONS_PER_IP) &&
-			(cps <= getServer().getConfig().MAX_CONNECTIONS_PER_SECOND)
+			(connectionCount <= getServer().getConfig().MAX_CONNECTIONS_PER_IP) && withinLimit
 		);
 
-		//LOGGER.info("Channel Registered: " + hostAddress + ", Allowed: " + allowConnection + ", CPS: " + cps);
+		//LOGGER.info("Channel Registered: " + hostAddress + ", Allowed: " + allowConnection + ", Connections: " + connectionCount);
 
 		if(!allowConnection) {
-			LOGGER.info(hostAddress + " (" + player + ") filtered for reaching the connections per second limit: " + cps);
+			LOGGER.info(hostAddress + " (" + player + ") filtered for reaching the connections limit: " + connectionCount + " open, "
+				+ getConnectionsPerSecond(hostAddress) + " in the last second");
 			if(doIpBans) {
 				ipBanHost(hostAddress, System.currentTimeMillis() + getServer().getConfig().NETWORK_FLOOD_IP_BAN_MINUTES * 60 * 1000, "connections per second limit");
 			}
 		}
 
-		//LOGGER.info("Connect, cps: " + cps + ", isHostIpBanned: " + isHostIpBanned(hostAddress) + ", isHostAdmin: " + isHostAdmin(hostAddress));
+		//LOGGER.info("Connect, isHostIpBanned: " + isHostIpBanned(hostAddress) + ", isHostAdmin: " + isHostAdmin(hostAddress));
 
 		return allowConnection;
 	}
 
 	public final boolean shouldAllowLogin(final String hostAddress, boolean doIpBans) {
-		addLoginAttempt(hostAddress);
+		final boolean withinLimit = addLoginAttempt(hostAddress);
 
 		if(doIpBans && isHostIpBanned(hostAddress)) {
 			//LOGGER.info("Login Attempt from " + hostAddress + " is IP Banned until " + DateFormat.getInstance().format(ipBans.get(hostAddress)));
 			return false;
 		}
 
-		final int lps = getLoginsPerSecond(hostAddress);
-		final boolean allowConnection = isHostAdmin(hostAddress) || lps <= getServer().getConfig().MAX_LOGINS_PER_SECOND;
+		final boolean allowConnection = withinLimit || isHostAdmin(hostAddress);
 
-		//LOGGER.info("Login, lps: " + lps + ", isHostIpBanned: " + isHostIpBanned(hostAddress) + ", isHostAdmin: " + isHostAdmin(hostAddress));
+		//LOGGER.info("Login, isHostIpBanned: " + isHostIpBanned(hostAddress) + ", isHostAdmin: " + isHostAdmin(hostAddress));
 
 		return allowConnection;
 	}
 
 	public void addPasswordAttempt(final String hostAddress) {
-		synchronized (passwordAttempts) {
-			ArrayList<Long> attempts = passwordAttempts.get(hostAddress);
-			if (attempts == null) {
-				attempts = new ArrayList<Long>();
-			}
-			attempts.add(System.currentTimeMillis());
-			passwordAttempts.put(hostAddress, attempts);
+		getLimiter(passwordAttempts, hostAddress, getServer().getConfig().MAX_PASSWORD_GUESSES_PER_FIVE_MINUTES, 5, TimeUnit.MINUTES).acquire();
+	}
+
+	private RateLimiter getPacketLimiter(final Channel connection) {
+		final Attribute<RateLimiter> attribute = connection.attr(packetLimiter);
+		final RateLimiter limiter = attribute.get();
+		if (limiter != null) {
+			return limiter;
 		}
+		final RateLimiter created = new RateLimiter(getServer().getConfig().MAX_PACKETS_PER_SECOND, 1, TimeUnit.SECONDS);
+		final RateLimiter existing = attribute.setIfAbsent(created);
+		return existing != null ? existing : created;
 	}
 
-	private void addPacket(final Channel connection) {
-		synchronized (packets) {
-			ArrayList<Long> packetTimes = packets.get(connection);
-			if (packetTimes == null) {
-				packetTimes = new ArrayList<Long>();
-			}
-			packetTimes.add(System.currentTimeMillis());
-			packets.put(connection, packetTimes);
+	private static RateLimiter getLimiter(final ConcurrentHashMap<String, RateLimiter> limiters, final String hostAddress, final int limit, final long period, final TimeUnit unit) {
+		final RateLimiter limiter = limiters.get(hostAddress);
+		if (limiter != null) {
+			return limiter;
 		}
+		return limiters.computeIfAbsent(hostAddress, host -> new RateLimiter(limit, period, unit));
 	}
 
-	private void addConnectionAttempt(final String hostAddress, final Channel channel) {
+	/**
+	 * @return Whether the attempt is within the connections per second limit
+	 */
+	private boolean addConnectionAttempt(final String hostAddress, final Channel channel) {
 		addConnection(hostAddress, channel);
 
-		synchronized (connectionAttempts) {
-			ArrayList<Long> connectionTimes = connectionAttempts.get(hostAddress);
-			if (connectionTimes == null) {
-				connectionTimes = new ArrayList<Long>();
-			}
-			connectionTimes.add(System.currentTimeMillis());
-			connectionAttempts.put(hostAddress, connectionTimes);
-		}
+		return getLimiter(connectionAttempts, hostAddress, getServer().getConfig().MAX_CONNECTIONS_PER_SECOND, 1, TimeUnit.SECONDS).tryAcquire();
 	}
 
 	private void addConnection(final String hostAddress, final Channel channel) {
-		synchronized (connections) {
-			ArrayList<Channel> hostConnections = connections.get(hostAddress);
-			if (hostConnections == null) {
-				hostConnections = new ArrayList<Channel>();
-			}
-			hostConnections.add(channel);
-			connections.put(hostAddress, hostConnections);
-		}
+		connections.computeIfAbsent(hostAddress, host -> ConcurrentHashMap.newKeySet()).add(channel);
 	}
 
 	public void removeConnection(final String hostAddress, final Channel channel) {
-		synchronized (connections) {
-			ArrayList<Channel> hostConnections = connections.get(hostAddress);
-			if (hostConnections != null) {
-				hostConnections.remove(channel);
-				connections.put(hostAddress, hostConnections);
-			}
-		}
+		connections.computeIfPresent(hostAddress, (host, hostConnections) -> {
+			hostConnections.remove(channel);
+			return hostConnections.isEmpty() ? null : hostConnections;
+		});
 	}
 
-	private void addLoginAttempt(final String hostAddress) {
-		synchronized (loginAttempts) {
-			ArrayList<Long> loginTimes = loginAttempts.get(hostAddress);
-			if (loginTimes == null) {
-				loginTimes = new ArrayList<Long>();
-			}
-			loginTimes.add(System.currentTimeMillis());
-			loginAttempts.put(hostAddress, loginTimes);
-		}
+	/**
+	 * @return Whether the attempt is within the logins per second limit
+	 */
+	private boolean addLoginAttempt(final String hostAddress) {
+		return getLimiter(loginAttempts, hostAddress, getServer().getConfig().MAX_LOGINS_PER_SECOND, 1, TimeUnit.SECONDS).tryAcquire();
 	}
 
 	public void addAdminHost(final String hostAddress) {
-		synchronized(adminHosts) {
-			adminHosts.add(hostAddress);
-		}
+		adminHosts.add(hostAddress);
 	}
 
 	public void removeLoggedInPlayer(final String hostAddress, final Long playerHash) {
@@ -315,110 +278,23 @@ public class RSCPacketFilter {
 		}
 	}
 
-	private final int getPacketsPerSecond(final Channel connection) {
-		final long now = System.currentTimeMillis();
-		int pps = 0;
-
-		synchronized (packets) {
-			if(packets.containsKey(connection)) {
-				ArrayList<Long> packetTimes = packets.get(connection);
-				ArrayList<Long> packetsToRemove = new ArrayList<Long>();
-
-				for (Long packetCreationTime : packetTimes) {
-					if (now - packetCreationTime < 1000) {
-						pps++;
-					} else {
-						packetsToRemove.add(packetCreationTime);
-					}
-				}
-				packetTimes.removeAll(packetsToRemove);
-			}
-		}
-		return pps;
-	}
-
 	private final int getConnectionsPerSecond(final String hostAddress) {
-		final long now = System.currentTimeMillis();
-		int cps = 0;
-
-		synchronized (connectionAttempts) {
-			if(connectionAttempts.containsKey(hostAddress)) {
-				ArrayList<Long> connectionTimes = connectionAttempts.get(hostAddress);
-				ArrayList<Long> connectionsToRemove = new ArrayList<Long>();
-
-				for (Long connectionCreationTime : connectionTimes) {
-					if (now - connectionCreationTime < 1000) {
-						cps++;
-					} else {
-						connectionsToRemove.add(connectionCreationTime);
-					}
-				}
-				connectionTimes.removeAll(connectionsToRemove);
-			}
-		}
-		return cps;
+		final RateLimiter limiter = connectionAttempts.get(hostAddress);
+		return limiter == null ? 0 : limiter.getCount();
 	}
 
 	public final int getPasswordAttemptsCount(final String hostAddress) {
-		final long now = System.currentTimeMillis();
-		int countAttempts = 0;
-
-		synchronized (passwordAttempts) {
-			if(passwordAttempts.containsKey(hostAddress)) {
-				ArrayList<Long> attempts = passwordAttempts.get(hostAddress);
-				ArrayList<Long> attemptsToRemove = new ArrayList<Long>();
-
-				for (Long connectionCreationTime : attempts) {
-					// 5 minutes
-					if (now - connectionCreationTime < 5 * 60 * 1000) {
-						countAttempts++;
-					} else {
-						attemptsToRemove.add(connectionCreationTime);
-					}
-				}
-				attempts.removeAll(attemptsToRemove);
-			}
-		}
-		return countAttempts;
+		final RateLimiter limiter = passwordAttempts.get(hostAddress);
+		return limiter == null ? 0 : limiter.getCount();
 	}
 
 	private final int getConnectionCount(final String hostAddress) {
-		synchronized (connections) {
-			if(connections.containsKey(hostAddress)) {
-				ArrayList<Channel> hostConnections = connections.get(hostAddress);
-				return hostConnections.size();
-			} else {
-				return 0;
-			}
-		}
-	}
-
-	private final int getLoginsPerSecond(final String hostAddress) {
-		final long now = System.currentTimeMillis();
-		int lps = 0;
-
-		synchronized (loginAttempts) {
-			if(loginAttempts.containsKey(hostAddress)) {
-				ArrayList<Long> loginTimes = loginAttempts.get(hostAddress);
-				ArrayList<Long> loginsToRemove = new ArrayList<Long>();
-
-				for (Long loginTime : loginTimes) {
-					if (now - loginTime < 1000) {
-						lps++;
-					} else {
-						loginsToRemove.add(loginTime);
-					}
-				}
-				loginTimes.removeAll(loginsToRemove);
-			}
-		}
-		return lps;
+		final Set<Channel> hostConnections = connections.get(hostAddress);
+		return hostConnections == null ? 0 : hostConnections.size();
 	}
 
 	public final boolean isHostAdmin(final String hostAddress) {
-		synchronized(adminHosts) {
-			return adminHosts.contains(hostAddress);
-		}
+		return adminHosts.contains(hostAddress);
 	}
 
 	public final int getPlayersCount(final String hostAddress) {
@@ -431,19 +307,14 @@ public class RSCPacketFilter {
 		}
 	}
 
-	public HashMap<String, Long> getIpBans() {
+	public Map<String, Long> getIpBans() {
 		return ipBans;
 	}
 
 	public int clearAllIpBans() {
-		synchronized(ipBans) {
-				int banListSize = ipBans.size();
-				if (banListSize > 0) {
-						ipBans.clear();
-						return banListSize;
-				}
-		}
-		return 0;
+		int banListSize = ipBans.size();
+		ipBans.clear();
+		return banListSize;
 	}
 
 	public int recalculateLoggedInCounts() {
@@ -0,0 +1,90 @@
+package com.openrsc.server.net;
+
+import com.openrsc.server.model.entity.player.Player;
+import com.openrsc.server.net.rsc.enums.OpcodeIn;
+import com.openrsc.server.net.rsc.parsers.PayloadParser;
+import com.openrsc.server.net.rsc.parsers.impl.*;
+import com.openrsc.server.net.rsc.struct.AbstractStruct;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Parses a logged in player's packets into protocol independent structs on the network I/O thread,
+ * so the game thread only has to dispatch them.
+ *
+ * Installed at the end of the pipeline once a login succeeds, with the parser for the player's client version.
+ * Packets whose opcode depends on the player's game state are left for the game thread, see {@link UnresolvedPayload}.
+ */
+public final class RSCPayloadDecoder extends ChannelInboundHandlerAdapter {
+	private static final Logger LOGGER = LogManager.getLogger();
+
+	public static final String NAME = "payload-decoder";
+
+	private final Player player;
+	private final PayloadParser<OpcodeIn> parser;
+
+	private RSCPayloadDecoder(final Player player) {
+		this.player = player;
+		this.parser = createParser(player);
+	}
+
+	public static void install(final Channel channel, final Player player) {
+		if (channel.pipeline().get(NAME) == null) {
+			channel.pipeline().addLast(NAME, new RSCPayloadDecoder(player));
+		}
+	}
+
+	private static PayloadParser<OpcodeIn> createParser(final Player player) {
+		if (player.isUsing38CompatibleClient() || player.isUsing39CompatibleClient()) {
+			return new Payload38Parser();
+		} else if (player.isUsing69CompatibleClient()) {
+			return new Payload69Parser();
+		} else if (player.isUsing233CompatibleClient()) {
+			return new Payload235Parser();
+		} else if (player.isUsing177CompatibleClient()) {
+			return new Payload177Parser();
+		} else if (player.isUsing140CompatibleClient()) {
+			return new Payload140Parser();
+		} else {
+			return new PayloadCustomParser();
+		}
+	}
+
+	@Override
+	public void channelRead(final ChannelHandlerContext ctx, final Object message) {
+		if (!(message instanceof Packet)) {
+			ctx.fireChannelRead(message);
+			return;
+		}
+
+		final Packet packet = (Packet) message;
+		player.updateClientActivity();
+
+		if (parser.resolvesOnGameThread(packet)) {
+			// Copied off the pooled buffer, as it may wait in the queue until the player is removed
+			final Packet copy = new Packet(packet.getID(), Unpooled.copiedBuffer(packet.getBuffer()));
+			packet.release();
+			player.addToPayloadQueue(new UnresolvedPayload(copy, parser));
+			return;
+		}
+
+		final AbstractStruct<OpcodeIn> payload;
+		try {
+			payload = parser.parse(packet, player);
+		} catch (final Exception e) {
+			LOGGER.error("Unable to parse packet " + packet.getID() + " from " + player.getUsername());
+			LOGGER.catching(e);
+			return;
+		} finally {
+			packet.release();
+		}
+
+		if (payload != null) {
+			player.addToPayloadQueue(payload);
+		}
+	}
+}
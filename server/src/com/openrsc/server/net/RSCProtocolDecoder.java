@@ -323,8 +323,7 @@ public final class RSCProtocolDecoder extends ByteToMessageDecoder implements At
 	private void addPacketToIncoming(List<Object> out, ConnectionAttachment att, Packet packet) {
 		if (att.player != null && att.player.get() != null) {
 			if (att.player.get().getWorld().getServer().getConfig().WANT_PCAP_LOGGING) {
-				Packet copy = new Packet(packet.getID(), packet.getBuffer().copy());
-				att.pcapLogger.get().addPacket(copy, false); // outgoing from client's perspective
+				att.pcapLogger.get().addPacket(packet, false); // outgoing from client's perspective
 			}
 		}
 		out.add(packet);
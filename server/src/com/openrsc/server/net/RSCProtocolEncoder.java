@@ -1,7 +1,6 @@
 package com.openrsc.server.net;
 
 import io.netty.buffer.ByteBuf;
-import io.netty.buffer.Unpooled;
 import io.netty.channel.Channel;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.handler.codec.MessageToByteEncoder;
@@ -21,8 +20,23 @@ public final class RSCProtocolEncoder extends MessageToByteEncoder<Packet> imple
         }
     }
 
+	@Override
+	protected ByteBuf allocateBuffer(ChannelHandlerContext ctx, Packet message, boolean preferDirect) {
+		// Largest possible frame is the payload with a 2 byte length and 1 byte opcode in front of it.
+		final int frameLength = message.getBuffer().readableBytes() + 3;
+		return preferDirect ? ctx.alloc().ioBuffer(frameLength) : ctx.alloc().heapBuffer(frameLength);
+	}
+
 	@Override
 	protected void encode(ChannelHandlerContext ctx, Packet message, ByteBuf outBuffer) throws Exception {
+		try {
+			encodeFrame(ctx, message, outBuffer);
+		} finally {
+			message.release();
+		}
+	}
+
+	private void encodeFrame(ChannelHandlerContext ctx, Packet message, ByteBuf outBuffer) {
         final Channel channel = ctx.channel();
         ConnectionAttachment att = channel.attr(attachment).get();
 
@@ -32,6 +46,10 @@ public final class RSCProtocolEncoder extends MessageToByteEncoder<Packet> imple
 			}
 		}
 
+		final ByteBuf payload = message.getBuffer();
+		final int payloadStart = payload.readerIndex();
+		final int payloadLength = payload.readableBytes();
+
 		if (!message.isRaw()) {
             Short authenticClient = null;
 			if (att.authenticClient.get() != null) {
@@ -40,18 +58,13 @@ public final class RSCProtocolEncoder extends MessageToByteEncoder<Packet> imple
 
 			if (authenticClient == null || isInauthenticPacket(message.getID()) || authenticClient == -1) {
 				// This is code only to support RSCL based clients which simplified the network protocol
-				int packetLength = message.getBuffer().readableBytes();
-				ByteBuf buffer = Unpooled.buffer(packetLength + 3);
-
-				buffer.writeShort(buffer.capacity());
-				buffer.writeByte(message.getID());
-
-				buffer.writeBytes(message.getBuffer());
-				outBuffer.writeBytes(buffer);
+				outBuffer.writeShort(payloadLength + 3);
+				outBuffer.writeByte(message.getID());
+				outBuffer.writeBytes(payload, payloadStart, payloadLength);
 			} else if (authenticClient >= 183) {
 				// Modern Authentic Packet Handling (With ISAAC)
 				// Don't know exactly when ISAAC started getting used, but mudclient 183 from 2004-02-04 uses opcode shuffling
-				int packetLength = message.getBuffer().readableBytes() + 1; // + 1 for opcode
+				int packetLength = payloadLength + 1; // + 1 for opcode
 
 				/* debug info
 				if (message.getID() != 191 && message.getID() != 79 && message.getID() != 48) {
@@ -59,102 +72,63 @@ public final class RSCProtocolEncoder extends MessageToByteEncoder<Packet> imple
 				}
 				*/
 
-				ByteBuf buffer;
 				int encodedOpcode;
 				if (packetLength >= 160) {
-					buffer = Unpooled.buffer(packetLength + 2); // + 2 to hold length
-					buffer.writeByte((byte) (packetLength / 256 + 160));
-					buffer.writeByte((byte) (packetLength & 0xFF));
+					outBuffer.writeByte((byte) (packetLength / 256 + 160));
+					outBuffer.writeByte((byte) (packetLength & 0xFF));
 
 					encodedOpcode = att.ISAAC.get().encodeOpcode(message.getID());
-					buffer.writeByte(encodedOpcode);
-
-					buffer.writeBytes(message.getBuffer());
+					outBuffer.writeByte(encodedOpcode);
 
+					outBuffer.writeBytes(payload, payloadStart, payloadLength);
 				} else {
-					buffer = Unpooled.buffer(packetLength + 1); // + 1 to hold length
-					buffer.writeByte((byte) packetLength);
-					int bufferLen = message.getBuffer().readableBytes();
+					outBuffer.writeByte((byte) packetLength);
 
 					if (packetLength != 1) {
 						// Strangely, the last byte of the Payload goes between length and encoded opcode
-						try {
-							buffer.writeByte(message.getBuffer().slice(bufferLen - 1, 1).readByte());
-						} catch (IndexOutOfBoundsException e) {
-							// This should probably never happen, but "Just In Case" it is good to handle it b/c otherwise it fails silently
-							System.out.println(String.format("Warning: index out of bounds on sending last byte of opcode %d", message.getID()));
-							System.out.println(e.toString());
-							if (message.getBuffer().hasArray()) {
-								byte[] bArr = message.getBuffer().array();
-								buffer.writeByte(bArr[bArr.length - 1]);
-							}
-						}
+						outBuffer.writeByte(payload.getByte(payloadStart + payloadLength - 1));
 
 						encodedOpcode = att.ISAAC.get().encodeOpcode(message.getID());
-						buffer.writeByte(encodedOpcode);
+						outBuffer.writeByte(encodedOpcode);
 
-						buffer.writeBytes(message.getBuffer().slice(0, bufferLen - 1));
+						outBuffer.writeBytes(payload, payloadStart, payloadLength - 1);
 					} else {
 						// single opcode payload
 						encodedOpcode = att.ISAAC.get().encodeOpcode(message.getID());
-						buffer.writeByte(encodedOpcode);
+						outBuffer.writeByte(encodedOpcode);
 					}
 				}
-
-				outBuffer.writeBytes(buffer);
 			} else if (authenticClient >= 93) {
-				int packetLength = message.getBuffer().readableBytes() + 1; // + 1 for opcode
+				int packetLength = payloadLength + 1; // + 1 for opcode
 
-				ByteBuf buffer;
 				if (packetLength >= 160) {
-					buffer = Unpooled.buffer(packetLength + 2); // + 2 to hold length
-					buffer.writeByte((byte) (packetLength / 256 + 160));
-					buffer.writeByte((byte) (packetLength & 0xFF));
-
-					buffer.writeByte(message.getID());
-					buffer.writeBytes(message.getBuffer());
+					outBuffer.writeByte((byte) (packetLength / 256 + 160));
+					outBuffer.writeByte((byte) (packetLength & 0xFF));
 
+					outBuffer.writeByte(message.getID());
+					outBuffer.writeBytes(payload, payloadStart, payloadLength);
 				} else {
-					buffer = Unpooled.buffer(packetLength + 1); // + 1 to hold length
-					buffer.writeByte((byte) packetLength);
-					int bufferLen = message.getBuffer().readableBytes();
+					outBuffer.writeByte((byte) packetLength);
 
 					if (packetLength != 1) {
 						// Strangely, the last byte of the Payload goes between length and encoded opcode
-						try {
-							buffer.writeByte(message.getBuffer().slice(bufferLen - 1, 1).readByte());
-						} catch (IndexOutOfBoundsException e) {
-							// This should probably never happen, but "Just In Case" it is good to handle it b/c otherwise it fails silently
-							System.out.println(String.format("Warning: index out of bounds on sending last byte of opcode %d", message.getID()));
-							System.out.println(e.toString());
-							if (message.getBuffer().hasArray()) {
-								byte[] bArr = message.getBuffer().array();
-								buffer.writeByte(bArr[bArr.length - 1]);
-							}
-						}
-
-						buffer.writeByte(message.getID());
-						buffer.writeBytes(message.getBuffer().slice(0, bufferLen - 1));
+						outBuffer.writeByte(payload.getByte(payloadStart + payloadLength - 1));
+
+						outBuffer.writeByte(message.getID());
+						outBuffer.writeBytes(payload, payloadStart, payloadLength - 1);
 					} else {
 						// single opcode payload
-						buffer.writeByte(message.getID());
+						outBuffer.writeByte(message.getID());
 					}
 				}
-
-				outBuffer.writeBytes(buffer);
 			} else if (authenticClient >= 14) {
 				//TODO: verify if always holds like this
-				int packetLength = message.getBuffer().readableBytes();
-				ByteBuf buffer = Unpooled.buffer(packetLength + 3);
-
-				buffer.writeShort(packetLength + 1);
-				buffer.writeByte(message.getID());
-
-				buffer.writeBytes(message.getBuffer());
-				outBuffer.writeBytes(buffer);
+				outBuffer.writeShort(payloadLength + 1);
+				outBuffer.writeByte(message.getID());
+				outBuffer.writeBytes(payload, payloadStart, payloadLength);
 			}
 		} else {
-            outBuffer.writeBytes(message.getBuffer());
+            outBuffer.writeBytes(payload, payloadStart, payloadLength);
 		}
 	}
 
@@ -1,7 +1,6 @@
 package com.openrsc.server.net;
 
 import com.openrsc.server.plugins.Functions;
-import io.netty.buffer.Unpooled;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.util.AttributeKey;
 import org.apache.logging.log4j.LogManager;
@@ -27,7 +26,7 @@ public class RSCSessionIdSender implements Runnable {
 			if (att.canSendSessionId.get()) {
 				Integer sessionId = Functions.random(0, Integer.MAX_VALUE - 1);
 				att.sessionId.set(sessionId);
-				ctx.writeAndFlush(Unpooled.buffer(4).writeInt(sessionId));
+				ctx.writeAndFlush(ctx.alloc().buffer(4).writeInt(sessionId));
 				LOGGER.info("Set session id for " + ctx.channel().remoteAddress() + ": " + sessionId);
 			}
 		} catch (InterruptedException e) {
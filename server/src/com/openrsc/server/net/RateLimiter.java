@@ -0,0 +1,93 @@
+package com.openrsc.server.net;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Allows a number of events per period, counted over a window that slides with time, so no span of one period
+ * ever holds more than the limit.
+ *
+ * The times of the last events up to the limit are kept in a ring, so an event is allowed when the oldest of them
+ * is a full period ago. Each limiter belongs to one connection or host, so its lock is not shared between them.
+ */
+public final class RateLimiter {
+	private final int limit;
+	private final long period;
+	private final LongSupplier clock;
+	/**
+	 * When each of the last events happened, in nanoseconds. The oldest is at {@link #next} once the ring is full.
+	 */
+	private final long[] times;
+	private int next;
+	private int count;
+
+	/**
+	 * @param limit Events allowed in a period. Nothing is allowed if this is not positive.
+	 */
+	public RateLimiter(final int limit, final long period, final TimeUnit unit) {
+		this(limit, period, unit, System::nanoTime);
+	}
+
+	RateLimiter(final int limit, final long period, final TimeUnit unit, final LongSupplier clock) {
+		this.limit = limit;
+		this.period = unit.toNanos(period);
+		this.clock = clock;
+		this.times = new long[Math.max(limit, 0)];
+	}
+
+	/**
+	 * Records the event if it is within the limit.
+	 *
+	 * @return Whether the event is within the limit.
+	 */
+	public synchronized boolean tryAcquire() {
+		if (limit <= 0) {
+			return false;
+		}
+		final long now = clock.getAsLong();
+		if (count == limit && now - times[next] < period) {
+			return false;
+		}
+		record(now);
+		return true;
+	}
+
+	/**
+	 * Records the event whether or not it is within the limit, for events that have already happened.
+	 */
+	public synchronized void acquire() {
+		if (limit <= 0) {
+			return;
+		}
+		record(clock.getAsLong());
+	}
+
+	private void record(final long now) {
+		times[next] = now;
+		next = next + 1 == limit ? 0 : next + 1;
+		if (count < limit) {
+			count++;
+		}
+	}
+
+	/**
+	 * @return The number of events recorded within the last period.
+	 */
+	public synchronized int getCount() {
+		final long now = clock.getAsLong();
+		int recent = 0;
+		int index = next;
+		while (recent < count) {
+			index = index == 0 ? limit - 1 : index - 1;
+			if (now - times[index] >= period) {
+				break;
+			}
+			recent++;
+		}
+		return recent;
+	}
+
+	public int getLimit() {
+		return limit;
+	}
+}
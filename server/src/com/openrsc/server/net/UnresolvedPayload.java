@@ -0,0 +1,29 @@
+package com.openrsc.server.net;
+
+import com.openrsc.server.model.entity.player.Player;
+import com.openrsc.server.net.rsc.enums.OpcodeIn;
+import com.openrsc.server.net.rsc.parsers.PayloadParser;
+import com.openrsc.server.net.rsc.struct.AbstractStruct;
+
+/**
+ * A packet queued unparsed, because which opcode it is depends on state only the game thread may read, such as
+ * whether the player is dueling. See {@link PayloadParser#resolvesOnGameThread(Packet)}.
+ */
+public final class UnresolvedPayload extends AbstractStruct<OpcodeIn> {
+	private final Packet packet;
+	private final PayloadParser<OpcodeIn> parser;
+
+	UnresolvedPayload(final Packet packet, final PayloadParser<OpcodeIn> parser) {
+		this.packet = packet;
+		this.parser = parser;
+	}
+
+	/**
+	 * Parses the packet as of the player's state now. Must be called on the game thread.
+	 *
+	 * @return The parsed payload, or null if the packet parses to nothing.
+	 */
+	public AbstractStruct<OpcodeIn> resolve(final Player player) {
+		return parser.parse(packet, player);
+	}
+}
@@ -18,6 +18,7 @@ import com.openrsc.server.model.entity.player.Player;
 import com.openrsc.server.model.entity.player.PlayerSettings;
 import com.openrsc.server.net.Packet;
 import com.openrsc.server.net.rsc.enums.OpcodeOut;
+import com.openrsc.server.net.rsc.enums.ProtocolFamily;
 import com.openrsc.server.net.rsc.generators.PayloadGenerator;
 import com.openrsc.server.net.rsc.generators.impl.*;
 import com.openrsc.server.net.rsc.struct.AbstractStruct;
@@ -35,9 +36,12 @@ import org.apache.logging.log4j.Logger;
 
 import java.util.ArrayList;
 import java.util.Calendar;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.function.Function;
+import java.util.function.Predicate;
 
 /**
  * Sends corresponding actions for use over the network layer
@@ -52,21 +56,20 @@ public class ActionSender {
 	 * Get respective generator
 	 * */
 	public static PayloadGenerator<OpcodeOut> getGenerator(Player player) {
-		PayloadGenerator<OpcodeOut> generator;
-		if (player.isUsing38CompatibleClient() || player.isUsing39CompatibleClient()) {
-			generator = new Payload38Generator();
-		} else if (player.isUsing69CompatibleClient()) {
-			generator = new Payload69Generator();
-		} else if (player.isUsing233CompatibleClient()) {
-			generator = new Payload235Generator();
-		} else if (player.isUsing177CompatibleClient()) {
-			generator = new Payload177Generator();
-		} else if (player.isUsing140CompatibleClient()) {
-			generator = new Payload140Generator();
-		} else {
-			generator = new PayloadCustomGenerator();
+		switch (ProtocolFamily.of(player)) {
+			case RSC_38:
+				return new Payload38Generator();
+			case RSC_69:
+				return new Payload69Generator();
+			case RSC_235:
+				return new Payload235Generator();
+			case RSC_177:
+				return new Payload177Generator();
+			case RSC_140:
+				return new Payload140Generator();
+			default:
+				return new PayloadCustomGenerator();
 		}
-		return generator;
 	}
 
 	/**
@@ -85,6 +88,43 @@ public class ActionSender {
 		}
 	}
 
+	/**
+	 * Sends one packet to every player the filter accepts, generating it once for each client version among them
+	 * rather than once for each player. Every player is written its own retained duplicate of the shared payload.
+	 *
+	 * @param payload Builds the packet's struct for the first player seen with each client version. What it builds
+	 *                must depend on nothing about the player but their client version.
+	 */
+	public static void broadcast(OpcodeOut opcode, Iterable<Player> players, Predicate<Player> filter,
+								 Function<Player, AbstractStruct<OpcodeOut>> payload) {
+		final Map<Integer, Packet> generated = new HashMap<>();
+		try {
+			for (final Player player : players) {
+				if (!filter.test(player)) {
+					continue;
+				}
+				final Integer clientVersion = player.getClientVersion();
+				Packet packet = generated.get(clientVersion);
+				if (packet == null && !generated.containsKey(clientVersion)) {
+					final AbstractStruct<OpcodeOut> struct = payload.apply(player);
+					struct.setOpcode(opcode);
+					// Clients that can not be sent the packet are remembered too, so it is not generated again for them
+					packet = getGenerator(player).generate(struct, player);
+					generated.put(clientVersion, packet);
+				}
+				if (packet != null) {
+					player.write(packet.retainedDuplicate());
+				}
+			}
+		} finally {
+			for (final Packet packet : generated.values()) {
+				if (packet != null) {
+					packet.release();
+				}
+			}
+		}
+	}
+
 	public static boolean isRetroClient(Player player) {
 		//return player.getClientVersion() == 38;
 		return player.isUsing38CompatibleClient() || player.isUsing39CompatibleClient() || player.isUsing69CompatibleClient();
@@ -1129,6 +1169,20 @@ public class ActionSender {
 
 	public static void sendMessage(Player player, Player sender, MessageType type, String message,
 								   int iconSprite, String colorString) {
+		tryFinalizeAndSendPacket(OpcodeOut.SEND_SERVER_MESSAGE, messageStruct(player, sender, type, message, iconSprite, colorString), player);
+	}
+
+	/**
+	 * Sends a message to every player the filter accepts, generating it once for each client version.
+	 */
+	public static void sendMessage(Iterable<Player> players, Predicate<Player> filter, Player sender, MessageType type,
+								   String message, int iconSprite, String colorString) {
+		broadcast(OpcodeOut.SEND_SERVER_MESSAGE, players, filter,
+			player -> messageStruct(player, sender, type, message, iconSprite, colorString));
+	}
+
+	private static MessageStruct messageStruct(Player player, Player sender, MessageType type, String message,
+											   int iconSprite, String colorString) {
 		MessageStruct struct = new MessageStruct();
 		struct.iconSprite = iconSprite;
 		struct.messageTypeRsId = type.getRsID();
@@ -1148,7 +1202,7 @@ public class ActionSender {
 		}
 		struct.senderName = sender != null ? sender.getUsername() : "";
 		struct.colorString = colorString;
-		tryFinalizeAndSendPacket(OpcodeOut.SEND_SERVER_MESSAGE, struct, player);
+		return struct;
 	}
 
 	public static void sendPrayers(Player player, boolean[] activatedPrayers) {
@@ -1181,6 +1235,19 @@ public class ActionSender {
 		if (isGlobal && player.getBlockGlobalFriend())
 			return;
 
+		tryFinalizeAndSendPacket(OpcodeOut.SEND_PRIVATE_MESSAGE, privateMessageStruct(player, sender, message, isGlobal), player);
+	}
+
+	/**
+	 * Sends a global chat message to every player the filter accepts who has not blocked global chat, generating it
+	 * once for each client version.
+	 */
+	public static void sendGlobalMessageReceived(Iterable<Player> players, Predicate<Player> filter, Player sender, String message) {
+		broadcast(OpcodeOut.SEND_PRIVATE_MESSAGE, players, player -> !player.getBlockGlobalFriend() && filter.test(player),
+			player -> privateMessageStruct(player, sender, message, true));
+	}
+
+	private static PrivateMessageStruct privateMessageStruct(Player player, Player sender, String message, boolean isGlobal) {
 		PrivateMessageStruct struct = new PrivateMessageStruct();
 		// TODO: we won't be able to reach across servers like this to access incrementPrivateMessages if there's more than one server
 		// It will need to be rewritten when there is a proper login server managing private messages.
@@ -1205,7 +1272,7 @@ public class ActionSender {
 			}
 		}
 		struct.iconSprite = player.isUsing233CompatibleClient() ? sender.getIconAuthentic() : sender.getIcon();
-		tryFinalizeAndSendPacket(OpcodeOut.SEND_PRIVATE_MESSAGE, struct, player);
+		return struct;
 	}
 
 	public static void sendPrivateMessageSent(Player player, long usernameHash, String message, boolean isGlobal) {
@@ -2152,11 +2219,23 @@ public class ActionSender {
 	public static void sendKillUpdate(Player player, long killedHash, long killerHash, int type) {
 		if (!player.getConfig().WANT_KILL_FEED) return;
 
+		tryFinalizeAndSendPacket(OpcodeOut.SEND_KILL_ANNOUNCEMENT, killUpdateStruct(killedHash, killerHash, type), player);
+	}
+
+	/**
+	 * Sends a kill announcement to every player, generating it once for each client version.
+	 */
+	public static void sendKillUpdate(Iterable<Player> players, long killedHash, long killerHash, int type) {
+		broadcast(OpcodeOut.SEND_KILL_ANNOUNCEMENT, players, player -> player.getConfig().WANT_KILL_FEED,
+			player -> killUpdateStruct(killedHash, killerHash, type));
+	}
+
+	private static KillUpdateStruct killUpdateStruct(long killedHash, long killerHash, int type) {
 		KillUpdateStruct struct = new KillUpdateStruct();
 		struct.victim = DataConversions.hashToUsername(killedHash);
 		struct.attacker = DataConversions.hashToUsername(killerHash);
 		struct.killType = type;
-		tryFinalizeAndSendPacket(OpcodeOut.SEND_KILL_ANNOUNCEMENT, struct, player);
+		return struct;
 	}
 
 	public static void sendOpenAuctionHouse(final Player player) {
@@ -66,7 +66,9 @@ public class LoginPacketHandler {
 			s.writeZeroQuotedString(loadedPlayer.getWorld().getServer().getName());
 			s.writeZeroQuotedString(loadedPlayer.getUsername());
 			s.writeZeroQuotedString(loadedPlayer.getCurrentIP());
-			attachment.pcapLogger.get().addPacket(s.toPacket(), true);
+			final Packet metadata = s.toPacket();
+			attachment.pcapLogger.get().addPacket(metadata, true);
+			metadata.release();
 		}
 	}
 
@@ -7,15 +7,15 @@ import com.openrsc.server.net.rsc.struct.AbstractStruct;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
-import java.lang.reflect.Method;
-import java.util.HashMap;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
 
 /**
  * Redistributes payload to appropriate handler
  * */
 public class PayloadProcessorManager {
-	/* Handlers for parsed payload */
-	private static HashMap<OpcodeIn, PayloadProcessor<? extends AbstractStruct<OpcodeIn>, OpcodeIn>> payloadProcessors = new HashMap<>();
+	/* Handlers for parsed payload, indexed by opcode ordinal */
+	private static final PayloadDispatcher[] payloadProcessors = new PayloadDispatcher[OpcodeIn.values().length];
 	private static final Logger LOGGER = LogManager.getLogger();
 	static {
 
@@ -139,8 +139,8 @@ public class PayloadProcessorManager {
 		try {
 			clazzObject = clazz.getConstructor().newInstance();
 			if (clazzObject instanceof PayloadProcessor) {
-				PayloadProcessor<? extends AbstractStruct<OpcodeIn>, OpcodeIn> payloadProcessor = (PayloadProcessor<? extends AbstractStruct<OpcodeIn>, OpcodeIn>) clazzObject;
-				payloadProcessors.put(opcode, payloadProcessor);
+				PayloadProcessor<AbstractStruct<OpcodeIn>, OpcodeIn> payloadProcessor = (PayloadProcessor<AbstractStruct<OpcodeIn>, OpcodeIn>) clazzObject;
+				payloadProcessors[opcode.ordinal()] = new PayloadDispatcher(payloadProcessor, getStructType(clazz));
 			} else {
 				throw new Exception("bind(opcode, class) not instance of PayloadProcessor");
 			}
@@ -149,27 +149,39 @@ public class PayloadProcessorManager {
 		}
 	}
 
-	public static boolean processed(AbstractStruct<OpcodeIn> payload, Player player) {
-		PayloadProcessor<? extends AbstractStruct<OpcodeIn>, OpcodeIn> processor = get(payload.getOpcode());
-		if (processor != null) {
-			try {
-				Method method = null;
-				for (Method m : processor.getClass().getDeclaredMethods()) {
-					if (m.getName().equals("process")) {
-						method = m;
-						break;
-					}
-				}
-				if (method != null) {
-					checkIfShouldCancelMenu(player, payload.getOpcode());
-					method.invoke(processor, payload, player); //processor.process(payload, player);
+	/**
+	 * Resolves the struct type a handler declared in its PayloadProcessor implementation.
+	 */
+	private static Class<?> getStructType(Class<?> clazz) {
+		for (Type type : clazz.getGenericInterfaces()) {
+			if (type instanceof ParameterizedType && ((ParameterizedType) type).getRawType() == PayloadProcessor.class) {
+				Type structType = ((ParameterizedType) type).getActualTypeArguments()[0];
+				if (structType instanceof Class) {
+					return (Class<?>) structType;
 				}
-			} catch(Exception e) {
-				return false;
 			}
-			return true;
 		}
-		return false;
+		return AbstractStruct.class;
+	}
+
+	/**
+	 * @return false if no handler is bound to the opcode or the payload is not the struct it expects
+	 */
+	public static boolean processed(AbstractStruct<OpcodeIn> payload, Player player) {
+		PayloadDispatcher dispatcher = get(payload.getOpcode());
+		if (dispatcher == null || !dispatcher.structType.isInstance(payload)) {
+			return false;
+		}
+
+		checkIfShouldCancelMenu(player, payload.getOpcode());
+		try {
+			dispatcher.processor.process(payload, player);
+		} catch (Exception e) {
+			// The payload was well formed, so the player stays connected; the handler needs fixing.
+			LOGGER.error("Exception processing " + payload.getOpcode() + " for " + player.getUsername());
+			LOGGER.catching(e);
+		}
+		return true;
 	}
 
 	private static void checkIfShouldCancelMenu(Player player, OpcodeIn opcode) {
@@ -184,8 +196,18 @@ public class PayloadProcessorManager {
 		}
 	}
 
-	private static PayloadProcessor<? extends AbstractStruct<OpcodeIn>, OpcodeIn> get(OpcodeIn opcode) {
-		return payloadProcessors.get(opcode);
+	private static PayloadDispatcher get(OpcodeIn opcode) {
+		return opcode == null ? null : payloadProcessors[opcode.ordinal()];
+	}
+
+	private static final class PayloadDispatcher {
+		private final PayloadProcessor<AbstractStruct<OpcodeIn>, OpcodeIn> processor;
+		private final Class<?> structType;
+
+		private PayloadDispatcher(PayloadProcessor<AbstractStruct<OpcodeIn>, OpcodeIn> processor, Class<?> structType) {
+			this.processor = processor;
+			this.structType = structType;
+		}
 	}
 
 }
@@ -0,0 +1,31 @@
+package com.openrsc.server.net.rsc.enums;
+
+import com.openrsc.server.model.entity.player.Player;
+
+/**
+ * Groups of client versions that share a payload generator, and so encode packets identically.
+ */
+public enum ProtocolFamily {
+	RSC_38, // 38 to 40
+	RSC_69,
+	RSC_140,
+	RSC_177,
+	RSC_235, // 233 to 235
+	CUSTOM;
+
+	public static ProtocolFamily of(final Player player) {
+		if (player.isUsing38CompatibleClient() || player.isUsing39CompatibleClient()) {
+			return RSC_38;
+		} else if (player.isUsing69CompatibleClient()) {
+			return RSC_69;
+		} else if (player.isUsing233CompatibleClient()) {
+			return RSC_235;
+		} else if (player.isUsing177CompatibleClient()) {
+			return RSC_177;
+		} else if (player.isUsing140CompatibleClient()) {
+			return RSC_140;
+		} else {
+			return CUSTOM;
+		}
+	}
+}
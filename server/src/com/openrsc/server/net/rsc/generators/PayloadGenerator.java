@@ -5,8 +5,16 @@ import com.openrsc.server.net.Packet;
 import com.openrsc.server.net.PacketBuilder;
 import com.openrsc.server.net.rsc.struct.AbstractStruct;
 
+import java.util.List;
+
 public interface PayloadGenerator<Opcode> {
 
 	abstract PacketBuilder fromOpcodeEnum(Opcode opcode, Player player);
 	abstract Packet generate(AbstractStruct<Opcode> payload, Player player);
+
+	/**
+	 * Writes the entries of an update packet (bubbles, chat, damage, appearances) in this client's format.
+	 * Entries that are already encoded byte arrays are written as they are.
+	 */
+	abstract void writeUpdateInfo(PacketBuilder builder, List<Object> info, Player player);
 }
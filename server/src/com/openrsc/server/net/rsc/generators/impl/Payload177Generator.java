@@ -19,6 +19,7 @@ import com.openrsc.server.util.rsc.MathUtil;
 
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -582,36 +583,13 @@ public class Payload177Generator implements PayloadGenerator<OpcodeOut> {
 				case SEND_NPC_COORDS:
 				case SEND_PLAYER_COORDS:
 					MobsUpdateStruct mu = (MobsUpdateStruct) payload;
-					builder.startBitAccess();
-					for (Map.Entry<Integer, Integer> entry : mu.mobs) {
-						builder.writeBits(entry.getKey(), entry.getValue());
-					}
-					builder.finishBitAccess();
+					builder.write(mu.mobs);
 					break;
 
 				case SEND_UPDATE_NPC:
 				case SEND_UPDATE_PLAYERS:
 					AppearanceUpdateStruct au = (AppearanceUpdateStruct) payload;
-					for (Object entry : au.info) {
-						if (entry instanceof Byte) {
-							builder.writeByte((Byte) entry);
-						} else if (entry instanceof Short) {
-							builder.writeShort((Short) entry);
-						} else if (entry instanceof Integer) {
-							builder.writeInt((Integer) entry);
-						} else if (entry instanceof Long) {
-							builder.writeLong((Long) entry);
-						} else if (entry instanceof Character) { // wrapper class for appearance byte
-							int value = (Character) entry;
-							builder.writeAppearanceByte((byte) value, 177);
-						} else if (entry instanceof String) {
-							builder.writeNonTerminatedString((String) entry);
-						} else if (entry instanceof RSCString) {
-							byte[] byteMe = make177ChatMessage(entry.toString());
-							builder.writeByte(byteMe.length);
-							builder.writeBytes(byteMe, 0, byteMe.length);
-						}
-					}
+					writeUpdateInfo(builder, au.info, player);
 					break;
 
 				case SEND_SCENERY_HANDLER:
@@ -659,6 +637,32 @@ public class Payload177Generator implements PayloadGenerator<OpcodeOut> {
 		return builder != null ? builder.toPacket() : null;
 	}
 
+	@Override
+	public void writeUpdateInfo(PacketBuilder builder, List<Object> info, Player player) {
+		for (Object entry : info) {
+			if (entry instanceof Byte) {
+				builder.writeByte((Byte) entry);
+			} else if (entry instanceof Short) {
+				builder.writeShort((Short) entry);
+			} else if (entry instanceof Integer) {
+				builder.writeInt((Integer) entry);
+			} else if (entry instanceof Long) {
+				builder.writeLong((Long) entry);
+			} else if (entry instanceof Character) { // wrapper class for appearance byte
+				int value = (Character) entry;
+				builder.writeAppearanceByte((byte) value, 177);
+			} else if (entry instanceof String) {
+				builder.writeNonTerminatedString((String) entry);
+			} else if (entry instanceof RSCString) {
+				byte[] byteMe = make177ChatMessage(entry.toString());
+				builder.writeByte(byteMe.length);
+				builder.writeBytes(byteMe, 0, byteMe.length);
+			} else if (entry instanceof byte[]) { // already encoded for this client
+				builder.writeBytes((byte[]) entry);
+			}
+		}
+	}
+
 	private byte[] make177ChatMessage(String messageToSend) {
 		byte[] pmMessage = new byte[100];
 		char[] characterDictionary = new char[] { ' ', 'e', 't', 'a', 'o', 'i', 'h', 'n', 's', 'r', 'd', 'l', 'u', 'm', 'w', 'c', 'y', 'f', 'g', 'p', 'b', 'v', 'k', 'x', 'j', 'q', 'z', '0', '1', '2', '3', '4', '5', '6', '7', '8', '9', ' ', '!', '?', '.', ',', ':', ';', '(', ')', '-', '&', '*', '\\', '\'', '@', '#', '+', '=', '£', '$', '%', '\"', '[', ']' };
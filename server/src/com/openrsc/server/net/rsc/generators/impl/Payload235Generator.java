@@ -16,6 +16,7 @@ import com.openrsc.server.net.rsc.struct.AbstractStruct;
 import com.openrsc.server.net.rsc.struct.outgoing.*;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -607,32 +608,13 @@ public class Payload235Generator implements PayloadGenerator<OpcodeOut> {
 				case SEND_NPC_COORDS:
 				case SEND_PLAYER_COORDS:
 					MobsUpdateStruct mu = (MobsUpdateStruct) payload;
-					builder.startBitAccess();
-					for (Map.Entry<Integer, Integer> entry : mu.mobs) {
-						builder.writeBits(entry.getKey(), entry.getValue());
-					}
-					builder.finishBitAccess();
+					builder.write(mu.mobs);
 					break;
 
 				case SEND_UPDATE_NPC:
 				case SEND_UPDATE_PLAYERS:
 					AppearanceUpdateStruct au = (AppearanceUpdateStruct) payload;
-					for (Object entry : au.info) {
-						if (entry instanceof Byte) {
-							builder.writeByte((Byte) entry);
-						} else if (entry instanceof Short) {
-							builder.writeShort((Short) entry);
-						} else if (entry instanceof Integer) {
-							builder.writeInt((Integer) entry);
-						} else if (entry instanceof Character) { // wrapper class for appearance byte
-							int value = (Character) entry;
-							builder.writeAppearanceByte((byte) value, 235);
-						} else if (entry instanceof String) {
-							builder.writeZeroQuotedString((String) entry);
-						} else if (entry instanceof RSCString) {
-							builder.writeRSCString(entry.toString());
-						}
-					}
+					writeUpdateInfo(builder, au.info, player);
 					break;
 
 				case SEND_SCENERY_HANDLER:
@@ -679,4 +661,26 @@ public class Payload235Generator implements PayloadGenerator<OpcodeOut> {
 
 		return builder != null ? builder.toPacket() : null;
 	}
+
+	@Override
+	public void writeUpdateInfo(PacketBuilder builder, List<Object> info, Player player) {
+		for (Object entry : info) {
+			if (entry instanceof Byte) {
+				builder.writeByte((Byte) entry);
+			} else if (entry instanceof Short) {
+				builder.writeShort((Short) entry);
+			} else if (entry instanceof Integer) {
+				builder.writeInt((Integer) entry);
+			} else if (entry instanceof Character) { // wrapper class for appearance byte
+				int value = (Character) entry;
+				builder.writeAppearanceByte((byte) value, 235);
+			} else if (entry instanceof String) {
+				builder.writeZeroQuotedString((String) entry);
+			} else if (entry instanceof RSCString) {
+				builder.writeRSCString(entry.toString());
+			} else if (entry instanceof byte[]) { // already encoded for this client
+				builder.writeBytes((byte[]) entry);
+			}
+		}
+	}
 }
@@ -15,6 +15,7 @@ import com.openrsc.server.util.rsc.DataConversions;
 import com.openrsc.server.util.rsc.MathUtil;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -271,33 +272,14 @@ public class Payload38Generator implements PayloadGenerator<OpcodeOut> {
 				case SEND_PLAYER_COORDS:
 					// TODO: CHECK IMPL
 					MobsUpdateStruct mu = (MobsUpdateStruct) payload;
-					for (Object entry : mu.mobsUpdate) {
-						if (entry instanceof Byte) {
-							builder.writeByte((byte) entry);
-						} else if (entry instanceof Short) {
-							builder.writeShort((short) entry);
-						}
-					}
+					builder.write(mu.mobs);
 					break;
 
 				case SEND_UPDATE_NPC: //VERIFIED
 				case SEND_UPDATE_PLAYERS: //TYPE 1 changes!
 				case SEND_UPDATE_PLAYERS_RETRO: //TYPE 5
 					AppearanceUpdateStruct au = (AppearanceUpdateStruct) payload;
-					for (Object entry : au.info) {
-						if (entry instanceof Byte) {
-							builder.writeByte((Byte) entry);
-						} else if (entry instanceof Short) {
-							builder.writeShort((Short) entry);
-						} else if (entry instanceof Character) { // wrapper class for appearance byte
-							int value = (Character) entry;
-							builder.writeAppearanceByte((byte) value, 38);
-						} else if (entry instanceof String) {
-							builder.writeNonTerminatedString((String) entry);
-						} else if (entry instanceof Long) {
-							builder.writeLong((long) entry);
-						}
-					}
+					writeUpdateInfo(builder, au.info, player);
 					break;
 
 				case SEND_SCENERY_HANDLER:
@@ -365,6 +347,26 @@ public class Payload38Generator implements PayloadGenerator<OpcodeOut> {
 		return builder != null ? builder.toPacket() : null;
 	}
 
+	@Override
+	public void writeUpdateInfo(PacketBuilder builder, List<Object> info, Player player) {
+		for (Object entry : info) {
+			if (entry instanceof Byte) {
+				builder.writeByte((Byte) entry);
+			} else if (entry instanceof Short) {
+				builder.writeShort((Short) entry);
+			} else if (entry instanceof Character) { // wrapper class for appearance byte
+				int value = (Character) entry;
+				builder.writeAppearanceByte((byte) value, 38);
+			} else if (entry instanceof String) {
+				builder.writeNonTerminatedString((String) entry);
+			} else if (entry instanceof Long) {
+				builder.writeLong((long) entry);
+			} else if (entry instanceof byte[]) { // already encoded for this client
+				builder.writeBytes((byte[]) entry);
+			}
+		}
+	}
+
 	public static int onlineStatusConverter(int modernStatus) {
 		int onlineStatus = 0;
 		switch ((modernStatus & 0x6) >> 1) {
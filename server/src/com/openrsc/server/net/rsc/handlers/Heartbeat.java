@@ -11,6 +11,6 @@ public class Heartbeat implements PayloadProcessor<NoPayloadStruct, OpcodeIn> {
 		// Instead of handling the heartbeat packet here, every packet
 		// that comes into the server updates the time-since-last-seen-player
 
-		// player.addToPacketQueue(...) updates it.
+		// RSCPayloadDecoder updates it.
 	}
 }
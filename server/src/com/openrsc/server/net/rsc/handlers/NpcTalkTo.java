@@ -5,7 +5,6 @@ import com.openrsc.server.model.action.WalkToMobAction;
 import com.openrsc.server.model.entity.npc.Npc;
 import com.openrsc.server.model.entity.player.Player;
 import com.openrsc.server.model.world.World;
-import com.openrsc.server.model.world.region.TileValue;
 import com.openrsc.server.net.rsc.PayloadProcessor;
 import com.openrsc.server.net.rsc.enums.OpcodeIn;
 import com.openrsc.server.net.rsc.struct.incoming.TargetMobStruct;
@@ -122,7 +121,6 @@ public final class NpcTalkTo implements PayloadProcessor<TargetMobStruct, Opcode
 			}
 
 			private boolean checkBlocking(World world, int x, int y, int bit) {
-				TileValue t = world.getTile(x, y);
 				Point point = new Point(x, y);
 				for (Npc n : n.getViewArea().getNpcsInView()) {
 					if (n.getLocation().equals(point)) {
@@ -134,7 +132,7 @@ public final class NpcTalkTo implements PayloadProcessor<TargetMobStruct, Opcode
 						return true;
 					}
 				}
-				return isBlocking(t.traversalMask, (byte) bit);
+				return isBlocking(world.getTiles().getTraversalMask(x, y), (byte) bit);
 			}
 
 			private boolean isBlocking(int objectValue, byte bit) {
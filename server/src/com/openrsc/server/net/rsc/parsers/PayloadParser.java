@@ -8,4 +8,12 @@ public interface PayloadParser<Opcode> {
 
 	abstract Opcode toOpcodeEnum(Packet packet, Player player);
 	abstract AbstractStruct<Opcode> parse(Packet packet, Player player);
+
+	/**
+	 * @return Whether the packet's opcode can only be told apart by the player's game state, so it must be parsed on
+	 * the game thread rather than as it arrives.
+	 */
+	default boolean resolvesOnGameThread(Packet packet) {
+		return false;
+	}
 }
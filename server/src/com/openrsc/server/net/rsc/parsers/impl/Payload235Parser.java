@@ -265,6 +265,19 @@ public class Payload235Parser implements PayloadParser<OpcodeIn> {
 		return opcode;
 	}
 
+	@Override
+	public boolean resolvesOnGameThread(Packet packet) {
+		// Told apart by whether the player is logged in or dueling, see resolveOpcode
+		switch (packet.getID()) {
+			case 4:
+			case 8:
+			case 197:
+				return true;
+			default:
+				return false;
+		}
+	}
+
 	private OpcodeIn resolveOpcode(Packet packet, Player player) {
 		int pID = packet.getID();
 		int length = packet.getLength();
@@ -1,7 +1,7 @@
 package com.openrsc.server.plugins.handler;
 
 import com.google.common.collect.ClassToInstanceMap;
-import com.google.common.collect.HashMultimap;
+import com.google.common.collect.LinkedHashMultimap;
 import com.google.common.collect.Multimap;
 import com.google.common.collect.MutableClassToInstanceMap;
 import com.google.inject.Guice;
@@ -22,20 +22,23 @@ import com.openrsc.server.plugins.MiniGameInterface;
 import com.openrsc.server.plugins.PluginInterruptedException;
 import com.openrsc.server.plugins.QuestInterface;
 import com.openrsc.server.plugins.io.PluginJarLoader;
+import com.openrsc.server.util.LogUtil;
 import com.openrsc.server.util.NamedThreadFactory;
 import org.apache.commons.lang3.ClassUtils;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import java.io.IOException;
-import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedHashSet;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 import java.util.concurrent.ThreadFactory;
@@ -54,13 +57,17 @@ public final class PluginHandler implements IPluginHandler {
 
     private final Server server;
     private final ThreadFactory threadFactory;
-    private final Multimap<Class<?>, Object> triggerTypeToInstance = HashMultimap.create();
     private final Set<Class<?>> triggerTypes = new HashSet<>();
+    /**
+     * Built from scratch on every load and swapped in whole, so triggers are handled without taking a lock.
+     */
+    private volatile Map<Class<?>, TriggerDispatch> dispatchTable = Collections.emptyMap();
+    private final Map<Class<?>, TriggerStatistics> triggerStatistics = new ConcurrentHashMap<>();
     private final ClassToInstanceMap<Object> pluginInstances = MutableClassToInstanceMap.create();
     private final PluginJarLoader loader = new PluginJarLoader();
     private final Injector injector;
     private ThreadPoolExecutor executor;
-    private boolean reloading = true;
+    private volatile boolean reloading = true;
     private Object defaultHandler = null;
 
     public PluginHandler(final Server server) {
@@ -79,6 +86,8 @@ public final class PluginHandler implements IPluginHandler {
     }
 
     public void initPlugins() throws Exception {
+        final Multimap<Class<?>, Object> triggerTypeToInstance = LinkedHashMultimap.create();
+
         // Iterate over the classes picked up by the class path scan
         for (final Class<?> pluginType : loader.getLoadedClasses()) {
             if (DefaultHandler.class.isAssignableFrom(pluginType) && defaultHandler == null) {
@@ -132,6 +141,21 @@ public final class PluginHandler implements IPluginHandler {
             }
         }
 
+        final Map<Class<?>, TriggerDispatch> dispatchTable = new HashMap<>();
+        for (final Class<?> triggerType : triggerTypes) {
+            try {
+                dispatchTable.put(triggerType, new TriggerDispatch(
+                        triggerType,
+                        triggerTypeToInstance.get(triggerType),
+                        defaultHandler,
+                        triggerStatistics.computeIfAbsent(triggerType, type -> new TriggerStatistics())
+                ));
+            } catch (final ReflectiveOperationException e) {
+                LOGGER.error("Unable to compile trigger: " + triggerType.getSimpleName(), e);
+            }
+        }
+        this.dispatchTable = dispatchTable;
+
         LOGGER.info("Loaded {}", box(server.getWorld().getQuests().size()) + " Quests.");
         LOGGER.info("Loaded {}", box(server.getWorld().getMiniGames().size()) + " MiniGames.");
         LOGGER.info("Loaded total of {}", pluginInstances.size() + " plugin handlers.");
@@ -164,12 +188,35 @@ public final class PluginHandler implements IPluginHandler {
         reloading = false;
 
         defaultHandler = null;
-        executor = (ThreadPoolExecutor) Executors.newCachedThreadPool(threadFactory);
+        executor = (ThreadPoolExecutor) Executors.newCachedThreadPool(createPluginThreadFactory());
 
         loader.loadJar();
         initPlugins();
     }
 
+    /**
+     * Plugin scripts spend nearly all of their time parked between ticks, so they are given virtual threads
+     * where the Java runtime has them. They are looked up reflectively as the server still targets Java 8.
+     */
+    private ThreadFactory createPluginThreadFactory() {
+        if (server.getConfig().WANT_VIRTUAL_PLUGIN_THREADS) {
+            try {
+                final Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+                Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+                builder = builderType.getMethod("name", String.class, long.class)
+                        .invoke(builder, server.getName() + " : PluginThread-", 0L);
+                final ThreadFactory virtualThreadFactory = (ThreadFactory) builderType.getMethod("factory").invoke(builder);
+                return runnable -> virtualThreadFactory.newThread(() -> {
+                    LogUtil.populateThreadContext(server.getConfig());
+                    runnable.run();
+                });
+            } catch (final ReflectiveOperationException | RuntimeException e) {
+                LOGGER.info("Virtual threads are unavailable, plugins will run on platform threads");
+            }
+        }
+        return threadFactory;
+    }
+
     public void unload() throws IOException {
         reloading = true;
 
@@ -187,7 +234,7 @@ public final class PluginHandler implements IPluginHandler {
         server.getWorld().getMiniGames().clear();
         server.getWorld().getShops().clear();
 
-        triggerTypeToInstance.clear();
+        dispatchTable = Collections.emptyMap();
         pluginInstances.clear();
         loader.clear();
 
@@ -196,56 +243,57 @@ public final class PluginHandler implements IPluginHandler {
     }
 
     public boolean handlePlugin(Class<?> triggerType, Player owner, Object[] data, WalkToAction walkToAction) {
-        final String simpleName = triggerType.getSimpleName();
-        String triggerName = simpleName.substring(0, simpleName.indexOf("Trigger"));
-        synchronized (triggerTypeToInstance) {
-            if (reloading) {
-                Arrays.stream(data)
-                        .filter(obj -> obj instanceof Player)
-                        .findAny()
-                        .map(Player.class::cast)
-                        .ifPresent(player -> player.message("Plugins are being updated, please wait."));
-                return false;
-            }
-            boolean shouldBlockDefault = false;
+        if (reloading) {
+            Arrays.stream(data)
+                    .filter(obj -> obj instanceof Player)
+                    .findAny()
+                    .map(Player.class::cast)
+                    .ifPresent(player -> player.message("Plugins are being updated, please wait."));
+            return false;
+        }
 
-            Collection<Object> triggerInstances = triggerTypeToInstance.get(triggerType);
-            if (triggerInstances.isEmpty()) {
-                LOGGER.warn("Unable to handle unknown plugin: {}", simpleName);
-            } else {
-                for (Object trigger : triggerInstances) {
-                    try {
-                        final Class<?>[] dataClasses = Arrays.stream(data)
-                                .map(Object::getClass)
-                                .toArray(Class<?>[]::new);
-                        final Method method = triggerType.getMethod("block" + triggerName, dataClasses);
-                        final boolean shouldBlock = (Boolean) method.invoke(trigger, data);
-                        if (shouldBlock) {
-                            shouldBlockDefault = true;
-                            invokePluginAction(triggerType, owner, trigger, data, walkToAction);
-                        }
-                    } catch (final Exception e) {
-                        LOGGER.catching(e);
-                    }
-                }
-            }
+        final TriggerDispatch dispatch = dispatchTable.get(triggerType);
+        if (dispatch == null) {
+            LOGGER.warn("Unable to handle unknown plugin: {}", triggerType.getSimpleName());
+            return false;
+        }
+        if (!dispatch.accepts(data)) {
+            LOGGER.error("Wrong number of arguments for {}: {}", triggerType.getSimpleName(), Arrays.deepToString(data));
+            return false;
+        }
 
-            try {
-                if (!shouldBlockDefault) {
-                    invokePluginAction(triggerType, owner, defaultHandler, data, walkToAction);
+        final long start = System.nanoTime();
+        boolean shouldBlockDefault = false;
+
+        if (dispatch.getPluginCount() == 0) {
+            LOGGER.warn("Unable to handle unknown plugin: {}", triggerType.getSimpleName());
+        } else {
+            for (int i = 0; i < dispatch.getPluginCount(); i++) {
+                final Object trigger = dispatch.getPlugin(i);
+                try {
+                    if (dispatch.block(trigger, data)) {
+                        shouldBlockDefault = true;
+                        invokePluginAction(dispatch, owner, trigger, dispatch.getPluginName(i), data, walkToAction);
+                    }
+                } catch (final Throwable e) {
+                    LOGGER.catching(e);
                 }
-            } catch (final Exception e) {
-                LOGGER.catching(e);
             }
+        }
 
-            return shouldBlockDefault;
+        if (!shouldBlockDefault && dispatch.getDefaultPluginName() != null) {
+            invokePluginAction(dispatch, owner, defaultHandler, dispatch.getDefaultPluginName(), data, walkToAction);
         }
+
+        dispatch.getStatistics().record(System.nanoTime() - start, shouldBlockDefault);
+        return shouldBlockDefault;
     }
 
     private void invokePluginAction(
-            Class<?> triggerType,
+            TriggerDispatch dispatch,
             Player player,
             Object triggerInstance,
+            String pluginName,
             Object[] data,
             WalkToAction walkToAction
     ) {
@@ -254,53 +302,41 @@ public final class PluginHandler implements IPluginHandler {
         }
 
         try {
-            final Class<?>[] dataClasses = Arrays.stream(data)
-                    .map(Object::getClass)
-                    .toArray(Class<?>[]::new);
-
-            final String simpleName = triggerType.getSimpleName();
-            String triggerName = simpleName.substring(0, simpleName.indexOf("Trigger"));
-            try {
-                final Method method = triggerType.getMethod("on" + triggerName, dataClasses);
-                final String pluginName = triggerInstance.getClass().getSimpleName() + "." + method.getName();
-
-                final PluginTask task = new PluginTask(server.getWorld(), player, triggerName, data) {
-                    @Override
-                    public int action() {
-                        try {
-                            LOGGER.info("Tick " + getWorld().getServer().getCurrentTick() + " : " + pluginName + " : " + Arrays.deepToString(data));
-                            method.invoke(triggerInstance, data);
-                            return 1;
-                        } catch (final InvocationTargetException ex) {
-                            if (ex.getCause() instanceof PluginInterruptedException) {
-                                // PluginTask.call() will do stop() after this which will correctly shut down the Plugin.
-                                return 1;
-                            } else {
-                                LOGGER.catching(ex);
-                                return 0;
-                            }
-                        } catch (final Exception ex) {
-                            LOGGER.catching(ex);
-                            return 0;
+            final PluginTask task = new PluginTask(server.getWorld(), player, dispatch.getTriggerName(), data) {
+                @Override
+                public int action() {
+                    try {
+                        if (LOGGER.isDebugEnabled()) {
+                            LOGGER.debug("Tick " + getWorld().getServer().getCurrentTick() + " : " + pluginName + " : " + Arrays.deepToString(data));
                         }
+                        dispatch.action(triggerInstance, data);
+                        return 1;
+                    } catch (final PluginInterruptedException ex) {
+                        // PluginTask.call() will do stop() after this which will correctly shut down the Plugin.
+                        return 1;
+                    } catch (final Throwable ex) {
+                        LOGGER.catching(ex);
+                        return 0;
                     }
-                };
+                }
+            };
 
-                final PluginTickEvent e = new PluginTickEvent(server.getWorld(), player, pluginName, walkToAction, task);
+            final PluginTickEvent e = new PluginTickEvent(server.getWorld(), player, pluginName, walkToAction, task);
 
-                server.getGameEventHandler().add(e);
-            } catch (final NoSuchMethodException ex) {
-                LOGGER.info(ex.getMessage());
-                LOGGER.info(simpleName + ".on" + triggerName + " : " + Arrays.deepToString(data));
-                // getClass().getMethod() failed because there is an executive listener, but NOT a corresponding action listener, OR
-                // there is no action listener defined in Default plugin
-            }
+            server.getGameEventHandler().add(e);
         } catch (final Exception e) {
             System.err.println("Exception at plugin handling: ");
             LOGGER.catching(e);
         }
     }
 
+    /**
+     * @return The statistics of every trigger handled since the server started, by trigger type.
+     */
+    public Map<Class<?>, TriggerStatistics> getTriggerStatistics() {
+        return Collections.unmodifiableMap(triggerStatistics);
+    }
+
     public Future<Integer> submitPluginTask(final PluginTask pluginTask) {
         return getExecutor().submit(pluginTask);
     }
@@ -0,0 +1,120 @@
+package com.openrsc.server.plugins.handler;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.util.Collection;
+
+/**
+ * Everything needed to handle one trigger type, worked out when plugins are loaded: the plugins implementing it,
+ * in load order, and method handles for its block and on methods that take the trigger data as it is passed in.
+ *
+ * Never changes once built, so it is read without locking and replaced as a whole when plugins are reloaded.
+ */
+final class TriggerDispatch {
+    private static final MethodType BLOCK_TYPE = MethodType.methodType(boolean.class, Object.class, Object[].class);
+    private static final MethodType ACTION_TYPE = MethodType.methodType(void.class, Object.class, Object[].class);
+
+    private final Class<?> triggerType;
+    private final String triggerName;
+    private final Object[] plugins;
+    private final String[] pluginNames;
+    private final int parameterCount;
+    private final MethodHandle block;
+    private final MethodHandle action;
+    private final String defaultPluginName;
+    private final TriggerStatistics statistics;
+
+    TriggerDispatch(
+            final Class<?> triggerType,
+            final Collection<Object> plugins,
+            final Object defaultHandler,
+            final TriggerStatistics statistics
+    ) throws ReflectiveOperationException {
+        final String simpleName = triggerType.getSimpleName();
+        this.triggerType = triggerType;
+        this.triggerName = simpleName.substring(0, simpleName.indexOf("Trigger"));
+        this.plugins = plugins.toArray();
+        this.pluginNames = new String[this.plugins.length];
+        for (int i = 0; i < this.plugins.length; i++) {
+            pluginNames[i] = pluginName(this.plugins[i]);
+        }
+
+        final Method blockMethod = findMethod(triggerType, "block" + triggerName);
+        final Method actionMethod = findMethod(triggerType, "on" + triggerName);
+        this.parameterCount = actionMethod.getParameterCount();
+        this.block = compile(blockMethod, BLOCK_TYPE);
+        this.action = compile(actionMethod, ACTION_TYPE);
+        this.defaultPluginName = triggerType.isInstance(defaultHandler) ? pluginName(defaultHandler) : null;
+        this.statistics = statistics;
+    }
+
+    private static Method findMethod(final Class<?> triggerType, final String name) throws NoSuchMethodException {
+        for (final Method method : triggerType.getMethods()) {
+            if (method.getName().equals(name)) {
+                return method;
+            }
+        }
+        throw new NoSuchMethodException(triggerType.getName() + "." + name);
+    }
+
+    /**
+     * Adapts an interface method to (Object plugin, Object[] data), casting the plugin and each piece of data on the way in.
+     */
+    private static MethodHandle compile(final Method method, final MethodType type) throws IllegalAccessException {
+        return MethodHandles.publicLookup().unreflect(method)
+                .asSpreader(Object[].class, method.getParameterCount())
+                .asType(type);
+    }
+
+    private String pluginName(final Object plugin) {
+        return plugin.getClass().getSimpleName() + ".on" + triggerName;
+    }
+
+    Class<?> getTriggerType() {
+        return triggerType;
+    }
+
+    String getTriggerName() {
+        return triggerName;
+    }
+
+    int getPluginCount() {
+        return plugins.length;
+    }
+
+    Object getPlugin(final int index) {
+        return plugins[index];
+    }
+
+    String getPluginName(final int index) {
+        return pluginNames[index];
+    }
+
+    /**
+     * @return The name of the default handler's action, or null if it does not handle this trigger.
+     */
+    String getDefaultPluginName() {
+        return defaultPluginName;
+    }
+
+    TriggerStatistics getStatistics() {
+        return statistics;
+    }
+
+    /**
+     * @return Whether the data has as many entries as the trigger takes. Their types are checked when they are cast.
+     */
+    boolean accepts(final Object[] data) {
+        return data.length == parameterCount;
+    }
+
+    boolean block(final Object plugin, final Object[] data) throws Throwable {
+        return (boolean) block.invokeExact(plugin, data);
+    }
+
+    void action(final Object plugin, final Object[] data) throws Throwable {
+        action.invokeExact(plugin, data);
+    }
+}
@@ -0,0 +1,51 @@
+package com.openrsc.server.plugins.handler;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * How often a trigger has been handled and how long handling it took, from asking each plugin whether it
+ * blocks the trigger to queueing the plugin actions. The actions themselves run later on plugin threads.
+ *
+ * Triggers are handled from the game thread and the login threads, so the counters are safe to update from both.
+ */
+public final class TriggerStatistics {
+    private final LongAdder count = new LongAdder();
+    private final LongAdder blocked = new LongAdder();
+    private final LongAdder duration = new LongAdder();
+    private final LongAccumulator maxDuration = new LongAccumulator(Math::max, 0);
+
+    /**
+     * Counts one handled trigger.
+     *
+     * @param duration - time taken in nanoseconds
+     * @param blocked  - whether a plugin blocked the default handler
+     */
+    void record(final long duration, final boolean blocked) {
+        count.increment();
+        if (blocked) {
+            this.blocked.increment();
+        }
+        this.duration.add(duration);
+        maxDuration.accumulate(duration);
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    /**
+     * @return How many times a plugin handled the trigger instead of the default handler.
+     */
+    public long getBlockedCount() {
+        return blocked.sum();
+    }
+
+    public long getDuration() {
+        return duration.sum();
+    }
+
+    public long getMaxDuration() {
+        return maxDuration.get();
+    }
+}
@@ -4,6 +4,7 @@ import com.openrsc.server.ServerConfiguration;
 import com.openrsc.server.constants.AppearanceId;
 import com.openrsc.server.database.GameDatabase;
 import com.openrsc.server.database.GameDatabaseException;
+import com.openrsc.server.database.PlayerSaveState;
 import com.openrsc.server.database.struct.*;
 import com.openrsc.server.external.ItemDefinition;
 import com.openrsc.server.login.LoginRequest;
@@ -82,21 +83,23 @@ public class PlayerService implements IPlayerService {
                 LOGGER.error("ERROR SAVING : PLAYER DOES NOT EXIST : {}", player.getUsername());
                 return player.checkAndIncrementSaveAttempts();
             }
+            final PlayerSaveState.Changes changes = player.getSaveState().changes();
             boolean realSuccess = database.atomically(() -> {
-                savePlayerBankPresets(player);
-                savePlayerInventory(player);
-                savePlayerEquipment(player);
-                savePlayerBank(player);
+                savePlayerBankPresets(player, changes);
+                savePlayerInventory(player, changes);
+                savePlayerEquipment(player, changes);
+                savePlayerBank(player, changes);
                 //savePlayerAchievements(player);
-                savePlayerQuests(player);
+                savePlayerQuests(player, changes);
                 savePlayerCastTime(player);
-                savePlayerCache(player);
-                savePlayerNpcKills(player);
+                savePlayerCache(player, changes);
+                savePlayerNpcKills(player, changes);
                 savePlayerData(player);
-                savePlayerSkills(player);
-                savePlayerSocial(player);
+                savePlayerSkills(player, changes);
+                savePlayerSocial(player, changes);
             });
             if (realSuccess) {
+                changes.commit(database.getSaveStatistics());
             	player.resetSaveAttempts();
 			}
             return realSuccess;
@@ -110,26 +113,29 @@ public class PlayerService implements IPlayerService {
     }
 
 	@Override
-	public void savePlayerMaxStats(final Player player) throws GameDatabaseException {
-		try {
-			if (!database.playerExists(player.getDatabaseID())) {
-				LOGGER.error("ERROR SAVING MAX SKILLS : PLAYER DOES NOT EXIST : {}", player.getUsername());
+	public void savePlayerMaxStats(final Player player) {
+		// Written on a database thread, as this is called on the tick and waiting for a connection would hold up every player
+		final int playerId = player.getDatabaseID();
+		final String username = player.getUsername();
+		final PlayerSkills[] maxSkills = database.getMaxSkills(player);
+		database.runAsync(() -> {
+			if (!database.playerExists(playerId)) {
+				LOGGER.error("ERROR SAVING MAX SKILLS : PLAYER DOES NOT EXIST : {}", username);
 				return;
 			}
-			database.atomically(() -> {
-				savePlayerMaxSkills(player);
-			});
-		} catch (final Exception ex) {
+			database.querySavePlayerMaxSkills(playerId, maxSkills);
+		}).exceptionally(ex -> {
 			LOGGER.error(
-				MessageFormat.format("Unable to save players max skills to database: {}", player.getUsername()),
+				MessageFormat.format("Unable to save players max skills to database: {0}", username),
 				ex
 			);
-			return;
-		}
+			return null;
+		});
 	}
 
     private void loadPlayerCache(final Player player) throws GameDatabaseException {
         final PlayerCache[] playerCache = database.queryLoadPlayerCache(player);
+        player.getSaveState().loadedCache(playerCache);
         for (PlayerCache cache : playerCache) {
             final int identifier = cache.type;
             final String key = cache.key;
@@ -212,6 +218,7 @@ public class PlayerService implements IPlayerService {
 
     private void loadPlayerInventory(final Player player) throws GameDatabaseException {
         final PlayerInventory[] invItems = database.queryLoadPlayerInvItems(player.getDatabaseID());
+        player.getSaveState().loadedInventory(invItems);
         final Inventory inv = new Inventory(player, invItems);
 
         player.getCarriedItems().setInventory(inv);
@@ -236,6 +243,7 @@ public class PlayerService implements IPlayerService {
             final Equipment equipment = new Equipment(player);
             synchronized (equipment.getList()) {
                 final PlayerEquipped[] equippedItems = database.queryLoadPlayerEquipped(player);
+                player.getSaveState().loadedEquipment(equippedItems);
 
                 // check if player is morphed
                 ItemDefinition morph = null;
@@ -277,6 +285,7 @@ public class PlayerService implements IPlayerService {
 
     private void loadPlayerBank(final Player player) throws GameDatabaseException {
         final PlayerBank[] bankItems = database.queryLoadPlayerBankItems(player.getDatabaseID());
+        player.getSaveState().loadedBank(bankItems);
         final Bank bank = new Bank(player);
         for (int i = 0; i < bankItems.length; i++) {
             bank.getItems().add(new Item(bankItems[i].itemId, bankItems[i].itemStatus));
@@ -309,6 +318,7 @@ public class PlayerService implements IPlayerService {
             return;
 
         final PlayerBankPreset[] bankPresets = database.queryLoadPlayerBankPresets(player);
+        player.getSaveState().loadedBankPresets(bankPresets);
 
         for (PlayerBankPreset bankPreset : bankPresets) {
             final int slot = bankPreset.slot;
@@ -320,12 +330,17 @@ public class PlayerService implements IPlayerService {
     }
 
     private void loadPlayerSocial(final Player player) throws GameDatabaseException {
-        player.getSocial().addFriends(database.queryLoadPlayerFriends(player));
-        player.getSocial().addIgnore(database.queryLoadPlayerIgnored(player));
+        final PlayerFriend[] friends = database.queryLoadPlayerFriends(player);
+        final PlayerIgnore[] ignores = database.queryLoadPlayerIgnored(player);
+        player.getSaveState().loadedFriends(friends);
+        player.getSaveState().loadedIgnores(ignores);
+        player.getSocial().addFriends(friends);
+        player.getSocial().addIgnore(ignores);
     }
 
     private void loadPlayerQuests(final Player player) throws GameDatabaseException {
         final PlayerQuest[] quests = database.queryLoadPlayerQuests(player);
+        player.getSaveState().loadedQuests(quests);
 
         for (PlayerQuest quest : quests) {
             player.setQuestStage(quest.questId, quest.stage);
@@ -351,6 +366,7 @@ public class PlayerService implements IPlayerService {
 
     private void loadPlayerNpcKills(final Player player) throws GameDatabaseException {
         final PlayerNpcKills[] kills = database.queryLoadPlayerNpcKills(player);
+        player.getSaveState().loadedNpcKills(kills);
         for (PlayerNpcKills kill : kills) {
             final int key = kill.npcId;
             final int value = kill.killCount;
@@ -360,8 +376,11 @@ public class PlayerService implements IPlayerService {
 
     private void loadPlayerSkills(final Player player) throws GameDatabaseException {
         final PlayerExperience[] exp = database.queryLoadPlayerExperience(player.getDatabaseID());
+        final PlayerSkills[] levels = database.queryLoadPlayerSkills(player, false);
+        player.getSaveState().loadedExperience(exp);
+        player.getSaveState().loadedSkills(levels);
         player.getSkills().loadExp(exp);
-        player.getSkills().loadLevels(database.queryLoadPlayerSkills(player, false));
+        player.getSkills().loadLevels(levels);
         try {
             player.getSkills().loadMaxLevels(database.queryLoadPlayerSkills(player, true));
         } catch (NoSuchElementException e) {
@@ -387,29 +406,29 @@ public class PlayerService implements IPlayerService {
         database.querySavePlayerData(player);
     }
 
-    private void savePlayerInventory(final Player player) throws GameDatabaseException {
-        database.savePlayerInventory(player);
+    private void savePlayerInventory(final Player player, final PlayerSaveState.Changes changes) throws GameDatabaseException {
+        database.savePlayerInventory(player, changes);
     }
 
-    private void savePlayerEquipment(final Player player) throws GameDatabaseException {
-        database.querySavePlayerEquipped(player);
+    private void savePlayerEquipment(final Player player, final PlayerSaveState.Changes changes) throws GameDatabaseException {
+        database.querySavePlayerEquipped(player, changes);
     }
 
-    private void savePlayerBank(final Player player) throws GameDatabaseException {
-        database.savePlayerBank(player);
+    private void savePlayerBank(final Player player, final PlayerSaveState.Changes changes) throws GameDatabaseException {
+        database.savePlayerBank(player, changes);
     }
 
-    private void savePlayerBankPresets(final Player player) throws GameDatabaseException {
-        database.querySavePlayerBankPresets(player);
+    private void savePlayerBankPresets(final Player player, final PlayerSaveState.Changes changes) throws GameDatabaseException {
+        database.querySavePlayerBankPresets(player, changes);
     }
 
-    private void savePlayerSocial(final Player player) throws GameDatabaseException {
-        database.querySavePlayerFriends(player);
-        database.querySavePlayerIgnored(player);
+    private void savePlayerSocial(final Player player, final PlayerSaveState.Changes changes) throws GameDatabaseException {
+        database.querySavePlayerFriends(player, changes);
+        database.querySavePlayerIgnored(player, changes);
     }
 
-    private void savePlayerQuests(final Player player) throws GameDatabaseException {
-        database.querySavePlayerQuests(player);
+    private void savePlayerQuests(final Player player, final PlayerSaveState.Changes changes) throws GameDatabaseException {
+        database.querySavePlayerQuests(player, changes);
     }
 
     private void savePlayerAchievements(final Player player) throws GameDatabaseException {
@@ -418,26 +437,30 @@ public class PlayerService implements IPlayerService {
 
     @Override
     public void savePlayerCache(final Player player) throws GameDatabaseException {
+        final PlayerSaveState.Changes changes = player.getSaveState().changes();
+        if (!database.atomically(() -> savePlayerCache(player, changes))) {
+            throw new GameDatabaseException(PlayerService.class, "Unable to save player cache: " + player.getUsername());
+        }
+        changes.commit(database.getSaveStatistics());
+    }
+
+    private void savePlayerCache(final Player player, final PlayerSaveState.Changes changes) throws GameDatabaseException {
         player.getCache().store("last_spell_cast", player.getCastTimer());
-        database.querySavePlayerCache(player);
+        database.querySavePlayerCache(player, changes);
     }
 
-    private void savePlayerNpcKills(final Player player) throws GameDatabaseException {
+    private void savePlayerNpcKills(final Player player, final PlayerSaveState.Changes changes) throws GameDatabaseException {
         if (player.getKillCacheUpdated()) {
-            database.querySavePlayerNpcKills(player);
+            database.querySavePlayerNpcKills(player, changes);
             player.setKillCacheUpdated(false);
         }
     }
 
-    private void savePlayerSkills(final Player player) throws GameDatabaseException {
-        database.querySavePlayerSkills(player);
-        database.querySavePlayerExperience(player);
+    private void savePlayerSkills(final Player player, final PlayerSaveState.Changes changes) throws GameDatabaseException {
+        database.querySavePlayerSkills(player, changes);
+        database.querySavePlayerExperience(player, changes);
     }
 
-	private void savePlayerMaxSkills(final Player player) throws GameDatabaseException {
-		database.querySavePlayerMaxSkills(player);
-	}
-
     public void savePlayerMaxSkill(final int playerId, final int skillId, final int level) throws GameDatabaseException {
     	database.querySavePlayerMaxSkill(playerId, skillId, level);
     }
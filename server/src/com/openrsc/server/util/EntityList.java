@@ -1,6 +1,5 @@
 package com.openrsc.server.util;
 
-import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 import com.openrsc.server.model.entity.Entity;
 
@@ -8,130 +7,273 @@ import java.text.MessageFormat;
 import java.util.AbstractCollection;
 import java.util.Arrays;
 import java.util.Iterator;
-import java.util.Objects;
-import java.util.PriorityQueue;
-import java.util.Queue;
+import java.util.NoSuchElementException;
 import java.util.Set;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.stream.Collectors;
-import java.util.stream.IntStream;
+import java.util.function.Consumer;
 
-@SuppressWarnings("ConstantConditions")
+/**
+ * Entities by the index the list gives them, which is always the lowest free one.
+ *
+ * Which indices are taken is kept as a bitset, so finding a free index or the next entity is a scan over words
+ * rather than over every slot. The list grows when it is full.
+ *
+ * Changes are synchronized. Reads and iteration are not, and see the list as it is while they run: iterating never
+ * copies the list, never throws because the list changed, and never returns an entity that was removed before it
+ * was reached.
+ *
+ * Indices go to clients in a fixed number of bits, so the list never grows past the maximum it is given.
+ */
 public class EntityList<T extends Entity> extends AbstractCollection<T> {
 
-    public static final int DEFAULT_CAPACITY = 2000;
-    private Queue<Integer> priorityIdPool;
-    private ConcurrentHashMap<Integer, Object> occupiedIndices;
-    private final int capacity;
-    private Object[] entities;
+	public static final int DEFAULT_CAPACITY = 2000;
+	private static final int ADDRESS_BITS_PER_WORD = 6;
+	private static final int BITS_PER_WORD = 1 << ADDRESS_BITS_PER_WORD;
 
-    public EntityList() {
-        this(DEFAULT_CAPACITY);
-    }
+	private final int initialCapacity;
+	private final int maximum;
+	/**
+	 * Always replaced before {@link #occupied} when growing, so anything read from the bitset is within it.
+	 */
+	private volatile Object[] entities;
+	private volatile long[] occupied;
+	private volatile int size;
+	/**
+	 * Every word of the bitset before this one is full.
+	 */
+	private int firstFreeWord;
 
-    public EntityList(final int capacity) {
-		this.capacity = capacity;
+	public EntityList() {
+		this(DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * @param capacity The most entities the list holds. It never grows.
+	 */
+	public EntityList(final int capacity) {
+		this(capacity, capacity);
+	}
+
+	/**
+	 * @param capacity The number of entities the list has room for before it grows.
+	 * @param maximum  The most entities the list holds, so the highest index is one less.
+	 */
+	public EntityList(final int capacity, final int maximum) {
+		this.maximum = Math.max(maximum, 1);
+		this.initialCapacity = Math.min(Math.max(capacity, 1), this.maximum);
 		initialize();
-    }
+	}
+
+	private static int wordsFor(final int capacity) {
+		return (capacity + BITS_PER_WORD - 1) >>> ADDRESS_BITS_PER_WORD;
+	}
 
 	private void initialize() {
-		this.priorityIdPool = IntStream.range(0, capacity)
-			.boxed()
-			.collect(Collectors.toCollection(() -> new PriorityQueue<>(capacity)));
-		this.occupiedIndices = new ConcurrentHashMap<>();
-		this.entities = new Object[capacity];
-	}
-
-    public synchronized boolean add(final T entity) {
-        if (size() >= capacity) {
-            throw new IllegalStateException(
-                    MessageFormat.format(
-                            "Attempt to add entity would exceed capacity of {0}",
-                            capacity
-                    )
-            );
-        }
-
-        int nextId = priorityIdPool.poll();
-        entities[nextId] = entity;
-        entity.setIndex(nextId);
-        occupiedIndices.put(nextId, new Object());
-        return true;
-    }
-
-    public boolean contains(final T entity) {
-        return indexOf(entity) > -1;
-    }
-
-    public int count() {
-        return getOccupiedIndices().size();
-    }
-
-    public int size() {
-        return getOccupiedIndices().size();
-    }
-
-    @SuppressWarnings("unchecked")
-    public T get(final int index) {
-        if(entities[index] != null) {
-            return (T) entities[index];
-        }
-        return null;
-    }
-
-    private int indexOf(final T entity) {
-        // Check if the entity at the index provided by the entity matches first
-        final int candidateIndex = entity.getIndex();
-        if (candidateIndex >= 0 && candidateIndex < capacity) {
-            if (entity.equals(entities[candidateIndex])) {
-                return candidateIndex;
-            }
-        }
-
-        // If it wasn't a match, iterate and find it
-        for (int index : getOccupiedIndices()) {
-            if (entities[index].equals(entity)) {
-                return index;
-            }
-        }
-        return -1;
-    }
-
-    @SuppressWarnings("unchecked")
-    public Iterator<T> iterator() {
-        return Arrays.stream(entities)
-                .filter(Objects::nonNull)
-                .map(entity -> (T) entity)
-                .collect(ImmutableList.toImmutableList())
-                .iterator();
-    }
-
-	public void clear() {
+		final int words = wordsFor(initialCapacity);
+		this.entities = new Object[words << ADDRESS_BITS_PER_WORD];
+		this.occupied = new long[words];
+		this.size = 0;
+		this.firstFreeWord = 0;
+	}
+
+	public synchronized boolean add(final T entity) {
+		if (size >= maximum) {
+			throw new IllegalStateException(
+				MessageFormat.format(
+					"Attempt to add entity would exceed capacity of {0}",
+					maximum
+				)
+			);
+		}
+
+		final int index = nextFreeIndex();
+		entities[index] = entity;
+		entity.setIndex(index);
+		occupied[index >>> ADDRESS_BITS_PER_WORD] |= 1L << index;
+		size++;
+		return true;
+	}
+
+	/**
+	 * @return The lowest free index, after growing the list if there is none. Below the maximum while the list is not full.
+	 */
+	private int nextFreeIndex() {
+		final long[] words = occupied;
+		for (int word = firstFreeWord; word < words.length; word++) {
+			final long free = ~words[word];
+			if (free != 0) {
+				firstFreeWord = word;
+				return (word << ADDRESS_BITS_PER_WORD) + Long.numberOfTrailingZeros(free);
+			}
+		}
+		firstFreeWord = words.length;
+		grow();
+		return firstFreeWord << ADDRESS_BITS_PER_WORD;
+	}
+
+	private void grow() {
+		final long[] words = occupied;
+		final int newWords = Math.min(words.length << 1, wordsFor(maximum));
+		entities = Arrays.copyOf(entities, newWords << ADDRESS_BITS_PER_WORD);
+		occupied = Arrays.copyOf(words, newWords);
+	}
+
+	public boolean contains(final T entity) {
+		return indexOf(entity) > -1;
+	}
+
+	/**
+	 * @return The most entities the list holds.
+	 */
+	public int getMaximum() {
+		return maximum;
+	}
+
+	public int count() {
+		return size;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	@SuppressWarnings("unchecked")
+	public T get(final int index) {
+		final Object[] entities = this.entities;
+		if (index < 0 || index >= entities.length) {
+			return null;
+		}
+		return (T) entities[index];
+	}
+
+	private int indexOf(final T entity) {
+		final Object[] entities = this.entities;
+
+		// Check if the entity at the index provided by the entity matches first
+		final int candidateIndex = entity.getIndex();
+		if (candidateIndex >= 0 && candidateIndex < entities.length) {
+			if (entity.equals(entities[candidateIndex])) {
+				return candidateIndex;
+			}
+		}
+
+		// If it wasn't a match, iterate and find it
+		for (int index = nextOccupied(0); index >= 0; index = nextOccupied(index + 1)) {
+			if (entity.equals(entities[index])) {
+				return index;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * @return The lowest taken index from the given one on, or -1 if there is none.
+	 */
+	private int nextOccupied(final int fromIndex) {
+		final long[] words = occupied;
+		int word = fromIndex >>> ADDRESS_BITS_PER_WORD;
+		if (word >= words.length) {
+			return -1;
+		}
+		long bits = words[word] & (-1L << fromIndex);
+		while (bits == 0) {
+			if (++word == words.length) {
+				return -1;
+			}
+			bits = words[word];
+		}
+		return (word << ADDRESS_BITS_PER_WORD) + Long.numberOfTrailingZeros(bits);
+	}
+
+	/**
+	 * Goes through the entities in index order as the list is at the time each one is reached.
+	 */
+	public Iterator<T> iterator() {
+		return new Cursor();
+	}
+
+	/**
+	 * Visits the entities as {@link #iterator} does, without allocating anything.
+	 */
+	@Override
+	@SuppressWarnings("unchecked")
+	public void forEach(final Consumer<? super T> action) {
+		for (int index = nextOccupied(0); index >= 0; index = nextOccupied(index + 1)) {
+			final Object entity = entities[index];
+			if (entity != null) {
+				action.accept((T) entity);
+			}
+		}
+	}
+
+	public synchronized void clear() {
 		initialize();
 	}
 
-    @SuppressWarnings("unchecked")
-    public synchronized T remove(final int index) {
-        if(index >= 0) {
-            T entity = (T) entities[index];
-            entities[index] = null;
-            occupiedIndices.remove(index);
-            priorityIdPool.offer(index);
-            return entity;
-        }
-        return null;
-    }
-
-    public synchronized void remove(final T entity) {
-        final int index = entity.getIndex();
-        remove(index);
-    }
-
-    private ConcurrentHashMap.KeySetView<Integer, Object> getOccupiedIndices() {
-        return occupiedIndices.keySet();
-    }
-
-    public Set<Integer> indices() {
-        return ImmutableSet.copyOf(getOccupiedIndices());
-    }
+	@SuppressWarnings("unchecked")
+	public synchronized T remove(final int index) {
+		if (index < 0 || index >= entities.length) {
+			return null;
+		}
+		final int word = index >>> ADDRESS_BITS_PER_WORD;
+		final long bit = 1L << index;
+		if ((occupied[word] & bit) == 0) {
+			return null;
+		}
+		occupied[word] &= ~bit;
+		final T entity = (T) entities[index];
+		entities[index] = null;
+		size--;
+		if (word < firstFreeWord) {
+			firstFreeWord = word;
+		}
+		return entity;
+	}
+
+	public synchronized void remove(final T entity) {
+		final int index = indexOf(entity);
+		if (index >= 0) {
+			remove(index);
+		}
+	}
+
+	public Set<Integer> indices() {
+		final ImmutableSet.Builder<Integer> indices = ImmutableSet.builder();
+		for (int index = nextOccupied(0); index >= 0; index = nextOccupied(index + 1)) {
+			indices.add(index);
+		}
+		return indices.build();
+	}
+
+	/**
+	 * Holds the index it is at and the entity it will return next, which it finds before being asked for it so that
+	 * one removed in between is still returned once {@link #hasNext} has said there is one.
+	 */
+	private final class Cursor implements Iterator<T> {
+		private int index = -1;
+		private T next;
+
+		@Override
+		@SuppressWarnings("unchecked")
+		public boolean hasNext() {
+			while (next == null) {
+				final int found = nextOccupied(index + 1);
+				if (found < 0) {
+					return false;
+				}
+				index = found;
+				next = (T) entities[index];
+			}
+			return true;
+		}
+
+		@Override
+		public T next() {
+			if (!hasNext()) {
+				throw new NoSuchElementException();
+			}
+			final T entity = next;
+			next = null;
+			return entity;
+		}
+	}
 }
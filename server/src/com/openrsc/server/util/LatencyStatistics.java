@@ -0,0 +1,39 @@
+package com.openrsc.server.util;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A running count, total and maximum of how long something took. Safe to record into from any number of threads.
+ */
+public final class LatencyStatistics {
+	private final LongAdder count = new LongAdder();
+	private final LongAdder duration = new LongAdder();
+	private final LongAccumulator maxDuration = new LongAccumulator(Math::max, 0);
+
+	/**
+	 * @param duration - time taken in nanoseconds
+	 */
+	public void record(final long duration) {
+		count.increment();
+		this.duration.add(duration);
+		maxDuration.accumulate(duration);
+	}
+
+	public long getCount() {
+		return count.sum();
+	}
+
+	public long getDuration() {
+		return duration.sum();
+	}
+
+	public long getAverageDuration() {
+		final long count = getCount();
+		return count == 0 ? 0 : getDuration() / count;
+	}
+
+	public long getMaxDuration() {
+		return maxDuration.get();
+	}
+}
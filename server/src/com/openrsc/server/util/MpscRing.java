@@ -0,0 +1,99 @@
+package com.openrsc.server.util;
+
+import java.util.Collection;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A bounded queue any number of threads can add to without locking, drained by a single thread.
+ *
+ * Producers claim a slot by advancing the tail and then publish into it, so the consumer stops at a slot that has
+ * been claimed but not yet published and picks it up on its next poll.
+ */
+public final class MpscRing<E> {
+	private final AtomicReferenceArray<E> buffer;
+	private final int capacity;
+	private final int mask;
+	private final AtomicLong tail = new AtomicLong();
+	/**
+	 * Only written by the consumer.
+	 */
+	private volatile long head;
+
+	/**
+	 * @param capacity Rounded up to a power of two.
+	 */
+	public MpscRing(final int capacity) {
+		if (capacity < 1 || capacity > 1 << 30) {
+			throw new IllegalArgumentException("Capacity out of range: " + capacity);
+		}
+		this.capacity = Integer.highestOneBit(capacity) == capacity ? capacity : Integer.highestOneBit(capacity) << 1;
+		this.mask = this.capacity - 1;
+		this.buffer = new AtomicReferenceArray<>(this.capacity);
+	}
+
+	/**
+	 * @return false if the ring is full, in which case nothing was added.
+	 */
+	public boolean offer(final E element) {
+		Objects.requireNonNull(element);
+		long claimed;
+		do {
+			claimed = tail.get();
+			if (claimed - head >= capacity) {
+				return false;
+			}
+		} while (!tail.compareAndSet(claimed, claimed + 1));
+		buffer.lazySet((int) claimed & mask, element);
+		return true;
+	}
+
+	/**
+	 * Consumer only.
+	 *
+	 * @return The oldest element, or null if there is none ready.
+	 */
+	public E poll() {
+		final long current = head;
+		final int index = (int) current & mask;
+		final E element = buffer.get(index);
+		if (element == null) {
+			return null;
+		}
+		buffer.lazySet(index, null);
+		head = current + 1;
+		return element;
+	}
+
+	/**
+	 * Consumer only.
+	 *
+	 * @return How many elements were moved into the collection.
+	 */
+	public int drain(final Collection<? super E> collection, final int limit) {
+		int drained = 0;
+		E element;
+		while (drained < limit && (element = poll()) != null) {
+			collection.add(element);
+			drained++;
+		}
+		return drained;
+	}
+
+	/**
+	 * @return The number of elements added and not yet polled. Only an estimate while producers are adding.
+	 */
+	public int size() {
+		final long size = tail.get() - head;
+		return (int) Math.max(0, Math.min(capacity, size));
+	}
+
+	public boolean isEmpty() {
+		return size() == 0;
+	}
+
+	public int capacity() {
+		return capacity;
+	}
+}
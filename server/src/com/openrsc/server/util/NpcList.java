@@ -0,0 +1,88 @@
+package com.openrsc.server.util;
+
+import com.openrsc.server.model.entity.npc.Npc;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * An {@link EntityList} of NPCs that also finds them by their UUID and by the id of their definition. The lookups are
+ * kept up to date under the same lock as the list, and can be read without it.
+ */
+public class NpcList extends EntityList<Npc> {
+	/**
+	 * NPC indices are sent in 12 bits.
+	 */
+	public static final int MAX_NPCS = 1 << 12;
+
+	private final Map<UUID, Npc> uuidIndex = new ConcurrentHashMap<>();
+	private final Map<Integer, List<Npc>> idIndex = new ConcurrentHashMap<>();
+
+	public NpcList() {
+		super();
+	}
+
+	public NpcList(final int capacity) {
+		super(capacity);
+	}
+
+	public NpcList(final int capacity, final int maximum) {
+		super(capacity, maximum);
+	}
+
+	@Override
+	public synchronized boolean add(final Npc entity) {
+		if (super.add(entity)) {
+			uuidIndex.put(entity.getUUID(), entity);
+			idIndex.computeIfAbsent(entity.getID(), id -> new CopyOnWriteArrayList<>()).add(entity);
+		}
+		return true;
+	}
+
+	@Override
+	public synchronized Npc remove(final int index) {
+		final Npc npc = super.remove(index);
+		if (npc != null) {
+			uuidIndex.remove(npc.getUUID(), npc);
+			final List<Npc> withId = idIndex.get(npc.getID());
+			if (withId != null) {
+				withId.remove(npc);
+				if (withId.isEmpty()) {
+					idIndex.remove(npc.getID());
+				}
+			}
+		}
+		return npc;
+	}
+
+	@Override
+	public synchronized void clear() {
+		super.clear();
+		uuidIndex.clear();
+		idIndex.clear();
+	}
+
+	/**
+	 * Gets an NPC by its UUID
+	 * @param uuid uuid
+	 * @return the NPC associated with this uuid
+	 */
+	public Npc getNpcByUUID(final UUID uuid) {
+		return uuidIndex.get(uuid);
+	}
+
+	/**
+	 * Gets every NPC with a definition id, in no particular order
+	 * @param id definition id
+	 * @return the NPCs with this id, which can be iterated while NPCs are added or removed
+	 */
+	public Collection<Npc> getNpcsById(final int id) {
+		final List<Npc> withId = idIndex.get(id);
+		return withId == null ? Collections.emptyList() : Collections.unmodifiableList(withId);
+	}
+}
@@ -19,30 +19,34 @@ public final class PersistenceManager {
 	 */
 	private static final Logger LOGGER = LogManager.getLogger();
 
-	private static final XStream xstream = new XStream();
-
 	private final Server server;
 
+	/**
+	 * Only set up once something is read or written, as definitions are usually read from the definition cache.
+	 */
+	private XStream xstream;
+
 	public PersistenceManager(Server server) {
 		this.server = server;
-		xstream.addPermission(AnyTypePermission.ANY);
-		setupAliases();
+	}
+
+	private synchronized XStream getXStream() {
+		if (xstream == null) {
+			xstream = new XStream();
+			xstream.addPermission(AnyTypePermission.ANY);
+			setupAliases();
+		}
+		return xstream;
 	}
 
 	public Object load(String filename) {
 		try {
-			File theFile = new File(getServer().getConfig().CONFIG_DIR, filename);
-			boolean isGzipped = false;
-			if (!theFile.exists()) {
-				// fallback for old servers using .gz definitions
-				theFile = new File(getServer().getConfig().CONFIG_DIR, filename + ".gz");
-				isGzipped = true;
-			}
+			File theFile = getFile(filename);
 			InputStream is = new FileInputStream(theFile);
-			if (isGzipped) {
+			if (theFile.getName().endsWith(".gz")) {
 				is = new GZIPInputStream(is);
 			}
-			Object rv = xstream.fromXML(is);
+			Object rv = getXStream().fromXML(is);
 			return rv;
 		} catch (IOException ioe) {
 			LOGGER.catching(ioe);
@@ -50,6 +54,18 @@ public final class PersistenceManager {
 		return null;
 	}
 
+	/**
+	 * @return The file {@link #load} reads for the name.
+	 */
+	public File getFile(String filename) {
+		File theFile = new File(getServer().getConfig().CONFIG_DIR, filename);
+		if (!theFile.exists()) {
+			// fallback for old servers using .gz definitions
+			theFile = new File(getServer().getConfig().CONFIG_DIR, filename + ".gz");
+		}
+		return theFile;
+	}
+
 	protected void setupAliases() {
 		try {
 			Properties aliases = new Properties();
@@ -71,7 +87,7 @@ public final class PersistenceManager {
 			if (filename.endsWith(".gz")) {
 				os = new GZIPOutputStream(os);
 			}
-			xstream.toXML(o, os);
+			getXStream().toXML(o, os);
 		} catch (IOException ioe) {
 			LOGGER.catching(ioe);
 		}
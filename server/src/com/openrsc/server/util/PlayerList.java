@@ -2,11 +2,23 @@ package com.openrsc.server.util;
 
 import com.openrsc.server.model.entity.player.Player;
 
-import java.util.HashMap;
 import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * An {@link EntityList} of players that also finds them by their username hash, database id and UUID. The lookups are
+ * kept up to date under the same lock as the list, and can be read without it.
+ */
 public class PlayerList extends EntityList<Player> {
-    private final Map<Long, Player> playerHashIndex = new HashMap<>();
+    /**
+     * Player indices are sent in 11 bits.
+     */
+    public static final int MAX_PLAYERS = 1 << 11;
+
+    private final Map<Long, Player> playerHashIndex = new ConcurrentHashMap<>();
+    private final Map<Integer, Player> databaseIdIndex = new ConcurrentHashMap<>();
+    private final Map<UUID, Player> uuidIndex = new ConcurrentHashMap<>();
 
     public PlayerList() {
         super();
@@ -16,10 +28,16 @@ public class PlayerList extends EntityList<Player> {
         super(capacity);
     }
 
+    public PlayerList(int capacity, int maximum) {
+        super(capacity, maximum);
+    }
+
     @Override
     public synchronized boolean add(Player entity) {
         if(super.add(entity)) {
             playerHashIndex.put(entity.getUsernameHash(), entity);
+            databaseIdIndex.put(entity.getDatabaseID(), entity);
+            uuidIndex.put(entity.getUUID(), entity);
         }
         return true;
     }
@@ -28,11 +46,22 @@ public class PlayerList extends EntityList<Player> {
     public synchronized Player remove(int index) {
         Player player = super.remove(index);
         if(player != null) {
-            playerHashIndex.remove(player.getUsernameHash());
+            // Another player may have logged in to the same account before this one was removed
+            playerHashIndex.remove(player.getUsernameHash(), player);
+            databaseIdIndex.remove(player.getDatabaseID(), player);
+            uuidIndex.remove(player.getUUID(), player);
         }
         return player;
     }
 
+    @Override
+    public synchronized void clear() {
+        super.clear();
+        playerHashIndex.clear();
+        databaseIdIndex.clear();
+        uuidIndex.clear();
+    }
+
     /**
      * Gets a player by their username hash
      * @param hash username hash
@@ -41,4 +70,22 @@ public class PlayerList extends EntityList<Player> {
     public Player getPlayerByHash(long hash) {
         return playerHashIndex.get(hash);
     }
+
+    /**
+     * Gets a player by their database id
+     * @param databaseId database id
+     * @return the player associated with this id
+     */
+    public Player getPlayerByDatabaseId(int databaseId) {
+        return databaseIdIndex.get(databaseId);
+    }
+
+    /**
+     * Gets a player by their UUID
+     * @param uuid uuid
+     * @return the player associated with this uuid
+     */
+    public Player getPlayerByUUID(UUID uuid) {
+        return uuidIndex.get(uuid);
+    }
 }
@@ -0,0 +1,160 @@
+package com.openrsc.server.model;
+
+import com.openrsc.server.model.world.region.TileMap;
+import com.openrsc.server.util.rsc.CollisionFlag;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks the pathfinder against the one it replaced on random maps: both must find the end reachable or not alike,
+ * find paths of the same cost, and the new one must only take steps the old one would have.
+ */
+public class AStarPathfinderTest {
+	private static final int CENTER_X = 500;
+	private static final int CENTER_Y = 2000;
+	private static final int WALLS = CollisionFlag.WALL_NORTH | CollisionFlag.WALL_EAST
+		| CollisionFlag.WALL_SOUTH | CollisionFlag.WALL_WEST;
+
+	private static TileMap tiles;
+
+	/**
+	 * Keeps every step rather than only the first few, so whole paths can be compared.
+	 */
+	private static final class RecordingPath extends Path {
+		private final List<Point> points = new ArrayList<>();
+
+		private RecordingPath() {
+			super(null, PathType.WALK_TO_POINT);
+		}
+
+		@Override
+		public void addDirect(final int x, final int y) {
+			points.add(0, new Point(x, y));
+		}
+	}
+
+	@BeforeAll
+	public static void createTiles() {
+		tiles = new TileMap();
+	}
+
+	private static void randomize(final Random random, final int depth, final double blockedChance, final double wallChance) {
+		for (int x = CENTER_X - depth - 1; x <= CENTER_X + depth + 1; x++) {
+			for (int y = CENTER_Y - depth - 1; y <= CENTER_Y + depth + 1; y++) {
+				int mask = 0;
+				if (random.nextDouble() < blockedChance) {
+					mask = CollisionFlag.FULL_BLOCK_A;
+				} else if (random.nextDouble() < wallChance) {
+					mask = random.nextInt(WALLS) + 1;
+				}
+				tiles.setTraversalMask(x, y, mask);
+			}
+		}
+		tiles.setTraversalMask(CENTER_X, CENTER_Y, 0);
+	}
+
+	private static int cost(final Point start, final List<Point> steps, final Point end) {
+		final List<Point> points = new ArrayList<>();
+		points.add(start);
+		points.addAll(steps);
+		points.add(end);
+		int cost = 0;
+		for (int i = 1; i < points.size(); i++) {
+			final int dx = Math.abs(points.get(i).getX() - points.get(i - 1).getX());
+			final int dy = Math.abs(points.get(i).getY() - points.get(i - 1).getY());
+			assertTrue(dx <= 1 && dy <= 1 && dx + dy > 0, "not a single step to " + points.get(i));
+			cost += dx + dy == 2 ? 14 : 10;
+		}
+		return cost;
+	}
+
+	/**
+	 * @param outcomes Counts of reachable and unreachable ends, added to.
+	 */
+	private static void compare(final Random random, final int depth, final int searches, final boolean jumpPoints,
+								final int[] outcomes) {
+		final Point start = new Point(CENTER_X, CENTER_Y);
+		for (int search = 0; search < searches; search++) {
+			final Point end = new Point(CENTER_X + random.nextInt(2 * depth + 1) - depth,
+				CENTER_Y + random.nextInt(2 * depth + 1) - depth);
+
+			final LegacyAStarPathfinder legacy = new LegacyAStarPathfinder(tiles, start, end, depth);
+			final RecordingPath legacyPath = new RecordingPath();
+			legacy.feedPath(legacyPath);
+			final boolean legacyFound = legacy.findPath() != null;
+
+			final RecordingPath path = new RecordingPath();
+			final boolean found = AStarPathfinder.get().findPath(tiles, start, end, depth, path, 0, jumpPoints) != null;
+
+			final String where = "from " + start + " to " + end + " at depth " + depth;
+			assertEquals(legacyFound, found, where);
+			if (!found) {
+				outcomes[1]++;
+				continue;
+			}
+			outcomes[0]++;
+			assertEquals(cost(start, legacyPath.points, end), cost(start, path.points, end), where);
+			Point from = start;
+			for (final Point to : path.points) {
+				assertTrue(legacy.canStep(from, to), "step " + from + " to " + to + " " + where);
+				from = to;
+			}
+			assertTrue(legacy.canStep(from, end), "step " + from + " to " + end + " " + where);
+		}
+	}
+
+	private static void compareOnRandomMaps(final long seed, final boolean jumpPoints) {
+		final Random random = new Random(seed);
+		final int[] outcomes = new int[2];
+		for (int map = 0; map < 60; map++) {
+			final int depth = 4 + random.nextInt(17);
+			randomize(random, depth, 0.1 + random.nextDouble() * 0.3, random.nextDouble() * 0.2);
+			compare(random, depth, 20, jumpPoints, outcomes);
+		}
+		// Both kinds of search must have been compared
+		assertTrue(outcomes[0] > 100 && outcomes[1] > 100, outcomes[0] + " reachable, " + outcomes[1] + " unreachable");
+	}
+
+	@Test
+	public void matchesLegacyOnRandomMaps() {
+		compareOnRandomMaps(21, false);
+	}
+
+	@Test
+	public void jumpPointsMatchLegacyOnRandomMaps() {
+		compareOnRandomMaps(22, true);
+	}
+
+	@Test
+	public void findsNothingForAWalledInEnd() {
+		final int depth = 10;
+		randomize(new Random(0), depth, 0, 0);
+		final Point start = new Point(CENTER_X, CENTER_Y);
+		final Point end = new Point(CENTER_X + 5, CENTER_Y + 5);
+		for (int x = end.getX() - 1; x <= end.getX() + 1; x++) {
+			for (int y = end.getY() - 1; y <= end.getY() + 1; y++) {
+				if (x != end.getX() || y != end.getY()) {
+					tiles.setTraversalMask(x, y, CollisionFlag.FULL_BLOCK_A);
+				}
+			}
+		}
+
+		final LegacyAStarPathfinder legacy = new LegacyAStarPathfinder(tiles, start, end, depth);
+		legacy.feedPath(new RecordingPath());
+		assertNull(legacy.findPath());
+		assertNull(AStarPathfinder.get().findPath(tiles, start, end, depth, new RecordingPath(), 0, false));
+		assertNull(AStarPathfinder.get().findPath(tiles, start, end, depth, new RecordingPath(), 0, true));
+
+		tiles.setTraversalMask(end.getX() - 1, end.getY(), 0);
+		assertNotNull(AStarPathfinder.get().findPath(tiles, start, end, depth, new RecordingPath(), 0, false));
+	}
+}
@@ -0,0 +1,382 @@
+package com.openrsc.server.model;
+
+import com.openrsc.server.model.world.region.TileMap;
+import com.openrsc.server.model.world.region.TileValue;
+import com.openrsc.server.util.rsc.CollisionFlag;
+
+import java.util.ArrayList;
+
+/**
+ * The pathfinder as it was before it kept its grid between searches, with its node lists scanned and a board of
+ * node objects built for every search. Kept to check the current one against, reading tiles from a {@link TileMap}
+ * rather than a world and without the debug panel.
+ */
+final class LegacyAStarPathfinder {
+	final static int basicCost = 10;
+	final static int diagCost = 14;
+	private int depth;
+	private Node[][] costBoard = null;
+	private Point worldStart;
+	private Point pointStart;
+	private Point pointEnd;
+	private Path path;
+	private ArrayList<Node> openNodes = new ArrayList<>();
+	private ArrayList<Node> closedNodes = new ArrayList<>();
+
+	LegacyAStarPathfinder(TileMap tiles, Point start, Point end, int depth) {
+		this.worldStart = start;
+		this.pointStart = new Point(depth,depth);
+		this.pointEnd = new Point((start.getX()+depth)-end.getX(), end.getY() - (start.getY() - depth));
+		this.depth = depth;
+		this.generateTraversalInfo(tiles, start, depth);
+	}
+
+	void feedPath(Path path) {
+		this.path = path;
+	}
+
+	private void generateTraversalInfo(TileMap tiles, Point center, int depth) {
+		if (depth < 1)
+			return;
+
+		costBoard = new Node[2*depth + 1][2*depth + 1];
+		initBoard(costBoard);
+		int curposx, curposy;
+		for (int x = -depth; x <= depth; x++) {
+			for (int y = -depth; y <= depth; y++) {
+				TileValue tile = tiles.getTileValue(center.getX() - x, center.getY() + y);
+				if (tile == null) {
+					continue;
+				}
+				curposx = x + depth;
+				curposy = y + depth;
+
+				if ((tile.traversalMask & (CollisionFlag.FULL_BLOCK_A | CollisionFlag.FULL_BLOCK_B | CollisionFlag.FULL_BLOCK_C)) != 0) {
+					if (y < depth) {
+						costBoard[curposx][curposy+1].northBlocked = true;
+					}
+					if (x > -depth) {
+						costBoard[curposx-1][curposy].eastBlocked = true;
+					}
+					if (y > -depth) {
+						costBoard[curposx][curposy-1].southBlocked = true;
+					}
+					if (x < depth) {
+						costBoard[curposx+1][curposy].westBlocked = true;
+					}
+				} else {
+					if (!costBoard[curposx][curposy].southBlocked)
+						costBoard[curposx][curposy].southBlocked = (tile.traversalMask & CollisionFlag.SOUTH_BLOCKED) != 0;
+					if (!costBoard[curposx][curposy].westBlocked)
+						costBoard[curposx][curposy].westBlocked = (tile.traversalMask & CollisionFlag.WEST_BLOCKED) != 0;
+					if (!costBoard[curposx][curposy].northBlocked)
+						costBoard[curposx][curposy].northBlocked = (tile.traversalMask & CollisionFlag.NORTH_BLOCKED) != 0;
+					if (!costBoard[curposx][curposy].eastBlocked)
+						costBoard[curposx][curposy].eastBlocked = (tile.traversalMask & CollisionFlag.EAST_BLOCKED) != 0;
+				}
+			}
+		}
+	}
+
+	private int calcDistance(Point one, Point two) {
+		int xdiff = Math.abs(one.getX() - two.getX());
+		int ydiff = Math.abs(one.getY() - two.getY());
+
+		int shortL = xdiff > ydiff ? ydiff : xdiff;
+		int longL = xdiff > ydiff ? xdiff : ydiff;
+
+		return shortL * diagCost + (longL - shortL) * basicCost;
+	}
+
+	private Node findNextNode() {
+		int minimum = Integer.MAX_VALUE;
+		Node minNode = null;
+		for (Node node : openNodes) {
+			if (node.hCost < minimum) {
+				minimum = node.hCost;
+				minNode = node;
+			} else if (node.hCost == minimum && node.fCost < minNode.fCost)
+				minNode = node;
+
+		}
+		return minNode;
+	}
+
+	private Path buildPath() {
+		Point parent = closedNodes.get(closedNodes.size()-1).parent;
+		Node endNode = costBoard[parent.getX()][parent.getY()];
+		while (endNode != null) {
+			int worldX = worldStart.getX() + depth - endNode.position.getX();
+			int worldY = worldStart.getY() - depth + endNode.position.getY();
+			if (endNode.parent == null)
+				endNode = null;
+			else {
+				path.addDirect(worldX, worldY);
+				endNode = costBoard[endNode.parent.getX()][endNode.parent.getY()];
+			}
+
+		}
+		return path;
+	}
+
+	Path findPath() {
+		if (depth < 1)
+			return null;
+
+		if (pointStart.getX() == pointEnd.getX()
+		&& pointStart.getY() == pointEnd.getY())
+			return null;
+
+		costBoard[depth][depth].selectNode();
+
+		while (true) {
+			Node next = findNextNode();
+			if (next == null)
+				return null;
+
+			if (next.position.getX() == pointEnd.getX()
+			&& next.position.getY() == pointEnd.getY()) {
+				closedNodes.add(next);
+				return buildPath();
+			}
+
+			next.selectNode();
+		}
+	}
+
+	/**
+	 * @return Whether the search would step between the two neighbouring world tiles.
+	 */
+	boolean canStep(Point from, Point to) {
+		final int fromX = worldStart.getX() + depth - from.getX();
+		final int fromY = from.getY() - (worldStart.getY() - depth);
+		if (fromX < 0 || fromY < 0 || fromX > 2*depth || fromY > 2*depth)
+			return false;
+		final Node node = costBoard[fromX][fromY];
+		final int dx = (worldStart.getX() + depth - to.getX()) - fromX;
+		final int dy = (to.getY() - (worldStart.getY() - depth)) - fromY;
+		for (adjacent_direction dir : adjacent_direction.values()) {
+			Node neighbor = node.getNeighbor(dir);
+			if (neighbor != null && neighbor.position.getX() - fromX == dx && neighbor.position.getY() - fromY == dy)
+				return node.canMove(dir);
+		}
+		return false;
+	}
+
+	private void initBoard(Node[][] board) {
+		if (board == null)
+			return;
+
+		for(int i = 0; i < board[0].length; i++) {
+			for (int j = 0; j < board[0].length; j++) {
+				board[i][j] = new Node(i,j);
+			}
+		}
+	}
+
+	private boolean diagBlocked(Node node, adjacent_direction dir) {
+		Node neighbor1 = null;
+		Node neighbor2 = null;
+		if (dir == adjacent_direction.SOUTHWEST) {
+			neighbor1 = node.getNeighbor(adjacent_direction.WEST);
+			if (neighbor1 != null) {
+				neighbor2 = node.getNeighbor(adjacent_direction.SOUTH);
+				if (neighbor2 != null) {
+					if (!neighbor1.southBlocked && !neighbor2.westBlocked)
+						return false;
+				}
+			}
+		} else if (dir == adjacent_direction.NORTHWEST) {
+			neighbor1 = node.getNeighbor(adjacent_direction.WEST);
+			if (neighbor1 != null) {
+				neighbor2 = node.getNeighbor(adjacent_direction.NORTH);
+				if (neighbor2 != null) {
+					if (!neighbor1.northBlocked && !neighbor2.westBlocked)
+						return false;
+				}
+			}
+		} else if (dir == adjacent_direction.NORTHEAST) {
+			neighbor1 = node.getNeighbor(adjacent_direction.EAST);
+			if (neighbor1 != null) {
+				neighbor2 = node.getNeighbor(adjacent_direction.NORTH);
+				if (neighbor2 != null) {
+					if (!neighbor1.northBlocked && !neighbor2.eastBlocked)
+						return false;
+				}
+			}
+		} else if (dir == adjacent_direction.SOUTHEAST) {
+			neighbor1 = node.getNeighbor(adjacent_direction.EAST);
+			if (neighbor1 != null) {
+				neighbor2 = node.getNeighbor(adjacent_direction.SOUTH);
+				if (neighbor2 != null) {
+					if (!neighbor1.southBlocked && !neighbor2.eastBlocked)
+						return false;
+				}
+			}
+		}
+		return true;
+	}
+
+	private class Node {
+		int fCost, gCost, hCost;
+		node_state state;
+		boolean southBlocked = false;
+		boolean northBlocked = false;
+		boolean westBlocked = false;
+		boolean eastBlocked = false;
+		Point position;
+		Point parent;
+
+		Node(int x, int y) {
+			position = new Point(x,y);
+			fCost = 0;
+			gCost = 0;
+			hCost = 0;
+			state = node_state.INIT;
+		}
+
+		void setState(node_state state) {
+			this.state = state;
+		}
+
+		void update(Node node, int cost) {
+			if (this.state == node_state.INIT) {
+				this.setState(node_state.OPEN);
+				this.fCost = node.fCost + cost;
+				calcGCost();
+				openNodes.add(this);
+			} else if (this.state == node_state.CLOSED)
+				return;
+			else {
+				int newFcost = node.fCost + cost;
+				if (newFcost > this.fCost)
+					return;
+				this.fCost = newFcost;
+			}
+			calcHCost();
+			this.parent = node.position;
+		}
+
+		void calcGCost() {
+			gCost = calcDistance(this.position, pointEnd);
+		}
+
+		void calcHCost() {
+			hCost = fCost + gCost;
+		}
+
+		Node getNeighbor(adjacent_direction dir) {
+			switch (dir) {
+				case SOUTH:
+					if (position.getY() < 2*depth)
+						return costBoard[position.getX()][position.getY()+1];
+					else
+						return null;
+				case SOUTHWEST:
+					if (position.getY() < 2*depth && position.getX() > 0)
+						return costBoard[position.getX()-1][position.getY()+1];
+					else
+						return null;
+				case WEST:
+					if (position.getX() > 0)
+						return costBoard[position.getX()-1][position.getY()];
+					else
+						return null;
+				case NORTHWEST:
+					if (position.getY() > 0 && position.getX() > 0)
+						return costBoard[position.getX()-1][position.getY()-1];
+					else
+						return null;
+				case NORTH:
+					if (position.getY() > 0)
+						return costBoard[position.getX()][position.getY()-1];
+					else
+						return null;
+				case NORTHEAST:
+					if (position.getY() > 0 && position.getX() < 2*depth)
+						return costBoard[position.getX()+1][position.getY()-1];
+					else
+						return null;
+				case EAST:
+					if (position.getX() < 2*depth)
+						return costBoard[position.getX()+1][position.getY()];
+					else
+						return null;
+				case SOUTHEAST:
+					if (position.getY() < 2*depth && position.getX() < 2*depth)
+						return costBoard[position.getX()+1][position.getY()+1];
+					else
+						return null;
+			}
+			return null;
+		}
+
+		/**
+		 * The checks selectNode made before updating each neighbour.
+		 */
+		boolean canMove(adjacent_direction dir) {
+			switch (dir) {
+				case SOUTH:
+					return !southBlocked;
+				case WEST:
+					return !westBlocked;
+				case NORTH:
+					return !northBlocked;
+				case EAST:
+					return !eastBlocked;
+				case SOUTHWEST:
+					return !(southBlocked || westBlocked) && !diagBlocked(this, adjacent_direction.SOUTHWEST);
+				case NORTHWEST:
+					return !(northBlocked || westBlocked) && !diagBlocked(this, adjacent_direction.NORTHWEST);
+				case NORTHEAST:
+					return !(northBlocked || eastBlocked) && !diagBlocked(this, adjacent_direction.NORTHEAST);
+				case SOUTHEAST:
+					return !(southBlocked || eastBlocked) && !diagBlocked(this, adjacent_direction.SOUTHEAST);
+			}
+			return false;
+		}
+
+		private void selectNode() {
+			if (state == node_state.OPEN)
+				openNodes.remove(this);
+
+			setState(node_state.CLOSED);
+			closedNodes.add(this);
+			Node neighbor = null;
+			//South to SouthEast
+			if (canMove(adjacent_direction.SOUTH) && (neighbor = getNeighbor(adjacent_direction.SOUTH)) != null)
+				neighbor.update(this, basicCost);
+			if (canMove(adjacent_direction.WEST) && (neighbor = getNeighbor(adjacent_direction.WEST)) != null)
+				neighbor.update(this, basicCost);
+			if (canMove(adjacent_direction.NORTH) && (neighbor = getNeighbor(adjacent_direction.NORTH)) != null)
+				neighbor.update(this, basicCost);
+			if (canMove(adjacent_direction.EAST) && (neighbor = getNeighbor(adjacent_direction.EAST)) != null)
+				neighbor.update(this, basicCost);
+			if (canMove(adjacent_direction.SOUTHWEST) && (neighbor = getNeighbor(adjacent_direction.SOUTHWEST)) != null)
+				neighbor.update(this, diagCost);
+			if (canMove(adjacent_direction.NORTHWEST) && (neighbor = getNeighbor(adjacent_direction.NORTHWEST)) != null)
+				neighbor.update(this, diagCost);
+			if (canMove(adjacent_direction.NORTHEAST) && (neighbor = getNeighbor(adjacent_direction.NORTHEAST)) != null)
+				neighbor.update(this, diagCost);
+			if (canMove(adjacent_direction.SOUTHEAST) && (neighbor = getNeighbor(adjacent_direction.SOUTHEAST)) != null)
+				neighbor.update(this, diagCost);
+		}
+	}
+
+	private enum node_state{
+		INIT,
+		OPEN,
+		CLOSED
+	}
+
+	private enum adjacent_direction{
+		SOUTH,
+		SOUTHWEST,
+		WEST,
+		NORTHWEST,
+		NORTH,
+		NORTHEAST,
+		EAST,
+		SOUTHEAST
+	}
+}
@@ -0,0 +1,76 @@
+package com.openrsc.server.net;
+
+import io.netty.buffer.ByteBufUtil;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class BitWriterTest {
+	private static byte[] bytes(final PacketBuilder builder) {
+		final Packet packet = builder.toPacket();
+		try {
+			return ByteBufUtil.getBytes(packet.getBuffer());
+		} finally {
+			packet.release();
+		}
+	}
+
+	@Test
+	public void matchesPacketBuilderOnRandomSequences() {
+		final Random random = new Random(7);
+		final BitWriter writer = new BitWriter(1);
+		for (int sequence = 0; sequence < 2000; sequence++) {
+			final int prefix = random.nextInt(3);
+			final PacketBuilder expected = new PacketBuilder(1);
+			final PacketBuilder actual = new PacketBuilder(1);
+			for (int i = 0; i < prefix; i++) {
+				final int value = random.nextInt();
+				expected.writeByte((byte) value);
+				actual.writeByte((byte) value);
+			}
+
+			writer.reset();
+			expected.startBitAccess();
+			final int count = random.nextInt(200);
+			for (int i = 0; i < count; i++) {
+				final int numBits = 1 + random.nextInt(32);
+				final int value = random.nextInt();
+				expected.writeBits(value, numBits);
+				writer.writeBits(value, numBits);
+			}
+			expected.finishBitAccess();
+			actual.write(writer);
+
+			assertArrayEquals(bytes(expected), bytes(actual), "sequence " + sequence);
+		}
+	}
+
+	@Test
+	public void padsTheLastByteWithoutCountingIt() {
+		final BitWriter writer = new BitWriter(1);
+		writer.writeBits(1, 1);
+		assertEquals(1, writer.getLength());
+		assertEquals((byte) 0x80, writer.getBuffer()[0]);
+
+		writer.writeBits(0x7F, 7).writeBits(0x3, 2);
+		assertEquals(2, writer.getLength());
+		assertEquals((byte) 0xFF, writer.getBuffer()[0]);
+		assertEquals((byte) 0xC0, writer.getBuffer()[1]);
+	}
+
+	@Test
+	public void writesWholeBytesAndShorts() {
+		final BitWriter writer = new BitWriter();
+		writer.writeShort(0x1234).writeByte(0xAB).writeShort(-1);
+		assertEquals(5, writer.getLength());
+		final byte[] written = new byte[writer.getLength()];
+		System.arraycopy(writer.getBuffer(), 0, written, 0, written.length);
+		assertArrayEquals(new byte[] {0x12, 0x34, (byte) 0xAB, (byte) 0xFF, (byte) 0xFF}, written);
+
+		writer.reset();
+		assertEquals(0, writer.getLength());
+	}
+}
@@ -0,0 +1,35 @@
+package com.openrsc.server.net;
+
+import io.netty.util.IllegalReferenceCountException;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class PacketTest {
+	@Test
+	public void releasingTwiceThrows() {
+		final Packet packet = new PacketBuilder(5).writeInt(42).toPacket();
+		packet.release();
+		assertEquals(0, packet.getBuffer().refCnt());
+		assertThrows(IllegalReferenceCountException.class, packet::release);
+	}
+
+	@Test
+	public void duplicatesHoldTheirOwnReference() {
+		final Packet packet = new PacketBuilder(5).writeInt(42).toPacket();
+		final Packet first = packet.retainedDuplicate();
+		final Packet second = packet.retainedDuplicate();
+		assertEquals(3, packet.getBuffer().refCnt());
+
+		assertEquals(42, first.getBuffer().readInt());
+		assertEquals(42, second.getBuffer().readInt());
+		assertEquals(5, second.getID());
+
+		first.release();
+		packet.release();
+		assertEquals(1, second.getBuffer().refCnt());
+		second.release();
+		assertEquals(0, packet.getBuffer().refCnt());
+	}
+}
@@ -0,0 +1,95 @@
+package com.openrsc.server.net;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class RateLimiterTest {
+	private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+	private long now;
+
+	private RateLimiter limiter(final int limit) {
+		return new RateLimiter(limit, 1, TimeUnit.SECONDS, () -> now);
+	}
+
+	@Test
+	public void allowsAtMostLimitInAnyWindow() {
+		final int limit = 20;
+		final RateLimiter limiter = limiter(limit);
+		final Random random = new Random(17);
+		final List<Long> accepted = new ArrayList<>();
+
+		now = 0;
+		for (int i = 0; i < 200000; i++) {
+			now += random.nextInt(4) == 0 ? random.nextInt((int) (SECOND / 10)) : 0;
+			if (limiter.tryAcquire()) {
+				accepted.add(now);
+			}
+		}
+
+		// Every window of one second starting at an accepted event, which are the windows holding the most
+		int end = 0;
+		for (int start = 0; start < accepted.size(); start++) {
+			while (end < accepted.size() && accepted.get(end) - accepted.get(start) < SECOND) {
+				end++;
+			}
+			assertTrue(end - start <= limit, "accepted " + (end - start) + " within one second");
+		}
+		assertTrue(accepted.size() > limit);
+	}
+
+	@Test
+	public void burstThenRefillStaysWithinLimit() {
+		final RateLimiter limiter = limiter(10);
+		now = 0;
+		for (int i = 0; i < 10; i++) {
+			assertTrue(limiter.tryAcquire());
+		}
+		assertFalse(limiter.tryAcquire());
+
+		now = SECOND - 1;
+		assertFalse(limiter.tryAcquire());
+
+		now = SECOND;
+		for (int i = 0; i < 10; i++) {
+			assertTrue(limiter.tryAcquire());
+		}
+		assertFalse(limiter.tryAcquire());
+	}
+
+	@Test
+	public void acquireCountsTowardsTheLimit() {
+		final RateLimiter limiter = limiter(3);
+		now = 0;
+		limiter.acquire();
+		limiter.acquire();
+		limiter.acquire();
+		limiter.acquire();
+		assertEquals(3, limiter.getCount());
+		assertFalse(limiter.tryAcquire());
+
+		now = SECOND / 2;
+		assertEquals(3, limiter.getCount());
+		now = SECOND;
+		assertEquals(0, limiter.getCount());
+		assertTrue(limiter.tryAcquire());
+		assertEquals(1, limiter.getCount());
+	}
+
+	@Test
+	public void allowsNothingWithoutALimit() {
+		final RateLimiter limiter = limiter(0);
+		now = 0;
+		assertFalse(limiter.tryAcquire());
+		limiter.acquire();
+		assertEquals(0, limiter.getCount());
+	}
+}
@@ -0,0 +1,128 @@
+package com.openrsc.server.util;
+
+import com.openrsc.server.model.entity.Entity;
+import com.openrsc.server.model.entity.EntityType;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class EntityListTest {
+	private static final class TestEntity extends Entity {
+		private TestEntity() {
+			super(null, EntityType.NPC);
+		}
+
+		@Override
+		public boolean isOn(final int x, final int y) {
+			return false;
+		}
+	}
+
+	private static List<TestEntity> fill(final EntityList<TestEntity> list, final int count) {
+		final List<TestEntity> added = new ArrayList<>();
+		for (int i = 0; i < count; i++) {
+			final TestEntity entity = new TestEntity();
+			list.add(entity);
+			added.add(entity);
+		}
+		return added;
+	}
+
+	@Test
+	public void reusesTheLowestFreeIndex() {
+		final EntityList<TestEntity> list = new EntityList<>(200);
+		final List<TestEntity> added = fill(list, 150);
+		for (int i = 0; i < added.size(); i++) {
+			assertEquals(i, added.get(i).getIndex());
+		}
+
+		list.remove(added.get(130));
+		list.remove(added.get(70));
+		list.remove(added.get(3));
+		assertEquals(147, list.size());
+
+		final List<TestEntity> readded = fill(list, 4);
+		assertEquals(3, readded.get(0).getIndex());
+		assertEquals(70, readded.get(1).getIndex());
+		assertEquals(130, readded.get(2).getIndex());
+		assertEquals(150, readded.get(3).getIndex());
+		assertSame(readded.get(1), list.get(70));
+	}
+
+	@Test
+	public void growsUpToItsMaximum() {
+		final EntityList<TestEntity> list = new EntityList<>(10, 300);
+		final List<TestEntity> added = fill(list, 300);
+		assertEquals(300, list.size());
+		for (int i = 0; i < added.size(); i++) {
+			assertSame(added.get(i), list.get(i));
+		}
+
+		assertThrows(IllegalStateException.class, () -> list.add(new TestEntity()));
+		assertEquals(300, list.size());
+
+		list.remove(17);
+		final TestEntity entity = new TestEntity();
+		list.add(entity);
+		assertEquals(17, entity.getIndex());
+	}
+
+	@Test
+	public void neverGrowsWithoutAMaximum() {
+		final EntityList<TestEntity> list = new EntityList<>(64);
+		fill(list, 64);
+		assertThrows(IllegalStateException.class, () -> list.add(new TestEntity()));
+	}
+
+	@Test
+	public void iterationSeesRemovalsAsItGoes() {
+		final EntityList<TestEntity> list = new EntityList<>(100, 1000);
+		final List<TestEntity> added = fill(list, 300);
+
+		final List<TestEntity> seen = new ArrayList<>();
+		final Iterator<TestEntity> iterator = list.iterator();
+		while (iterator.hasNext()) {
+			final TestEntity entity = iterator.next();
+			seen.add(entity);
+			// Remove the entity itself and the one after next, which must then never be returned
+			list.remove(entity);
+			if (entity.getIndex() + 2 < added.size()) {
+				list.remove(added.get(entity.getIndex() + 2));
+			}
+		}
+
+		for (final TestEntity entity : seen) {
+			assertEquals(0, (entity.getIndex() / 2) % 2, "index " + entity.getIndex());
+		}
+		assertEquals(150, seen.size());
+		assertTrue(list.isEmpty());
+		assertFalse(list.iterator().hasNext());
+		assertNull(list.get(0));
+	}
+
+	@Test
+	public void iterationSeesEntitiesAddedAheadOfTheCursor() {
+		final EntityList<TestEntity> list = new EntityList<>(64, 1000);
+		final List<TestEntity> added = fill(list, 64);
+		list.remove(added.get(63));
+
+		int seen = 0;
+		for (final TestEntity entity : list) {
+			seen++;
+			if (entity.getIndex() == 10) {
+				// Takes index 63 back and grows the list past it, both after the cursor
+				fill(list, 2);
+			}
+		}
+		assertEquals(65, seen);
+	}
+}